@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code BrokerResultCache} caches the query results on the broker for the queries on the OFFLINE tables, so that
+ * repeated queries (e.g. dashboard refreshes) do not need to be scattered to the servers again. It caches either:
+ * <ul>
+ *   <li>The final broker response for the queries only hitting the OFFLINE table, which skips both the scatter-gather
+ *   and the reduce phase on a cache hit</li>
+ *   <li>The server responses for the OFFLINE part of the queries on the hybrid tables, so that only the REALTIME part
+ *   needs to be queried on a cache hit</li>
+ * </ul>
+ * <p>Each cache entry is tagged with the segments version of the OFFLINE table from the {@code BrokerRoutingManager}
+ * when the query is routed, and is invalidated once the segments of the table change. For hybrid tables, the time
+ * boundary is part of the OFFLINE query filter, so the cached server responses are not reused after the time boundary
+ * moves. The entries are evicted in LRU order when the total size exceeds the configured budget, or after the
+ * configured expiration time.
+ */
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+  private static final String BROKER_RESPONSE_KEY_PREFIX = "brokerResponse|";
+  private static final String DATA_TABLES_KEY_PREFIX = "dataTables|";
+  // Rough estimation of the per entry overhead on heap
+  private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+  private final Cache<String, CacheEntry> _cache;
+
+  public BrokerResultCache(long maxSizeInBytes, long expireMs) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size of the broker result cache must be positive, got: %s",
+        maxSizeInBytes);
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((String key, CacheEntry value) -> (int) Math.min(2L * key.length() + value._sizeInBytes,
+            Integer.MAX_VALUE)).expireAfterWrite(expireMs, TimeUnit.MILLISECONDS).build();
+  }
+
+  /**
+   * Returns whether the result of the given query can be cached.
+   */
+  public static boolean isCacheable(PinotQuery pinotQuery) {
+    if (pinotQuery.isExplain()) {
+      return false;
+    }
+    Map<String, String> queryOptions = pinotQuery.getQueryOptions();
+    if (queryOptions == null) {
+      return true;
+    }
+    return !QueryOptionsUtils.isSkipResultCache(queryOptions) && !Boolean.parseBoolean(queryOptions.get(Request.TRACE));
+  }
+
+  /**
+   * Returns the cache key for the given queries. The query options that do not affect the query result (e.g. timeout)
+   * are not part of the key.
+   */
+  public static String getCacheKey(PinotQuery... pinotQueries) {
+    StringBuilder stringBuilder = new StringBuilder();
+    for (PinotQuery pinotQuery : pinotQueries) {
+      PinotQuery pinotQueryWithoutOptions = pinotQuery.deepCopy();
+      pinotQueryWithoutOptions.setQueryOptions(null);
+      stringBuilder.append(pinotQueryWithoutOptions).append('|');
+      Map<String, String> queryOptions = pinotQuery.getQueryOptions();
+      if (queryOptions != null) {
+        Map<String, String> sortedQueryOptions = new TreeMap<>(queryOptions);
+        sortedQueryOptions.remove(QueryOptionKey.TIMEOUT_MS);
+        sortedQueryOptions.remove(Request.TRACE);
+        if (!sortedQueryOptions.isEmpty()) {
+          stringBuilder.append(sortedQueryOptions);
+        }
+      }
+      stringBuilder.append('|');
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Returns a copy of the cached broker response, or {@code null} if it does not exist or the segments of the table
+   * have changed.
+   */
+  @Nullable
+  public BrokerResponseNative getBrokerResponse(String cacheKey, long segmentsVersion) {
+    CacheEntry cacheEntry = getCacheEntry(BROKER_RESPONSE_KEY_PREFIX + cacheKey, segmentsVersion);
+    if (cacheEntry == null) {
+      return null;
+    }
+    try {
+      return BrokerResponseNative.fromJsonString(cacheEntry._brokerResponse);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while deserializing the cached broker response, invalidating it", e);
+      _cache.invalidate(BROKER_RESPONSE_KEY_PREFIX + cacheKey);
+      return null;
+    }
+  }
+
+  public void putBrokerResponse(String cacheKey, long segmentsVersion, BrokerResponseNative brokerResponse) {
+    String serializedBrokerResponse;
+    try {
+      serializedBrokerResponse = brokerResponse.toJsonString();
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while serializing the broker response, skipping caching it", e);
+      return;
+    }
+    _cache.put(BROKER_RESPONSE_KEY_PREFIX + cacheKey,
+        new CacheEntry(segmentsVersion, serializedBrokerResponse, null, 2L * serializedBrokerResponse.length()));
+  }
+
+  /**
+   * Returns a copy of the cached server responses, or {@code null} if they do not exist or the segments of the table
+   * have changed.
+   */
+  @Nullable
+  public Map<ServerRoutingInstance, DataTable> getDataTables(String cacheKey, long segmentsVersion) {
+    CacheEntry cacheEntry = getCacheEntry(DATA_TABLES_KEY_PREFIX + cacheKey, segmentsVersion);
+    if (cacheEntry == null) {
+      return null;
+    }
+    Map<ServerRoutingInstance, byte[]> serializedDataTables = cacheEntry._dataTables;
+    assert serializedDataTables != null;
+    Map<ServerRoutingInstance, DataTable> dataTables =
+        new HashMap<>(HashUtil.getHashMapCapacity(serializedDataTables.size()));
+    try {
+      // NOTE: Deserialize a new DataTable for each query because DataTable is not thread-safe
+      for (Map.Entry<ServerRoutingInstance, byte[]> entry : serializedDataTables.entrySet()) {
+        dataTables.put(entry.getKey(), DataTableFactory.getDataTable(entry.getValue()));
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while deserializing the cached server responses, invalidating them", e);
+      _cache.invalidate(DATA_TABLES_KEY_PREFIX + cacheKey);
+      return null;
+    }
+    return dataTables;
+  }
+
+  public void putDataTables(String cacheKey, long segmentsVersion, Map<ServerRoutingInstance, DataTable> dataTables) {
+    Map<ServerRoutingInstance, byte[]> serializedDataTables =
+        new HashMap<>(HashUtil.getHashMapCapacity(dataTables.size()));
+    long sizeInBytes = 0;
+    try {
+      for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTables.entrySet()) {
+        byte[] bytes = entry.getValue().toBytes();
+        serializedDataTables.put(entry.getKey(), bytes);
+        sizeInBytes += ENTRY_OVERHEAD_BYTES + bytes.length;
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while serializing the server responses, skipping caching them", e);
+      return;
+    }
+    _cache.put(DATA_TABLES_KEY_PREFIX + cacheKey,
+        new CacheEntry(segmentsVersion, null, serializedDataTables, sizeInBytes));
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  @Nullable
+  private CacheEntry getCacheEntry(String key, long segmentsVersion) {
+    CacheEntry cacheEntry = _cache.getIfPresent(key);
+    if (cacheEntry == null) {
+      return null;
+    }
+    if (cacheEntry._segmentsVersion != segmentsVersion) {
+      // Segments have changed since the entry was cached
+      _cache.asMap().remove(key, cacheEntry);
+      return null;
+    }
+    return cacheEntry;
+  }
+
+  private static class CacheEntry {
+    final long _segmentsVersion;
+    final String _brokerResponse;
+    final Map<ServerRoutingInstance, byte[]> _dataTables;
+    final long _sizeInBytes;
+
+    CacheEntry(long segmentsVersion, @Nullable String brokerResponse,
+        @Nullable Map<ServerRoutingInstance, byte[]> dataTables, long sizeInBytes) {
+      _segmentsVersion = segmentsVersion;
+      _brokerResponse = brokerResponse;
+      _dataTables = dataTables;
+      _sizeInBytes = ENTRY_OVERHEAD_BYTES + sizeInBytes;
+    }
+  }
+}
@@ -50,6 +50,7 @@ import org.apache.http.util.EntityUtils;
 import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.querylog.QueryLogger;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
@@ -143,6 +144,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   protected final int _queryResponseLimit;
   protected final QueryLogger _queryLogger;
   protected final BrokerQueryEventListener _brokerQueryEventListener;
+  // Null when the broker result cache is disabled
+  protected final BrokerResultCache _resultCache;
 
   private final boolean _disableGroovy;
   private final boolean _useApproximateFunction;
@@ -178,10 +181,17 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         Boolean.parseBoolean(config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_QUERY_CANCELLATION));
     _queriesById = enableQueryCancellation ? new ConcurrentHashMap<>() : null;
     _brokerQueryEventListener = brokerQueryEventListener;
+    long resultCacheMaxSizeBytes = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES);
+    long resultCacheExpireMs = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_EXPIRE_MS,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_EXPIRE_MS);
+    _resultCache =
+        resultCacheMaxSizeBytes > 0 ? new BrokerResultCache(resultCacheMaxSizeBytes, resultCacheExpireMs) : null;
     LOGGER.info(
         "Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps, "
-            + "enabling query cancellation: {}", _brokerId, _brokerTimeoutMs, _queryResponseLimit,
-        _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(), enableQueryCancellation);
+            + "enabling query cancellation: {}, result cache max size: {}bytes", _brokerId, _brokerTimeoutMs,
+        _queryResponseLimit, _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(),
+        enableQueryCancellation, resultCacheMaxSizeBytes);
   }
 
   @Override
@@ -591,6 +601,30 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         realtimeBrokerRequest.getPinotQuery().setFilterExpression(null);
       }
 
+      // Look up the result cache for the OFFLINE table
+      // NOTE: Read the segments version before calculating the routing so that the results computed on the stale
+      //       segments are never cached with the new segments version.
+      String resultCacheKey = null;
+      Long offlineSegmentsVersion = null;
+      if (_resultCache != null && offlineBrokerRequest != null && BrokerResultCache.isCacheable(pinotQuery)
+          && !requestContext.isSampledRequest()) {
+        offlineSegmentsVersion = _routingManager.getSegmentsVersion(offlineTableName);
+        if (offlineSegmentsVersion != null && realtimeBrokerRequest == null) {
+          PinotQuery offlinePinotQuery = offlineBrokerRequest.getPinotQuery();
+          resultCacheKey = offlinePinotQuery == pinotQuery ? BrokerResultCache.getCacheKey(pinotQuery)
+              : BrokerResultCache.getCacheKey(pinotQuery, offlinePinotQuery);
+          BrokerResponseNative cachedBrokerResponse =
+              _resultCache.getBrokerResponse(resultCacheKey, offlineSegmentsVersion);
+          if (cachedBrokerResponse != null) {
+            _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+            _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_REDUCE_SKIPS, 1);
+            return getCachedBrokerResponse(requestId, query, requesterIdentity, requestContext, tableName,
+                rawTableName, cachedBrokerResponse, compilationStartTimeNs);
+          }
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+        }
+      }
+
       // Calculate routing table for the query
       // TODO: Modify RoutingManager interface to directly take PinotQuery
       long routingStartTimeNs = System.nanoTime();
@@ -756,16 +790,16 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         LOGGER.debug("Keep track of running query: {}", requestId);
         try {
           brokerResponse = processBrokerRequest(requestId, brokerRequest, serverBrokerRequest, offlineBrokerRequest,
-              offlineRoutingTable, realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats,
-              requestContext);
+              offlineRoutingTable, realtimeBrokerRequest, realtimeRoutingTable, offlineSegmentsVersion,
+              remainingTimeMs, serverStats, requestContext);
         } finally {
           _queriesById.remove(requestId);
           LOGGER.debug("Remove track of running query: {}", requestId);
         }
       } else {
         brokerResponse = processBrokerRequest(requestId, brokerRequest, serverBrokerRequest, offlineBrokerRequest,
-            offlineRoutingTable, realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats,
-            requestContext);
+            offlineRoutingTable, realtimeBrokerRequest, realtimeRoutingTable, offlineSegmentsVersion, remainingTimeMs,
+            serverStats, requestContext);
       }
 
       brokerResponse.setExceptions(exceptions);
@@ -780,6 +814,9 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
             1);
       }
       brokerResponse.setPartialResult(isPartialResult(brokerResponse));
+      if (resultCacheKey != null && brokerResponse.getExceptionsSize() == 0) {
+        _resultCache.putBrokerResponse(resultCacheKey, offlineSegmentsVersion, brokerResponse);
+      }
 
       // Set total query processing time
       long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(executionEndTimeNs - compilationStartTimeNs);
@@ -816,6 +853,21 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     return brokerResponse;
   }
 
+  private BrokerResponseNative getCachedBrokerResponse(long requestId, String query,
+      @Nullable RequesterIdentity requesterIdentity, RequestContext requestContext, String tableName,
+      String rawTableName, BrokerResponseNative brokerResponse, long compilationStartTimeNs) {
+    long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compilationStartTimeNs);
+    brokerResponse.setTimeUsedMs(totalTimeMs);
+    requestContext.setQueryProcessingTime(totalTimeMs);
+    augmentStatistics(requestContext, brokerResponse);
+    _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.QUERY_TOTAL_TIME_MS, totalTimeMs,
+        TimeUnit.MILLISECONDS);
+    _queryLogger.log(
+        new QueryLogger.QueryLogParams(requestId, query, requestContext, tableName, 0, null, brokerResponse,
+            totalTimeMs, requesterIdentity));
+    return brokerResponse;
+  }
+
   private void handleTimestampIndexOverride(PinotQuery pinotQuery, @Nullable TableConfig tableConfig) {
     if (tableConfig == null || tableConfig.getFieldConfigList() == null) {
       return;
@@ -1843,19 +1895,22 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
   /**
    * Processes the optimized broker requests for both OFFLINE and REALTIME table.
+   * The offline segments version is the segments version of the OFFLINE table read before calculating the routing. It
+   * is only provided when the result cache is enabled and the query is cacheable, and can be used to cache the OFFLINE
+   * part of the hybrid table query.
    * TODO: Directly take PinotQuery
    */
   protected abstract BrokerResponseNative processBrokerRequest(long requestId, BrokerRequest originalBrokerRequest,
       BrokerRequest serverBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
       @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest,
-      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs,
-      ServerStats serverStats, RequestContext requestContext)
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable,
+      @Nullable Long offlineSegmentsVersion, long timeoutMs, ServerStats serverStats, RequestContext requestContext)
       throws Exception;
 
   protected static boolean isPartialResult(BrokerResponse brokerResponse) {
     return brokerResponse.isNumGroupsLimitReached() || brokerResponse.isMaxRowsInJoinReached()
-        || brokerResponse.getExceptionsSize() > 0;
+        || brokerResponse.isMemoryBudgetExceeded() || brokerResponse.getExceptionsSize() > 0;
   }
 
   protected static void augmentStatistics(RequestContext statistics, BrokerResponse response) {
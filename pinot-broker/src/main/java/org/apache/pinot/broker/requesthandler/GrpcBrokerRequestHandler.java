@@ -91,8 +91,8 @@ public class GrpcBrokerRequestHandler extends BaseBrokerRequestHandler {
       BrokerRequest serverBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
       @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest,
-      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs,
-      ServerStats serverStats, RequestContext requestContext)
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable,
+      @Nullable Long offlineSegmentsVersion, long timeoutMs, ServerStats serverStats, RequestContext requestContext)
       throws Exception {
     // TODO: Support failure detection
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
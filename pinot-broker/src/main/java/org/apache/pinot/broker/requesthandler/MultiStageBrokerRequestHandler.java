@@ -317,8 +317,8 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
       BrokerRequest serverBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
       @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest,
-      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs,
-      ServerStats serverStats, RequestContext requestContext)
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable,
+      @Nullable Long offlineSegmentsVersion, long timeoutMs, ServerStats serverStats, RequestContext requestContext)
       throws Exception {
     throw new UnsupportedOperationException();
   }
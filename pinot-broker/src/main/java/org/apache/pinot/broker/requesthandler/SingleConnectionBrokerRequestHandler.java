@@ -27,6 +27,7 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.failuredetector.FailureDetector;
 import org.apache.pinot.broker.failuredetector.FailureDetectorFactory;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
@@ -51,6 +52,7 @@ import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.core.transport.ServerResponse;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
 import org.apache.pinot.core.transport.server.routing.stats.ServerRoutingStatsManager;
+import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.eventlistener.query.BrokerQueryEventListener;
 import org.apache.pinot.spi.trace.RequestContext;
@@ -104,8 +106,8 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
       BrokerRequest serverBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
       @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest,
-      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs,
-      ServerStats serverStats, RequestContext requestContext)
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable,
+      @Nullable Long offlineSegmentsVersion, long timeoutMs, ServerStats serverStats, RequestContext requestContext)
       throws Exception {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
     if (requestContext.isSampledRequest()) {
@@ -113,6 +115,23 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
     }
 
     String rawTableName = TableNameBuilder.extractRawTableName(serverBrokerRequest.getQuerySource().getTableName());
+
+    // Serve the OFFLINE part of the hybrid table query from the result cache if possible
+    String offlineResultCacheKey = null;
+    Map<ServerRoutingInstance, DataTable> cachedOfflineDataTables = null;
+    if (offlineSegmentsVersion != null && offlineBrokerRequest != null && realtimeBrokerRequest != null) {
+      assert _resultCache != null;
+      offlineResultCacheKey = BrokerResultCache.getCacheKey(offlineBrokerRequest.getPinotQuery());
+      cachedOfflineDataTables = _resultCache.getDataTables(offlineResultCacheKey, offlineSegmentsVersion);
+      if (cachedOfflineDataTables != null) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+        offlineBrokerRequest = null;
+        offlineRoutingTable = null;
+      } else {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+      }
+    }
+
     long scatterGatherStartTimeNs = System.nanoTime();
     AsyncQueryResponse asyncQueryResponse =
         _queryRouter.submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable,
@@ -143,6 +162,12 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
       }
     }
     int numServersResponded = dataTableMap.size();
+    if (cachedOfflineDataTables != null) {
+      dataTableMap.putAll(cachedOfflineDataTables);
+    } else if (offlineResultCacheKey != null && asyncQueryResponse.getException() == null
+        && serversNotResponded.isEmpty()) {
+      cacheOfflineDataTables(offlineResultCacheKey, offlineSegmentsVersion, dataTableMap);
+    }
 
     long reduceStartTimeNs = System.nanoTime();
     long reduceTimeOutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
@@ -177,6 +202,26 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
     return brokerResponse;
   }
 
+  /**
+   * Caches the OFFLINE server responses when all of them are processed without exception.
+   */
+  private void cacheOfflineDataTables(String cacheKey, long segmentsVersion,
+      Map<ServerRoutingInstance, DataTable> dataTableMap) {
+    Map<ServerRoutingInstance, DataTable> offlineDataTables = new HashMap<>();
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+      if (entry.getKey().getTableType() == TableType.OFFLINE) {
+        DataTable dataTable = entry.getValue();
+        if (!dataTable.getExceptions().isEmpty()) {
+          return;
+        }
+        offlineDataTables.put(entry.getKey(), dataTable);
+      }
+    }
+    if (!offlineDataTables.isEmpty()) {
+      _resultCache.putDataTables(cacheKey, segmentsVersion, offlineDataTables);
+    }
+  }
+
   @Override
   public void notifyUnhealthyServer(String instanceId, FailureDetector failureDetector) {
     _routingManager.excludeServerFromRouting(instanceId);
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.helix.AccessOption;
@@ -107,6 +108,9 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
   private final Set<String> _excludedServers = new HashSet<>();
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
   private final PinotConfiguration _pinotConfig;
+  // NOTE: Segments versions are generated from a single counter so that a rebuilt routing entry never reuses the
+  //       version of the previous routing entry for the same table
+  private final AtomicLong _segmentsVersionGenerator = new AtomicLong();
 
   private BaseDataAccessor<ZNRecord> _zkDataAccessor;
   private String _externalViewPathPrefix;
@@ -191,6 +195,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
               continue;
             }
             routingEntry.onAssignmentChange(idealState, externalView);
+            routingEntry.setSegmentsVersion(_segmentsVersionGenerator.incrementAndGet());
           } catch (Exception e) {
             LOGGER.error(
                 "Caught unexpected exception while updating routing entry on segment assignment change for table: {}",
@@ -528,6 +533,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
         new RoutingEntry(tableNameWithType, idealStatePath, externalViewPath, segmentPreSelector, segmentSelector,
             segmentPruners, instanceSelector, idealStateVersion, externalViewVersion, segmentZkMetadataFetcher,
             timeBoundaryManager, partitionMetadataManager, queryTimeoutMs);
+    routingEntry.setSegmentsVersion(_segmentsVersionGenerator.incrementAndGet());
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -583,6 +589,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
     if (routingEntry != null) {
       routingEntry.refreshSegment(segment);
+      routingEntry.setSegmentsVersion(_segmentsVersionGenerator.incrementAndGet());
       LOGGER.info("Refreshed segment: {} for table: {}", segment, tableNameWithType);
     } else {
       LOGGER.warn("Routing does not exist for table: {}, skipping refreshing segment", tableNameWithType);
@@ -695,6 +702,17 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     return routingEntry._instanceSelector.getServingInstances();
   }
 
+  /**
+   * Returns the version of the segments for the given table, or {@code null} if the routing does not exist. The version
+   * changes whenever the segment assignment of the table changes or a segment of the table is refreshed, so it can be
+   * used to invalidate the cached query results for the table.
+   */
+  @Nullable
+  public Long getSegmentsVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getSegmentsVersion() : null;
+  }
+
   /**
    * Returns the table-level query timeout in milliseconds for the given table, or {@code null} if the timeout is not
    * configured in the table config.
@@ -722,6 +740,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    transient volatile long _segmentsVersion;
 
     RoutingEntry(String tableNameWithType, String idealStatePath, String externalViewPath,
         SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
@@ -773,6 +792,14 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _queryTimeoutMs;
     }
 
+    long getSegmentsVersion() {
+      return _segmentsVersion;
+    }
+
+    void setSegmentsVersion(long segmentsVersion) {
+      _segmentsVersion = segmentsVersion;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
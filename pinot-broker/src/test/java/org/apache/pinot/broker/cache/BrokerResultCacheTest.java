@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class BrokerResultCacheTest {
+
+  @Test
+  public void testIsCacheable() {
+    assertTrue(BrokerResultCache.isCacheable(CalciteSqlParser.compileToPinotQuery("SELECT COUNT(*) FROM myTable")));
+    assertFalse(BrokerResultCache.isCacheable(
+        CalciteSqlParser.compileToPinotQuery("SET useResultCache = false; SELECT COUNT(*) FROM myTable")));
+    assertFalse(BrokerResultCache.isCacheable(
+        CalciteSqlParser.compileToPinotQuery("SET trace = true; SELECT COUNT(*) FROM myTable")));
+    assertFalse(BrokerResultCache.isCacheable(
+        CalciteSqlParser.compileToPinotQuery("EXPLAIN PLAN FOR SELECT COUNT(*) FROM myTable")));
+  }
+
+  @Test
+  public void testCacheKey() {
+    String cacheKey =
+        BrokerResultCache.getCacheKey(CalciteSqlParser.compileToPinotQuery("SELECT COUNT(*) FROM myTable"));
+    // Timeout does not affect the query result
+    assertEquals(BrokerResultCache.getCacheKey(
+        CalciteSqlParser.compileToPinotQuery("SET timeoutMs = 1000; SELECT COUNT(*) FROM myTable")), cacheKey);
+    assertNotEquals(BrokerResultCache.getCacheKey(
+        CalciteSqlParser.compileToPinotQuery("SET enableNullHandling = true; SELECT COUNT(*) FROM myTable")), cacheKey);
+    assertNotEquals(BrokerResultCache.getCacheKey(
+        CalciteSqlParser.compileToPinotQuery("SELECT COUNT(*) FROM myTable WHERE col > 1")), cacheKey);
+  }
+
+  @Test
+  public void testBrokerResponse() {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024, 3_600_000L);
+    String cacheKey =
+        BrokerResultCache.getCacheKey(CalciteSqlParser.compileToPinotQuery("SELECT COUNT(*) FROM myTable"));
+    assertNull(resultCache.getBrokerResponse(cacheKey, 1));
+
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setResultTable(
+        new ResultTable(new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG}),
+            Collections.singletonList(new Object[]{100L})));
+    brokerResponse.setNumDocsScanned(100);
+    brokerResponse.setTotalDocs(100);
+    resultCache.putBrokerResponse(cacheKey, 1, brokerResponse);
+    assertEquals(resultCache.size(), 1);
+
+    BrokerResponseNative cachedBrokerResponse = resultCache.getBrokerResponse(cacheKey, 1);
+    assertNotNull(cachedBrokerResponse);
+    assertNotSame(cachedBrokerResponse, brokerResponse);
+    assertEquals(cachedBrokerResponse.getNumDocsScanned(), 100);
+    assertEquals(cachedBrokerResponse.getTotalDocs(), 100);
+    assertEquals(((Number) cachedBrokerResponse.getResultTable().getRows().get(0)[0]).longValue(), 100L);
+
+    // Segments changed
+    assertNull(resultCache.getBrokerResponse(cacheKey, 2));
+    assertEquals(resultCache.size(), 0);
+    assertNull(resultCache.getBrokerResponse(cacheKey, 1));
+  }
+
+  @Test
+  public void testDataTables()
+      throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024, 3_600_000L);
+    String cacheKey = BrokerResultCache.getCacheKey(
+        CalciteSqlParser.compileToPinotQuery("SELECT col1, COUNT(*) FROM myTable_OFFLINE GROUP BY col1"));
+    assertNull(resultCache.getDataTables(cacheKey, 1));
+
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"col1", "count(*)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG});
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+    int numGroups = 10;
+    for (int i = 0; i < numGroups; i++) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, i);
+      dataTableBuilder.setColumn(1, (long) i);
+      dataTableBuilder.finishRow();
+    }
+    ServerRoutingInstance serverRoutingInstance = new ServerRoutingInstance("localhost", 1234, TableType.OFFLINE);
+    resultCache.putDataTables(cacheKey, 1, Collections.singletonMap(serverRoutingInstance, dataTableBuilder.build()));
+
+    // Each cache hit should return a separate copy of the data tables
+    for (int i = 0; i < 2; i++) {
+      Map<ServerRoutingInstance, DataTable> cachedDataTables = resultCache.getDataTables(cacheKey, 1);
+      assertNotNull(cachedDataTables);
+      assertEquals(cachedDataTables.size(), 1);
+      DataTable cachedDataTable = cachedDataTables.get(serverRoutingInstance);
+      assertNotNull(cachedDataTable);
+      assertEquals(cachedDataTable.getDataSchema(), dataSchema);
+      assertEquals(cachedDataTable.getNumberOfRows(), numGroups);
+      for (int j = 0; j < numGroups; j++) {
+        assertEquals(cachedDataTable.getInt(j, 0), j);
+        assertEquals(cachedDataTable.getLong(j, 1), j);
+      }
+    }
+
+    // Segments changed
+    assertNull(resultCache.getDataTables(cacheKey, 2));
+    assertEquals(resultCache.size(), 0);
+  }
+}
@@ -226,8 +226,9 @@ public class BaseBrokerRequestHandlerTest {
               BrokerRequest serverBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
               @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
               @Nullable BrokerRequest realtimeBrokerRequest,
-              @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs,
-              ServerStats serverStats, RequestContext requestContext)
+              @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable,
+              @Nullable Long offlineSegmentsVersion, long timeoutMs, ServerStats serverStats,
+              RequestContext requestContext)
               throws Exception {
             testRequestId[0] = requestId;
             latch.await();
@@ -34,7 +34,6 @@ import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.common.utils.RoaringBitmapUtils;
-import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.apache.pinot.spi.utils.BigDecimalUtils;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.roaringbitmap.RoaringBitmap;
@@ -175,32 +174,62 @@ public abstract class BaseDataBlock implements DataBlock {
       _dataSchema = null;
     }
 
-    // Read fixed size data.
-    if (fixedSizeDataLength != 0) {
-      _fixedSizeDataBytes = new byte[fixedSizeDataLength];
-      byteBuffer.position(fixedSizeDataStart);
-      byteBuffer.get(_fixedSizeDataBytes);
-      _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
-    } else {
-      _fixedSizeDataBytes = null;
-      _fixedSizeData = null;
-    }
-
-    // Read variable size data.
-    _variableSizeDataBytes = new byte[variableSizeDataLength];
-    if (variableSizeDataLength != 0) {
-      byteBuffer.position(variableSizeDataStart);
-      byteBuffer.get(_variableSizeDataBytes);
-    }
-    _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
+    // Read fixed size data and variable size data.
+    // NOTE: The data sections are sliced from the given buffer without copying the bytes, and the bytes are only
+    //       materialized when needed (e.g. re-serializing the data block). The given buffer should not be modified
+    //       after constructing the data block.
+    _fixedSizeDataBytes = null;
+    _fixedSizeData = fixedSizeDataLength != 0 ? slice(byteBuffer, fixedSizeDataStart, fixedSizeDataLength) : null;
+    _variableSizeDataBytes = null;
+    _variableSizeData = slice(byteBuffer, variableSizeDataStart, variableSizeDataLength);
 
     // Read metadata.
+    byteBuffer.position(variableSizeDataStart + variableSizeDataLength);
     int metadataLength = byteBuffer.getInt();
     if (metadataLength != 0) {
       _metadata = deserializeMetadata(byteBuffer);
     }
   }
 
+  private static ByteBuffer slice(ByteBuffer byteBuffer, int start, int length) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    duplicate.position(start);
+    duplicate.limit(start + length);
+    return duplicate.slice();
+  }
+
+  /**
+   * Returns the bytes of the fixed size data, which are copied from the underlying buffer on the first call if the
+   * data block is deserialized from a buffer.
+   */
+  @Nullable
+  protected byte[] getFixedSizeDataBytes() {
+    if (_fixedSizeDataBytes == null && _fixedSizeData != null) {
+      _fixedSizeDataBytes = copyBytes(_fixedSizeData);
+    }
+    return _fixedSizeDataBytes;
+  }
+
+  /**
+   * Returns the bytes of the variable size data, which are copied from the underlying buffer on the first call if the
+   * data block is deserialized from a buffer.
+   */
+  @Nullable
+  protected byte[] getVariableSizeDataBytes() {
+    if (_variableSizeDataBytes == null && _variableSizeData != null) {
+      _variableSizeDataBytes = copyBytes(_variableSizeData);
+    }
+    return _variableSizeDataBytes;
+  }
+
+  private static byte[] copyBytes(ByteBuffer byteBuffer) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    duplicate.clear();
+    byte[] bytes = new byte[duplicate.remaining()];
+    duplicate.get(bytes);
+    return bytes;
+  }
+
   @Override
   public int getVersion() {
     return 0;
@@ -432,96 +461,75 @@ public abstract class BaseDataBlock implements DataBlock {
     return _errCodeToExceptionMap;
   }
 
+  /**
+   * Serializes the data block into a byte array of the exact size, where the fixed size data and variable size data are
+   * directly copied from the underlying buffers without intermediate streams.
+   */
   @Override
   public byte[] toBytes()
       throws IOException {
-    ThreadResourceUsageProvider threadResourceUsageProvider = new ThreadResourceUsageProvider();
-
-    UnsynchronizedByteArrayOutputStream byteArrayOutputStream = new UnsynchronizedByteArrayOutputStream(8192);
-    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-    writeLeadingSections(dataOutputStream);
-
-    // Write metadata: length followed by actual metadata bytes.
+    byte[] exceptionsBytes = serializeExceptions();
+    byte[] dictionaryBytes = _stringDictionary != null ? serializeStringDictionary() : null;
+    byte[] dataSchemaBytes = _dataSchema != null ? _dataSchema.toBytes() : null;
+    int fixedSizeDataLength = getDataLength(_fixedSizeData);
+    int variableSizeDataLength = getDataLength(_variableSizeData);
     // NOTE: We ignore metadata serialization time in "responseSerializationCpuTimeNs" as it's negligible while
     // considering it will bring a lot code complexity.
     byte[] metadataBytes = serializeMetadata();
-    dataOutputStream.writeInt(metadataBytes.length);
-    dataOutputStream.write(metadataBytes);
 
-    return byteArrayOutputStream.toByteArray();
-  }
+    int dictionaryLength = dictionaryBytes != null ? dictionaryBytes.length : 0;
+    int dataSchemaLength = dataSchemaBytes != null ? dataSchemaBytes.length : 0;
+    byte[] bytes = new byte[HEADER_SIZE + exceptionsBytes.length + dictionaryLength + dataSchemaLength
+        + fixedSizeDataLength + variableSizeDataLength + Integer.BYTES + metadataBytes.length];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
 
-  private void writeLeadingSections(DataOutputStream dataOutputStream)
-      throws IOException {
-    dataOutputStream.writeInt(getDataBlockVersionType());
-    dataOutputStream.writeInt(_numRows);
-    dataOutputStream.writeInt(_numColumns);
+    // Write header with the offset (START|SIZE) of each section.
+    byteBuffer.putInt(getDataBlockVersionType());
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
     int dataOffset = HEADER_SIZE;
-
-    // Write exceptions section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    byte[] exceptionsBytes;
-    exceptionsBytes = serializeExceptions();
-    dataOutputStream.writeInt(exceptionsBytes.length);
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(exceptionsBytes.length);
     dataOffset += exceptionsBytes.length;
-
-    // Write dictionary map section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    byte[] dictionaryBytes = null;
-    if (_stringDictionary != null) {
-      dictionaryBytes = serializeStringDictionary();
-      dataOutputStream.writeInt(dictionaryBytes.length);
-      dataOffset += dictionaryBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
-
-    // Write data schema section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    byte[] dataSchemaBytes = null;
-    if (_dataSchema != null) {
-      dataSchemaBytes = _dataSchema.toBytes();
-      dataOutputStream.writeInt(dataSchemaBytes.length);
-      dataOffset += dataSchemaBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
-
-    // Write fixed size data section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.writeInt(_fixedSizeDataBytes.length);
-      dataOffset += _fixedSizeDataBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
-
-    // Write variable size data section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.writeInt(_variableSizeDataBytes.length);
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dictionaryLength);
+    dataOffset += dictionaryLength;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaLength);
+    dataOffset += dataSchemaLength;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(fixedSizeDataLength);
+    dataOffset += fixedSizeDataLength;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(variableSizeDataLength);
 
     // Write actual data.
-    // Write exceptions bytes.
-    dataOutputStream.write(exceptionsBytes);
-    // Write dictionary map bytes.
+    byteBuffer.put(exceptionsBytes);
     if (dictionaryBytes != null) {
-      dataOutputStream.write(dictionaryBytes);
+      byteBuffer.put(dictionaryBytes);
     }
-    // Write data schema bytes.
     if (dataSchemaBytes != null) {
-      dataOutputStream.write(dataSchemaBytes);
-    }
-    // Write fixed size data bytes.
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.write(_fixedSizeDataBytes);
+      byteBuffer.put(dataSchemaBytes);
     }
-    // Write variable size data bytes.
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.write(_variableSizeDataBytes);
+    putData(byteBuffer, _fixedSizeData);
+    putData(byteBuffer, _variableSizeData);
+
+    // Write metadata: length followed by actual metadata bytes.
+    byteBuffer.putInt(metadataBytes.length);
+    byteBuffer.put(metadataBytes);
+
+    return bytes;
+  }
+
+  private static int getDataLength(@Nullable ByteBuffer data) {
+    return data != null ? data.capacity() : 0;
+  }
+
+  private static void putData(ByteBuffer byteBuffer, @Nullable ByteBuffer data) {
+    if (data != null) {
+      ByteBuffer duplicate = data.duplicate();
+      duplicate.clear();
+      byteBuffer.put(duplicate);
     }
   }
 
@@ -89,7 +89,8 @@ public class ColumnarDataBlock extends BaseDataBlock {
 
   @Override
   public ColumnarDataBlock toDataOnlyDataTable() {
-    return new ColumnarDataBlock(_numRows, _dataSchema, _stringDictionary, _fixedSizeDataBytes, _variableSizeDataBytes);
+    return new ColumnarDataBlock(_numRows, _dataSchema, _stringDictionary,
+        getFixedSizeDataBytes(), getVariableSizeDataBytes());
   }
 
   // TODO: add whole-column access methods.
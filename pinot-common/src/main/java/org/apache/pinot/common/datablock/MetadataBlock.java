@@ -53,7 +53,14 @@ public class MetadataBlock extends BaseDataBlock {
      * some error during computation. To retrieve the error that
      * occurred, use {@link MetadataBlock#getExceptions()}
      */
-    ERROR
+    ERROR,
+
+    /**
+     * A {@code NOOP} metadata block indicates that there is no data ready to be returned yet (e.g. waiting on the
+     * mailbox), and the caller should yield and retry later. It is only used within an operator chain and is never
+     * sent through the mailboxes.
+     */
+    NOOP
   }
 
   /**
@@ -118,8 +125,8 @@ public class MetadataBlock extends BaseDataBlock {
   public MetadataBlock(ByteBuffer byteBuffer)
       throws IOException {
     super(byteBuffer);
-    if (_variableSizeDataBytes != null && _variableSizeDataBytes.length > 0) {
-      _contents = JSON.readValue(_variableSizeDataBytes, Contents.class);
+    if (_variableSizeData.capacity() > 0) {
+      _contents = JSON.readValue(getVariableSizeDataBytes(), Contents.class);
     } else {
       _contents = new Contents();
     }
@@ -82,7 +82,8 @@ public class RowDataBlock extends BaseDataBlock {
 
   @Override
   public RowDataBlock toDataOnlyDataTable() {
-    return new RowDataBlock(_numRows, _dataSchema, _stringDictionary, _fixedSizeDataBytes, _variableSizeDataBytes);
+    return new RowDataBlock(_numRows, _dataSchema, _stringDictionary, getFixedSizeDataBytes(),
+        getVariableSizeDataBytes());
   }
 
   public int getRowSizeInBytes() {
@@ -135,11 +135,16 @@ public interface DataTable {
     OPERATOR_ID(31, "operatorId", MetadataValueType.STRING),
     OPERATOR_EXEC_START_TIME_MS(32, "operatorExecStartTimeMs", MetadataValueType.LONG),
     OPERATOR_EXEC_END_TIME_MS(33, "operatorExecEndTimeMs", MetadataValueType.LONG),
-    MAX_ROWS_IN_JOIN_REACHED(34, "maxRowsInJoinReached", MetadataValueType.STRING);
+    MAX_ROWS_IN_JOIN_REACHED(34, "maxRowsInJoinReached", MetadataValueType.STRING),
+    MIN_TASK_EXECUTION_TIME_MS(35, "minTaskExecutionTimeMs", MetadataValueType.LONG),
+    MAX_TASK_EXECUTION_TIME_MS(36, "maxTaskExecutionTimeMs", MetadataValueType.LONG),
+    MEMORY_BUDGET_EXCEEDED(37, "memoryBudgetExceeded", MetadataValueType.STRING),
+    NUM_HOT_KEYS(38, "numHotKeys", MetadataValueType.INT),
+    EXCHANGE_SKEW_RATIO(39, "exchangeSkewRatio", MetadataValueType.STRING);
 
     // We keep this constant to track the max id added so far for backward compatibility.
     // Increase it when adding new keys, but NEVER DECREASE IT!!!
-    private static final int MAX_ID = 34;
+    private static final int MAX_ID = 39;
 
     private static final MetadataKey[] ID_TO_ENUM_KEY_MAP = new MetadataKey[MAX_ID + 1];
     private static final Map<String, MetadataKey> NAME_TO_ENUM_KEY_MAP = new HashMap<>();
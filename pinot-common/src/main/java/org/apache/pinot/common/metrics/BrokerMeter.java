@@ -31,6 +31,11 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   HEALTHCHECK_OK_CALLS("healthcheck", true),
   QUERIES("queries", false),
 
+  // Broker result cache lookups. A hit on the whole response also skips the scatter-gather and the reduce phase.
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+  RESULT_CACHE_REDUCE_SKIPS("queries", false),
+
   // These metrics track the exceptions caught during query execution in broker side.
   // Query rejected by Jersey thread pool executor
   QUERY_REJECTED_EXCEPTIONS("exceptions", true),
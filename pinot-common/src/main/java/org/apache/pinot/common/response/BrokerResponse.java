@@ -138,6 +138,11 @@ public interface BrokerResponse {
    */
   boolean isMaxRowsInJoinReached();
 
+  /**
+   * Returns whether the query memory budget has been exceeded, where the intermediate results are trimmed or spilled.
+   */
+  boolean isMemoryBudgetExceeded();
+
   /**
    * Get number of exceptions recorded in the response.
    */
@@ -44,8 +44,8 @@ import org.apache.pinot.spi.utils.JsonUtils;
     "resultTable", "requestId", "brokerId", "exceptions", "numServersQueried", "numServersResponded",
     "numSegmentsQueried", "numSegmentsProcessed", "numSegmentsMatched", "numConsumingSegmentsQueried",
     "numConsumingSegmentsProcessed", "numConsumingSegmentsMatched", "numDocsScanned", "numEntriesScannedInFilter",
-    "numEntriesScannedPostFilter", "numGroupsLimitReached", "maxRowsInJoinReached", "totalDocs", "timeUsedMs",
-    "offlineThreadCpuTimeNs", "realtimeThreadCpuTimeNs", "offlineSystemActivitiesCpuTimeNs",
+    "numEntriesScannedPostFilter", "numGroupsLimitReached", "maxRowsInJoinReached", "memoryBudgetExceeded", "totalDocs",
+    "timeUsedMs", "offlineThreadCpuTimeNs", "realtimeThreadCpuTimeNs", "offlineSystemActivitiesCpuTimeNs",
     "realtimeSystemActivitiesCpuTimeNs", "offlineResponseSerializationCpuTimeNs",
     "realtimeResponseSerializationCpuTimeNs", "offlineTotalCpuTimeNs", "realtimeTotalCpuTimeNs", "brokerReduceTimeMs",
     "segmentStatistics", "traceInfo", "partialResult"
@@ -79,6 +79,7 @@ public class BrokerResponseNative implements BrokerResponse {
   private long _totalDocs = 0L;
   private boolean _numGroupsLimitReached = false;
   private boolean _maxRowsInJoinReached = false;
+  private boolean _memoryBudgetExceeded = false;
   private boolean _partialResult = false;
   private long _timeUsedMs = 0L;
   private long _offlineThreadCpuTimeNs = 0L;
@@ -507,6 +508,17 @@ public class BrokerResponseNative implements BrokerResponse {
     _maxRowsInJoinReached = maxRowsInJoinReached;
   }
 
+  @JsonProperty("memoryBudgetExceeded")
+  @Override
+  public boolean isMemoryBudgetExceeded() {
+    return _memoryBudgetExceeded;
+  }
+
+  @JsonProperty("memoryBudgetExceeded")
+  public void setMemoryBudgetExceeded(boolean memoryBudgetExceeded) {
+    _memoryBudgetExceeded = memoryBudgetExceeded;
+  }
+
   @JsonProperty("partialResult")
   public boolean isPartialResult() {
     return _partialResult;
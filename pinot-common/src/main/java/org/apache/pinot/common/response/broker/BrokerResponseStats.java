@@ -38,10 +38,11 @@ import org.apache.pinot.spi.utils.JsonUtils;
     "stageExecWallTimeMs", "stageExecEndTimeMs", "numServersQueried", "numServersResponded", "numSegmentsQueried",
     "numSegmentsProcessed", "numSegmentsMatched", "numConsumingSegmentsQueried", "numConsumingSegmentsProcessed",
     "numConsumingSegmentsMatched", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter",
-    "numGroupsLimitReached", "maxRowsInJoinReached", "totalDocs", "timeUsedMs", "offlineThreadCpuTimeNs",
-    "realtimeThreadCpuTimeNs", "offlineSystemActivitiesCpuTimeNs", "realtimeSystemActivitiesCpuTimeNs",
-    "offlineResponseSerializationCpuTimeNs", "realtimeResponseSerializationCpuTimeNs", "offlineTotalCpuTimeNs",
-    "realtimeTotalCpuTimeNs", "brokerReduceTimeMs", "traceInfo", "operatorStats", "tableNames"
+    "numGroupsLimitReached", "maxRowsInJoinReached", "memoryBudgetExceeded", "totalDocs", "timeUsedMs",
+    "offlineThreadCpuTimeNs", "realtimeThreadCpuTimeNs", "offlineSystemActivitiesCpuTimeNs",
+    "realtimeSystemActivitiesCpuTimeNs", "offlineResponseSerializationCpuTimeNs",
+    "realtimeResponseSerializationCpuTimeNs", "offlineTotalCpuTimeNs", "realtimeTotalCpuTimeNs", "brokerReduceTimeMs",
+    "traceInfo", "operatorStats", "tableNames", "numHotKeys", "exchangeSkewRatio"
 })
 @JsonInclude(JsonInclude.Include.NON_DEFAULT)
 public class BrokerResponseStats extends BrokerResponseNative {
@@ -51,6 +52,8 @@ public class BrokerResponseStats extends BrokerResponseNative {
   private long _stageExecutionTimeMs = 0;
   private int _stageExecutionUnit = 0;
   private long _stageExecWallTimeMs = -1;
+  private int _numHotKeys = 0;
+  private double _exchangeSkewRatio = 0;
   private Map<String, Map<String, String>> _operatorStats = new HashMap<>();
   private List<String> _tableNames = new ArrayList<>();
 
@@ -109,6 +112,33 @@ public class BrokerResponseStats extends BrokerResponseNative {
     _stageExecutionUnit = stageExecutionUnit;
   }
 
+  /**
+   * Returns the max number of hot keys detected by a worker of the hash exchange sending the stage results.
+   */
+  @JsonProperty("numHotKeys")
+  public int getNumHotKeys() {
+    return _numHotKeys;
+  }
+
+  @JsonProperty("numHotKeys")
+  public void setNumHotKeys(int numHotKeys) {
+    _numHotKeys = numHotKeys;
+  }
+
+  /**
+   * Returns the max ratio of the rows sent to the most loaded receiver over the average across the workers of the hash
+   * exchange sending the stage results, where 1 means no skew.
+   */
+  @JsonProperty("exchangeSkewRatio")
+  public double getExchangeSkewRatio() {
+    return _exchangeSkewRatio;
+  }
+
+  @JsonProperty("exchangeSkewRatio")
+  public void setExchangeSkewRatio(double exchangeSkewRatio) {
+    _exchangeSkewRatio = exchangeSkewRatio;
+  }
+
   public String toJsonString()
       throws IOException {
     return JsonUtils.objectToString(this);
@@ -28,6 +28,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.JoinOverFlowMode;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 
 
 /**
@@ -141,6 +142,10 @@ public class QueryOptionsUtils {
     return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_STAR_TREE));
   }
 
+  public static boolean isSkipResultCache(Map<String, String> queryOptions) {
+    return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_RESULT_CACHE));
+  }
+
   public static boolean isSkipScanFilterReorder(Map<String, String> queryOptions) {
     return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_SCAN_REORDER_OPTIMIZATION));
   }
@@ -204,6 +209,18 @@ public class QueryOptionsUtils {
     return maxNumGroupLimit != null ? Integer.parseInt(maxNumGroupLimit) : null;
   }
 
+  @Nullable
+  public static Integer getPartialAggregationBypassMinRows(Map<String, String> queryOptions) {
+    String minRows = queryOptions.get(QueryOptionKey.PARTIAL_AGGREGATION_BYPASS_MIN_ROWS);
+    return minRows != null ? Integer.parseInt(minRows) : null;
+  }
+
+  @Nullable
+  public static Double getPartialAggregationBypassGroupsRatio(Map<String, String> queryOptions) {
+    String groupsRatio = queryOptions.get(QueryOptionKey.PARTIAL_AGGREGATION_BYPASS_GROUPS_RATIO);
+    return groupsRatio != null ? Double.parseDouble(groupsRatio) : null;
+  }
+
   @Nullable
   public static Integer getMaxInitialResultHolderCapacity(Map<String, String> queryOptions) {
     String maxInitResultCap = queryOptions.get(QueryOptionKey.MAX_INITIAL_RESULT_HOLDER_CAPACITY);
@@ -216,6 +233,12 @@ public class QueryOptionsUtils {
     return groupByTrimThreshold != null ? Integer.parseInt(groupByTrimThreshold) : null;
   }
 
+  @Nullable
+  public static Integer getGroupBySpillThreshold(Map<String, String> queryOptions) {
+    String groupBySpillThreshold = queryOptions.get(QueryOptionKey.GROUP_BY_SPILL_THRESHOLD);
+    return groupBySpillThreshold != null ? Integer.parseInt(groupBySpillThreshold) : null;
+  }
+
   public static boolean shouldDropResults(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.QueryOptionKey.DROP_RESULTS));
   }
@@ -226,6 +249,12 @@ public class QueryOptionsUtils {
     return maxStreamingPendingBlocks != null ? Integer.parseInt(maxStreamingPendingBlocks) : null;
   }
 
+  @Nullable
+  public static Integer getSchedulingPriority(Map<String, String> queryOptions) {
+    String schedulingPriority = queryOptions.get(QueryOptionKey.SCHEDULING_PRIORITY);
+    return schedulingPriority != null ? Integer.parseInt(schedulingPriority) : null;
+  }
+
   @Nullable
   public static Integer getMaxRowsInJoin(Map<String, String> queryOptions) {
     String maxRowsInJoin = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_JOIN);
@@ -237,4 +266,22 @@ public class QueryOptionsUtils {
     String joinOverflowModeStr = queryOptions.get(QueryOptionKey.JOIN_OVERFLOW_MODE);
     return joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
   }
+
+  @Nullable
+  public static Integer getRuntimeFilterMaxInListSize(Map<String, String> queryOptions) {
+    String maxInListSize = queryOptions.get(QueryOptionKey.RUNTIME_FILTER_MAX_IN_LIST_SIZE);
+    return maxInListSize != null ? Integer.parseInt(maxInListSize) : null;
+  }
+
+  @Nullable
+  public static Long getMaxQueryMemoryBytes(Map<String, String> queryOptions) {
+    String maxQueryMemoryBytes = queryOptions.get(QueryOptionKey.MAX_QUERY_MEMORY_BYTES);
+    return maxQueryMemoryBytes != null ? Long.parseLong(maxQueryMemoryBytes) : null;
+  }
+
+  @Nullable
+  public static MemoryOverflowMode getQueryMemoryOverflowMode(Map<String, String> queryOptions) {
+    String memoryOverflowModeStr = queryOptions.get(QueryOptionKey.QUERY_MEMORY_OVERFLOW_MODE);
+    return memoryOverflowModeStr != null ? MemoryOverflowMode.valueOf(memoryOverflowModeStr.toUpperCase()) : null;
+  }
 }
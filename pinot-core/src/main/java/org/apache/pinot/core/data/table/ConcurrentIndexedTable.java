@@ -58,10 +58,10 @@ public class ConcurrentIndexedTable extends IndexedTable {
       _readWriteLock.readLock().unlock();
     }
 
-    if (_lookupMap.size() >= _trimThreshold) {
+    if (shouldResize(_lookupMap.size())) {
       _readWriteLock.writeLock().lock();
       try {
-        if (_lookupMap.size() >= _trimThreshold) {
+        if (shouldResize(_lookupMap.size())) {
           resize();
         }
       } finally {
@@ -75,7 +75,7 @@ public class ConcurrentIndexedTable extends IndexedTable {
       updateExistingRecord(key, record);
     } else {
       addOrUpdateRecord(key, record);
-      if (_lookupMap.size() >= _resultSize) {
+      if (shouldStopAcceptingNewRecords(_lookupMap.size())) {
         _noMoreNewRecords.set(true);
       }
     }
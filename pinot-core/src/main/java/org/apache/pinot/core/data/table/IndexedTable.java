@@ -30,6 +30,7 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 
 
 /**
@@ -43,9 +44,14 @@ public abstract class IndexedTable extends BaseTable {
   protected final AggregationFunction[] _aggregationFunctions;
   protected final boolean _hasOrderBy;
   protected final TableResizer _tableResizer;
-  protected final int _trimSize;
+  // NOTE: Trim size can be lowered when the query memory budget is exceeded
+  protected volatile int _trimSize;
   protected final int _trimThreshold;
 
+  // Memory reserved from the query memory budget for the records in the table, null when the budget is not enforced
+  private final QueryMemoryBudget _memoryBudget;
+  private final QueryMemoryBudget.RowReservation _memoryReservation;
+
   protected Collection<Record> _topRecords;
   private int _numResizes;
   private long _resizeTimeNs;
@@ -88,6 +94,8 @@ public abstract class IndexedTable extends BaseTable {
       _trimSize = Integer.MAX_VALUE;
       _trimThreshold = Integer.MAX_VALUE;
     }
+    _memoryBudget = queryContext.getMemoryBudget();
+    _memoryReservation = _memoryBudget != null ? _memoryBudget.newRowReservation(dataSchema) : null;
   }
 
   @Override
@@ -132,23 +140,81 @@ public abstract class IndexedTable extends BaseTable {
     });
   }
 
+  /**
+   * Returns {@code true} if the table (GROUP BY with ORDER BY) should be resized, i.e. the number of records reaches
+   * the trim threshold, or the records cannot fit into the query memory budget.
+   */
+  protected boolean shouldResize(int numRecords) {
+    return numRecords >= _trimThreshold || !reserveMemory(numRecords);
+  }
+
+  /**
+   * Returns {@code true} if the table (GROUP BY without ORDER BY) should stop accepting new records, i.e. the number of
+   * records reaches the result size, or the next new record cannot fit into the query memory budget.
+   */
+  protected boolean shouldStopAcceptingNewRecords(int numRecords) {
+    return numRecords >= _resultSize || !reserveMemory(numRecords + 1);
+  }
+
+  /**
+   * Reserves the memory for the given number of records from the query memory budget, and returns {@code false} if the
+   * budget is exceeded, where the records should be trimmed (or spilled), or no more new record should be accepted.
+   * Throws a {@link org.apache.pinot.spi.exception.QueryMemoryBudgetExceededException} if the memory overflow mode is
+   * {@code THROW}.
+   */
+  protected boolean reserveMemory(int numRecords) {
+    if (_memoryReservation == null || numRecords <= _memoryReservation.getNumReservedRows()) {
+      return true;
+    }
+    synchronized (_memoryReservation) {
+      if (_memoryReservation.reserve(numRecords)) {
+        return true;
+      }
+    }
+    _memoryBudget.onExceeded("Group-by");
+    if (_hasOrderBy) {
+      // Trim the table to half of the records that can fit into the budget so that it won't be trimmed on every upsert
+      _trimSize = (int) Math.min(_trimSize, Math.max(_memoryReservation.getMaxNumRows() / 2, 1));
+    }
+    return false;
+  }
+
+  /**
+   * Releases the memory reserved beyond the given number of records back to the query memory budget.
+   */
+  protected void releaseMemory(int numRecords) {
+    if (_memoryReservation != null) {
+      synchronized (_memoryReservation) {
+        _memoryReservation.release(numRecords);
+      }
+    }
+  }
+
   /**
    * Resizes the lookup map based on the trim size.
    */
   protected void resize() {
     assert _hasOrderBy;
     long startTimeNs = System.nanoTime();
-    _tableResizer.resizeRecordsMap(_lookupMap, _trimSize);
+    resizeRecords();
+    releaseMemory(size());
     long resizeTimeNs = System.nanoTime() - startTimeNs;
     _numResizes++;
     _resizeTimeNs += resizeTimeNs;
   }
 
+  /**
+   * Trims the records to the trim size.
+   */
+  protected void resizeRecords() {
+    _tableResizer.resizeRecordsMap(_lookupMap, _trimSize);
+  }
+
   @Override
   public void finish(boolean sort, boolean storeFinalResult) {
     if (_hasOrderBy) {
       long startTimeNs = System.nanoTime();
-      _topRecords = _tableResizer.getTopRecords(_lookupMap, _resultSize, sort);
+      _topRecords = getTopRecords(sort);
       long resizeTimeNs = System.nanoTime() - startTimeNs;
       _numResizes++;
       _resizeTimeNs += resizeTimeNs;
@@ -172,6 +238,13 @@ public abstract class IndexedTable extends BaseTable {
     }
   }
 
+  /**
+   * Returns the top records of the table for GROUP BY with ORDER BY.
+   */
+  protected Collection<Record> getTopRecords(boolean sort) {
+    return _tableResizer.getTopRecords(_lookupMap, _resultSize, sort);
+  }
+
   @Override
   public int size() {
     return _topRecords != null ? _topRecords.size() : _lookupMap.size();
@@ -34,4 +34,12 @@ public class IntermediateRecord {
     _record = record;
     _values = values;
   }
+
+  /**
+   * Creates an IntermediateRecord without the values to be ordered, which can be used when the record does not need to
+   * be ordered (e.g. when rebuilding the segment level group-by results).
+   */
+  public static IntermediateRecord create(Key key, Record record) {
+    return new IntermediateRecord(key, record, null);
+  }
 }
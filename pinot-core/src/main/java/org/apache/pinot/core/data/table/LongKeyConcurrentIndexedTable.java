@@ -0,0 +1,412 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * The {@code LongKeyConcurrentIndexedTable} is a thread safe {@link IndexedTable} specialized for the common GROUP BY
+ * on a single INT/LONG column or 2 INT columns, with only COUNT/SUM/MIN/MAX aggregations and null handling disabled.
+ * <p>Instead of mapping {@link Key} to {@link Record} for every group, the group keys are packed into a primitive long,
+ * and the intermediate results are stored in primitive double arrays. The groups are striped into multiple partitions
+ * by the hash of the key, each partition guarded by its own lock, so that the upserts from different threads rarely
+ * contend. The {@link Record}s are only materialized when the table is trimmed or finished.
+ * <p>The trimming behavior is the same as {@link ConcurrentIndexedTable}: with ORDER BY, the table is trimmed to the
+ * trim size when the number of groups reaches the trim threshold; without ORDER BY, the table stops accepting new
+ * groups once the number of groups reaches the result size.
+ */
+@SuppressWarnings("rawtypes")
+public class LongKeyConcurrentIndexedTable extends IndexedTable {
+  private static final int NUM_PARTITIONS_BITS = 4;
+  private static final int NUM_PARTITIONS = 1 << NUM_PARTITIONS_BITS;
+  private static final int INITIAL_PARTITION_CAPACITY = 128;
+
+  private enum KeyType {
+    INT, LONG, INT_PAIR
+  }
+
+  private enum MergeType {
+    SUM, MIN, MAX
+  }
+
+  private final KeyType _keyType;
+  private final int _numAggregationFunctions;
+  private final MergeType[] _mergeTypes;
+  private final boolean[] _longResults;
+  private final double[] _initialValues;
+  private final Partition[] _partitions = new Partition[NUM_PARTITIONS];
+  private final AtomicInteger _numGroups = new AtomicInteger();
+  private final ReentrantReadWriteLock _readWriteLock = new ReentrantReadWriteLock();
+
+  private volatile boolean _noMoreNewRecords;
+
+  public LongKeyConcurrentIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold) {
+    super(dataSchema, queryContext, resultSize, trimSize, trimThreshold, new HashMap<>());
+    _keyType = getKeyType(dataSchema, queryContext);
+    assert _keyType != null;
+    _numAggregationFunctions = _aggregationFunctions.length;
+    _mergeTypes = new MergeType[_numAggregationFunctions];
+    _longResults = new boolean[_numAggregationFunctions];
+    _initialValues = new double[_numAggregationFunctions];
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      switch (_aggregationFunctions[i].getType()) {
+        case COUNT:
+          _mergeTypes[i] = MergeType.SUM;
+          _longResults[i] = true;
+          break;
+        case SUM:
+          _mergeTypes[i] = MergeType.SUM;
+          break;
+        case MIN:
+          _mergeTypes[i] = MergeType.MIN;
+          _initialValues[i] = Double.POSITIVE_INFINITY;
+          break;
+        case MAX:
+          _mergeTypes[i] = MergeType.MAX;
+          _initialValues[i] = Double.NEGATIVE_INFINITY;
+          break;
+        default:
+          throw new IllegalStateException("Unsupported aggregation function: " + _aggregationFunctions[i].getType());
+      }
+    }
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      _partitions[i] = new Partition(_numAggregationFunctions);
+    }
+  }
+
+  /**
+   * Returns whether the given GROUP BY query can be handled by the {@code LongKeyConcurrentIndexedTable}.
+   */
+  public static boolean isSupported(DataSchema dataSchema, QueryContext queryContext) {
+    if (queryContext.isNullHandlingEnabled() || getKeyType(dataSchema, queryContext) == null) {
+      return false;
+    }
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    if (aggregationFunctions == null) {
+      return false;
+    }
+    for (AggregationFunction aggregationFunction : aggregationFunctions) {
+      switch (aggregationFunction.getType()) {
+        case COUNT:
+        case SUM:
+        case MIN:
+        case MAX:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  @Nullable
+  private static KeyType getKeyType(DataSchema dataSchema, QueryContext queryContext) {
+    List<ExpressionContext> groupByExpressions = queryContext.getGroupByExpressions();
+    if (groupByExpressions == null) {
+      return null;
+    }
+    ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+    switch (groupByExpressions.size()) {
+      case 1:
+        switch (columnDataTypes[0].getStoredType()) {
+          case INT:
+            return KeyType.INT;
+          case LONG:
+            return KeyType.LONG;
+          default:
+            return null;
+        }
+      case 2:
+        if (columnDataTypes[0].getStoredType() == ColumnDataType.INT
+            && columnDataTypes[1].getStoredType() == ColumnDataType.INT) {
+          return KeyType.INT_PAIR;
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Upserts the group from the segment level group-by result without materializing the {@link Key} and
+   * {@link Record}.
+   */
+  public void upsert(GroupKeyGenerator.GroupKey groupKey, AggregationGroupByResult aggregationGroupByResult) {
+    long key = packKey(groupKey._keys);
+    int groupId = groupKey._groupId;
+    if (_hasOrderBy) {
+      _readWriteLock.readLock().lock();
+    }
+    try {
+      Partition partition = getPartition(key);
+      synchronized (partition) {
+        int index = getOrCreateIndex(partition, key);
+        if (index >= 0) {
+          double[] values = partition._values;
+          int offset = index * _numAggregationFunctions;
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            mergeValue(values, offset + i, i, aggregationGroupByResult.getDoubleResultForGroupId(i, groupId));
+          }
+        }
+      }
+    } finally {
+      if (_hasOrderBy) {
+        _readWriteLock.readLock().unlock();
+      }
+    }
+    resizeIfNeeded();
+  }
+
+  @Override
+  public boolean upsert(Key key, Record record) {
+    long packedKey = packKey(key.getValues());
+    if (_hasOrderBy) {
+      _readWriteLock.readLock().lock();
+    }
+    try {
+      upsert(packedKey, record.getValues());
+    } finally {
+      if (_hasOrderBy) {
+        _readWriteLock.readLock().unlock();
+      }
+    }
+    resizeIfNeeded();
+    return true;
+  }
+
+  private void upsert(long key, Object[] recordValues) {
+    Partition partition = getPartition(key);
+    synchronized (partition) {
+      int index = getOrCreateIndex(partition, key);
+      if (index >= 0) {
+        double[] values = partition._values;
+        int offset = index * _numAggregationFunctions;
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          mergeValue(values, offset + i, i, ((Number) recordValues[_numKeyColumns + i]).doubleValue());
+        }
+      }
+    }
+  }
+
+  private Partition getPartition(long key) {
+    // NOTE: Use the high bits of the hash to pick the partition because the hash map within the partition uses the
+    //       low bits to pick the slot
+    return _partitions[(int) (HashCommon.mix(key) >>> (Long.SIZE - NUM_PARTITIONS_BITS))];
+  }
+
+  /**
+   * Returns the index of the key within the partition, or -1 if the key does not exist and no more new group is
+   * accepted. Should be called with the partition lock held.
+   */
+  private int getOrCreateIndex(Partition partition, long key) {
+    int index = partition._keyToIndex.get(key);
+    if (index < 0 && !_noMoreNewRecords) {
+      index = partition.addKey(key, _initialValues);
+      int numGroups = _numGroups.incrementAndGet();
+      if (!_hasOrderBy && shouldStopAcceptingNewRecords(numGroups)) {
+        _noMoreNewRecords = true;
+      }
+    }
+    return index;
+  }
+
+  private void mergeValue(double[] values, int index, int aggregationIndex, double value) {
+    switch (_mergeTypes[aggregationIndex]) {
+      case SUM:
+        values[index] += value;
+        break;
+      case MIN:
+        values[index] = Math.min(values[index], value);
+        break;
+      case MAX:
+        values[index] = Math.max(values[index], value);
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private void resizeIfNeeded() {
+    if (_hasOrderBy && shouldResize(_numGroups.get())) {
+      _readWriteLock.writeLock().lock();
+      try {
+        if (shouldResize(_numGroups.get())) {
+          resize();
+        }
+      } finally {
+        _readWriteLock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Keeps the top groups based on the trim size. Should be called with the write lock held.
+   */
+  @Override
+  protected void resizeRecords() {
+    Collection<Record> topRecords = _tableResizer.getTopRecords(new RecordIterator(), _trimSize, false);
+    for (Partition partition : _partitions) {
+      partition.clear();
+    }
+    _numGroups.set(0);
+    for (Record record : topRecords) {
+      upsert(packKey(record.getValues()), record.getValues());
+    }
+  }
+
+  @Override
+  protected Collection<Record> getTopRecords(boolean sort) {
+    return _tableResizer.getTopRecords(new RecordIterator(), _resultSize, sort);
+  }
+
+  @Override
+  public void finish(boolean sort, boolean storeFinalResult) {
+    if (!_hasOrderBy) {
+      // Materialize the records so that they can be handled the same way as the other indexed tables
+      Iterator<Record> recordIterator = new RecordIterator();
+      while (recordIterator.hasNext()) {
+        Record record = recordIterator.next();
+        _lookupMap.put(new Key(Arrays.copyOf(record.getValues(), _numKeyColumns)), record);
+      }
+    }
+    super.finish(sort, storeFinalResult);
+  }
+
+  @Override
+  public int size() {
+    return _topRecords != null ? _topRecords.size() : _numGroups.get();
+  }
+
+  private long packKey(Object[] keys) {
+    switch (_keyType) {
+      case INT:
+        return (Integer) keys[0];
+      case LONG:
+        return (Long) keys[0];
+      case INT_PAIR:
+        return ((long) (Integer) keys[0] << 32) | ((Integer) keys[1] & 0xFFFFFFFFL);
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private Record createRecord(long key, double[] values, int index) {
+    Object[] recordValues = new Object[_numColumns];
+    switch (_keyType) {
+      case INT:
+        recordValues[0] = (int) key;
+        break;
+      case LONG:
+        recordValues[0] = key;
+        break;
+      case INT_PAIR:
+        recordValues[0] = (int) (key >>> 32);
+        recordValues[1] = (int) key;
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    int offset = index * _numAggregationFunctions;
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      double value = values[offset + i];
+      recordValues[_numKeyColumns + i] = _longResults[i] ? (Object) (long) value : (Object) value;
+    }
+    return new Record(recordValues);
+  }
+
+  private static class Partition {
+    final Long2IntOpenHashMap _keyToIndex = new Long2IntOpenHashMap();
+    final int _numValuesPerKey;
+    double[] _values;
+    int _numKeys;
+
+    Partition(int numValuesPerKey) {
+      _keyToIndex.defaultReturnValue(-1);
+      _numValuesPerKey = numValuesPerKey;
+      _values = new double[INITIAL_PARTITION_CAPACITY * numValuesPerKey];
+    }
+
+    int addKey(long key, double[] initialValues) {
+      int index = _numKeys++;
+      int offset = index * _numValuesPerKey;
+      if (offset + _numValuesPerKey > _values.length) {
+        _values = Arrays.copyOf(_values, Math.max(2 * _values.length, offset + _numValuesPerKey));
+      }
+      System.arraycopy(initialValues, 0, _values, offset, _numValuesPerKey);
+      _keyToIndex.put(key, index);
+      return index;
+    }
+
+    void clear() {
+      _keyToIndex.clear();
+      _numKeys = 0;
+    }
+  }
+
+  /**
+   * Iterates over all the groups across the partitions, and materializes a {@link Record} for each group.
+   */
+  private class RecordIterator implements Iterator<Record> {
+    int _partitionId = 0;
+    Partition _partition = _partitions[0];
+    ObjectIterator<Long2IntMap.Entry> _entryIterator = _partition._keyToIndex.long2IntEntrySet().fastIterator();
+
+    @Override
+    public boolean hasNext() {
+      while (!_entryIterator.hasNext()) {
+        if (_partitionId == NUM_PARTITIONS - 1) {
+          return false;
+        }
+        _partition = _partitions[++_partitionId];
+        _entryIterator = _partition._keyToIndex.long2IntEntrySet().fastIterator();
+      }
+      return true;
+    }
+
+    @Override
+    public Record next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Long2IntMap.Entry entry = _entryIterator.next();
+      return createRecord(entry.getLongKey(), _partition._values, entry.getIntValue());
+    }
+  }
+}
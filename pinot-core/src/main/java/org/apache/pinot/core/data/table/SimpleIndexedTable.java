@@ -29,6 +29,7 @@ import org.apache.pinot.core.query.request.context.QueryContext;
  */
 @NotThreadSafe
 public class SimpleIndexedTable extends IndexedTable {
+  private boolean _noMoreNewRecords;
 
   public SimpleIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
       int trimThreshold) {
@@ -42,14 +43,15 @@ public class SimpleIndexedTable extends IndexedTable {
   public boolean upsert(Key key, Record record) {
     if (_hasOrderBy) {
       addOrUpdateRecord(key, record);
-      if (_lookupMap.size() >= _trimThreshold) {
+      if (shouldResize(_lookupMap.size())) {
         resize();
       }
     } else {
-      if (_lookupMap.size() < _resultSize) {
-        addOrUpdateRecord(key, record);
-      } else {
+      if (_noMoreNewRecords) {
         updateExistingRecord(key, record);
+      } else {
+        addOrUpdateRecord(key, record);
+        _noMoreNewRecords = shouldStopAcceptingNewRecords(_lookupMap.size());
       }
     }
     return true;
@@ -0,0 +1,426 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.CustomObject;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.trace.Tracing;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SpillableIndexedTable} is a {@link ConcurrentIndexedTable} for GROUP BY with ORDER BY, which spills the
+ * records to disk instead of trimming them when the number of records in memory reaches the spill threshold. Unlike
+ * trimming, spilling does not lose any group, so the results stay accurate for high-cardinality GROUP BY without
+ * holding all the groups on heap.
+ * <p>Each spill writes the records in memory sorted by the key into a separate file, then clears the records in memory.
+ * When finishing the table, the spill files are memory-mapped and merged with the records left in memory, where the
+ * records with the same key are merged, and only the top records are kept on heap.
+ * <p>The spill files are deleted after the table is finished, or when {@link #cleanUp()} is invoked if the query fails
+ * before finishing the table.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SpillableIndexedTable extends ConcurrentIndexedTable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpillableIndexedTable.class);
+
+  // Value types in the spill files
+  private static final byte NULL = 0;
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte FLOAT = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte STRING = 5;
+  private static final byte BYTES = 6;
+  private static final byte OBJECT = 7;
+
+  private static final Comparator<Key> KEY_COMPARATOR = SpillableIndexedTable::compareKeys;
+
+  private final File _spillDir;
+  private final List<File> _spillFiles = new ArrayList<>();
+
+  private boolean _closed;
+  private long _numSpilledRecords;
+  private long _spillTimeNs;
+
+  /**
+   * Constructor for the SpillableIndexedTable.
+   *
+   * @param dataSchema     Data schema of the table
+   * @param queryContext   Query context
+   * @param resultSize     Number of records to keep in the final result after calling {@link #finish(boolean, boolean)}
+   * @param spillThreshold Spill the records to disk when the number of records in memory exceeds the threshold
+   * @param spillDir       Parent directory of the spill files
+   */
+  public SpillableIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int spillThreshold,
+      File spillDir) {
+    super(dataSchema, queryContext, resultSize, resultSize, spillThreshold);
+    Preconditions.checkState(_hasOrderBy, "SpillableIndexedTable only applies to GROUP BY with ORDER BY");
+    Preconditions.checkArgument(spillThreshold > 0, "Spill threshold must be positive, got: %s", spillThreshold);
+    _spillDir = new File(spillDir, "groupby_spill_" + UUID.randomUUID());
+  }
+
+  /**
+   * Spills the records in memory to disk instead of trimming them.
+   * <p>NOTE: This method is invoked with the write lock held, so there is no concurrent update to the lookup map.
+   */
+  @Override
+  protected void resize() {
+    long startTimeNs = System.nanoTime();
+    synchronized (_spillFiles) {
+      if (!_closed) {
+        Map.Entry<Key, Record>[] entries = _lookupMap.entrySet().toArray(new Map.Entry[0]);
+        Arrays.sort(entries, Map.Entry.comparingByKey(KEY_COMPARATOR));
+        File spillFile = new File(_spillDir, "spill_" + _spillFiles.size());
+        try {
+          FileUtils.forceMkdir(_spillDir);
+          try (DataOutputStream outputStream = new DataOutputStream(
+              new BufferedOutputStream(new FileOutputStream(spillFile)))) {
+            for (Map.Entry<Key, Record> entry : entries) {
+              for (Object value : entry.getValue().getValues()) {
+                writeValue(outputStream, value);
+              }
+            }
+          }
+        } catch (IOException e) {
+          FileUtils.deleteQuietly(spillFile);
+          throw new UncheckedIOException("Caught exception while spilling the group-by records to: " + spillFile, e);
+        }
+        _spillFiles.add(spillFile);
+        _numSpilledRecords += entries.length;
+      }
+      _lookupMap.clear();
+    }
+    releaseMemory(0);
+    _spillTimeNs += System.nanoTime() - startTimeNs;
+  }
+
+  /**
+   * Merges the spilled records with the records in memory, and returns the top records.
+   */
+  @Override
+  protected Collection<Record> getTopRecords(boolean sort) {
+    synchronized (_spillFiles) {
+      if (_spillFiles.isEmpty()) {
+        return super.getTopRecords(sort);
+      }
+      Preconditions.checkState(!_closed, "Table has been cleaned up");
+      List<SortedRun> sortedRuns = new ArrayList<>(_spillFiles.size() + 1);
+      try {
+        Map.Entry<Key, Record>[] entries = _lookupMap.entrySet().toArray(new Map.Entry[0]);
+        Arrays.sort(entries, Map.Entry.comparingByKey(KEY_COMPARATOR));
+        sortedRuns.add(new InMemoryRun(entries));
+        for (File spillFile : _spillFiles) {
+          sortedRuns.add(new SpilledRun(PinotDataBuffer.mapFile(spillFile, true, 0, spillFile.length(),
+              ByteOrder.BIG_ENDIAN, "Group-by spill file: " + spillFile)));
+        }
+        Collection<Record> topRecords = _tableResizer.getTopRecords(new MergedRecordIterator(sortedRuns), _resultSize,
+            sort);
+        LOGGER.debug("Merged {} spill files with {} records spilled in {}ms", _spillFiles.size(), _numSpilledRecords,
+            TimeUnit.NANOSECONDS.toMillis(_spillTimeNs));
+        return topRecords;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Caught exception while merging the spilled group-by records", e);
+      } finally {
+        for (SortedRun sortedRun : sortedRuns) {
+          sortedRun.close();
+        }
+        _lookupMap.clear();
+        cleanUp();
+      }
+    }
+  }
+
+  /**
+   * Deletes the spill files. After cleaning up, no more record will be spilled.
+   */
+  public void cleanUp() {
+    synchronized (_spillFiles) {
+      _closed = true;
+      FileUtils.deleteQuietly(_spillDir);
+    }
+  }
+
+  public int getNumSpills() {
+    synchronized (_spillFiles) {
+      return _spillFiles.size();
+    }
+  }
+
+  public long getNumSpilledRecords() {
+    synchronized (_spillFiles) {
+      return _numSpilledRecords;
+    }
+  }
+
+  private void mergeValues(Object[] existingValues, Object[] newValues) {
+    int aggNum = 0;
+    for (int i = _numKeyColumns; i < _numColumns; i++) {
+      existingValues[i] = _aggregationFunctions[aggNum++].merge(existingValues[i], newValues[i]);
+    }
+  }
+
+  /**
+   * Compares the keys by the values in each key column, where {@code null} is considered the smallest value. The order
+   * is consistent with {@link Key#equals(Object)}, so that the records with the same key are adjacent after sorting.
+   */
+  private static int compareKeys(Key key1, Key key2) {
+    Object[] values1 = key1.getValues();
+    Object[] values2 = key2.getValues();
+    for (int i = 0; i < values1.length; i++) {
+      Object value1 = values1[i];
+      Object value2 = values2[i];
+      if (value1 == null || value2 == null) {
+        if (value1 != value2) {
+          return value1 == null ? -1 : 1;
+        }
+        continue;
+      }
+      int result = ((Comparable) value1).compareTo(value2);
+      if (result == 0 && value1 instanceof BigDecimal) {
+        // NOTE: BigDecimal with different scales are not equal
+        result = Integer.compare(((BigDecimal) value1).scale(), ((BigDecimal) value2).scale());
+      }
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private static void writeValue(DataOutputStream outputStream, Object value)
+      throws IOException {
+    if (value == null) {
+      outputStream.writeByte(NULL);
+    } else if (value instanceof Integer) {
+      outputStream.writeByte(INT);
+      outputStream.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      outputStream.writeByte(LONG);
+      outputStream.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      outputStream.writeByte(FLOAT);
+      outputStream.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      outputStream.writeByte(DOUBLE);
+      outputStream.writeDouble((Double) value);
+    } else if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      outputStream.writeByte(STRING);
+      outputStream.writeInt(bytes.length);
+      outputStream.write(bytes);
+    } else if (value instanceof ByteArray) {
+      byte[] bytes = ((ByteArray) value).getBytes();
+      outputStream.writeByte(BYTES);
+      outputStream.writeInt(bytes.length);
+      outputStream.write(bytes);
+    } else {
+      int objectType = ObjectSerDeUtils.ObjectType.getObjectType(value).getValue();
+      byte[] bytes = ObjectSerDeUtils.serialize(value, objectType);
+      outputStream.writeByte(OBJECT);
+      outputStream.writeInt(objectType);
+      outputStream.writeInt(bytes.length);
+      outputStream.write(bytes);
+    }
+  }
+
+  /**
+   * A run of records sorted by the key, where each key appears at most once.
+   */
+  private abstract static class SortedRun {
+    Key _key;
+    Record _record;
+
+    /**
+     * Moves to the next record, returns {@code false} if there is no more record.
+     */
+    abstract boolean advance();
+
+    void close() {
+    }
+  }
+
+  private static class InMemoryRun extends SortedRun {
+    final Map.Entry<Key, Record>[] _entries;
+    int _index;
+
+    InMemoryRun(Map.Entry<Key, Record>[] entries) {
+      _entries = entries;
+    }
+
+    @Override
+    boolean advance() {
+      if (_index == _entries.length) {
+        return false;
+      }
+      Map.Entry<Key, Record> entry = _entries[_index++];
+      _key = entry.getKey();
+      _record = entry.getValue();
+      return true;
+    }
+  }
+
+  private class SpilledRun extends SortedRun {
+    final PinotDataBuffer _dataBuffer;
+    final long _size;
+    long _offset;
+
+    SpilledRun(PinotDataBuffer dataBuffer) {
+      _dataBuffer = dataBuffer;
+      _size = dataBuffer.size();
+    }
+
+    @Override
+    boolean advance() {
+      if (_offset == _size) {
+        return false;
+      }
+      Object[] values = new Object[_numColumns];
+      for (int i = 0; i < _numColumns; i++) {
+        values[i] = readValue();
+      }
+      _key = new Key(Arrays.copyOf(values, _numKeyColumns));
+      _record = new Record(values);
+      return true;
+    }
+
+    Object readValue() {
+      byte valueType = _dataBuffer.getByte(_offset++);
+      switch (valueType) {
+        case NULL:
+          return null;
+        case INT:
+          int intValue = _dataBuffer.getInt(_offset);
+          _offset += Integer.BYTES;
+          return intValue;
+        case LONG:
+          long longValue = _dataBuffer.getLong(_offset);
+          _offset += Long.BYTES;
+          return longValue;
+        case FLOAT:
+          float floatValue = _dataBuffer.getFloat(_offset);
+          _offset += Float.BYTES;
+          return floatValue;
+        case DOUBLE:
+          double doubleValue = _dataBuffer.getDouble(_offset);
+          _offset += Double.BYTES;
+          return doubleValue;
+        case STRING:
+          return new String(readBytes(), StandardCharsets.UTF_8);
+        case BYTES:
+          return new ByteArray(readBytes());
+        case OBJECT:
+          int objectType = _dataBuffer.getInt(_offset);
+          _offset += Integer.BYTES;
+          return ObjectSerDeUtils.deserialize(new CustomObject(objectType, ByteBuffer.wrap(readBytes())));
+        default:
+          throw new IllegalStateException("Unsupported value type: " + valueType);
+      }
+    }
+
+    byte[] readBytes() {
+      int length = _dataBuffer.getInt(_offset);
+      _offset += Integer.BYTES;
+      byte[] bytes = new byte[length];
+      _dataBuffer.copyTo(_offset, bytes);
+      _offset += length;
+      return bytes;
+    }
+
+    @Override
+    void close() {
+      try {
+        _dataBuffer.close();
+      } catch (IOException e) {
+        LOGGER.warn("Caught exception while closing the group-by spill file buffer", e);
+      }
+    }
+  }
+
+  /**
+   * Merges the sorted runs, and returns one record per key with the records of the same key merged.
+   */
+  private class MergedRecordIterator implements Iterator<Record> {
+    final PriorityQueue<SortedRun> _queue;
+    int _numMergedRecords;
+
+    MergedRecordIterator(List<SortedRun> sortedRuns) {
+      _queue = new PriorityQueue<>(sortedRuns.size(), (run1, run2) -> compareKeys(run1._key, run2._key));
+      for (SortedRun sortedRun : sortedRuns) {
+        if (sortedRun.advance()) {
+          _queue.add(sortedRun);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !_queue.isEmpty();
+    }
+
+    @Override
+    public Record next() {
+      SortedRun sortedRun = _queue.poll();
+      if (sortedRun == null) {
+        throw new NoSuchElementException();
+      }
+      Key key = sortedRun._key;
+      Record record = sortedRun._record;
+      if (sortedRun.advance()) {
+        _queue.add(sortedRun);
+      }
+      while (!_queue.isEmpty() && _queue.peek()._key.equals(key)) {
+        sortedRun = _queue.poll();
+        mergeValues(record.getValues(), sortedRun._record.getValues());
+        if (sortedRun.advance()) {
+          _queue.add(sortedRun);
+        }
+      }
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(_numMergedRecords++);
+      return record;
+    }
+  }
+}
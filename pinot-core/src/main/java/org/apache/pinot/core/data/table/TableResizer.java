@@ -299,6 +299,51 @@ public class TableResizer {
     }
   }
 
+  /**
+   * Returns the top records from the given record iterator. Unlike {@link #getTopRecords(Map, int, boolean)}, the
+   * records do not need to be held in memory all together (e.g. they can be merged from the records spilled to disk),
+   * and only the top records are kept in the heap.
+   */
+  public Collection<Record> getTopRecords(Iterator<Record> recordIterator, int size, boolean sort) {
+    if (size == 0) {
+      return Collections.emptyList();
+    }
+    Comparator<IntermediateRecord> comparator = _intermediateRecordComparator.reversed();
+    IntermediateRecord[] heap = new IntermediateRecord[Math.min(size, 1024)];
+    int numRecords = 0;
+    while (recordIterator.hasNext()) {
+      IntermediateRecord intermediateRecord = getIntermediateRecord(null, recordIterator.next());
+      if (numRecords < size) {
+        if (numRecords == heap.length) {
+          heap = Arrays.copyOf(heap, (int) Math.min(2L * numRecords, size));
+        }
+        heap[numRecords++] = intermediateRecord;
+        if (numRecords == size) {
+          makeHeap(heap, size, comparator);
+        }
+      } else if (comparator.compare(intermediateRecord, heap[0]) > 0) {
+        heap[0] = intermediateRecord;
+        downHeap(heap, size, 0, comparator);
+      }
+    }
+    Record[] topRecords = new Record[numRecords];
+    if (sort) {
+      if (numRecords < size) {
+        makeHeap(heap, numRecords, comparator);
+      }
+      while (numRecords-- > 0) {
+        topRecords[numRecords] = heap[0]._record;
+        heap[0] = heap[numRecords];
+        downHeap(heap, numRecords, 0, comparator);
+      }
+    } else {
+      for (int i = 0; i < numRecords; i++) {
+        topRecords[i] = heap[i]._record;
+      }
+    }
+    return Arrays.asList(topRecords);
+  }
+
   private Collection<Record> getUnsortedTopRecords(Map<Key, Record> recordsMap, int size) {
     int numRecords = recordsMap.size();
     if (numRecords <= size) {
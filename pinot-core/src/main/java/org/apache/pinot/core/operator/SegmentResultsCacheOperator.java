@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.cache.CachedSegmentResults;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * A wrapper around the segment-level operator to serve the segment-level results from the {@link SegmentResultsCache}.
+ * On a cache hit, the results block is rebuilt from the cached results without running the childPlanNode. On a cache
+ * miss, the childPlanNode is run to get the childOperator, and the results block is put into the cache before it is
+ * merged by the combine operator.
+ */
+@SuppressWarnings("unchecked")
+public class SegmentResultsCacheOperator extends BaseOperator<BaseResultsBlock> {
+  private static final String EXPLAIN_NAME = "SEGMENT_RESULTS_CACHE";
+
+  private final PlanNode _planNode;
+  private final IndexSegment _indexSegment;
+  private final QueryContext _queryContext;
+  private final SegmentResultsCache _segmentResultsCache;
+  private final String _queryFingerprint;
+  private final ServerMetrics _serverMetrics;
+
+  private Operator<BaseResultsBlock> _childOperator;
+  private ExecutionStatistics _cachedExecutionStatistics;
+
+  public SegmentResultsCacheOperator(PlanNode planNode, IndexSegment indexSegment, QueryContext queryContext,
+      SegmentResultsCache segmentResultsCache, String queryFingerprint, @Nullable ServerMetrics serverMetrics) {
+    _planNode = planNode;
+    _indexSegment = indexSegment;
+    _queryContext = queryContext;
+    _segmentResultsCache = segmentResultsCache;
+    _queryFingerprint = queryFingerprint;
+    _serverMetrics = serverMetrics;
+  }
+
+  @Override
+  protected BaseResultsBlock getNextBlock() {
+    String tableNameWithType = _queryContext.getTableName();
+    CachedSegmentResults cachedResults =
+        _segmentResultsCache.get(tableNameWithType, _indexSegment, _queryFingerprint);
+    if (cachedResults != null) {
+      addMeteredTableValue(tableNameWithType, ServerMeter.SEGMENT_RESULTS_CACHE_HITS);
+      _cachedExecutionStatistics = cachedResults.getExecutionStatistics();
+      return cachedResults.toResultsBlock(_queryContext);
+    }
+    addMeteredTableValue(tableNameWithType, ServerMeter.SEGMENT_RESULTS_CACHE_MISSES);
+    _childOperator = (Operator<BaseResultsBlock>) _planNode.run();
+    BaseResultsBlock resultsBlock = _childOperator.nextBlock();
+    // NOTE: Extract the results before they are merged by the combine operator
+    CachedSegmentResults results =
+        CachedSegmentResults.fromResultsBlock(resultsBlock, _childOperator.getExecutionStatistics(), _queryContext);
+    if (results != null) {
+      _segmentResultsCache.put(tableNameWithType, _indexSegment, _queryFingerprint, results);
+    }
+    return resultsBlock;
+  }
+
+  private void addMeteredTableValue(String tableNameWithType, ServerMeter meter) {
+    if (_serverMetrics != null) {
+      _serverMetrics.addMeteredTableValue(tableNameWithType, meter, 1);
+    }
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return _childOperator != null ? Collections.singletonList(_childOperator) : Collections.emptyList();
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    if (_cachedExecutionStatistics != null) {
+      return _cachedExecutionStatistics;
+    }
+    return _childOperator == null ? new ExecutionStatistics(0, 0, 0, 0) : _childOperator.getExecutionStatistics();
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Block;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 
 
 /**
@@ -48,6 +49,8 @@ public abstract class BaseResultsBlock implements Block {
   private int _numConsumingSegmentsMatched;
   private long _executionThreadCpuTimeNs;
   private int _numServerThreads;
+  private long _minTaskExecutionTimeMs = -1;
+  private long _maxTaskExecutionTimeMs = -1;
 
   @Nullable
   public List<ProcessingException> getProcessingExceptions() {
@@ -153,6 +156,22 @@ public abstract class BaseResultsBlock implements Block {
     _numServerThreads = numServerThreads;
   }
 
+  public long getMinTaskExecutionTimeMs() {
+    return _minTaskExecutionTimeMs;
+  }
+
+  public void setMinTaskExecutionTimeMs(long minTaskExecutionTimeMs) {
+    _minTaskExecutionTimeMs = minTaskExecutionTimeMs;
+  }
+
+  public long getMaxTaskExecutionTimeMs() {
+    return _maxTaskExecutionTimeMs;
+  }
+
+  public void setMaxTaskExecutionTimeMs(long maxTaskExecutionTimeMs) {
+    _maxTaskExecutionTimeMs = maxTaskExecutionTimeMs;
+  }
+
   /**
    * Returns the total size (number of rows) in this result block, without having to materialize the rows.
    *
@@ -198,6 +217,18 @@ public abstract class BaseResultsBlock implements Block {
     metadata.put(MetadataKey.NUM_CONSUMING_SEGMENTS_PROCESSED.getName(),
         Integer.toString(_numConsumingSegmentsProcessed));
     metadata.put(MetadataKey.NUM_CONSUMING_SEGMENTS_MATCHED.getName(), Integer.toString(_numConsumingSegmentsMatched));
+    // The difference between the min and max task execution time reveals the skew of the workload across the threads
+    if (_maxTaskExecutionTimeMs >= 0) {
+      metadata.put(MetadataKey.MIN_TASK_EXECUTION_TIME_MS.getName(), Long.toString(_minTaskExecutionTimeMs));
+      metadata.put(MetadataKey.MAX_TASK_EXECUTION_TIME_MS.getName(), Long.toString(_maxTaskExecutionTimeMs));
+    }
+    QueryContext queryContext = getQueryContext();
+    if (queryContext != null) {
+      QueryMemoryBudget memoryBudget = queryContext.getMemoryBudget();
+      if (memoryBudget != null && memoryBudget.isExceeded()) {
+        metadata.put(MetadataKey.MEMORY_BUDGET_EXCEEDED.getName(), memoryBudget.getOverflowMode().name());
+      }
+    }
     return metadata;
   }
 }
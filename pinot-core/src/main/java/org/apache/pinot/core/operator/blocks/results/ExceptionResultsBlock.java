@@ -27,6 +27,7 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.spi.exception.QueryCancelledException;
+import org.apache.pinot.spi.exception.QueryMemoryBudgetExceededException;
 
 
 public class ExceptionResultsBlock extends BaseResultsBlock {
@@ -36,7 +37,8 @@ public class ExceptionResultsBlock extends BaseResultsBlock {
   }
 
   public ExceptionResultsBlock(Throwable t) {
-    this(QueryException.QUERY_EXECUTION_ERROR, t);
+    this(t instanceof QueryMemoryBudgetExceededException ? QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR
+        : QueryException.QUERY_EXECUTION_ERROR, t);
   }
 
   public ExceptionResultsBlock(QueryCancelledException t) {
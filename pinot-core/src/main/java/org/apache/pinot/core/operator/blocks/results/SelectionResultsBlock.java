@@ -19,8 +19,12 @@
 package org.apache.pinot.core.operator.blocks.results;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.utils.DataSchema;
@@ -36,6 +40,8 @@ public class SelectionResultsBlock extends BaseResultsBlock {
   private final Comparator<? super Object[]> _comparator;
   private final QueryContext _queryContext;
   private List<Object[]> _rows;
+  // Materializers for the rows with non-order-by values not filled yet (deferred selection materialization)
+  private List<RowMaterializer> _rowMaterializers;
 
   public SelectionResultsBlock(DataSchema dataSchema, List<Object[]> rows,
       @Nullable Comparator<? super Object[]> comparator, QueryContext queryContext) {
@@ -53,6 +59,43 @@ public class SelectionResultsBlock extends BaseResultsBlock {
     _rows = rows;
   }
 
+  public void addRowMaterializer(RowMaterializer rowMaterializer) {
+    if (_rowMaterializers == null) {
+      _rowMaterializers = new ArrayList<>();
+    }
+    _rowMaterializers.add(rowMaterializer);
+  }
+
+  /**
+   * Takes over the row materializers from the given block, which should be called when merging the rows of the given
+   * block into this block.
+   */
+  public void addRowMaterializers(SelectionResultsBlock resultsBlock) {
+    if (resultsBlock._rowMaterializers != null) {
+      if (_rowMaterializers == null) {
+        _rowMaterializers = new ArrayList<>();
+      }
+      _rowMaterializers.addAll(resultsBlock._rowMaterializers);
+      resultsBlock._rowMaterializers = null;
+    }
+  }
+
+  /**
+   * Fills the non-order-by values for the rows kept in this block. This should be called after all the segment level
+   * blocks are merged so that only the final top rows are materialized.
+   */
+  public void materializeRows() {
+    if (_rowMaterializers == null) {
+      return;
+    }
+    Set<Object[]> rowsToMaterialize = Collections.newSetFromMap(new IdentityHashMap<>(_rows.size()));
+    rowsToMaterialize.addAll(_rows);
+    for (RowMaterializer rowMaterializer : _rowMaterializers) {
+      rowMaterializer.materialize(rowsToMaterialize);
+    }
+    _rowMaterializers = null;
+  }
+
   @Nullable
   public Comparator<? super Object[]> getComparator() {
     return _comparator;
@@ -83,4 +126,16 @@ public class SelectionResultsBlock extends BaseResultsBlock {
       throws IOException {
     return SelectionOperatorUtils.getDataTableFromRows(_rows, _dataSchema, _queryContext.isNullHandlingEnabled());
   }
+
+  /**
+   * Materializer for the rows returned by a segment with only the order-by values filled.
+   */
+  public interface RowMaterializer {
+
+    /**
+     * Fills the non-order-by values in-place for the rows (compared by identity) that are generated by this
+     * materializer and contained in the given set.
+     */
+    void materialize(Set<Object[]> rowsToMaterialize);
+  }
 }
@@ -18,14 +18,17 @@
  */
 package org.apache.pinot.core.operator.combine;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseOperator;
@@ -35,6 +38,7 @@ import org.apache.pinot.core.operator.combine.merger.ResultsBlockMerger;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.util.QueryMultiThreadingUtils;
 import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.spi.accounting.ThreadExecutionContext;
 import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
@@ -48,6 +52,9 @@ import org.slf4j.LoggerFactory;
  * <p>Combine operator uses multiple worker threads to process segments in parallel, and uses the main thread to merge
  * the results blocks from the processed segments. It can early-terminate the query to save the system resources if it
  * detects that the merged results can already satisfy the query, or the query is already errored out or timed out.
+ * <p>The worker threads pick up the segments dynamically from a shared counter, where the segments are ordered by the
+ * estimated cost (number of documents) in descending order so that the large segments are picked up first and the
+ * small segments are used to balance the load across the threads at the end of the execution.
  */
 @SuppressWarnings({"rawtypes"})
 public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends BaseOperator<BaseResultsBlock> {
@@ -68,19 +75,26 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
   protected final AtomicReference<Throwable> _processingException = new AtomicReference<>();
 
   protected final AtomicLong _totalWorkerThreadCpuTimeNs = new AtomicLong(0);
+  // Track the min/max execution time of the tasks to reveal the skew of the workload across the worker threads
+  protected final AtomicLong _minTaskExecutionTimeNs = new AtomicLong(Long.MAX_VALUE);
+  protected final AtomicLong _maxTaskExecutionTimeNs = new AtomicLong(0);
 
   protected BaseCombineOperator(ResultsBlockMerger<T> resultsBlockMerger, List<Operator> operators,
       QueryContext queryContext, ExecutorService executorService) {
     _resultsBlockMerger = resultsBlockMerger;
-    _operators = operators;
-    _numOperators = _operators.size();
+    _numOperators = operators.size();
     _queryContext = queryContext;
     _executorService = executorService;
 
     // NOTE: We split the query execution into multiple tasks, where each task handles the query execution on multiple
     //       (>=1) segments. These tasks are assigned to multiple execution threads so that they can run in parallel.
     //       The parallelism is bounded by the task count.
-    _numTasks = QueryMultiThreadingUtils.getNumTasksForQuery(operators.size(), queryContext.getMaxExecutionThreads());
+    _numTasks = QueryMultiThreadingUtils.getNumTasksForQuery(_numOperators, queryContext.getMaxExecutionThreads());
+
+    // NOTE: When there are multiple tasks, order the operators by the estimated cost so that the most expensive
+    //       segments are processed first (longest-processing-time-first scheduling). Because the tasks pick up the
+    //       next operator dynamically, the cheap segments processed at the end fill up the gaps between the threads.
+    _operators = _numTasks > 1 ? orderByEstimatedCost(operators) : operators;
 
     // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
     // returns. We need to ensure this because the main thread holds the reference to the segments. If a segment is
@@ -113,6 +127,7 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
             Tracing.ThreadAccountantOps.clear();
             return;
           }
+          long startTimeNs = System.nanoTime();
           try {
             processSegments();
           } catch (EarlyTerminationException e) {
@@ -129,6 +144,9 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
             }
             onProcessSegmentsException(t);
           } finally {
+            long executionTimeNs = System.nanoTime() - startTimeNs;
+            _minTaskExecutionTimeNs.accumulateAndGet(executionTimeNs, Math::min);
+            _maxTaskExecutionTimeNs.accumulateAndGet(executionTimeNs, Math::max);
             onProcessSegmentsFinish();
             _phaser.arriveAndDeregister();
             Tracing.ThreadAccountantOps.clear();
@@ -154,6 +172,45 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
     _phaser.awaitAdvance(_phaser.arriveAndDeregister());
   }
 
+  /**
+   * Sets the min/max execution time of the tasks into the results block. This method should be called after all the
+   * tasks are finished.
+   */
+  protected void setTaskExecutionStatistics(BaseResultsBlock resultsBlock) {
+    long minTaskExecutionTimeNs = _minTaskExecutionTimeNs.get();
+    if (minTaskExecutionTimeNs != Long.MAX_VALUE) {
+      resultsBlock.setMinTaskExecutionTimeMs(TimeUnit.NANOSECONDS.toMillis(minTaskExecutionTimeNs));
+      resultsBlock.setMaxTaskExecutionTimeMs(TimeUnit.NANOSECONDS.toMillis(_maxTaskExecutionTimeNs.get()));
+    }
+  }
+
+  /**
+   * Returns the operators ordered by the estimated cost in descending order. The cost is estimated with the number of
+   * documents in the segment, which is available from the segment metadata without executing the query. Operators
+   * without index segment attached are put at the end.
+   */
+  private static List<Operator> orderByEstimatedCost(List<Operator> operators) {
+    // NOTE: Snapshot the costs before sorting because the number of documents can change for the consuming segments
+    int numOperators = operators.size();
+    long[] costs = new long[numOperators];
+    for (int i = 0; i < numOperators; i++) {
+      costs[i] = getEstimatedCost(operators.get(i));
+    }
+    // NOTE: Sorting is stable, so the original order is kept for the segments with the same cost
+    int[] operatorIds = IntStream.range(0, numOperators).boxed()
+        .sorted((i1, i2) -> Long.compare(costs[i2], costs[i1])).mapToInt(Integer::intValue).toArray();
+    List<Operator> orderedOperators = new ArrayList<>(numOperators);
+    for (int operatorId : operatorIds) {
+      orderedOperators.add(operators.get(operatorId));
+    }
+    return orderedOperators;
+  }
+
+  private static long getEstimatedCost(Operator operator) {
+    IndexSegment indexSegment = operator.getIndexSegment();
+    return indexSegment != null ? indexSegment.getSegmentMetadata().getTotalDocs() : 0;
+  }
+
   protected ExceptionResultsBlock getTimeoutResultsBlock(int numBlocksMerged) {
     LOGGER.error("Timed out while polling results block, numBlocksMerged: {} (query: {})", numBlocksMerged,
         _queryContext);
@@ -78,6 +78,7 @@ public abstract class BaseSingleBlockCombineOperator<T extends BaseResultsBlock>
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils.setExecutionStatistics(mergedBlock, _operators, _totalWorkerThreadCpuTimeNs.get(),
         numServerThreads);
+    setTaskExecutionStatistics(mergedBlock);
     return mergedBlock;
   }
 
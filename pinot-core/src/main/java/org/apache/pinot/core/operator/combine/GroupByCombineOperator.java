@@ -32,7 +32,9 @@ import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.IntermediateRecord;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.LongKeyConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.data.table.SpillableIndexedTable;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
 import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
@@ -42,8 +44,10 @@ import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.core.util.GroupByUtils;
 import org.apache.pinot.spi.trace.Tracing;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -136,7 +140,20 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
             if (_indexedTable == null) {
               DataSchema dataSchema = resultsBlock.getDataSchema();
               // NOTE: Use trimSize as resultSize on server size.
-              if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+              int spillThreshold = _queryContext.getGroupBySpillThreshold();
+              QueryMemoryBudget memoryBudget = _queryContext.getMemoryBudget();
+              boolean spillOnMemoryBudget =
+                  memoryBudget != null && memoryBudget.getOverflowMode() == MemoryOverflowMode.SPILL;
+              if ((spillThreshold > 0 || spillOnMemoryBudget) && _queryContext.getOrderByExpressions() != null) {
+                // Spill the groups to disk instead of trimming them so that the results stay accurate. Without the
+                // spill threshold, the groups are spilled only when the query memory budget is exceeded.
+                _indexedTable = new SpillableIndexedTable(dataSchema, _queryContext, _trimSize,
+                    spillThreshold > 0 ? spillThreshold : Integer.MAX_VALUE, _queryContext.getGroupBySpillDir());
+              } else if (LongKeyConcurrentIndexedTable.isSupported(dataSchema, _queryContext)) {
+                // Primitive fast path for GROUP BY on INT/LONG columns with only COUNT/SUM/MIN/MAX
+                _indexedTable = new LongKeyConcurrentIndexedTable(dataSchema, _queryContext, _trimSize, _trimSize,
+                    _trimThreshold);
+              } else if (_trimThreshold >= MAX_TRIM_THRESHOLD && memoryBudget == null) {
                 // special case of trim threshold where it is set to max value.
                 // there won't be any trimming during upsert in this case.
                 // thus we can avoid the overhead of read-lock and write-lock
@@ -167,15 +184,24 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
           if (aggregationGroupByResult != null) {
             // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
             Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+            IndexedTable indexedTable = _indexedTable;
+            LongKeyConcurrentIndexedTable longKeyIndexedTable =
+                indexedTable instanceof LongKeyConcurrentIndexedTable ? (LongKeyConcurrentIndexedTable) indexedTable
+                    : null;
             while (dicGroupKeyIterator.hasNext()) {
               GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
-              Object[] keys = groupKey._keys;
-              Object[] values = Arrays.copyOf(keys, _numColumns);
-              int groupId = groupKey._groupId;
-              for (int i = 0; i < _numAggregationFunctions; i++) {
-                values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+              if (longKeyIndexedTable != null) {
+                // Merge the primitive results directly without materializing the key and record
+                longKeyIndexedTable.upsert(groupKey, aggregationGroupByResult);
+              } else {
+                Object[] keys = groupKey._keys;
+                Object[] values = Arrays.copyOf(keys, _numColumns);
+                int groupId = groupKey._groupId;
+                for (int i = 0; i < _numAggregationFunctions; i++) {
+                  values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+                }
+                indexedTable.upsert(new Key(keys), new Record(values));
               }
-              _indexedTable.upsert(new Key(keys), new Record(values));
               Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
               mergedKeys++;
             }
@@ -230,11 +256,13 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
           String.format("Timed out while combining group-by order-by results after %dms, queryContext = %s", timeoutMs,
               _queryContext);
       LOGGER.error(errorMessage);
+      cleanUpIndexedTable();
       return new ExceptionResultsBlock(new TimeoutException(errorMessage));
     }
 
     Throwable processingException = _processingException.get();
     if (processingException != null) {
+      cleanUpIndexedTable();
       return new ExceptionResultsBlock(processingException);
     }
 
@@ -250,4 +278,14 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     mergedBlock.setResizeTimeMs(indexedTable.getResizeTimeMs());
     return mergedBlock;
   }
+
+  /**
+   * Deletes the records spilled to disk when the query fails before finishing the indexed table.
+   */
+  private void cleanUpIndexedTable() {
+    IndexedTable indexedTable = _indexedTable;
+    if (indexedTable instanceof SpillableIndexedTable) {
+      ((SpillableIndexedTable) indexedTable).cleanUp();
+    }
+  }
 }
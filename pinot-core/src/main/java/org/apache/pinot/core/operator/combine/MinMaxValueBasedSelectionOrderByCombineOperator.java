@@ -295,6 +295,9 @@ public class MinMaxValueBasedSelectionOrderByCombineOperator
         _globalBoundaryValue.set((Comparable) rows.get(_numRowsToKeep - 1)[0]);
       }
     }
+    if (mergedBlock != null) {
+      mergedBlock.materializeRows();
+    }
     return mergedBlock;
   }
 
@@ -313,6 +316,7 @@ public class MinMaxValueBasedSelectionOrderByCombineOperator
       return;
     }
     SelectionOperatorUtils.mergeWithOrdering(mergedBlock, blockToMerge, _numRowsToKeep);
+    mergedBlock.addRowMaterializers(blockToMerge);
   }
 
   private static class MinMaxValueContext {
@@ -21,6 +21,7 @@ package org.apache.pinot.core.operator.combine;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
 import org.apache.pinot.core.operator.blocks.results.SelectionResultsBlock;
 import org.apache.pinot.core.operator.combine.merger.SelectionOrderByResultsBlockMerger;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -31,6 +32,8 @@ import org.apache.pinot.core.query.request.context.QueryContext;
  * {@link org.apache.pinot.core.operator.combine.MinMaxValueBasedSelectionOrderByCombineOperator} first, which will
  * skip processing some segments based on the column min/max value. Otherwise fall back to the default combine
  * (process all segments).
+ * <p>When the segment level operators defer fetching the non-order-by expressions, the values are fetched after all the
+ * results blocks are merged, only for the final top rows.
  */
 @SuppressWarnings("rawtypes")
 public class SelectionOrderByCombineOperator extends BaseSingleBlockCombineOperator<SelectionResultsBlock> {
@@ -45,4 +48,14 @@ public class SelectionOrderByCombineOperator extends BaseSingleBlockCombineOpera
   public String toExplainString() {
     return EXPLAIN_NAME;
   }
+
+  @Override
+  protected BaseResultsBlock mergeResults()
+      throws Exception {
+    BaseResultsBlock mergedBlock = super.mergeResults();
+    if (mergedBlock instanceof SelectionResultsBlock) {
+      ((SelectionResultsBlock) mergedBlock).materializeRows();
+    }
+    return mergedBlock;
+  }
 }
@@ -51,5 +51,6 @@ public class SelectionOrderByResultsBlockMerger implements ResultsBlockMerger<Se
       return;
     }
     SelectionOperatorUtils.mergeWithOrdering(mergedBlock, blockToMerge, _numRowsToKeep);
+    mergedBlock.addRowMaterializers(blockToMerge);
   }
 }
@@ -110,6 +110,18 @@ public final class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     return result.get();
   }
 
+  @Override
+  public int applyAnd(int[] docIds, int length) {
+    int numMatchingDocIds = 0;
+    for (int i = 0; i < length; i++) {
+      int docId = docIds[i];
+      if (_valueMatcher.doesValueMatch(docId)) {
+        docIds[numMatchingDocIds++] = docId;
+      }
+    }
+    return numMatchingDocIds;
+  }
+
   @Override
   public long getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -141,6 +141,16 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return result.get();
   }
 
+  @Override
+  public int applyAnd(int[] docIds, int length) {
+    if (length > _batch.length) {
+      // The value buffers of the matchers are sized to the batch size
+      return ScanBasedDocIdIterator.super.applyAnd(docIds, length);
+    }
+    _numEntriesScanned += length;
+    return length > 0 ? _valueMatcher.matchValues(length, docIds) : 0;
+  }
+
   @Override
   public long getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.segment.spi.Constants;
+
+
+/**
+ * The {@code ScanBasedAndDocIdIterator} is the iterator for AndDocIdSet to perform AND on multiple
+ * ScanBasedDocIdIterators when there is no index-based BlockDocIdIterator to drive the intersection.
+ * <p>Instead of calling {@link BlockDocIdIterator#advance(int)} on each child one document at a time (as
+ * {@link AndDocIdIterator} does), it takes a batch of consecutive document ids, filters it with the first child, then
+ * narrows down the surviving document ids with the remaining children. This way every child decodes its forward index
+ * and evaluates its predicate over a whole batch of values.
+ * <p>The order of the children is adaptive: the selectivity and the evaluation cost of each child are measured on the
+ * first batch and on every {@link #SAMPLING_INTERVAL} batches after that, and the children are re-ranked so that the
+ * ones which eliminate the most document ids per unit of cost are evaluated first. The evaluation of a batch stops as
+ * soon as the running intersection becomes empty. The adaptive ordering can be turned off to keep the given order.
+ */
+public final class ScanBasedAndDocIdIterator implements BlockDocIdIterator {
+  // Number of batches between two samples of the child statistics
+  static final int SAMPLING_INTERVAL = 16;
+
+  private final ScanBasedDocIdIterator[] _docIdIterators;
+  private final int _numDocs;
+  private final boolean _adaptiveOrdering;
+  private final int[] _docIdBuffer = new int[OPTIMAL_ITERATOR_BATCH_SIZE];
+
+  // Statistics of the children collected from the sampled batches, indexed the same way as _docIdIterators
+  private final long[] _numInputDocIds;
+  private final long[] _numOutputDocIds;
+  private final long[] _evaluationTimeNs;
+  private final double[] _ranks;
+
+  private int _nextDocId = 0;
+  private int _numMatchingDocIds = 0;
+  private int _cursor = 0;
+  private int _numBatches = 0;
+
+  public ScanBasedAndDocIdIterator(ScanBasedDocIdIterator[] docIdIterators, int numDocs) {
+    this(docIdIterators, numDocs, true);
+  }
+
+  public ScanBasedAndDocIdIterator(ScanBasedDocIdIterator[] docIdIterators, int numDocs, boolean adaptiveOrdering) {
+    _docIdIterators = docIdIterators;
+    _numDocs = numDocs;
+    _adaptiveOrdering = adaptiveOrdering;
+    int numDocIdIterators = docIdIterators.length;
+    _numInputDocIds = new long[numDocIdIterators];
+    _numOutputDocIds = new long[numDocIdIterators];
+    _evaluationTimeNs = new long[numDocIdIterators];
+    _ranks = new double[numDocIdIterators];
+  }
+
+  /**
+   * Returns the child iterators in the current evaluation order.
+   */
+  public ScanBasedDocIdIterator[] getDocIdIterators() {
+    return _docIdIterators;
+  }
+
+  @Override
+  public int next() {
+    while (_cursor == _numMatchingDocIds) {
+      if (_nextDocId >= _numDocs) {
+        return Constants.EOF;
+      }
+      fillBuffer();
+    }
+    return _docIdBuffer[_cursor++];
+  }
+
+  @Override
+  public int advance(int targetDocId) {
+    // Search the buffered document ids first
+    while (_cursor < _numMatchingDocIds) {
+      int docId = _docIdBuffer[_cursor++];
+      if (docId >= targetDocId) {
+        return docId;
+      }
+    }
+    // Skip the document ids before the target document id
+    _nextDocId = Math.max(_nextDocId, targetDocId);
+    return next();
+  }
+
+  /**
+   * Evaluates the next batch of consecutive document ids against all the child iterators, and keeps the matching
+   * document ids in the buffer.
+   */
+  private void fillBuffer() {
+    int limit = Math.min(_numDocs - _nextDocId, _docIdBuffer.length);
+    for (int i = 0; i < limit; i++) {
+      _docIdBuffer[i] = _nextDocId + i;
+    }
+    _nextDocId += limit;
+    int numMatchingDocIds = limit;
+    if (_adaptiveOrdering && _numBatches++ % SAMPLING_INTERVAL == 0) {
+      int numDocIdIterators = _docIdIterators.length;
+      for (int i = 0; i < numDocIdIterators && numMatchingDocIds > 0; i++) {
+        long startTimeNs = System.nanoTime();
+        _numInputDocIds[i] += numMatchingDocIds;
+        numMatchingDocIds = _docIdIterators[i].applyAnd(_docIdBuffer, numMatchingDocIds);
+        _numOutputDocIds[i] += numMatchingDocIds;
+        _evaluationTimeNs[i] += System.nanoTime() - startTimeNs;
+      }
+      reorder();
+    } else {
+      for (ScanBasedDocIdIterator docIdIterator : _docIdIterators) {
+        numMatchingDocIds = docIdIterator.applyAnd(_docIdBuffer, numMatchingDocIds);
+        if (numMatchingDocIds == 0) {
+          break;
+        }
+      }
+    }
+    _numMatchingDocIds = numMatchingDocIds;
+    _cursor = 0;
+  }
+
+  /**
+   * Re-ranks the children based on the sampled statistics. The rank of a child is its evaluation cost per document
+   * divided by the fraction of document ids it eliminates, and children with lower rank are evaluated first, which
+   * minimizes the expected cost of evaluating a conjunction of independent predicates. Children without statistics
+   * (never reached within the sampled batches) or not eliminating any document id are ranked last, and the sort is
+   * stable so that ties keep the current order.
+   */
+  private void reorder() {
+    int numDocIdIterators = _docIdIterators.length;
+    for (int i = 0; i < numDocIdIterators; i++) {
+      long numInputDocIds = _numInputDocIds[i];
+      long numEliminatedDocIds = numInputDocIds - _numOutputDocIds[i];
+      if (numEliminatedDocIds > 0) {
+        // Add 1ns per document to avoid zero cost when the timer resolution is low
+        _ranks[i] = (double) (_evaluationTimeNs[i] + numInputDocIds) / numEliminatedDocIds;
+      } else {
+        _ranks[i] = Double.POSITIVE_INFINITY;
+      }
+    }
+    // Insertion sort on the (small) arrays of children and statistics
+    for (int i = 1; i < numDocIdIterators; i++) {
+      for (int j = i; j > 0 && _ranks[j] < _ranks[j - 1]; j--) {
+        swap(j, j - 1);
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    ScanBasedDocIdIterator docIdIterator = _docIdIterators[i];
+    _docIdIterators[i] = _docIdIterators[j];
+    _docIdIterators[j] = docIdIterator;
+    swap(_numInputDocIds, i, j);
+    swap(_numOutputDocIds, i, j);
+    swap(_evaluationTimeNs, i, j);
+    double rank = _ranks[i];
+    _ranks[i] = _ranks[j];
+    _ranks[j] = rank;
+  }
+
+  private static void swap(long[] values, int i, int j) {
+    long value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+}
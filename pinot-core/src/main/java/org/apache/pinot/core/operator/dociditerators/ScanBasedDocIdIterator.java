@@ -21,6 +21,7 @@ package org.apache.pinot.core.operator.dociditerators;
 import java.util.OptionalInt;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
@@ -48,6 +49,27 @@ public interface ScanBasedDocIdIterator extends BlockDocIdIterator {
     return applyAnd(docIds.getBatchIterator(), OptionalInt.of(docIds.first()), OptionalInt.of(docIds.last()));
   }
 
+  /**
+   * Applies AND operation to a batch of candidate document ids in ascending order, compacts the matching document ids
+   * into the prefix of the array and returns the number of matching document ids.
+   * <p>Implementations should override this method to read the forward index and apply the predicate over the whole
+   * batch instead of one document at a time.
+   */
+  default int applyAnd(int[] docIds, int length) {
+    if (length == 0) {
+      return 0;
+    }
+    MutableRoaringBitmap candidateDocIds = new MutableRoaringBitmap();
+    candidateDocIds.addN(docIds, 0, length);
+    MutableRoaringBitmap matchingDocIds = applyAnd(candidateDocIds);
+    int numMatchingDocIds = 0;
+    IntIterator iterator = matchingDocIds.getIntIterator();
+    while (iterator.hasNext()) {
+      docIds[numMatchingDocIds++] = iterator.next();
+    }
+    return numMatchingDocIds;
+  }
+
   /**
    * Returns the number of entries (SV value contains one entry, MV value contains multiple entries) scanned during the
    * iteration. This method should be called after the iteration is done.
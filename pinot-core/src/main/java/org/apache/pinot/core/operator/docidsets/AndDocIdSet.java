@@ -30,7 +30,9 @@ import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.dociditerators.AndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.BitmapBasedDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ExpressionScanDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedAndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.SortedDocIdIterator;
 import org.apache.pinot.core.util.SortedRangeIntersection;
@@ -52,19 +54,31 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  *     merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
  *   </li>
  *   <li>
+ *     When there is no index-based BlockDocIdIterator but more than one column ScanBasedDocIdIterator, construct a
+ *     ScanBasedAndDocIdIterator to evaluate them in batches of document ids, in an order adapted to their measured
+ *     selectivity and cost. If there is no remaining BlockDocIdIterator, directly return the
+ *     ScanBasedAndDocIdIterator; otherwise, construct and return an AndDocIdIterator with the
+ *     ScanBasedAndDocIdIterator and the remaining BlockDocIdIterators.
+ *   </li>
+ *   <li>
  *     Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
  *   </li>
  * </ul>
  */
 public final class AndDocIdSet implements BlockDocIdSet {
   private final List<BlockDocIdSet> _docIdSets;
+  private final int _numDocs;
   private final boolean _cardinalityBasedRankingForScan;
+  private final boolean _adaptiveScanReordering;
   private long _numEntriesScannedInFilter = 0L;
 
-  public AndDocIdSet(List<BlockDocIdSet> docIdSets, @Nullable Map<String, String> queryOptions) {
+  public AndDocIdSet(List<BlockDocIdSet> docIdSets, int numDocs, @Nullable Map<String, String> queryOptions) {
     _docIdSets = docIdSets instanceof ArrayList ? docIdSets : new ArrayList<>(docIdSets);
+    _numDocs = numDocs;
     _cardinalityBasedRankingForScan =
         !MapUtils.isEmpty(queryOptions) && QueryOptionsUtils.isAndScanReorderingEnabled(queryOptions);
+    _adaptiveScanReordering =
+        MapUtils.isEmpty(queryOptions) || !QueryOptionsUtils.isSkipScanFilterReorder(queryOptions);
   }
 
   @Override
@@ -77,6 +91,7 @@ public final class AndDocIdSet implements BlockDocIdSet {
     List<BitmapBasedDocIdIterator> bitmapBasedDocIdIterators = new ArrayList<>();
     List<ScanBasedDocIdIterator> scanBasedDocIdIterators = new ArrayList<>();
     List<BlockDocIdIterator> remainingDocIdIterators = new ArrayList<>();
+    int numColumnScanDocIdIterators = 0;
 
     Iterator<BlockDocIdSet> iterator = _docIdSets.iterator();
     for (int i = 0; iterator.hasNext(); i++) {
@@ -99,6 +114,9 @@ public final class AndDocIdSet implements BlockDocIdSet {
         iterator.remove();
       } else if (docIdIterator instanceof ScanBasedDocIdIterator) {
         scanBasedDocIdIterators.add((ScanBasedDocIdIterator) docIdIterator);
+        if (!(docIdIterator instanceof ExpressionScanDocIdIterator)) {
+          numColumnScanDocIdIterators++;
+        }
       } else {
         remainingDocIdIterators.add(docIdIterator);
       }
@@ -164,6 +182,10 @@ public final class AndDocIdSet implements BlockDocIdSet {
         }
       }
       for (ScanBasedDocIdIterator scanBasedDocIdIterator : scanBasedDocIdIterators) {
+        if (docIds.isEmpty()) {
+          // Short-circuit the remaining scans when the intersection is already empty
+          break;
+        }
         docIds = scanBasedDocIdIterator.applyAnd(docIds);
       }
       RangelessBitmapDocIdIterator rangelessBitmapDocIdIterator = new RangelessBitmapDocIdIterator(docIds);
@@ -177,6 +199,35 @@ public final class AndDocIdSet implements BlockDocIdSet {
         }
         return new AndDocIdIterator(docIdIterators);
       }
+    } else if (numIndexBasedDocIdIterators == 0 && numColumnScanDocIdIterators > 1) {
+      // When there is no index-based BlockDocIdIterator but more than one column ScanBasedDocIdIterator, evaluate them
+      // in batches of document ids with a ScanBasedAndDocIdIterator instead of advancing them one document at a time.
+      // NOTE: ExpressionScanDocIdIterator already evaluates the expression block by block, so keep it as a remaining
+      //       BlockDocIdIterator.
+      List<ScanBasedDocIdIterator> columnScanDocIdIterators = new ArrayList<>(numColumnScanDocIdIterators);
+      for (ScanBasedDocIdIterator scanBasedDocIdIterator : scanBasedDocIdIterators) {
+        if (scanBasedDocIdIterator instanceof ExpressionScanDocIdIterator) {
+          remainingDocIdIterators.add(scanBasedDocIdIterator);
+        } else {
+          columnScanDocIdIterators.add(scanBasedDocIdIterator);
+        }
+      }
+      // NOTE: The order of the column scans is adapted at runtime based on the measured selectivity and cost unless
+      //       scan filter reordering is skipped.
+      ScanBasedAndDocIdIterator scanBasedAndDocIdIterator =
+          new ScanBasedAndDocIdIterator(columnScanDocIdIterators.toArray(new ScanBasedDocIdIterator[0]), _numDocs,
+              _adaptiveScanReordering);
+      numRemainingDocIdIterators = remainingDocIdIterators.size();
+      if (numRemainingDocIdIterators == 0) {
+        return scanBasedAndDocIdIterator;
+      } else {
+        BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[numRemainingDocIdIterators + 1];
+        docIdIterators[0] = scanBasedAndDocIdIterator;
+        for (int i = 0; i < numRemainingDocIdIterators; i++) {
+          docIdIterators[i + 1] = remainingDocIdIterators.get(i);
+        }
+        return new AndDocIdIterator(docIdIterators);
+      }
     } else {
       // Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
 
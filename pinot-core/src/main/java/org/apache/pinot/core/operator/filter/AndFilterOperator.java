@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.commons.collections.MapUtils;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.docidsets.AndDocIdSet;
@@ -52,7 +54,7 @@ public class AndFilterOperator extends BaseFilterOperator {
     for (BaseFilterOperator filterOperator : _filterOperators) {
       blockDocIdSets.add(filterOperator.getTrues());
     }
-    return new AndDocIdSet(blockDocIdSets, _queryOptions);
+    return new AndDocIdSet(blockDocIdSets, _numDocs, _queryOptions);
   }
 
   @Override
@@ -97,6 +99,29 @@ public class AndFilterOperator extends BaseFilterOperator {
 
   @Override
   public String toExplainString() {
+    if (isAdaptiveScanReordering()) {
+      return EXPLAIN_NAME + "(evaluationOrder:adaptive)";
+    }
     return EXPLAIN_NAME;
   }
+
+  /**
+   * Returns whether the column scans are evaluated in batches with the order adapted to their measured selectivity and
+   * cost (see {@link org.apache.pinot.core.operator.dociditerators.ScanBasedAndDocIdIterator}), which applies when
+   * there are multiple column scans and no index-based child.
+   */
+  private boolean isAdaptiveScanReordering() {
+    if (!MapUtils.isEmpty(_queryOptions) && QueryOptionsUtils.isSkipScanFilterReorder(_queryOptions)) {
+      return false;
+    }
+    int numColumnScans = 0;
+    for (BaseFilterOperator filterOperator : _filterOperators) {
+      if (filterOperator instanceof ScanBasedFilterOperator) {
+        numColumnScans++;
+      } else if (!(filterOperator instanceof ExpressionFilterOperator)) {
+        return false;
+      }
+    }
+    return numColumnScans > 1;
+  }
 }
@@ -65,7 +65,7 @@ public abstract class BaseColumnFilterOperator extends BaseFilterOperator {
 
   private BlockDocIdSet excludeNulls(BlockDocIdSet blockDocIdSet, ImmutableRoaringBitmap nullBitmap) {
     return new AndDocIdSet(Arrays.asList(blockDocIdSet,
-        new BitmapDocIdSet(ImmutableRoaringBitmap.flip(nullBitmap, 0, (long) _numDocs), _numDocs)),
+        new BitmapDocIdSet(ImmutableRoaringBitmap.flip(nullBitmap, 0, (long) _numDocs), _numDocs)), _numDocs,
         _queryContext.getQueryOptions());
   }
 
@@ -65,7 +65,7 @@ public class OrFilterOperator extends BaseFilterOperator {
         blockDocIdSets.add(filterOperator.getFalses());
       }
     }
-    return new AndDocIdSet(blockDocIdSets, _queryOptions);
+    return new AndDocIdSet(blockDocIdSets, _numDocs, _queryOptions);
   }
 
   @Override
@@ -47,6 +47,7 @@ import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.core.query.utils.OrderByComparatorFactory;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.roaringbitmap.RoaringBitmap;
@@ -67,6 +68,9 @@ import org.roaringbitmap.RoaringBitmap;
  *     ids for the top rows for the non-order-by output expressions. This optimization can significantly reduce the
  *     scanning and improve the query performance when most/all of the output expressions are not ordered (e.g. SELECT *
  *     FROM table ORDER BY col).
+ *     When {@link QueryContext#isDeferSelectionMaterialization()} is set, the second round scan is deferred to the
+ *     combine operator, which only fetches the non-order-by output expressions for the top rows across all the
+ *     segments.
  *   </li>
  * </ul>
  */
@@ -81,9 +85,13 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
   private final BaseProjectOperator<?> _projectOperator;
   private final List<OrderByExpressionContext> _orderByExpressions;
   private final ColumnContext[] _orderByColumnContexts;
-  private final int _numRowsToKeep;
   private final Comparator<Object[]> _comparator;
   private final PriorityQueue<Object[]> _rows;
+  private final QueryMemoryBudget _memoryBudget;
+  private final QueryMemoryBudget.RowReservation _memoryReservation;
+
+  // Number of rows to keep, which is offset + limit, or lower when the query memory budget is exceeded
+  private int _numRowsToKeep;
 
   private int _numDocsScanned = 0;
   private long _numEntriesScannedPostFilter = 0;
@@ -110,6 +118,21 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
         OrderByComparatorFactory.getComparator(_orderByExpressions, _orderByColumnContexts, _nullHandlingEnabled);
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
         _comparator.reversed());
+
+    _memoryBudget = queryContext.getMemoryBudget();
+    if (_memoryBudget != null) {
+      // The types of the non-order-by expressions are unknown before fetching them, estimate them as objects
+      int numExpressions = expressions.size();
+      DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numExpressions];
+      Arrays.fill(columnDataTypes, DataSchema.ColumnDataType.OBJECT);
+      for (int i = 0; i < numOrderByExpressions; i++) {
+        columnDataTypes[i] = DataSchema.ColumnDataType.fromDataType(_orderByColumnContexts[i].getDataType(),
+            _orderByColumnContexts[i].isSingleValue());
+      }
+      _memoryReservation = _memoryBudget.newRowReservation(columnDataTypes);
+    } else {
+      _memoryReservation = null;
+    }
   }
 
   @Override
@@ -126,13 +149,40 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
 
   @Override
   protected SelectionResultsBlock getNextBlock() {
-    if (_expressions.size() == _orderByExpressions.size()) {
-      return computeAllOrdered();
-    } else {
-      return computePartiallyOrdered();
+    try {
+      if (_expressions.size() == _orderByExpressions.size()) {
+        return computeAllOrdered();
+      } else {
+        return computePartiallyOrdered();
+      }
+    } finally {
+      // The memory is reserved only while scanning the segment, and is released when the rows are handed off to the
+      // combine operator, which keeps at most offset + limit rows after merging
+      if (_memoryReservation != null) {
+        _memoryReservation.release(0);
+      }
     }
   }
 
+  /**
+   * Reserves the memory for the rows in the priority queue from the query memory budget. When the budget is exceeded,
+   * drops the bottom rows that do not fit into the budget, and stops growing the priority queue.
+   */
+  private void reserveMemory() {
+    int numRows = _rows.size();
+    if (_memoryReservation == null || numRows <= _memoryReservation.getNumReservedRows()
+        || _memoryReservation.reserve(numRows)) {
+      return;
+    }
+    _memoryBudget.onExceeded("Selection order-by");
+    long maxNumRows = Math.max(_memoryReservation.getMaxNumRows(), 1);
+    while (_rows.size() > maxNumRows) {
+      _rows.poll();
+    }
+    _numRowsToKeep = _rows.size();
+    _memoryReservation.reserve(_numRowsToKeep);
+  }
+
   /**
    * Helper method to compute the result when all the output expressions are ordered.
    */
@@ -171,6 +221,7 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
         }
       }
       _numDocsScanned += numDocsFetched;
+      reserveMemory();
     }
     _numEntriesScannedPostFilter = (long) _numDocsScanned * numColumnsProjected;
 
@@ -235,43 +286,94 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
         }
       }
       _numDocsScanned += numDocsFetched;
+      reserveMemory();
     }
     _numEntriesScannedPostFilter = (long) _numDocsScanned * numColumnsProjected;
 
-    // Copy the rows (shallow copy so that any modification will also be reflected to the priority queue) into a list,
-    // and store the document ids into a bitmap
-    int numRows = _rows.size();
-    List<Object[]> rowList = new ArrayList<>(numRows);
-    RoaringBitmap docIds = new RoaringBitmap();
-    for (Object[] row : _rows) {
-      rowList.add(row);
-      int docId = (int) row[numOrderByExpressions];
-      docIds.add(docId);
-    }
-
-    // Sort the rows with docIds to match the order of the bitmap (bitmap always returns values in ascending order)
-    rowList.sort(Comparator.comparingInt(o -> (int) o[numOrderByExpressions]));
-
-    // Construct a new TransformOperator to fetch the non-order-by expressions for the top rows
+    // Construct a TransformOperator for the non-order-by expressions
     List<ExpressionContext> nonOrderByExpressions = _expressions.subList(numOrderByExpressions, numExpressions);
     Set<String> columns = new HashSet<>();
     for (ExpressionContext expressionContext : nonOrderByExpressions) {
       expressionContext.getColumns(columns);
     }
-    int numColumns = columns.size();
     Map<String, DataSource> dataSourceMap = new HashMap<>();
     for (String column : columns) {
       dataSourceMap.put(column, _indexSegment.getDataSource(column));
     }
-    ProjectionOperator projectionOperator =
-        ProjectionOperatorUtils.getProjectionOperator(dataSourceMap, new BitmapDocIdSetOperator(docIds, numRows));
-    TransformOperator transformOperator =
-        new TransformOperator(_queryContext, projectionOperator, nonOrderByExpressions);
+    boolean deferMaterialization = _queryContext.isDeferSelectionMaterialization();
+    TransformOperator transformOperator;
+    if (deferMaterialization) {
+      // Defer fetching the non-order-by expression values until the top rows across all the segments are determined in
+      // the combine operator. The TransformOperator is only used to get the result column context here.
+      transformOperator = getTransformOperator(nonOrderByExpressions, dataSourceMap, new RoaringBitmap(), 0);
+    } else {
+      // Copy the rows (shallow copy so that any modification will also be reflected to the priority queue) into a list
+      transformOperator = fillNonOrderByValues(new ArrayList<>(_rows), nonOrderByExpressions, dataSourceMap);
+    }
+
+    // Create the data schema
+    String[] columnNames = new String[numExpressions];
+    DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numExpressions];
+    for (int i = 0; i < numExpressions; i++) {
+      columnNames[i] = _expressions.get(i).toString();
+    }
+    for (int i = 0; i < numOrderByExpressions; i++) {
+      columnDataTypes[i] = DataSchema.ColumnDataType.fromDataType(_orderByColumnContexts[i].getDataType(),
+          _orderByColumnContexts[i].isSingleValue());
+    }
+    int numNonOrderByExpressions = nonOrderByExpressions.size();
+    for (int i = 0; i < numNonOrderByExpressions; i++) {
+      ColumnContext columnContext = transformOperator.getResultColumnContext(nonOrderByExpressions.get(i));
+      columnDataTypes[numOrderByExpressions + i] =
+          DataSchema.ColumnDataType.fromDataType(columnContext.getDataType(), columnContext.isSingleValue());
+    }
+    DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
+
+    List<Object[]> sortedRows = getSortedRows();
+    SelectionResultsBlock resultsBlock = new SelectionResultsBlock(dataSchema, sortedRows, _comparator, _queryContext);
+    if (deferMaterialization) {
+      resultsBlock.addRowMaterializer(rowsToMaterialize -> {
+        List<Object[]> rows = new ArrayList<>(Math.min(sortedRows.size(), rowsToMaterialize.size()));
+        for (Object[] row : sortedRows) {
+          if (rowsToMaterialize.contains(row)) {
+            rows.add(row);
+          }
+        }
+        if (!rows.isEmpty()) {
+          fillNonOrderByValues(rows, nonOrderByExpressions, dataSourceMap);
+        }
+      });
+    }
+    return resultsBlock;
+  }
+
+  /**
+   * Helper method to fetch the non-order-by expression values for the given rows (with document id stored after the
+   * order-by expression values), and fill them into the rows in-place. Returns the TransformOperator used to fetch the
+   * values.
+   */
+  private TransformOperator fillNonOrderByValues(List<Object[]> rows, List<ExpressionContext> nonOrderByExpressions,
+      Map<String, DataSource> dataSourceMap) {
+    int numOrderByExpressions = _orderByExpressions.size();
+
+    // Store the document ids into a bitmap, and sort the rows with docIds to match the order of the bitmap (bitmap
+    // always returns values in ascending order)
+    int numRows = rows.size();
+    RoaringBitmap docIds = new RoaringBitmap();
+    for (Object[] row : rows) {
+      docIds.add((int) row[numOrderByExpressions]);
+    }
+    rows.sort(Comparator.comparingInt(o -> (int) o[numOrderByExpressions]));
+
+    // Construct a new TransformOperator to fetch the non-order-by expressions for the rows
+    TransformOperator transformOperator = getTransformOperator(nonOrderByExpressions, dataSourceMap, docIds, numRows);
 
     // Fill the non-order-by expression values
     int numNonOrderByExpressions = nonOrderByExpressions.size();
-    blockValSets = new BlockValSet[numNonOrderByExpressions];
+    int numColumns = dataSourceMap.size();
+    BlockValSet[] blockValSets = new BlockValSet[numNonOrderByExpressions];
     int rowBaseId = 0;
+    ValueBlock valueBlock;
     while ((valueBlock = transformOperator.nextBlock()) != null) {
       for (int i = 0; i < numNonOrderByExpressions; i++) {
         ExpressionContext expression = nonOrderByExpressions.get(i);
@@ -280,7 +382,7 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
       RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = valueBlock.getNumDocs();
       for (int i = 0; i < numDocsFetched; i++) {
-        blockValueFetcher.getRow(i, rowList.get(rowBaseId + i), numOrderByExpressions);
+        blockValueFetcher.getRow(i, rows.get(rowBaseId + i), numOrderByExpressions);
       }
       if (_nullHandlingEnabled) {
         RoaringBitmap[] nullBitmaps = new RoaringBitmap[numNonOrderByExpressions];
@@ -288,7 +390,7 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
           nullBitmaps[i] = blockValSets[i].getNullBitmap();
         }
         for (int i = 0; i < numDocsFetched; i++) {
-          Object[] values = rowList.get(rowBaseId + i);
+          Object[] values = rows.get(rowBaseId + i);
           for (int colId = 0; colId < numNonOrderByExpressions; colId++) {
             if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(i)) {
               int valueColId = numOrderByExpressions + colId;
@@ -300,25 +402,14 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
       _numEntriesScannedPostFilter += (long) numDocsFetched * numColumns;
       rowBaseId += numDocsFetched;
     }
+    return transformOperator;
+  }
 
-    // Create the data schema
-    String[] columnNames = new String[numExpressions];
-    DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numExpressions];
-    for (int i = 0; i < numExpressions; i++) {
-      columnNames[i] = _expressions.get(i).toString();
-    }
-    for (int i = 0; i < numOrderByExpressions; i++) {
-      columnDataTypes[i] = DataSchema.ColumnDataType.fromDataType(_orderByColumnContexts[i].getDataType(),
-          _orderByColumnContexts[i].isSingleValue());
-    }
-    for (int i = 0; i < numNonOrderByExpressions; i++) {
-      ColumnContext columnContext = transformOperator.getResultColumnContext(nonOrderByExpressions.get(i));
-      columnDataTypes[numOrderByExpressions + i] =
-          DataSchema.ColumnDataType.fromDataType(columnContext.getDataType(), columnContext.isSingleValue());
-    }
-    DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
-
-    return new SelectionResultsBlock(dataSchema, getSortedRows(), _comparator, _queryContext);
+  private TransformOperator getTransformOperator(List<ExpressionContext> nonOrderByExpressions,
+      Map<String, DataSource> dataSourceMap, RoaringBitmap docIds, int numDocs) {
+    ProjectionOperator projectionOperator =
+        ProjectionOperatorUtils.getProjectionOperator(dataSourceMap, new BitmapDocIdSetOperator(docIds, numDocs));
+    return new TransformOperator(_queryContext, projectionOperator, nonOrderByExpressions);
   }
 
   private List<Object[]> getSortedRows() {
@@ -110,6 +110,7 @@ public abstract class BaseStreamingCombineOperator<T extends BaseResultsBlock> e
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils.setExecutionStatistics(finalBlock, _operators, _totalWorkerThreadCpuTimeNs.get(),
         numServerThreads);
+    setTaskExecutionStatistics(finalBlock);
     return finalBlock;
   }
 
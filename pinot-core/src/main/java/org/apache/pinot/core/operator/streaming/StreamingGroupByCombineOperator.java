@@ -33,7 +33,9 @@ import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.IntermediateRecord;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.LongKeyConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.data.table.SpillableIndexedTable;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
 import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
@@ -127,6 +129,7 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils.setExecutionStatistics(finalBlock, _operators, _totalWorkerThreadCpuTimeNs.get(),
         numServerThreads);
+    setTaskExecutionStatistics(finalBlock);
     return finalBlock;
   }
 
@@ -164,7 +167,16 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
             if (_indexedTable == null) {
               DataSchema dataSchema = resultsBlock.getDataSchema();
               // NOTE: Use trimSize as resultSize on server size.
-              if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+              int spillThreshold = _queryContext.getGroupBySpillThreshold();
+              if (spillThreshold > 0 && _queryContext.getOrderByExpressions() != null) {
+                // Spill the groups to disk instead of trimming them so that the results stay accurate
+                _indexedTable = new SpillableIndexedTable(dataSchema, _queryContext, _trimSize, spillThreshold,
+                    _queryContext.getGroupBySpillDir());
+              } else if (LongKeyConcurrentIndexedTable.isSupported(dataSchema, _queryContext)) {
+                // Primitive fast path for GROUP BY on INT/LONG columns with only COUNT/SUM/MIN/MAX
+                _indexedTable = new LongKeyConcurrentIndexedTable(dataSchema, _queryContext, _trimSize, _trimSize,
+                    _trimThreshold);
+              } else if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
                 // special case of trim threshold where it is set to max value.
                 // there won't be any trimming during upsert in this case.
                 // thus we can avoid the overhead of read-lock and write-lock
@@ -195,15 +207,24 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
           if (aggregationGroupByResult != null) {
             // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
             Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+            IndexedTable indexedTable = _indexedTable;
+            LongKeyConcurrentIndexedTable longKeyIndexedTable =
+                indexedTable instanceof LongKeyConcurrentIndexedTable ? (LongKeyConcurrentIndexedTable) indexedTable
+                    : null;
             while (dicGroupKeyIterator.hasNext()) {
               GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
-              Object[] keys = groupKey._keys;
-              Object[] values = Arrays.copyOf(keys, _numColumns);
-              int groupId = groupKey._groupId;
-              for (int i = 0; i < _numAggregationFunctions; i++) {
-                values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+              if (longKeyIndexedTable != null) {
+                // Merge the primitive results directly without materializing the key and record
+                longKeyIndexedTable.upsert(groupKey, aggregationGroupByResult);
+              } else {
+                Object[] keys = groupKey._keys;
+                Object[] values = Arrays.copyOf(keys, _numColumns);
+                int groupId = groupKey._groupId;
+                for (int i = 0; i < _numAggregationFunctions; i++) {
+                  values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+                }
+                indexedTable.upsert(new Key(keys), new Record(values));
               }
-              _indexedTable.upsert(new Key(keys), new Record(values));
               Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
               mergedKeys++;
             }
@@ -235,11 +256,13 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
           String.format("Timed out while combining group-by order-by results after %dms, queryContext = %s", timeoutMs,
               _queryContext);
       LOGGER.error(errorMessage);
+      cleanUpIndexedTable();
       return new ExceptionResultsBlock(new TimeoutException(errorMessage));
     }
 
     Throwable processingException = _processingException.get();
     if (processingException != null) {
+      cleanUpIndexedTable();
       return new ExceptionResultsBlock(processingException);
     }
 
@@ -265,4 +288,14 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
   public void onProcessSegmentsFinish() {
     _operatorLatch.countDown();
   }
+
+  /**
+   * Deletes the records spilled to disk when the query fails before finishing the indexed table.
+   */
+  private void cleanUpIndexedTable() {
+    IndexedTable indexedTable = _indexedTable;
+    if (indexedTable instanceof SpillableIndexedTable) {
+      ((SpillableIndexedTable) indexedTable).cleanUp();
+    }
+  }
 }
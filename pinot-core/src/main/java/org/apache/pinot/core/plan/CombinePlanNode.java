@@ -140,6 +140,10 @@ public class CombinePlanNode implements PlanNode {
           return new SelectionOnlyCombineOperator(operators, _queryContext, _executorService);
         } else {
           // Selection order-by
+          // NOTE: Defer fetching the non-order-by expressions to the combine operator so that only the top rows across
+          //       all the segments are materialized. When prefetch is enabled, the column buffers are released after
+          //       processing each segment, so the values need to be fetched within the segment level operator.
+          _queryContext.setDeferSelectionMaterialization(!_queryContext.isEnablePrefetch());
           List<OrderByExpressionContext> orderByExpressions = _queryContext.getOrderByExpressions();
           assert orderByExpressions != null;
           if (orderByExpressions.get(0).getExpression().getType() == ExpressionContext.Type.IDENTIFIER) {
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.operator.SegmentResultsCacheOperator;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * A wrapper for the segment-level plan node to serve the segment-level results from the {@link SegmentResultsCache}.
+ * NOTE: This is only used if <code>pinot.server.query.executor.segment.results.cache.max.size.bytes</code> is positive
+ * Similar to {@link AcquireReleaseColumnsSegmentPlanNode}, this PlanNode does not invoke a <code>run</code> on the
+ * childPlanNode in its run method. Instead, it passes the childPlanNode to the {@link SegmentResultsCacheOperator},
+ * which only runs the childPlanNode on a cache miss, so that the planning cost is also saved on a cache hit.
+ */
+public class SegmentResultsCachePlanNode implements PlanNode {
+  private final PlanNode _childPlanNode;
+  private final IndexSegment _indexSegment;
+  private final QueryContext _queryContext;
+  private final SegmentResultsCache _segmentResultsCache;
+  private final String _queryFingerprint;
+  private final ServerMetrics _serverMetrics;
+
+  public SegmentResultsCachePlanNode(PlanNode childPlanNode, IndexSegment indexSegment, QueryContext queryContext,
+      SegmentResultsCache segmentResultsCache, String queryFingerprint, @Nullable ServerMetrics serverMetrics) {
+    _childPlanNode = childPlanNode;
+    _indexSegment = indexSegment;
+    _queryContext = queryContext;
+    _segmentResultsCache = segmentResultsCache;
+    _queryFingerprint = queryFingerprint;
+    _serverMetrics = serverMetrics;
+  }
+
+  @Override
+  public SegmentResultsCacheOperator run() {
+    return new SegmentResultsCacheOperator(_childPlanNode, _indexSegment, _queryContext, _segmentResultsCache,
+        _queryFingerprint, _serverMetrics);
+  }
+}
@@ -20,13 +20,16 @@ package org.apache.pinot.core.plan.maker;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FilterContext;
@@ -42,18 +45,22 @@ import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultsCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.core.util.GroupByUtils;
 import org.apache.pinot.segment.spi.FetchContext;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,6 +92,27 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // set as pinot.server.query.executor.groupby.trim.threshold
   public static final String GROUPBY_TRIM_THRESHOLD_KEY = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
+  // Instance config key for the number of groups held in memory for server combine beyond which the groups are spilled
+  // to disk instead of being trimmed, non-positive value disables spilling
+  // Set as pinot.server.query.executor.groupby.spill.threshold
+  public static final String GROUPBY_SPILL_THRESHOLD_KEY = "groupby.spill.threshold";
+  public static final int DEFAULT_GROUPBY_SPILL_THRESHOLD = -1;
+  // Set as pinot.server.query.executor.groupby.spill.dir
+  public static final String GROUPBY_SPILL_DIR_KEY = "groupby.spill.dir";
+  // Instance config key for the max size (in bytes) of the segment-level results cache, non-positive value disables
+  // the cache
+  // Set as pinot.server.query.executor.segment.results.cache.max.size.bytes
+  public static final String SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY = "segment.results.cache.max.size.bytes";
+  public static final long DEFAULT_SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES = 0;
+
+  // Instance config key for the budget (in bytes) of the memory held by the memory intensive operators (group-by,
+  // distinct, order-by) of a query, non-positive value disables the budget
+  // Set as pinot.server.query.executor.max.query.memory.bytes
+  public static final String MAX_QUERY_MEMORY_BYTES_KEY = "max.query.memory.bytes";
+  public static final long DEFAULT_MAX_QUERY_MEMORY_BYTES = -1;
+  // Set as pinot.server.query.executor.query.memory.overflow.mode
+  public static final String QUERY_MEMORY_OVERFLOW_MODE_KEY = "query.memory.overflow.mode";
+  public static final MemoryOverflowMode DEFAULT_QUERY_MEMORY_OVERFLOW_MODE = MemoryOverflowMode.TRIM;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InstancePlanMakerImplV2.class);
 
@@ -97,6 +125,11 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private int _minSegmentGroupTrimSize = DEFAULT_MIN_SEGMENT_GROUP_TRIM_SIZE;
   private int _minServerGroupTrimSize = DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   private int _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  private int _groupBySpillThreshold = DEFAULT_GROUPBY_SPILL_THRESHOLD;
+  private File _groupBySpillDir = FileUtils.getTempDirectory();
+  private long _maxQueryMemoryBytes = DEFAULT_MAX_QUERY_MEMORY_BYTES;
+  private MemoryOverflowMode _queryMemoryOverflowMode = DEFAULT_QUERY_MEMORY_OVERFLOW_MODE;
+  private SegmentResultsCache _segmentResultsCache;
 
   public InstancePlanMakerImplV2() {
   }
@@ -127,10 +160,28 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _groupByTrimThreshold = queryExecutorConfig.getProperty(GROUPBY_TRIM_THRESHOLD_KEY, DEFAULT_GROUPBY_TRIM_THRESHOLD);
     Preconditions.checkState(_groupByTrimThreshold > 0,
         "Invalid configurable: groupByTrimThreshold: %d must be positive", _groupByTrimThreshold);
+    _groupBySpillThreshold =
+        queryExecutorConfig.getProperty(GROUPBY_SPILL_THRESHOLD_KEY, DEFAULT_GROUPBY_SPILL_THRESHOLD);
+    String groupBySpillDir = queryExecutorConfig.getProperty(GROUPBY_SPILL_DIR_KEY);
+    if (groupBySpillDir != null) {
+      _groupBySpillDir = new File(groupBySpillDir);
+    }
+    _maxQueryMemoryBytes = queryExecutorConfig.getProperty(MAX_QUERY_MEMORY_BYTES_KEY, DEFAULT_MAX_QUERY_MEMORY_BYTES);
+    _queryMemoryOverflowMode = MemoryOverflowMode.valueOf(
+        queryExecutorConfig.getProperty(QUERY_MEMORY_OVERFLOW_MODE_KEY, DEFAULT_QUERY_MEMORY_OVERFLOW_MODE.name())
+            .toUpperCase());
+    long segmentResultsCacheMaxSizeBytes = queryExecutorConfig.getProperty(SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY,
+        DEFAULT_SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES);
+    if (segmentResultsCacheMaxSizeBytes > 0) {
+      _segmentResultsCache = new SegmentResultsCache(segmentResultsCacheMaxSizeBytes);
+    }
     LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, maxInitialResultHolderCapacity: {}, "
-            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}",
-        _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit, _minSegmentGroupTrimSize,
-        _minServerGroupTrimSize, _groupByTrimThreshold);
+            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}, "
+            + "groupBySpillThreshold: {}, groupBySpillDir: {}, maxQueryMemoryBytes: {}, queryMemoryOverflowMode: {}, "
+            + "segmentResultsCacheMaxSizeBytes: {}", _maxExecutionThreads, _maxInitialResultHolderCapacity,
+        _numGroupsLimit, _minSegmentGroupTrimSize, _minServerGroupTrimSize, _groupByTrimThreshold,
+        _groupBySpillThreshold, _groupBySpillDir, _maxQueryMemoryBytes, _queryMemoryOverflowMode,
+        segmentResultsCacheMaxSizeBytes);
   }
 
   @Override
@@ -141,20 +192,22 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     int numSegments = indexSegments.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
     List<FetchContext> fetchContexts;
+    String queryFingerprint =
+        _segmentResultsCache != null ? SegmentResultsCache.getQueryFingerprint(queryContext) : null;
 
     if (queryContext.isEnablePrefetch()) {
       fetchContexts = new ArrayList<>(numSegments);
       for (IndexSegment indexSegment : indexSegments) {
         FetchContext fetchContext = _fetchPlanner.planFetchForProcessing(indexSegment, queryContext);
         fetchContexts.add(fetchContext);
-        planNodes.add(
-            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(indexSegment, queryContext), indexSegment,
-                fetchContext));
+        planNodes.add(new AcquireReleaseColumnsSegmentPlanNode(
+            makeCachedSegmentPlanNode(indexSegment, queryContext, queryFingerprint, serverMetrics), indexSegment,
+            fetchContext));
       }
     } else {
       fetchContexts = Collections.emptyList();
       for (IndexSegment indexSegment : indexSegments) {
-        planNodes.add(makeSegmentPlanNode(indexSegment, queryContext));
+        planNodes.add(makeCachedSegmentPlanNode(indexSegment, queryContext, queryFingerprint, serverMetrics));
       }
     }
 
@@ -163,6 +216,20 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
         new InstanceResponsePlanNode(combinePlanNode, indexSegments, fetchContexts, queryContext));
   }
 
+  /**
+   * Wraps the segment-level plan node with the {@link SegmentResultsCachePlanNode} when the segment-level results cache
+   * is enabled and the results of the query on the segment are cacheable.
+   */
+  private PlanNode makeCachedSegmentPlanNode(IndexSegment indexSegment, QueryContext queryContext,
+      @Nullable String queryFingerprint, ServerMetrics serverMetrics) {
+    PlanNode segmentPlanNode = makeSegmentPlanNode(indexSegment, queryContext);
+    if (queryFingerprint != null && SegmentResultsCache.isCacheable(indexSegment, queryContext)) {
+      return new SegmentResultsCachePlanNode(segmentPlanNode, indexSegment, queryContext, _segmentResultsCache,
+          queryFingerprint, serverMetrics);
+    }
+    return segmentPlanNode;
+  }
+
   private void applyQueryOptions(QueryContext queryContext) {
     Map<String, String> queryOptions = queryContext.getQueryOptions();
 
@@ -190,6 +257,16 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
     queryContext.setMaxExecutionThreads(maxExecutionThreads);
 
+    // Set memoryBudget
+    Long maxQueryMemoryBytesFromQuery = QueryOptionsUtils.getMaxQueryMemoryBytes(queryOptions);
+    long maxQueryMemoryBytes =
+        maxQueryMemoryBytesFromQuery != null ? maxQueryMemoryBytesFromQuery : _maxQueryMemoryBytes;
+    if (maxQueryMemoryBytes > 0) {
+      MemoryOverflowMode memoryOverflowModeFromQuery = QueryOptionsUtils.getQueryMemoryOverflowMode(queryOptions);
+      queryContext.setMemoryBudget(new QueryMemoryBudget(maxQueryMemoryBytes,
+          memoryOverflowModeFromQuery != null ? memoryOverflowModeFromQuery : _queryMemoryOverflowMode));
+    }
+
     // Set group-by query options
     if (QueryContextUtils.isAggregationQuery(queryContext) && queryContext.getGroupByExpressions() != null) {
       // Set maxInitialResultHolderCapacity
@@ -225,6 +302,14 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
       } else {
         queryContext.setGroupTrimThreshold(_groupByTrimThreshold);
       }
+      // Set groupBySpillThreshold
+      Integer groupBySpillThreshold = QueryOptionsUtils.getGroupBySpillThreshold(queryOptions);
+      if (groupBySpillThreshold != null) {
+        queryContext.setGroupBySpillThreshold(groupBySpillThreshold);
+      } else {
+        queryContext.setGroupBySpillThreshold(_groupBySpillThreshold);
+      }
+      queryContext.setGroupBySpillDir(_groupBySpillDir);
     }
   }
 
@@ -50,4 +50,12 @@ public class AggregationGroupByResult {
   public Object getResultForGroupId(int index, int groupId) {
     return _aggregationFunctions[index].extractGroupByResult(_resultHolders[index], groupId);
   }
+
+  /**
+   * Returns the result as a primitive double for the given group id. This only applies to the aggregation functions
+   * storing the group-by results in a double result holder (e.g. COUNT/SUM/MIN/MAX without null handling).
+   */
+  public double getDoubleResultForGroupId(int index, int groupId) {
+    return _resultHolders[index].getDoubleResult(groupId);
+  }
 }
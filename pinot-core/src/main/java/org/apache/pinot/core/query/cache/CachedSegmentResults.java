@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.CustomObject;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * The {@code CachedSegmentResults} holds the segment level intermediate results of an aggregation or group-by query,
+ * together with the execution statistics of the segment operator that produced them.
+ * <p>The intermediate results of the aggregation functions with OBJECT intermediate result type are mutable (they are
+ * merged in place by the combine operator), so they are kept in serialized form and deserialized for each cache hit.
+ * The other values (primitive intermediate results and group keys) are immutable and are kept as is.
+ */
+@SuppressWarnings("rawtypes")
+public class CachedSegmentResults {
+  // Rough estimation of the per object overhead on heap
+  private static final int OBJECT_OVERHEAD_BYTES = 16;
+
+  @Nullable
+  private final DataSchema _dataSchema;
+  private final List<Object[]> _rows;
+  private final boolean _numGroupsLimitReached;
+  private final ExecutionStatistics _executionStatistics;
+  private final long _sizeInBytes;
+
+  private CachedSegmentResults(@Nullable DataSchema dataSchema, List<Object[]> rows, boolean numGroupsLimitReached,
+      ExecutionStatistics executionStatistics) {
+    _dataSchema = dataSchema;
+    _rows = rows;
+    _numGroupsLimitReached = numGroupsLimitReached;
+    _executionStatistics = executionStatistics;
+    long sizeInBytes = OBJECT_OVERHEAD_BYTES;
+    for (Object[] row : rows) {
+      sizeInBytes += OBJECT_OVERHEAD_BYTES + (long) Long.BYTES * row.length;
+      for (Object value : row) {
+        sizeInBytes += getSizeInBytes(value);
+      }
+    }
+    _sizeInBytes = sizeInBytes;
+  }
+
+  /**
+   * Extracts the cacheable results from the given segment level results block, or returns {@code null} if the results
+   * block is not cacheable.
+   * <p>NOTE: This method should be called before the results block is merged by the combine operator.
+   */
+  @Nullable
+  public static CachedSegmentResults fromResultsBlock(BaseResultsBlock resultsBlock,
+      ExecutionStatistics executionStatistics, QueryContext queryContext) {
+    if (resultsBlock.getProcessingExceptions() != null) {
+      return null;
+    }
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    if (aggregationFunctions == null) {
+      return null;
+    }
+    ColumnDataType[] intermediateResultTypes = getIntermediateResultTypes(aggregationFunctions);
+    if (resultsBlock instanceof AggregationResultsBlock) {
+      List<Object> results = ((AggregationResultsBlock) resultsBlock).getResults();
+      Object[] row = new Object[aggregationFunctions.length];
+      for (int i = 0; i < aggregationFunctions.length; i++) {
+        row[i] = serializeIfNeeded(results.get(i), intermediateResultTypes[i]);
+      }
+      return new CachedSegmentResults(null, Collections.singletonList(row), false, executionStatistics);
+    }
+    if (resultsBlock instanceof GroupByResultsBlock) {
+      GroupByResultsBlock groupByResultsBlock = (GroupByResultsBlock) resultsBlock;
+      int numGroupByExpressions = queryContext.getGroupByExpressions().size();
+      int numAggregationFunctions = aggregationFunctions.length;
+      int numColumns = numGroupByExpressions + numAggregationFunctions;
+      List<Object[]> rows = new ArrayList<>();
+      Collection<IntermediateRecord> intermediateRecords = groupByResultsBlock.getIntermediateRecords();
+      if (intermediateRecords != null) {
+        for (IntermediateRecord intermediateRecord : intermediateRecords) {
+          Object[] values = intermediateRecord._record.getValues();
+          Object[] row = Arrays.copyOf(values, numColumns);
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            int index = numGroupByExpressions + i;
+            row[index] = serializeIfNeeded(values[index], intermediateResultTypes[i]);
+          }
+          rows.add(row);
+        }
+      } else {
+        AggregationGroupByResult aggregationGroupByResult = groupByResultsBlock.getAggregationGroupByResult();
+        if (aggregationGroupByResult == null) {
+          return null;
+        }
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          Object[] row = Arrays.copyOf(groupKey._keys, numColumns);
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            row[numGroupByExpressions + i] =
+                serializeIfNeeded(aggregationGroupByResult.getResultForGroupId(i, groupKey._groupId),
+                    intermediateResultTypes[i]);
+          }
+          rows.add(row);
+        }
+      }
+      return new CachedSegmentResults(groupByResultsBlock.getDataSchema(), rows,
+          groupByResultsBlock.isNumGroupsLimitReached(), executionStatistics);
+    }
+    return null;
+  }
+
+  /**
+   * Builds a new segment level results block from the cached results. Each call returns a separate copy of the mutable
+   * intermediate results, so that the returned results block can be merged by the combine operator.
+   */
+  public BaseResultsBlock toResultsBlock(QueryContext queryContext) {
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    assert aggregationFunctions != null;
+    if (_dataSchema == null) {
+      Object[] row = _rows.get(0);
+      List<Object> results = new ArrayList<>(aggregationFunctions.length);
+      for (Object value : row) {
+        results.add(deserializeIfNeeded(value));
+      }
+      return new AggregationResultsBlock(aggregationFunctions, results, queryContext);
+    }
+    int numGroupByExpressions = queryContext.getGroupByExpressions().size();
+    List<IntermediateRecord> intermediateRecords = new ArrayList<>(_rows.size());
+    for (Object[] row : _rows) {
+      Object[] values = new Object[row.length];
+      for (int i = 0; i < row.length; i++) {
+        values[i] = deserializeIfNeeded(row[i]);
+      }
+      intermediateRecords.add(
+          IntermediateRecord.create(new Key(Arrays.copyOf(values, numGroupByExpressions)), new Record(values)));
+    }
+    GroupByResultsBlock resultsBlock = new GroupByResultsBlock(_dataSchema, intermediateRecords, queryContext);
+    resultsBlock.setNumGroupsLimitReached(_numGroupsLimitReached);
+    return resultsBlock;
+  }
+
+  public ExecutionStatistics getExecutionStatistics() {
+    return _executionStatistics;
+  }
+
+  /**
+   * Returns the estimated heap size of the cached results.
+   */
+  public long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  private static ColumnDataType[] getIntermediateResultTypes(AggregationFunction[] aggregationFunctions) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    ColumnDataType[] intermediateResultTypes = new ColumnDataType[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      intermediateResultTypes[i] = aggregationFunctions[i].getIntermediateResultColumnType();
+    }
+    return intermediateResultTypes;
+  }
+
+  @Nullable
+  private static Object serializeIfNeeded(@Nullable Object value, ColumnDataType intermediateResultType) {
+    if (value == null || intermediateResultType != ColumnDataType.OBJECT) {
+      return value;
+    }
+    int objectType = ObjectSerDeUtils.ObjectType.getObjectType(value).getValue();
+    return new SerializedObject(objectType, ObjectSerDeUtils.serialize(value, objectType));
+  }
+
+  @Nullable
+  private static Object deserializeIfNeeded(@Nullable Object value) {
+    if (value instanceof SerializedObject) {
+      SerializedObject serializedObject = (SerializedObject) value;
+      // NOTE: Wrap a copy of the bytes because some deserialized objects are backed by the underlying buffer
+      return ObjectSerDeUtils.deserialize(
+          new CustomObject(serializedObject._objectType, ByteBuffer.wrap(serializedObject._bytes.clone())));
+    }
+    return value;
+  }
+
+  private static long getSizeInBytes(@Nullable Object value) {
+    if (value instanceof SerializedObject) {
+      return OBJECT_OVERHEAD_BYTES + ((SerializedObject) value)._bytes.length;
+    }
+    if (value instanceof String) {
+      return 2 * OBJECT_OVERHEAD_BYTES + 2L * ((String) value).length();
+    }
+    return value == null ? 0 : OBJECT_OVERHEAD_BYTES;
+  }
+
+  private static class SerializedObject {
+    final int _objectType;
+    final byte[] _bytes;
+
+    SerializedObject(int objectType, byte[] bytes) {
+      _objectType = objectType;
+      _bytes = bytes;
+    }
+  }
+}
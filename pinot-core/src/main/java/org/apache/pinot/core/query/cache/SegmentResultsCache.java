@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * The {@code SegmentResultsCache} caches the segment level intermediate results of aggregation and group-by queries on
+ * the server, so that repeated queries (e.g. dashboard refreshes) can skip the filtering and aggregation on the
+ * immutable segments that have already been processed.
+ * <p>The cache is keyed by the table, the segment name, the segment CRC and the query fingerprint. Because the segment
+ * CRC is part of the key, a replaced segment can never serve stale results, and the entries for the old CRC are
+ * proactively invalidated once the new CRC is observed. The entries are evicted in LRU order when the total estimated
+ * size of the cached results exceeds the configured budget.
+ * <p>Only the immutable segments without valid doc ids (i.e. not upsert enabled) are cached because the results of the
+ * other segments can change without changing the segment CRC.
+ */
+public class SegmentResultsCache {
+  private final Cache<CacheKey, CachedSegmentResults> _cache;
+  // Map from "tableNameWithType/segmentName" to the latest observed segment CRC
+  private final Map<String, String> _segmentCrcMap = new ConcurrentHashMap<>();
+
+  public SegmentResultsCache(long maxSizeInBytes) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size of the segment results cache must be positive, got: %s",
+        maxSizeInBytes);
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((CacheKey key, CachedSegmentResults value) -> (int) Math.min(value.getSizeInBytes(),
+            Integer.MAX_VALUE)).build();
+  }
+
+  /**
+   * Returns whether the results of the given query on the given segment can be cached.
+   */
+  public static boolean isCacheable(IndexSegment indexSegment, QueryContext queryContext) {
+    return indexSegment instanceof ImmutableSegment && indexSegment.getValidDocIds() == null
+        && QueryContextUtils.isAggregationQuery(queryContext) && !queryContext.isExplain();
+  }
+
+  /**
+   * Returns the fingerprint of the query, which covers all the parts of the query that can affect the segment level
+   * results. The query options that do not affect the results (e.g. timeout) are not part of the fingerprint.
+   * <p>NOTE: This method should be called after the query options are applied to the query context.
+   */
+  public static String getQueryFingerprint(QueryContext queryContext) {
+    return queryContext.getTableName() + '|' + queryContext.getSelectExpressions() + '|' + queryContext.getFilter()
+        + '|' + queryContext.getGroupByExpressions() + '|' + queryContext.getHavingFilter() + '|'
+        + queryContext.getOrderByExpressions() + '|' + queryContext.getLimit() + '|'
+        + queryContext.getExpressionOverrideHints() + '|' + queryContext.isNullHandlingEnabled() + '|'
+        + queryContext.isSkipUpsert() + '|' + queryContext.isSkipStarTree() + '|' + queryContext.getNumGroupsLimit()
+        + '|' + queryContext.getMaxInitialResultHolderCapacity() + '|' + queryContext.getMinSegmentGroupTrimSize();
+  }
+
+  @Nullable
+  public CachedSegmentResults get(String tableNameWithType, IndexSegment indexSegment, String queryFingerprint) {
+    String segmentCrc = updateSegmentCrc(tableNameWithType, indexSegment);
+    return _cache.getIfPresent(
+        new CacheKey(tableNameWithType, indexSegment.getSegmentName(), segmentCrc, queryFingerprint));
+  }
+
+  public void put(String tableNameWithType, IndexSegment indexSegment, String queryFingerprint,
+      CachedSegmentResults results) {
+    String segmentCrc = indexSegment.getSegmentMetadata().getCrc();
+    // Do not cache the results if the segment has been replaced during the query execution
+    if (segmentCrc.equals(_segmentCrcMap.get(getSegmentKey(tableNameWithType, indexSegment.getSegmentName())))) {
+      _cache.put(new CacheKey(tableNameWithType, indexSegment.getSegmentName(), segmentCrc, queryFingerprint),
+          results);
+    }
+  }
+
+  /**
+   * Invalidates all the cached results for the given segment.
+   */
+  public void invalidateSegment(String tableNameWithType, String segmentName) {
+    _segmentCrcMap.remove(getSegmentKey(tableNameWithType, segmentName));
+    _cache.asMap().keySet().removeIf(
+        key -> key._tableNameWithType.equals(tableNameWithType) && key._segmentName.equals(segmentName));
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Records the CRC of the given segment, and invalidates the cached results for the previous CRC if the segment has
+   * been replaced. Returns the current CRC of the segment.
+   */
+  private String updateSegmentCrc(String tableNameWithType, IndexSegment indexSegment) {
+    String segmentName = indexSegment.getSegmentName();
+    String segmentCrc = indexSegment.getSegmentMetadata().getCrc();
+    String previousCrc = _segmentCrcMap.put(getSegmentKey(tableNameWithType, segmentName), segmentCrc);
+    if (previousCrc != null && !previousCrc.equals(segmentCrc)) {
+      _cache.asMap().keySet().removeIf(
+          key -> key._tableNameWithType.equals(tableNameWithType) && key._segmentName.equals(segmentName)
+              && key._segmentCrc.equals(previousCrc));
+    }
+    return segmentCrc;
+  }
+
+  private static String getSegmentKey(String tableNameWithType, String segmentName) {
+    return tableNameWithType + '/' + segmentName;
+  }
+
+  private static class CacheKey {
+    final String _tableNameWithType;
+    final String _segmentName;
+    final String _segmentCrc;
+    final String _queryFingerprint;
+
+    CacheKey(String tableNameWithType, String segmentName, String segmentCrc, String queryFingerprint) {
+      _tableNameWithType = tableNameWithType;
+      _segmentName = segmentName;
+      _segmentCrc = segmentCrc;
+      _queryFingerprint = queryFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return _tableNameWithType.equals(that._tableNameWithType) && _segmentName.equals(that._segmentName)
+          && _segmentCrc.equals(that._segmentCrc) && _queryFingerprint.equals(that._queryFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_tableNameWithType, _segmentName, _segmentCrc, _queryFingerprint);
+    }
+  }
+}
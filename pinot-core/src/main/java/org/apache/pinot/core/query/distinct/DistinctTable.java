@@ -40,6 +40,7 @@ import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.common.datatable.DataTableBuilder;
 import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
 import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.spi.trace.Tracing;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.roaringbitmap.RoaringBitmap;
@@ -68,20 +69,35 @@ public class DistinctTable {
   private final boolean _isMainTable;
 
   // Available in main DistinctTable only
-  private final int _limit;
   private final boolean _nullHandlingEnabled;
   private final ObjectSet<Record> _recordSet;
   private final PriorityQueue<Record> _priorityQueue;
+  private final QueryMemoryBudget _memoryBudget;
+  private final QueryMemoryBudget.RowReservation _memoryReservation;
+  // Number of records to keep, which is the limit, or lower when the query memory budget is exceeded
+  private int _maxNumRecords;
 
   /**
    * Constructor of the main DistinctTable which can be used to add records and merge other DistinctTables.
    */
   public DistinctTable(DataSchema dataSchema, @Nullable List<OrderByExpressionContext> orderByExpressions, int limit,
       boolean nullHandlingEnabled) {
+    this(dataSchema, orderByExpressions, limit, nullHandlingEnabled, null);
+  }
+
+  /**
+   * Constructor of the main DistinctTable which can be used to add records and merge other DistinctTables, where the
+   * memory for the records is reserved from the given query memory budget. When the budget is exceeded, the table
+   * keeps fewer records than the limit (for the {@code TRIM} and {@code SPILL} memory overflow mode).
+   */
+  public DistinctTable(DataSchema dataSchema, @Nullable List<OrderByExpressionContext> orderByExpressions, int limit,
+      boolean nullHandlingEnabled, @Nullable QueryMemoryBudget memoryBudget) {
     _dataSchema = dataSchema;
     _isMainTable = true;
-    _limit = limit;
     _nullHandlingEnabled = nullHandlingEnabled;
+    _memoryBudget = memoryBudget;
+    _memoryReservation = memoryBudget != null ? memoryBudget.newRowReservation(dataSchema) : null;
+    _maxNumRecords = limit;
 
     // NOTE: When LIMIT is smaller than or equal to the MAX_INITIAL_CAPACITY, no resize is required.
     int initialCapacity = Math.min(limit, DistinctExecutor.MAX_INITIAL_CAPACITY);
@@ -152,9 +168,11 @@ public class DistinctTable {
     _records = records;
     _nullHandlingEnabled = nullHandlingEnabled;
     _isMainTable = false;
-    _limit = Integer.MIN_VALUE;
+    _maxNumRecords = Integer.MIN_VALUE;
     _recordSet = null;
     _priorityQueue = null;
+    _memoryBudget = null;
+    _memoryReservation = null;
   }
 
   /**
@@ -213,7 +231,15 @@ public class DistinctTable {
   public boolean addWithoutOrderBy(Record record) {
     assert _isMainTable && _priorityQueue == null;
     _recordSet.add(record);
-    return _recordSet.size() >= _limit;
+    int numRecords = _recordSet.size();
+    if (numRecords >= _maxNumRecords) {
+      return true;
+    }
+    if (!reserveMemory(numRecords)) {
+      _maxNumRecords = numRecords;
+      return true;
+    }
+    return false;
   }
 
   /**
@@ -222,7 +248,11 @@ public class DistinctTable {
   public void addWithOrderBy(Record record) {
     assert _isMainTable && _priorityQueue != null;
     if (!_recordSet.contains(record)) {
-      if (_priorityQueue.size() < _limit) {
+      int numRecords = _priorityQueue.size();
+      if (numRecords < _maxNumRecords && !reserveMemory(numRecords + 1)) {
+        _maxNumRecords = numRecords;
+      }
+      if (numRecords < _maxNumRecords) {
         _recordSet.add(record);
         _priorityQueue.enqueue(record);
       } else {
@@ -237,6 +267,18 @@ public class DistinctTable {
     }
   }
 
+  /**
+   * Reserves the memory for the given number of records from the query memory budget, and returns {@code false} if the
+   * budget is exceeded.
+   */
+  private boolean reserveMemory(int numRecords) {
+    if (_memoryReservation == null || _memoryReservation.reserve(numRecords)) {
+      return true;
+    }
+    _memoryBudget.onExceeded("Distinct");
+    return false;
+  }
+
   /**
    * Merges another DistinctTable into the main DistinctTable.
    */
@@ -250,7 +292,7 @@ public class DistinctTable {
         mergedRecords++;
       }
     } else {
-      if (_recordSet.size() < _limit) {
+      if (_recordSet.size() < _maxNumRecords) {
         for (Record record : distinctTable._records) {
           if (addWithoutOrderBy(record)) {
             return;
@@ -151,6 +151,11 @@ public class ServerQueryLogger {
           TimeUnit.NANOSECONDS);
     }
 
+    long minTaskExecutionTimeMs =
+        getLongValue(responseMetadata, MetadataKey.MIN_TASK_EXECUTION_TIME_MS.getName(), -1);
+    long maxTaskExecutionTimeMs =
+        getLongValue(responseMetadata, MetadataKey.MAX_TASK_EXECUTION_TIME_MS.getName(), -1);
+
     TimerContext timerContext = request.getTimerContext();
     long schedulerWaitMs = timerContext.getPhaseDurationMs(ServerQueryPhase.SCHEDULER_WAIT);
 
@@ -162,7 +167,8 @@ public class ServerQueryLogger {
               + "invalid/limit/value)={}/{}/{}/{}/{}/{}/{}/{}/{},"
               + "schedulerWaitMs={},reqDeserMs={},totalExecMs={},resSerMs={},totalTimeMs={},"
               + "minConsumingFreshnessMs={},broker={},numDocsScanned={},scanInFilter={},scanPostFilter={},sched={},"
-              + "threadCpuTimeNs(total/thread/sysActivity/resSer)={}/{}/{}/{}", request.getRequestId(),
+              + "threadCpuTimeNs(total/thread/sysActivity/resSer)={}/{}/{}/{},"
+              + "taskExecutionTimeMs(min/max)={}/{}", request.getRequestId(),
           tableNameWithType,
           numSegmentsQueried, numSegmentsProcessed, numSegmentsMatched, numConsumingSegmentsQueried,
           numConsumingSegmentsProcessed, numConsumingSegmentsMatched, numSegmentsPrunedInvalid,
@@ -172,7 +178,8 @@ public class ServerQueryLogger {
           timerContext.getPhaseDurationMs(ServerQueryPhase.RESPONSE_SERIALIZATION),
           timerContext.getPhaseDurationMs(ServerQueryPhase.TOTAL_QUERY_TIME), minConsumingFreshnessMs,
           request.getBrokerId(), numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter, schedulerType,
-          totalCpuTimeNs, threadCpuTimeNs, systemActivitiesCpuTimeNs, responseSerializationCpuTimeNs);
+          totalCpuTimeNs, threadCpuTimeNs, systemActivitiesCpuTimeNs, responseSerializationCpuTimeNs,
+          minTaskExecutionTimeMs, maxTaskExecutionTimeMs);
 
       // Limit the dropping log message at most once per second.
       if (_droppedReportRateLimiter.tryAcquire()) {
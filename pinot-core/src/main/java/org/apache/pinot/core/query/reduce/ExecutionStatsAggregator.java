@@ -75,6 +75,9 @@ public class ExecutionStatsAggregator {
   private long _explainPlanNumMatchAllFilterSegments = 0L;
   private boolean _numGroupsLimitReached = false;
   private boolean _maxRowsInJoinReached = false;
+  private boolean _memoryBudgetExceeded = false;
+  private int _numHotKeys = 0;
+  private double _exchangeSkewRatio = 0;
   private int _numBlocks = 0;
   private int _numRows = 0;
   private long _stageExecutionTimeMs = 0;
@@ -254,6 +257,19 @@ public class ExecutionStatsAggregator {
     _maxRowsInJoinReached |=
         Boolean.parseBoolean(metadata.get(DataTable.MetadataKey.MAX_ROWS_IN_JOIN_REACHED.getName()));
 
+    // The value is the overflow mode applied when the memory budget is exceeded
+    _memoryBudgetExceeded |= metadata.get(DataTable.MetadataKey.MEMORY_BUDGET_EXCEEDED.getName()) != null;
+
+    // The skew is reported by each sending worker of the hash exchange, where the most skewed worker is kept
+    String numHotKeysString = metadata.get(DataTable.MetadataKey.NUM_HOT_KEYS.getName());
+    if (numHotKeysString != null) {
+      _numHotKeys = Math.max(_numHotKeys, Integer.parseInt(numHotKeysString));
+    }
+    String exchangeSkewRatioString = metadata.get(DataTable.MetadataKey.EXCHANGE_SKEW_RATIO.getName());
+    if (exchangeSkewRatioString != null) {
+      _exchangeSkewRatio = Math.max(_exchangeSkewRatio, Double.parseDouble(exchangeSkewRatioString));
+    }
+
     String numBlocksString = metadata.get(DataTable.MetadataKey.NUM_BLOCKS.getName());
     if (numBlocksString != null) {
       _numBlocks += Long.parseLong(numBlocksString);
@@ -310,6 +326,7 @@ public class ExecutionStatsAggregator {
     brokerResponseNative.setTotalDocs(_numTotalDocs);
     brokerResponseNative.setNumGroupsLimitReached(_numGroupsLimitReached);
     brokerResponseNative.setMaxRowsInJoinReached(_maxRowsInJoinReached);
+    brokerResponseNative.setMemoryBudgetExceeded(_memoryBudgetExceeded);
     brokerResponseNative.setOfflineThreadCpuTimeNs(_offlineThreadCpuTimeNs);
     brokerResponseNative.setRealtimeThreadCpuTimeNs(_realtimeThreadCpuTimeNs);
     brokerResponseNative.setOfflineSystemActivitiesCpuTimeNs(_offlineSystemActivitiesCpuTimeNs);
@@ -374,7 +391,10 @@ public class ExecutionStatsAggregator {
     brokerResponseStats.setNumBlocks(_numBlocks);
     brokerResponseStats.setNumRows(_numRows);
     brokerResponseStats.setMaxRowsInJoinReached(_maxRowsInJoinReached);
+    brokerResponseStats.setMemoryBudgetExceeded(_memoryBudgetExceeded);
     brokerResponseStats.setNumGroupsLimitReached(_numGroupsLimitReached);
+    brokerResponseStats.setNumHotKeys(_numHotKeys);
+    brokerResponseStats.setExchangeSkewRatio(_exchangeSkewRatio);
     brokerResponseStats.setStageExecutionTimeMs(_stageExecutionTimeMs);
     brokerResponseStats.setStageExecutionUnit(_stageExecutionUnit);
     brokerResponseStats.setTableNames(new ArrayList<>(_tableNames));
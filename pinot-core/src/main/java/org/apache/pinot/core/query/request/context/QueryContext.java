@@ -19,6 +19,7 @@
 package org.apache.pinot.core.query.request.context;
 
 import com.google.common.base.Preconditions;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,6 +30,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FilterContext;
@@ -39,6 +41,7 @@ import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.core.util.MemoizedClassAssociation;
 
 
@@ -106,6 +109,11 @@ public class QueryContext {
   private boolean _skipStarTree;
   // Whether to skip reordering scan filters for the query
   private boolean _skipScanFilterReorder;
+  // Whether to defer fetching the non-order-by expressions of selection order-by queries until the top rows across
+  // all the segments are determined in the combine operator
+  private boolean _deferSelectionMaterialization;
+  // Budget of the memory held by the memory intensive operators of the query, null when the budget is not enforced
+  private QueryMemoryBudget _memoryBudget;
   // Maximum number of threads used to execute the query
   private int _maxExecutionThreads = InstancePlanMakerImplV2.DEFAULT_MAX_EXECUTION_THREADS;
   // The following properties apply to group-by queries
@@ -119,6 +127,11 @@ public class QueryContext {
   private int _minServerGroupTrimSize = InstancePlanMakerImplV2.DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   // Trim threshold to use for server combine for SQL GROUP BY
   private int _groupTrimThreshold = InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  // Number of groups held in memory for server combine beyond which the groups are spilled to disk for SQL GROUP BY,
+  // non-positive value disables spilling
+  private int _groupBySpillThreshold = InstancePlanMakerImplV2.DEFAULT_GROUPBY_SPILL_THRESHOLD;
+  // Directory to spill the groups to
+  private File _groupBySpillDir = FileUtils.getTempDirectory();
   // Whether null handling is enabled
   private boolean _nullHandlingEnabled;
   // Whether server returns the final result
@@ -338,6 +351,14 @@ public class QueryContext {
     _skipScanFilterReorder = skipScanFilterReorder;
   }
 
+  public boolean isDeferSelectionMaterialization() {
+    return _deferSelectionMaterialization;
+  }
+
+  public void setDeferSelectionMaterialization(boolean deferSelectionMaterialization) {
+    _deferSelectionMaterialization = deferSelectionMaterialization;
+  }
+
   public int getMaxExecutionThreads() {
     return _maxExecutionThreads;
   }
@@ -386,6 +407,31 @@ public class QueryContext {
     _groupTrimThreshold = groupTrimThreshold;
   }
 
+  @Nullable
+  public QueryMemoryBudget getMemoryBudget() {
+    return _memoryBudget;
+  }
+
+  public void setMemoryBudget(@Nullable QueryMemoryBudget memoryBudget) {
+    _memoryBudget = memoryBudget;
+  }
+
+  public int getGroupBySpillThreshold() {
+    return _groupBySpillThreshold;
+  }
+
+  public void setGroupBySpillThreshold(int groupBySpillThreshold) {
+    _groupBySpillThreshold = groupBySpillThreshold;
+  }
+
+  public File getGroupBySpillDir() {
+    return _groupBySpillDir;
+  }
+
+  public void setGroupBySpillDir(File groupBySpillDir) {
+    _groupBySpillDir = groupBySpillDir;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.utils;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.spi.exception.QueryMemoryBudgetExceededException;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
+
+
+/**
+ * The {@code QueryMemoryBudget} tracks the estimated memory held by the memory intensive operators (group-by, distinct,
+ * order-by, join) of a query against a per-query budget, so that the operators can degrade gracefully (trim or spill
+ * the intermediate results, or reject the query early) before the query is killed for using too much heap.
+ * <p>The memory is estimated from the number of rows held by the operators and the data schema of the rows, and is
+ * reserved in chunks of rows via {@link RowReservation} so that the shared counter is not updated for every row.
+ * <p>This class is thread safe and shared by all the operators of the query.
+ */
+public class QueryMemoryBudget {
+  // Number of rows to reserve at a time
+  public static final int RESERVATION_CHUNK_SIZE = 1024;
+
+  // Estimated overhead of the object header and the reference of the values array, and the entry of the container
+  // (hash map, priority queue etc.) holding the row
+  private static final long ROW_OVERHEAD_BYTES = 64;
+  private static final long OBJECT_HEADER_BYTES = 16;
+  private static final long REFERENCE_BYTES = 8;
+
+  private final long _maxBytes;
+  private final MemoryOverflowMode _overflowMode;
+  private final AtomicLong _reservedBytes = new AtomicLong();
+  private volatile boolean _exceeded;
+
+  public QueryMemoryBudget(long maxBytes, MemoryOverflowMode overflowMode) {
+    Preconditions.checkArgument(maxBytes > 0, "Query memory budget must be positive, got: %s", maxBytes);
+    _maxBytes = maxBytes;
+    _overflowMode = overflowMode;
+  }
+
+  public long getMaxBytes() {
+    return _maxBytes;
+  }
+
+  public MemoryOverflowMode getOverflowMode() {
+    return _overflowMode;
+  }
+
+  public long getReservedBytes() {
+    return _reservedBytes.get();
+  }
+
+  /**
+   * Returns {@code true} if the budget has been exceeded and the intermediate results have been trimmed or spilled.
+   */
+  public boolean isExceeded() {
+    return _exceeded;
+  }
+
+  /**
+   * Tries to reserve the given number of bytes from the budget, returns {@code false} if the budget cannot fit them.
+   */
+  public boolean tryReserve(long numBytes) {
+    if (_reservedBytes.addAndGet(numBytes) <= _maxBytes) {
+      return true;
+    }
+    _reservedBytes.addAndGet(-numBytes);
+    return false;
+  }
+
+  /**
+   * Releases the given number of bytes back to the budget.
+   */
+  public void release(long numBytes) {
+    _reservedBytes.addAndGet(-numBytes);
+  }
+
+  /**
+   * Handles the budget overflow from the given operator. Throws a {@link QueryMemoryBudgetExceededException} for the
+   * {@code THROW} mode, otherwise marks the budget as exceeded so that the response is flagged as partial, and the
+   * operator should trim or spill the intermediate results.
+   */
+  public void onExceeded(String operatorName) {
+    if (_overflowMode == MemoryOverflowMode.THROW) {
+      throw new QueryMemoryBudgetExceededException(
+          String.format("%s exceeded the query memory budget of %d bytes", operatorName, _maxBytes));
+    }
+    _exceeded = true;
+  }
+
+  /**
+   * Returns a new {@link RowReservation} for the rows of the given data schema.
+   */
+  public RowReservation newRowReservation(DataSchema dataSchema) {
+    return new RowReservation(estimateRowSizeBytes(dataSchema.getColumnDataTypes()));
+  }
+
+  /**
+   * Returns a new {@link RowReservation} for the rows of the given column data types.
+   */
+  public RowReservation newRowReservation(ColumnDataType[] columnDataTypes) {
+    return new RowReservation(estimateRowSizeBytes(columnDataTypes));
+  }
+
+  /**
+   * Returns a new {@link RowReservation} for the rows of the given estimated size, e.g. for the rows stored in columnar
+   * format.
+   */
+  public RowReservation newRowReservation(long rowSizeBytes) {
+    return new RowReservation(rowSizeBytes);
+  }
+
+  /**
+   * Returns the estimated heap size of a row (values array and boxed values) of the given column data types.
+   */
+  public static long estimateRowSizeBytes(ColumnDataType[] columnDataTypes) {
+    long rowSizeBytes = ROW_OVERHEAD_BYTES + OBJECT_HEADER_BYTES + REFERENCE_BYTES * columnDataTypes.length;
+    for (ColumnDataType columnDataType : columnDataTypes) {
+      rowSizeBytes += estimateValueSizeBytes(columnDataType);
+    }
+    return rowSizeBytes;
+  }
+
+  /**
+   * Returns the estimated heap size of a boxed value of the given column data type.
+   */
+  public static long estimateValueSizeBytes(ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+      case FLOAT:
+      case BOOLEAN:
+        return 16;
+      case LONG:
+      case DOUBLE:
+      case TIMESTAMP:
+        return 24;
+      case BYTES:
+        return 48;
+      case BIG_DECIMAL:
+      case STRING:
+      case JSON:
+        return 64;
+      case UNKNOWN:
+        return 0;
+      default:
+        // Arrays and intermediate result objects (e.g. sketches, sets)
+        return 128;
+    }
+  }
+
+  /**
+   * The {@code RowReservation} tracks the rows held by a single operator, and reserves the memory for them from the
+   * budget in chunks of {@link #RESERVATION_CHUNK_SIZE} rows.
+   * <p>This class is not thread safe, and the caller should synchronize the updates if required. The number of reserved
+   * rows can be read without synchronization to skip the reservation when the rows are already reserved.
+   */
+  public class RowReservation {
+    private final long _rowSizeBytes;
+    private volatile long _numReservedRows;
+
+    private RowReservation(long rowSizeBytes) {
+      _rowSizeBytes = rowSizeBytes;
+    }
+
+    public long getRowSizeBytes() {
+      return _rowSizeBytes;
+    }
+
+    public long getNumReservedRows() {
+      return _numReservedRows;
+    }
+
+    /**
+     * Makes sure the memory for the given number of rows is reserved, returns {@code false} if the budget cannot fit
+     * them.
+     */
+    public boolean reserve(long numRows) {
+      if (numRows <= _numReservedRows) {
+        return true;
+      }
+      long numRowsToReserve = Math.max(numRows, _numReservedRows + RESERVATION_CHUNK_SIZE) - _numReservedRows;
+      if (!tryReserve(numRowsToReserve * _rowSizeBytes)) {
+        // Fall back to reserve the exact number of rows when the whole chunk cannot fit
+        numRowsToReserve = numRows - _numReservedRows;
+        if (!tryReserve(numRowsToReserve * _rowSizeBytes)) {
+          return false;
+        }
+      }
+      _numReservedRows += numRowsToReserve;
+      return true;
+    }
+
+    /**
+     * Returns the maximum number of rows that can be held with the memory reserved and the memory left in the budget.
+     */
+    public long getMaxNumRows() {
+      return _numReservedRows + Math.max(_maxBytes - _reservedBytes.get(), 0) / _rowSizeBytes;
+    }
+
+    /**
+     * Releases the memory reserved beyond the given number of rows, e.g. after the rows are trimmed or spilled.
+     */
+    public void release(long numRows) {
+      if (numRows < _numReservedRows) {
+        QueryMemoryBudget.this.release((_numReservedRows - numRows) * _rowSizeBytes);
+        _numReservedRows = numRows;
+      }
+    }
+  }
+}
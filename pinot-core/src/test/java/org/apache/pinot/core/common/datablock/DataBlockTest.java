@@ -92,6 +92,46 @@ public class DataBlockTest {
     }
   }
 
+  @Test(dataProvider = "testTypeNullPercentile")
+  public void testSerDeFromReadOnlyBuffer(int nullPercentile)
+      throws Exception {
+    ColumnDataType[] allDataTypes = ColumnDataType.values();
+    List<ColumnDataType> columnDataTypes = new ArrayList<ColumnDataType>();
+    List<String> columnNames = new ArrayList<String>();
+    for (int i = 0; i < allDataTypes.length; i++) {
+      if (!EXCLUDE_DATA_TYPES.contains(allDataTypes[i])) {
+        columnNames.add(allDataTypes[i].name());
+        columnDataTypes.add(allDataTypes[i]);
+      }
+    }
+
+    DataSchema dataSchema =
+        new DataSchema(columnNames.toArray(new String[]{}), columnDataTypes.toArray(new ColumnDataType[]{}));
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, TEST_ROW_COUNT, nullPercentile);
+    List<Object[]> columnars = DataBlockTestUtils.convertColumnar(dataSchema, rows);
+    DataBlock rowBlock = DataBlockBuilder.buildFromRows(rows, dataSchema);
+    DataBlock columnarBlock = DataBlockBuilder.buildFromColumns(columnars, dataSchema);
+
+    for (DataBlock dataBlock : new DataBlock[]{rowBlock, columnarBlock}) {
+      // The deserialized data block references the read-only buffer without copying the data
+      byte[] bytes = dataBlock.toBytes();
+      DataBlock deserializedBlock = DataBlockUtils.getDataBlock(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+      Assert.assertEquals(deserializedBlock.getClass(), dataBlock.getClass());
+      Assert.assertEquals(deserializedBlock.toBytes(), bytes);
+      DataBlock dataOnlyBlock = deserializedBlock.toDataOnlyDataTable();
+      for (int colId = 0; colId < dataSchema.size(); colId++) {
+        ColumnDataType columnDataType = dataSchema.getColumnDataType(colId);
+        Assert.assertEquals(deserializedBlock.getNullRowIds(colId), dataBlock.getNullRowIds(colId));
+        for (int rowId = 0; rowId < TEST_ROW_COUNT; rowId++) {
+          Object expectedVal = DataBlockTestUtils.getElement(dataBlock, rowId, colId, columnDataType);
+          Assert.assertEquals(DataBlockTestUtils.getElement(deserializedBlock, rowId, colId, columnDataType),
+              expectedVal);
+          Assert.assertEquals(DataBlockTestUtils.getElement(dataOnlyBlock, rowId, colId, columnDataType), expectedVal);
+        }
+      }
+    }
+  }
+
   @DataProvider(name = "testTypeNullPercentile")
   public Object[][] provideTestTypeNullPercentile() {
     return new Object[][]{new Object[]{0}, new Object[]{10}, new Object[]{100}};
@@ -33,6 +33,9 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
+import org.apache.pinot.spi.exception.QueryMemoryBudgetExceededException;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -283,4 +286,58 @@ public class IndexedTableTest {
 
     checkEvicted(indexedTable, "f", "g");
   }
+
+  @Test
+  public void testMemoryBudget() {
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+        ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    });
+    long rowSizeBytes = QueryMemoryBudget.estimateRowSizeBytes(dataSchema.getColumnDataTypes());
+
+    // GROUP BY without ORDER BY should stop accepting new records when the budget is exceeded
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3");
+    for (boolean concurrent : new boolean[]{false, true}) {
+      QueryMemoryBudget memoryBudget = new QueryMemoryBudget(3 * rowSizeBytes, MemoryOverflowMode.TRIM);
+      queryContext.setMemoryBudget(memoryBudget);
+      IndexedTable indexedTable =
+          concurrent ? new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD)
+              : new SimpleIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
+      for (int i = 0; i < 10; i++) {
+        indexedTable.upsert(getRecord(new Object[]{"k" + i, i, (double) i, (double) i, (double) i}));
+      }
+      Assert.assertEquals(indexedTable.size(), 3);
+      Assert.assertTrue(memoryBudget.isExceeded());
+      Assert.assertTrue(memoryBudget.getReservedBytes() <= memoryBudget.getMaxBytes());
+    }
+
+    // GROUP BY with ORDER BY should trim the records to fit into the budget
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3 ORDER BY SUM(m1) DESC");
+    QueryMemoryBudget memoryBudget = new QueryMemoryBudget(4 * rowSizeBytes, MemoryOverflowMode.TRIM);
+    queryContext.setMemoryBudget(memoryBudget);
+    IndexedTable indexedTable = new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
+    for (int i = 0; i < 10; i++) {
+      indexedTable.upsert(getRecord(new Object[]{"k" + i, i, (double) i, (double) i, (double) i}));
+      Assert.assertTrue(indexedTable.size() <= 4);
+    }
+    Assert.assertTrue(memoryBudget.isExceeded());
+    Assert.assertTrue(indexedTable.getNumResizes() > 0);
+    indexedTable.finish(true);
+    Iterator<Record> iterator = indexedTable.iterator();
+    Assert.assertTrue(iterator.hasNext());
+    Assert.assertEquals(iterator.next().getValues()[0], "k9");
+
+    // THROW mode should fail the query when the budget is exceeded
+    memoryBudget = new QueryMemoryBudget(4 * rowSizeBytes, MemoryOverflowMode.THROW);
+    queryContext.setMemoryBudget(memoryBudget);
+    IndexedTable throwingTable =
+        new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
+    for (int i = 0; i < 4; i++) {
+      throwingTable.upsert(getRecord(new Object[]{"k" + i, i, (double) i, (double) i, (double) i}));
+    }
+    Assert.assertThrows(QueryMemoryBudgetExceededException.class,
+        () -> throwingTable.upsert(getRecord(new Object[]{"k4", 4, 4d, 4d, 4d})));
+    Assert.assertFalse(memoryBudget.isExceeded());
+  }
 }
@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class LongKeyConcurrentIndexedTableTest {
+  private static final int NUM_RECORDS = 10_000;
+  private static final int CARDINALITY = 1000;
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testIsSupported() {
+    DataSchema intKeySchema = new DataSchema(new String[]{"d1", "count(*)", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG, ColumnDataType.DOUBLE});
+    assertTrue(LongKeyConcurrentIndexedTable.isSupported(intKeySchema,
+        QueryContextConverterUtils.getQueryContext("SELECT d1, COUNT(*), SUM(m1) FROM testTable GROUP BY d1")));
+
+    QueryContext nullHandlingQueryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT d1, COUNT(*), SUM(m1) FROM testTable GROUP BY d1");
+    nullHandlingQueryContext.setNullHandlingEnabled(true);
+    assertFalse(LongKeyConcurrentIndexedTable.isSupported(intKeySchema, nullHandlingQueryContext));
+
+    DataSchema stringKeySchema = new DataSchema(new String[]{"d1", "count(*)", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.LONG, ColumnDataType.DOUBLE});
+    assertFalse(LongKeyConcurrentIndexedTable.isSupported(stringKeySchema,
+        QueryContextConverterUtils.getQueryContext("SELECT d1, COUNT(*), SUM(m1) FROM testTable GROUP BY d1")));
+
+    DataSchema distinctCountSchema = new DataSchema(new String[]{"d1", "distinctcount(m1)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.OBJECT});
+    assertFalse(LongKeyConcurrentIndexedTable.isSupported(distinctCountSchema,
+        QueryContextConverterUtils.getQueryContext("SELECT d1, DISTINCTCOUNT(m1) FROM testTable GROUP BY d1")));
+
+    DataSchema longPairKeySchema = new DataSchema(new String[]{"d1", "d2", "count(*)"},
+        new ColumnDataType[]{ColumnDataType.LONG, ColumnDataType.LONG, ColumnDataType.LONG});
+    assertFalse(LongKeyConcurrentIndexedTable.isSupported(longPairKeySchema,
+        QueryContextConverterUtils.getQueryContext("SELECT d1, d2, COUNT(*) FROM testTable GROUP BY d1, d2")));
+  }
+
+  @DataProvider
+  public Object[][] keyTypes() {
+    return new Object[][]{
+        new Object[]{new ColumnDataType[]{ColumnDataType.INT}},
+        new Object[]{new ColumnDataType[]{ColumnDataType.LONG}},
+        new Object[]{new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.INT}}
+    };
+  }
+
+  @Test(dataProvider = "keyTypes")
+  public void testWithoutTrim(ColumnDataType[] keyTypes) {
+    String groupBy = keyTypes.length == 1 ? "d1" : "d1, d2";
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT " + groupBy + ", COUNT(*), SUM(m1), MIN(m1), MAX(m1) FROM testTable GROUP BY " + groupBy
+            + " ORDER BY SUM(m1) DESC");
+    DataSchema dataSchema = getDataSchema(keyTypes);
+    assertTrue(LongKeyConcurrentIndexedTable.isSupported(dataSchema, queryContext));
+    IndexedTable expectedTable =
+        new ConcurrentIndexedTable(dataSchema, queryContext, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    IndexedTable actualTable =
+        new LongKeyConcurrentIndexedTable(dataSchema, queryContext, Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Integer.MAX_VALUE);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      Object[] values = getRandomValues(keyTypes);
+      expectedTable.upsert(new Record(values.clone()));
+      actualTable.upsert(new Record(values.clone()));
+    }
+    assertEquals(actualTable.size(), expectedTable.size());
+    expectedTable.finish(true);
+    actualTable.finish(true);
+    assertEquals(getRecordMap(actualTable, keyTypes.length), getRecordMap(expectedTable, keyTypes.length));
+    // Check the order and types of the values
+    Iterator<Record> expectedIterator = expectedTable.iterator();
+    Iterator<Record> actualIterator = actualTable.iterator();
+    while (expectedIterator.hasNext()) {
+      Object[] expectedValues = expectedIterator.next().getValues();
+      Object[] actualValues = actualIterator.next().getValues();
+      assertEquals(actualValues[keyTypes.length + 1], expectedValues[keyTypes.length + 1]);
+      for (int i = 0; i < expectedValues.length; i++) {
+        assertEquals(actualValues[i].getClass(), expectedValues[i].getClass());
+      }
+    }
+    assertFalse(actualIterator.hasNext());
+  }
+
+  @Test
+  public void testWithTrim() {
+    ColumnDataType[] keyTypes = new ColumnDataType[]{ColumnDataType.INT};
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT d1, COUNT(*), SUM(m1), MIN(m1), MAX(m1) FROM testTable GROUP BY d1 ORDER BY d1");
+    DataSchema dataSchema = getDataSchema(keyTypes);
+    int trimSize = 100;
+    int trimThreshold = 200;
+    IndexedTable indexedTable =
+        new LongKeyConcurrentIndexedTable(dataSchema, queryContext, trimSize, trimSize, trimThreshold);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      indexedTable.upsert(new Record(getRandomValues(keyTypes)));
+      assertTrue(indexedTable.size() < trimThreshold);
+    }
+    assertTrue(indexedTable.getNumResizes() > 0);
+    indexedTable.finish(true);
+    assertEquals(indexedTable.size(), trimSize);
+    int previousKey = Integer.MIN_VALUE;
+    for (Record record : (Iterable<Record>) indexedTable::iterator) {
+      int key = (Integer) record.getValues()[0];
+      assertTrue(key > previousKey);
+      previousKey = key;
+    }
+  }
+
+  @Test
+  public void testWithoutOrderBy() {
+    ColumnDataType[] keyTypes = new ColumnDataType[]{ColumnDataType.LONG};
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT d1, COUNT(*), SUM(m1), MIN(m1), MAX(m1) FROM testTable GROUP BY d1");
+    DataSchema dataSchema = getDataSchema(keyTypes);
+    int resultSize = 10;
+    IndexedTable indexedTable =
+        new LongKeyConcurrentIndexedTable(dataSchema, queryContext, resultSize, resultSize, Integer.MAX_VALUE);
+    List<Object[]> upsertedValues = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      Object[] values = getRandomValues(keyTypes);
+      upsertedValues.add(values.clone());
+      indexedTable.upsert(new Record(values));
+    }
+    indexedTable.finish(false);
+    assertEquals(indexedTable.size(), resultSize);
+    // The groups kept should have the accurate results
+    for (Record record : (Iterable<Record>) indexedTable::iterator) {
+      Object[] values = record.getValues();
+      long count = 0;
+      double sum = 0;
+      for (Object[] upserted : upsertedValues) {
+        if (upserted[0].equals(values[0])) {
+          count++;
+          sum += (Double) upserted[2];
+        }
+      }
+      assertEquals(values[1], count);
+      assertEquals(values[2], sum);
+    }
+  }
+
+  private static DataSchema getDataSchema(ColumnDataType[] keyTypes) {
+    int numKeyColumns = keyTypes.length;
+    String[] columnNames = new String[numKeyColumns + 4];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numKeyColumns + 4];
+    for (int i = 0; i < numKeyColumns; i++) {
+      columnNames[i] = "d" + (i + 1);
+      columnDataTypes[i] = keyTypes[i];
+    }
+    System.arraycopy(new String[]{"count(*)", "sum(m1)", "min(m1)", "max(m1)"}, 0, columnNames, numKeyColumns, 4);
+    System.arraycopy(new ColumnDataType[]{
+        ColumnDataType.LONG, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    }, 0, columnDataTypes, numKeyColumns, 4);
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
+  private static Object[] getRandomValues(ColumnDataType[] keyTypes) {
+    int numKeyColumns = keyTypes.length;
+    Object[] values = new Object[numKeyColumns + 4];
+    for (int i = 0; i < numKeyColumns; i++) {
+      // Include negative values to cover the key packing
+      int value = RANDOM.nextInt(CARDINALITY) - CARDINALITY / 2;
+      values[i] = keyTypes[i] == ColumnDataType.INT ? (Object) value : (Object) (value * 10_000_000_000L);
+    }
+    double metric = RANDOM.nextInt(1000);
+    values[numKeyColumns] = 1L;
+    values[numKeyColumns + 1] = metric;
+    values[numKeyColumns + 2] = metric;
+    values[numKeyColumns + 3] = metric;
+    return values;
+  }
+
+  private static Map<Key, List<Object>> getRecordMap(IndexedTable indexedTable, int numKeyColumns) {
+    Map<Key, List<Object>> recordMap = new HashMap<>();
+    for (Record record : (Iterable<Record>) indexedTable::iterator) {
+      Object[] values = record.getValues();
+      recordMap.put(new Key(Arrays.copyOf(values, numKeyColumns)), Arrays.asList(values));
+    }
+    return recordMap;
+  }
+}
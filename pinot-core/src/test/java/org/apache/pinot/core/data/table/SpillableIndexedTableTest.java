@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class SpillableIndexedTableTest {
+  private static final File SPILL_DIR = new File(FileUtils.getTempDirectory(), "SpillableIndexedTableTest");
+  private static final int NUM_GROUPS = 1000;
+  private static final int NUM_UPSERTS_PER_GROUP = 4;
+  private static final int SPILL_THRESHOLD = 100;
+
+  private QueryContext _queryContext;
+  private DataSchema _dataSchema;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(SPILL_DIR);
+    _queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT d1, d2, SUM(m1), DISTINCTCOUNT(m2) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC, d2");
+    _dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "distinctcount(m2)"}, new ColumnDataType[]{
+        ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.OBJECT
+    });
+  }
+
+  @Test
+  public void testSpillAndMerge()
+      throws Exception {
+    SpillableIndexedTable indexedTable =
+        new SpillableIndexedTable(_dataSchema, _queryContext, NUM_GROUPS, SPILL_THRESHOLD, SPILL_DIR);
+    ExecutorService executorService = Executors.newFixedThreadPool(NUM_UPSERTS_PER_GROUP);
+    try {
+      List<Future<?>> futures = new ArrayList<>(NUM_UPSERTS_PER_GROUP);
+      for (int i = 0; i < NUM_UPSERTS_PER_GROUP; i++) {
+        int threadId = i;
+        futures.add(executorService.submit(() -> {
+          for (int groupId = 0; groupId < NUM_GROUPS; groupId++) {
+            upsert(indexedTable, groupId, threadId);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+    assertTrue(indexedTable.getNumSpills() > 0);
+    assertTrue(SPILL_DIR.list().length > 0);
+
+    // All the groups should be kept with the accurate results
+    indexedTable.finish(true);
+    assertEquals(indexedTable.size(), NUM_GROUPS);
+    int expectedGroupId = NUM_GROUPS - 1;
+    for (Record record : (Iterable<Record>) indexedTable::iterator) {
+      checkRecord(record, expectedGroupId--);
+    }
+    assertEquals(SPILL_DIR.list().length, 0);
+  }
+
+  @Test
+  public void testTopRecords()
+      throws Exception {
+    int resultSize = 10;
+    SpillableIndexedTable indexedTable =
+        new SpillableIndexedTable(_dataSchema, _queryContext, resultSize, SPILL_THRESHOLD, SPILL_DIR);
+    // Upsert each group multiple times with spills in between, where trimming would drop the top groups
+    for (int i = 0; i < NUM_UPSERTS_PER_GROUP; i++) {
+      for (int groupId = 0; groupId < NUM_GROUPS; groupId++) {
+        upsert(indexedTable, groupId, i);
+      }
+    }
+    assertTrue(indexedTable.getNumSpills() > 0);
+
+    indexedTable.finish(true, true);
+    assertEquals(indexedTable.size(), resultSize);
+    int expectedGroupId = NUM_GROUPS - 1;
+    for (Record record : (Iterable<Record>) indexedTable::iterator) {
+      Object[] values = record.getValues();
+      assertEquals(values[0], "group_" + expectedGroupId);
+      assertEquals(values[1], expectedGroupId);
+      assertEquals(values[2], (double) expectedGroupId * NUM_UPSERTS_PER_GROUP);
+      assertEquals(values[3], NUM_UPSERTS_PER_GROUP);
+      expectedGroupId--;
+    }
+    assertEquals(SPILL_DIR.list().length, 0);
+  }
+
+  @Test
+  public void testCleanUp() {
+    SpillableIndexedTable indexedTable =
+        new SpillableIndexedTable(_dataSchema, _queryContext, NUM_GROUPS, SPILL_THRESHOLD, SPILL_DIR);
+    for (int groupId = 0; groupId < NUM_GROUPS; groupId++) {
+      upsert(indexedTable, groupId, 0);
+    }
+    assertTrue(indexedTable.getNumSpills() > 0);
+    indexedTable.cleanUp();
+    assertFalse(SPILL_DIR.exists() && SPILL_DIR.list().length > 0);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(SPILL_DIR);
+  }
+
+  /**
+   * Upserts a record for the group, where SUM(m1) is the group id, and DISTINCTCOUNT(m2) is the number of distinct
+   * upsert ids.
+   */
+  private static void upsert(IndexedTable indexedTable, int groupId, int upsertId) {
+    IntOpenHashSet distinctValues = new IntOpenHashSet();
+    distinctValues.add(upsertId);
+    indexedTable.upsert(new Key(new Object[]{"group_" + groupId, groupId}),
+        new Record(new Object[]{"group_" + groupId, groupId, (double) groupId, distinctValues}));
+  }
+
+  private static void checkRecord(Record record, int groupId) {
+    Object[] values = record.getValues();
+    assertEquals(values[0], "group_" + groupId);
+    assertEquals(values[1], groupId);
+    assertEquals(values[2], (double) groupId * NUM_UPSERTS_PER_GROUP);
+    assertEquals(((IntOpenHashSet) values[3]).size(), NUM_UPSERTS_PER_GROUP);
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.pinot.common.datatable.DataTable.MetadataKey;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.Block;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.SelectionResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests the segment scheduling of the combine operator, where the segments should be processed in the descending order
+ * of the estimated cost, and the skew of the tasks should be reported in the results metadata.
+ */
+@SuppressWarnings("rawtypes")
+public class CombineOperatorSchedulingTest {
+  private static final int NUM_OPERATORS = 10;
+  private static final int NUM_THREADS = 2;
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+  }
+
+  @Test
+  public void testOrderByEstimatedCost() {
+    QueryContext queryContext = getQueryContext(NUM_THREADS);
+    List<Operator> operators = getOperators(queryContext);
+    SelectionOnlyCombineOperator combineOperator =
+        new SelectionOnlyCombineOperator(operators, queryContext, _executorService);
+    List<Operator> childOperators = combineOperator.getChildOperators();
+    assertEquals(childOperators.size(), NUM_OPERATORS);
+    long previousNumDocs = Long.MAX_VALUE;
+    for (Operator childOperator : childOperators) {
+      long numDocs = childOperator.getIndexSegment().getSegmentMetadata().getTotalDocs();
+      assertTrue(numDocs <= previousNumDocs);
+      previousNumDocs = numDocs;
+    }
+
+    BaseResultsBlock resultsBlock = combineOperator.nextBlock();
+    assertEquals(resultsBlock.getNumSegmentsProcessed(), NUM_OPERATORS);
+    Map<String, String> resultsMetadata = resultsBlock.getResultsMetadata();
+    String minTaskExecutionTimeMs = resultsMetadata.get(MetadataKey.MIN_TASK_EXECUTION_TIME_MS.getName());
+    String maxTaskExecutionTimeMs = resultsMetadata.get(MetadataKey.MAX_TASK_EXECUTION_TIME_MS.getName());
+    assertNotNull(minTaskExecutionTimeMs);
+    assertNotNull(maxTaskExecutionTimeMs);
+    assertTrue(Long.parseLong(minTaskExecutionTimeMs) <= Long.parseLong(maxTaskExecutionTimeMs));
+  }
+
+  @Test
+  public void testSingleTask() {
+    // The original order should be kept when there is only one task
+    QueryContext queryContext = getQueryContext(1);
+    List<Operator> operators = getOperators(queryContext);
+    SelectionOnlyCombineOperator combineOperator =
+        new SelectionOnlyCombineOperator(operators, queryContext, _executorService);
+    assertSame(combineOperator.getChildOperators(), operators);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  private static QueryContext getQueryContext(int maxExecutionThreads) {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable LIMIT 1000");
+    queryContext.setEndTimeMs(Long.MAX_VALUE);
+    queryContext.setMaxExecutionThreads(maxExecutionThreads);
+    return queryContext;
+  }
+
+  private static List<Operator> getOperators(QueryContext queryContext) {
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      // Put the segments in ascending order of the number of documents
+      operators.add(new SegmentOperator(queryContext, (i + 1) * 100));
+    }
+    return operators;
+  }
+
+  private static class SegmentOperator extends BaseOperator {
+    private static final String EXPLAIN_NAME = "SEGMENT";
+
+    private final QueryContext _queryContext;
+    private final IndexSegment _indexSegment;
+
+    SegmentOperator(QueryContext queryContext, int numDocs) {
+      _queryContext = queryContext;
+      SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+      when(segmentMetadata.getTotalDocs()).thenReturn(numDocs);
+      _indexSegment = mock(IndexSegment.class);
+      when(_indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    }
+
+    @Override
+    protected Block getNextBlock() {
+      DataSchema dataSchema = new DataSchema(new String[]{"myColumn"}, new ColumnDataType[]{ColumnDataType.INT});
+      return new SelectionResultsBlock(dataSchema, new ArrayList<>(), _queryContext);
+    }
+
+    @Override
+    public List<Operator> getChildOperators() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String toExplainString() {
+      return EXPLAIN_NAME;
+    }
+
+    @Override
+    public IndexSegment getIndexSegment() {
+      return _indexSegment;
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(0, 0, 0, _indexSegment.getSegmentMetadata().getTotalDocs());
+    }
+  }
+}
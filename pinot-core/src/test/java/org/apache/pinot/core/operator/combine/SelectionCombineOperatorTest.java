@@ -236,6 +236,33 @@ public class SelectionCombineOperatorTest {
     assertEquals(combineResult.getNumTotalDocs(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
   }
 
+  @Test
+  public void testSelectionOrderByDeferMaterialization() {
+    // Order by a transform so that SelectionOrderByOperator is used, and the non-order-by column is fetched only for
+    // the top rows across all the segments
+    SelectionResultsBlock combineResult =
+        getCombineResult("SELECT intColumn FROM testTable ORDER BY ADD(intColumn, 0) DESC");
+    assertEquals(combineResult.getDataSchema(), new DataSchema(new String[]{"add(intColumn,'0')", INT_COLUMN},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.DOUBLE, DataSchema.ColumnDataType.INT}));
+    List<Object[]> rows = combineResult.getRows();
+    assertNotNull(rows);
+    assertEquals(rows.size(), 10);
+    int expectedValue = NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT / 2 + 49;
+    for (int i = 0; i < 10; i++) {
+      Object[] row = rows.get(i);
+      assertEquals(row[0], (double) (expectedValue - i));
+      assertEquals(row[1], expectedValue - i);
+    }
+    long numDocsScanned = combineResult.getNumDocsScanned();
+    assertEquals(numDocsScanned, NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+    assertEquals(combineResult.getNumEntriesScannedInFilter(), 0);
+    // 'intColumn' is scanned once for all the documents for ordering, then once for the top 10 rows
+    assertEquals(combineResult.getNumEntriesScannedPostFilter(), numDocsScanned + 10);
+    assertEquals(combineResult.getNumSegmentsProcessed(), NUM_SEGMENTS);
+    assertEquals(combineResult.getNumSegmentsMatched(), NUM_SEGMENTS);
+    assertEquals(combineResult.getNumTotalDocs(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+  }
+
   private SelectionResultsBlock getCombineResult(String query) {
     QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
     List<PlanNode> planNodes = new ArrayList<>(NUM_SEGMENTS);
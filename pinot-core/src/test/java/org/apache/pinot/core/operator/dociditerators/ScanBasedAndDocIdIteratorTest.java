@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.OptionalInt;
+import org.apache.pinot.segment.spi.Constants;
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.apache.pinot.core.common.BlockDocIdIterator.OPTIMAL_ITERATOR_BATCH_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+
+public class ScanBasedAndDocIdIteratorTest {
+
+  @Test
+  public void testScanBasedAndDocIdIterator() {
+    // AND result: multiples of 6 within [0, 1000)
+    int numDocs = 1000;
+    MutableRoaringBitmap bitmap1 = new MutableRoaringBitmap();
+    MutableRoaringBitmap bitmap2 = new MutableRoaringBitmap();
+    for (int i = 0; i < numDocs; i++) {
+      if (i % 2 == 0) {
+        bitmap1.add(i);
+      }
+      if (i % 3 == 0) {
+        bitmap2.add(i);
+      }
+    }
+    ScanBasedAndDocIdIterator andDocIdIterator = new ScanBasedAndDocIdIterator(new ScanBasedDocIdIterator[]{
+        new BitmapScanDocIdIterator(bitmap1), new BitmapScanDocIdIterator(bitmap2)
+    }, numDocs);
+
+    assertEquals(andDocIdIterator.next(), 0);
+    assertEquals(andDocIdIterator.next(), 6);
+    assertEquals(andDocIdIterator.advance(10), 12);
+    // Advance across the batch boundary
+    assertEquals(andDocIdIterator.advance(500), 504);
+    assertEquals(andDocIdIterator.next(), 510);
+    assertEquals(andDocIdIterator.advance(995), 996);
+    assertEquals(andDocIdIterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testScanBasedAndDocIdIteratorNoMatch() {
+    int numDocs = 1000;
+    MutableRoaringBitmap bitmap1 = MutableRoaringBitmap.bitmapOf(1, 3, 600);
+    MutableRoaringBitmap bitmap2 = MutableRoaringBitmap.bitmapOf(2, 4, 601);
+    ScanBasedAndDocIdIterator andDocIdIterator = new ScanBasedAndDocIdIterator(new ScanBasedDocIdIterator[]{
+        new BitmapScanDocIdIterator(bitmap1), new BitmapScanDocIdIterator(bitmap2)
+    }, numDocs);
+    assertEquals(andDocIdIterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testAdaptiveOrdering() {
+    // The first child matches all the documents, and the second child matches only the last document. The second child
+    // should be moved to the front after the first sampled batch, so that the first child is only evaluated on the
+    // documents matching the second child.
+    int numDocs = 100 * OPTIMAL_ITERATOR_BATCH_SIZE;
+    MutableRoaringBitmap bitmap1 = new MutableRoaringBitmap();
+    bitmap1.add(0L, numDocs);
+    MutableRoaringBitmap bitmap2 = MutableRoaringBitmap.bitmapOf(numDocs - 1);
+    BitmapScanDocIdIterator docIdIterator1 = new BitmapScanDocIdIterator(bitmap1);
+    BitmapScanDocIdIterator docIdIterator2 = new BitmapScanDocIdIterator(bitmap2);
+    ScanBasedAndDocIdIterator andDocIdIterator =
+        new ScanBasedAndDocIdIterator(new ScanBasedDocIdIterator[]{docIdIterator1, docIdIterator2}, numDocs);
+    assertEquals(andDocIdIterator.next(), numDocs - 1);
+    assertEquals(andDocIdIterator.next(), Constants.EOF);
+    assertSame(andDocIdIterator.getDocIdIterators()[0], docIdIterator2);
+    assertSame(andDocIdIterator.getDocIdIterators()[1], docIdIterator1);
+    assertEquals(docIdIterator1.getNumEntriesScanned(), OPTIMAL_ITERATOR_BATCH_SIZE + 1);
+    assertEquals(docIdIterator2.getNumEntriesScanned(), numDocs);
+
+    // The order should be kept when adaptive ordering is disabled
+    docIdIterator1 = new BitmapScanDocIdIterator(bitmap1);
+    docIdIterator2 = new BitmapScanDocIdIterator(bitmap2);
+    andDocIdIterator =
+        new ScanBasedAndDocIdIterator(new ScanBasedDocIdIterator[]{docIdIterator1, docIdIterator2}, numDocs, false);
+    assertEquals(andDocIdIterator.next(), numDocs - 1);
+    assertEquals(andDocIdIterator.next(), Constants.EOF);
+    assertSame(andDocIdIterator.getDocIdIterators()[0], docIdIterator1);
+    assertEquals(docIdIterator1.getNumEntriesScanned(), numDocs);
+    assertEquals(docIdIterator2.getNumEntriesScanned(), numDocs);
+  }
+
+  /**
+   * Scan-based iterator backed by a bitmap, which relies on the default batch evaluation.
+   */
+  private static class BitmapScanDocIdIterator implements ScanBasedDocIdIterator {
+    private final ImmutableRoaringBitmap _docIds;
+    private long _numEntriesScanned;
+
+    BitmapScanDocIdIterator(ImmutableRoaringBitmap docIds) {
+      _docIds = docIds;
+    }
+
+    @Override
+    public int next() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int advance(int targetDocId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MutableRoaringBitmap applyAnd(BatchIterator batchIterator, OptionalInt firstDoc, OptionalInt lastDoc) {
+      MutableRoaringBitmap result = new MutableRoaringBitmap();
+      IntIterator intIterator = batchIterator.asIntIterator(new int[OPTIMAL_ITERATOR_BATCH_SIZE]);
+      while (intIterator.hasNext()) {
+        int docId = intIterator.next();
+        _numEntriesScanned++;
+        if (_docIds.contains(docId)) {
+          result.add(docId);
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public long getNumEntriesScanned() {
+      return _numEntriesScanned;
+    }
+  }
+}
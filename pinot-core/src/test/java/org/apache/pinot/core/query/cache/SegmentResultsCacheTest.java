@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentResultsCacheTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  @Test
+  public void testIsCacheable() {
+    QueryContext aggregationQuery =
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable WHERE a > 5");
+    QueryContext selectionQuery = QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable WHERE a > 5");
+    ImmutableSegment immutableSegment = mockImmutableSegment("crc");
+    assertTrue(SegmentResultsCache.isCacheable(immutableSegment, aggregationQuery));
+    assertFalse(SegmentResultsCache.isCacheable(immutableSegment, selectionQuery));
+    assertFalse(SegmentResultsCache.isCacheable(mock(MutableSegment.class), aggregationQuery));
+  }
+
+  @Test
+  public void testQueryFingerprint() {
+    QueryContext query1 =
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable WHERE a > 5 OPTION(timeoutMs=100)");
+    QueryContext query2 =
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable WHERE a > 5 OPTION(timeoutMs=200)");
+    QueryContext query3 = QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable WHERE a > 6");
+    assertEquals(SegmentResultsCache.getQueryFingerprint(query1), SegmentResultsCache.getQueryFingerprint(query2));
+    assertNotEquals(SegmentResultsCache.getQueryFingerprint(query1), SegmentResultsCache.getQueryFingerprint(query3));
+  }
+
+  @Test
+  public void testAggregationResults() {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*), DISTINCTCOUNT(a) FROM testTable");
+    IntOpenHashSet distinctValues = new IntOpenHashSet(new int[]{1, 2, 3});
+    AggregationResultsBlock resultsBlock = new AggregationResultsBlock(queryContext.getAggregationFunctions(),
+        new ArrayList<>(Arrays.asList(10L, distinctValues)), queryContext);
+    ExecutionStatistics executionStatistics = new ExecutionStatistics(10, 5, 20, 100);
+    CachedSegmentResults cachedResults =
+        CachedSegmentResults.fromResultsBlock(resultsBlock, executionStatistics, queryContext);
+    assertNotNull(cachedResults);
+    assertTrue(cachedResults.getSizeInBytes() > 0);
+    assertEquals(cachedResults.getExecutionStatistics(), executionStatistics);
+
+    // Mutating the original results should not affect the cached results
+    distinctValues.add(4);
+    AggregationResultsBlock cachedResultsBlock = (AggregationResultsBlock) cachedResults.toResultsBlock(queryContext);
+    List<Object> results = cachedResultsBlock.getResults();
+    assertEquals(results.get(0), 10L);
+    assertEquals(results.get(1), new IntOpenHashSet(new int[]{1, 2, 3}));
+
+    // Each results block should have its own copy of the mutable intermediate results
+    ((IntOpenHashSet) results.get(1)).add(5);
+    AggregationResultsBlock anotherResultsBlock = (AggregationResultsBlock) cachedResults.toResultsBlock(queryContext);
+    assertNotSame(anotherResultsBlock.getResults().get(1), results.get(1));
+    assertEquals(anotherResultsBlock.getResults().get(1), new IntOpenHashSet(new int[]{1, 2, 3}));
+  }
+
+  @Test
+  public void testGroupByResults() {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT b, COUNT(*), DISTINCTCOUNT(a) FROM testTable GROUP BY b");
+    DataSchema dataSchema = new DataSchema(new String[]{"b", "count(*)", "distinctcount(a)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.LONG, ColumnDataType.OBJECT});
+    List<IntermediateRecord> intermediateRecords = Arrays.asList(
+        IntermediateRecord.create(new Key(new Object[]{"x"}),
+            new Record(new Object[]{"x", 3L, new IntOpenHashSet(new int[]{1, 2})})),
+        IntermediateRecord.create(new Key(new Object[]{"y"}),
+            new Record(new Object[]{"y", 1L, new IntOpenHashSet(new int[]{3})})));
+    GroupByResultsBlock resultsBlock = new GroupByResultsBlock(dataSchema, intermediateRecords, queryContext);
+    resultsBlock.setNumGroupsLimitReached(true);
+    CachedSegmentResults cachedResults =
+        CachedSegmentResults.fromResultsBlock(resultsBlock, new ExecutionStatistics(4, 0, 4, 10), queryContext);
+    assertNotNull(cachedResults);
+
+    GroupByResultsBlock cachedResultsBlock = (GroupByResultsBlock) cachedResults.toResultsBlock(queryContext);
+    assertEquals(cachedResultsBlock.getDataSchema(), dataSchema);
+    assertTrue(cachedResultsBlock.isNumGroupsLimitReached());
+    Collection<IntermediateRecord> cachedRecords = cachedResultsBlock.getIntermediateRecords();
+    assertEquals(cachedRecords.size(), 2);
+    for (IntermediateRecord cachedRecord : cachedRecords) {
+      Object[] values = cachedRecord._record.getValues();
+      assertEquals(cachedRecord._key, new Key(new Object[]{values[0]}));
+      if (values[0].equals("x")) {
+        assertEquals(values[1], 3L);
+        assertEquals(values[2], new IntOpenHashSet(new int[]{1, 2}));
+      } else {
+        assertEquals(values[0], "y");
+        assertEquals(values[1], 1L);
+        assertEquals(values[2], new IntOpenHashSet(new int[]{3}));
+      }
+    }
+  }
+
+  @Test
+  public void testCacheInvalidation() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable");
+    String queryFingerprint = SegmentResultsCache.getQueryFingerprint(queryContext);
+    CachedSegmentResults cachedResults = CachedSegmentResults.fromResultsBlock(
+        new AggregationResultsBlock(queryContext.getAggregationFunctions(), new ArrayList<>(Arrays.asList(10L)),
+            queryContext), new ExecutionStatistics(10, 0, 0, 10), queryContext);
+    assertNotNull(cachedResults);
+    SegmentResultsCache cache = new SegmentResultsCache(1024 * 1024);
+
+    IndexSegment segment = mockImmutableSegment("crc1");
+    assertNull(cache.get(TABLE_NAME, segment, queryFingerprint));
+    cache.put(TABLE_NAME, segment, queryFingerprint, cachedResults);
+    assertEquals(cache.get(TABLE_NAME, segment, queryFingerprint), cachedResults);
+
+    // Replaced segment should not be served from the cache, and the stale entries should be removed
+    IndexSegment replacedSegment = mockImmutableSegment("crc2");
+    assertNull(cache.get(TABLE_NAME, replacedSegment, queryFingerprint));
+    assertEquals(cache.size(), 0);
+    cache.put(TABLE_NAME, replacedSegment, queryFingerprint, cachedResults);
+    assertEquals(cache.get(TABLE_NAME, replacedSegment, queryFingerprint), cachedResults);
+
+    // Results computed on the old segment should not be cached once the segment is replaced
+    cache.put(TABLE_NAME, segment, queryFingerprint, cachedResults);
+    assertEquals(cache.size(), 1);
+
+    cache.invalidateSegment(TABLE_NAME, SEGMENT_NAME);
+    assertEquals(cache.size(), 0);
+  }
+
+  private static ImmutableSegment mockImmutableSegment(String crc) {
+    ImmutableSegment segment = mock(ImmutableSegment.class);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentName()).thenReturn(SEGMENT_NAME);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.utils;
+
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.spi.exception.QueryMemoryBudgetExceededException;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+
+public class QueryMemoryBudgetTest {
+  private static final ColumnDataType[] COLUMN_DATA_TYPES = new ColumnDataType[]{ColumnDataType.INT};
+
+  @Test
+  public void testRowReservation() {
+    long rowSizeBytes = QueryMemoryBudget.estimateRowSizeBytes(COLUMN_DATA_TYPES);
+    int maxNumRows = 3 * QueryMemoryBudget.RESERVATION_CHUNK_SIZE / 2;
+    QueryMemoryBudget memoryBudget = new QueryMemoryBudget(maxNumRows * rowSizeBytes, MemoryOverflowMode.TRIM);
+
+    // Memory should be reserved in chunks
+    QueryMemoryBudget.RowReservation reservation1 = memoryBudget.newRowReservation(COLUMN_DATA_TYPES);
+    assertTrue(reservation1.reserve(1));
+    assertEquals(reservation1.getNumReservedRows(), QueryMemoryBudget.RESERVATION_CHUNK_SIZE);
+    assertEquals(memoryBudget.getReservedBytes(), QueryMemoryBudget.RESERVATION_CHUNK_SIZE * rowSizeBytes);
+    assertTrue(reservation1.reserve(QueryMemoryBudget.RESERVATION_CHUNK_SIZE));
+    assertEquals(reservation1.getNumReservedRows(), QueryMemoryBudget.RESERVATION_CHUNK_SIZE);
+
+    // Fall back to reserve the exact number of rows when the chunk cannot fit
+    QueryMemoryBudget.RowReservation reservation2 = memoryBudget.newRowReservation(COLUMN_DATA_TYPES);
+    assertTrue(reservation2.reserve(10));
+    assertEquals(reservation2.getNumReservedRows(), 10);
+    assertEquals(reservation2.getMaxNumRows(), maxNumRows - QueryMemoryBudget.RESERVATION_CHUNK_SIZE);
+    assertFalse(reservation2.reserve(maxNumRows));
+    assertEquals(reservation2.getNumReservedRows(), 10);
+
+    // Released memory can be reserved by other reservations
+    reservation1.release(0);
+    assertEquals(reservation1.getNumReservedRows(), 0);
+    assertEquals(memoryBudget.getReservedBytes(), 10 * rowSizeBytes);
+    assertTrue(reservation2.reserve(maxNumRows));
+    assertEquals(memoryBudget.getReservedBytes(), maxNumRows * rowSizeBytes);
+    assertFalse(memoryBudget.isExceeded());
+  }
+
+  @Test
+  public void testOnExceeded() {
+    QueryMemoryBudget trimBudget = new QueryMemoryBudget(1024, MemoryOverflowMode.TRIM);
+    trimBudget.onExceeded("Group-by");
+    assertTrue(trimBudget.isExceeded());
+
+    QueryMemoryBudget throwBudget = new QueryMemoryBudget(1024, MemoryOverflowMode.THROW);
+    assertThrows(QueryMemoryBudgetExceededException.class, () -> throwBudget.onExceeded("Group-by"));
+    assertFalse(throwBudget.isExceeded());
+  }
+}
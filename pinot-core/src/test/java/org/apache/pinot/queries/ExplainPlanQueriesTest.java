@@ -1653,6 +1653,30 @@ public class ExplainPlanQueriesTest extends BaseQueriesTest {
         "FILTER_SORTED_INDEX(indexLookUp:sorted_index,operator:EQ,predicate:noIndexCol1 = '8')", 6, 5
     });
     check(query4, new ResultTable(DATA_SCHEMA, result4));
+
+    // Both predicates are scans on all segments, so the evaluation order of the scans is adapted at runtime
+    String query5 = "EXPLAIN PLAN FOR SELECT noIndexCol1 FROM testTable WHERE noIndexCol2 = 1 AND noIndexCol3 = 2 "
+        + "LIMIT 100";
+    List<Object[]> result5 = new ArrayList<>();
+    result5.add(new Object[]{"BROKER_REDUCE(limit:100)", 1, 0});
+    result5.add(new Object[]{"COMBINE_SELECT", 2, 1});
+    result5.add(new Object[]{
+        "PLAN_START(numSegmentsForThisPlan:4)", ExplainPlanRows.PLAN_START_IDS, ExplainPlanRows.PLAN_START_IDS
+    });
+    result5.add(new Object[]{"SELECT(selectList:noIndexCol1)", 3, 2});
+    result5.add(new Object[]{"PROJECT(noIndexCol1)", 4, 3});
+    result5.add(new Object[]{"DOC_ID_SET", 5, 4});
+    result5.add(new Object[]{"FILTER_AND(evaluationOrder:adaptive)", 6, 5});
+    result5.add(new Object[]{"FILTER_FULL_SCAN(operator:EQ,predicate:noIndexCol2 = '1')", 7, 6});
+    result5.add(new Object[]{"FILTER_FULL_SCAN(operator:EQ,predicate:noIndexCol3 = '2')", 8, 6});
+    check(query5, new ResultTable(DATA_SCHEMA, result5));
+
+    // The scans are evaluated in the planned order when scan reordering is disabled
+    String query6 = "SET useScanReorderOpt=false; EXPLAIN PLAN FOR SELECT noIndexCol1 FROM testTable WHERE "
+        + "noIndexCol2 = 1 AND noIndexCol3 = 2 LIMIT 100";
+    List<Object[]> result6 = new ArrayList<>(result5);
+    result6.set(6, new Object[]{"FILTER_AND", 6, 5});
+    check(query6, new ResultTable(DATA_SCHEMA, result6));
   }
 
   @Test
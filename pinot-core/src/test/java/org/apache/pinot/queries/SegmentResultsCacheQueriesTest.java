@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Queries test for the segment-level results cache, which verifies that the results served from the cache are the
+ * same as the results computed from the segments.
+ */
+public class SegmentResultsCacheQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentResultsCacheQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  private static final int NUM_RECORDS = 1000;
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().addSingleValueDimension(INT_COLUMN, DataType.INT)
+      .addSingleValueDimension(STRING_COLUMN, DataType.STRING).build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+  private InstancePlanMakerImplV2 _cachedPlanMaker;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(INT_COLUMN, i);
+      record.putValue(STRING_COLUMN, "value" + (i % 10));
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+
+    _cachedPlanMaker = new InstancePlanMakerImplV2();
+    _cachedPlanMaker.init(new PinotConfiguration(
+        Map.of(InstancePlanMakerImplV2.SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY, 1024 * 1024)));
+  }
+
+  @Test
+  public void testQueries() {
+    testQuery("SELECT COUNT(*), SUM(intColumn), MAX(intColumn) FROM testTable WHERE intColumn > 100");
+    testQuery("SELECT DISTINCTCOUNT(stringColumn), DISTINCTCOUNTHLL(intColumn), PERCENTILE(intColumn, 90) "
+        + "FROM testTable");
+    testQuery("SELECT stringColumn, COUNT(*), DISTINCTCOUNT(intColumn) FROM testTable GROUP BY stringColumn "
+        + "ORDER BY stringColumn");
+    testQuery("SELECT stringColumn, SUM(intColumn) FROM testTable WHERE intColumn < 500 GROUP BY stringColumn "
+        + "ORDER BY SUM(intColumn) DESC LIMIT 3");
+    testQuery("SELECT stringColumn, AVG(intColumn) FROM testTable GROUP BY stringColumn "
+        + "HAVING AVG(intColumn) > 499 ORDER BY stringColumn");
+  }
+
+  private void testQuery(String query) {
+    BrokerResponseNative expected = getBrokerResponse(query);
+    // Run the query multiple times to serve the results from the cache, and to ensure the cached results are not
+    // modified when they are merged
+    for (int i = 0; i < 3; i++) {
+      BrokerResponseNative actual = getBrokerResponse(query, _cachedPlanMaker);
+      assertEquals(actual.getExceptionsSize(), 0);
+      ResultTable expectedResultTable = expected.getResultTable();
+      ResultTable actualResultTable = actual.getResultTable();
+      assertEquals(actualResultTable.getDataSchema(), expectedResultTable.getDataSchema());
+      assertEquals(Arrays.deepToString(actualResultTable.getRows().toArray()),
+          Arrays.deepToString(expectedResultTable.getRows().toArray()));
+      assertEquals(actual.getNumDocsScanned(), expected.getNumDocsScanned());
+      assertEquals(actual.getNumEntriesScannedInFilter(), expected.getNumEntriesScannedInFilter());
+      assertEquals(actual.getNumEntriesScannedPostFilter(), expected.getNumEntriesScannedPostFilter());
+      assertEquals(actual.getTotalDocs(), expected.getTotalDocs());
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    _indexSegment.destroy();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+}
@@ -34,6 +34,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.LongKeyConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -65,6 +66,9 @@ public class BenchmarkCombineGroupBy {
 
   private QueryContext _queryContext;
   private DataSchema _dataSchema;
+  // GROUP BY on 2 INT columns, which can be handled by LongKeyConcurrentIndexedTable
+  private QueryContext _intKeysQueryContext;
+  private DataSchema _intKeysDataSchema;
 
   private List<String> _d1;
   private List<Integer> _d2;
@@ -94,6 +98,14 @@ public class BenchmarkCombineGroupBy {
         DataSchema.ColumnDataType.DOUBLE
     });
 
+    _intKeysQueryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT sum(m1), max(m2) FROM testTable GROUP BY d2, d3 ORDER BY sum(m1) LIMIT 500");
+    _intKeysDataSchema = new DataSchema(new String[]{"d2", "d3", "sum(m1)", "max(m2)"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.DOUBLE,
+            DataSchema.ColumnDataType.DOUBLE
+        });
+
     _executorService = Executors.newFixedThreadPool(10);
   }
 
@@ -110,6 +122,14 @@ public class BenchmarkCombineGroupBy {
     return new Record(columns);
   }
 
+  private Record getIntKeysRecord() {
+    Object[] columns = new Object[]{
+        _d2.get(RANDOM.nextInt(_d2.size())), _d2.get(RANDOM.nextInt(_d2.size())), (double) RANDOM.nextInt(
+        1000), (double) RANDOM.nextInt(1000)
+    };
+    return new Record(columns);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -145,6 +165,45 @@ public class BenchmarkCombineGroupBy {
     concurrentIndexedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void concurrentIndexedTableForCombineGroupByIntKeys()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    int trimSize = GroupByUtils.getTableCapacity(_intKeysQueryContext.getLimit());
+    combineGroupBy(new ConcurrentIndexedTable(_intKeysDataSchema, _intKeysQueryContext, trimSize, trimSize,
+        InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void longKeyConcurrentIndexedTableForCombineGroupBy()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    int trimSize = GroupByUtils.getTableCapacity(_intKeysQueryContext.getLimit());
+    combineGroupBy(new LongKeyConcurrentIndexedTable(_intKeysDataSchema, _intKeysQueryContext, trimSize, trimSize,
+        InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD));
+  }
+
+  private void combineGroupBy(IndexedTable indexedTable)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      Callable<Void> callable = () -> {
+        for (int r = 0; r < NUM_RECORDS_PER_SEGMENT; r++) {
+          indexedTable.upsert(getIntKeysRecord());
+        }
+        return null;
+      };
+      innerSegmentCallables.add(callable);
+    }
+    List<Future<Void>> futures = _executorService.invokeAll(innerSegmentCallables);
+    for (Future<Void> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    indexedTable.finish(false);
+  }
+
   public static void main(String[] args)
       throws Exception {
     ChainedOptionsBuilder opt =
@@ -127,6 +127,20 @@ public class BenchmarkFixedBitIntReader {
     return sum;
   }
 
+  @Benchmark
+  public int intReaderBulkUnaligned() {
+    int sum = 0;
+    // Read blocks of values which are not aligned to 32 values
+    int[] buffer = new int[1000];
+    for (int i = 1; i < NUM_VALUES - 1000; i += 1000) {
+      _intReader.read(i, 1000, buffer, 0);
+      for (int j = 0; j < 1000; j++) {
+        sum += buffer[j];
+      }
+    }
+    return sum;
+  }
+
   public static void main(String[] args)
       throws Exception {
     new Runner(new OptionsBuilder().include(BenchmarkFixedBitIntReader.class.getSimpleName()).build()).run();
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.join.JoinHashTable;
+import org.apache.pinot.query.runtime.operator.join.JoinHashTableFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares building and probing the right table of the multi-stage hash join with the {@link HashMap} of rows and the
+ * columnar {@link JoinHashTable}.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@State(Scope.Benchmark)
+public class BenchmarkHashJoin {
+  private static final int NUM_ROWS_PER_BLOCK = 10_000;
+  private static final int NUM_LEFT_ROWS = 100_000;
+  private static final Random RANDOM = new Random();
+
+  @Param({"1000000", "10000000"})
+  public int _numRightRows;
+
+  @Param({"INT", "LONG", "STRING"})
+  public String _keyType;
+
+  private DataSchema _rightSchema;
+  private List<DataBlock> _rightDataBlocks;
+  private List<Object[]> _leftRows;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    ColumnDataType keyType = ColumnDataType.valueOf(_keyType);
+    _rightSchema = new DataSchema(new String[]{"key", "intCol", "doubleCol", "stringCol"},
+        new ColumnDataType[]{keyType, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.STRING});
+    _rightDataBlocks = new ArrayList<>();
+    List<Object[]> rows = new ArrayList<>(NUM_ROWS_PER_BLOCK);
+    for (int i = 0; i < _numRightRows; i++) {
+      rows.add(new Object[]{getKey(keyType, i), i, (double) i, "value_" + (i % 1000)});
+      if (rows.size() == NUM_ROWS_PER_BLOCK) {
+        _rightDataBlocks.add(DataBlockBuilder.buildFromRows(rows, _rightSchema));
+        rows.clear();
+      }
+    }
+    if (!rows.isEmpty()) {
+      _rightDataBlocks.add(DataBlockBuilder.buildFromRows(rows, _rightSchema));
+    }
+    _leftRows = new ArrayList<>(NUM_LEFT_ROWS);
+    for (int i = 0; i < NUM_LEFT_ROWS; i++) {
+      // Half of the left rows have matching keys
+      _leftRows.add(new Object[]{getKey(keyType, RANDOM.nextInt(2 * _numRightRows))});
+    }
+  }
+
+  private static Object getKey(ColumnDataType keyType, int value) {
+    switch (keyType) {
+      case INT:
+        return value;
+      case LONG:
+        return (long) value;
+      default:
+        return "key_" + value;
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void hashMap(Blackhole blackhole) {
+    Map<Object, ArrayList<Object[]>> hashTable = new HashMap<>();
+    for (DataBlock dataBlock : _rightDataBlocks) {
+      for (Object[] row : new TransferableBlock(dataBlock).getContainer()) {
+        hashTable.computeIfAbsent(row[0], k -> new ArrayList<>()).add(row);
+      }
+    }
+    for (Object[] leftRow : _leftRows) {
+      List<Object[]> rightRows = hashTable.get(leftRow[0]);
+      if (rightRows != null) {
+        for (Object[] rightRow : rightRows) {
+          Object[] resultRow = new Object[5];
+          resultRow[0] = leftRow[0];
+          System.arraycopy(rightRow, 0, resultRow, 1, 4);
+          blackhole.consume(resultRow);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public void joinHashTable(Blackhole blackhole) {
+    List<Integer> keys = Collections.singletonList(0);
+    JoinHashTable hashTable = JoinHashTableFactory.getJoinHashTable(_rightSchema, _rightSchema, keys, keys, true);
+    for (DataBlock dataBlock : _rightDataBlocks) {
+      hashTable.addBlock(new TransferableBlock(dataBlock), dataBlock.getNumberOfRows());
+    }
+    for (Object[] leftRow : _leftRows) {
+      int groupId = hashTable.getGroupId(leftRow[0]);
+      if (groupId != JoinHashTable.INVALID_ID) {
+        for (int rowId = hashTable.getFirstRowId(groupId); rowId != JoinHashTable.INVALID_ID;
+            rowId = hashTable.getNextRowId(rowId)) {
+          Object[] resultRow = new Object[5];
+          resultRow[0] = leftRow[0];
+          hashTable.fillRow(rowId, resultRow, 1);
+          blackhole.consume(resultRow);
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkHashJoin.class.getSimpleName()).build()).run();
+  }
+}
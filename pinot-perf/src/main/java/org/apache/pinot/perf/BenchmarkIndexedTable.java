@@ -35,6 +35,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.LongKeyConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.SimpleIndexedTable;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -63,6 +64,9 @@ public class BenchmarkIndexedTable {
 
   private QueryContext _queryContext;
   private DataSchema _dataSchema;
+  // GROUP BY on 2 INT columns, which can be handled by LongKeyConcurrentIndexedTable
+  private QueryContext _intKeysQueryContext;
+  private DataSchema _intKeysDataSchema;
 
   private List<String> _d1;
   private List<Integer> _d2;
@@ -93,6 +97,14 @@ public class BenchmarkIndexedTable {
         DataSchema.ColumnDataType.DOUBLE
     });
 
+    _intKeysQueryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT sum(m1), max(m2) FROM testTable GROUP BY d2, d3 ORDER BY sum(m1) LIMIT 500");
+    _intKeysDataSchema = new DataSchema(new String[]{"d2", "d3", "sum(m1)", "max(m2)"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.DOUBLE,
+            DataSchema.ColumnDataType.DOUBLE
+        });
+
     _executorService = Executors.newFixedThreadPool(10);
   }
 
@@ -109,6 +121,14 @@ public class BenchmarkIndexedTable {
     return new Record(columns);
   }
 
+  private Record getNewIntKeysRecord() {
+    Object[] columns = new Object[]{
+        _d2.get(RANDOM.nextInt(_d2.size())), _d2.get(RANDOM.nextInt(_d2.size())), (double) RANDOM.nextInt(1000),
+        (double) RANDOM.nextInt(1000)
+    };
+    return new Record(columns);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -153,6 +173,56 @@ public class BenchmarkIndexedTable {
     }
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void concurrentIndexedTableIntKeys()
+      throws InterruptedException {
+    upsertConcurrently(
+        new ConcurrentIndexedTable(_intKeysDataSchema, _intKeysQueryContext, TRIM_SIZE, TRIM_SIZE, TRIM_THRESHOLD));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void longKeyConcurrentIndexedTable()
+      throws InterruptedException {
+    upsertConcurrently(
+        new LongKeyConcurrentIndexedTable(_intKeysDataSchema, _intKeysQueryContext, TRIM_SIZE, TRIM_SIZE,
+            TRIM_THRESHOLD));
+  }
+
+  private void upsertConcurrently(IndexedTable indexedTable)
+      throws InterruptedException {
+    int numSegments = 10;
+    CountDownLatch operatorLatch = new CountDownLatch(numSegments);
+    Future[] futures = new Future[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          for (int r = 0; r < NUM_RECORDS; r++) {
+            indexedTable.upsert(getNewIntKeysRecord());
+          }
+          operatorLatch.countDown();
+        }
+      });
+    }
+    try {
+      boolean opCompleted = operatorLatch.await(30, TimeUnit.SECONDS);
+      if (!opCompleted) {
+        System.out.println("Timed out............");
+      }
+      indexedTable.finish(false);
+    } finally {
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -56,6 +56,8 @@ public class BenchmarkPinotDataBitSet {
   private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkPinotDataBitSet");
   private static final int NUM_VALUES = 5_000_000;
   private static final int NUM_DOC_IDS = DocIdSetPlanNode.MAX_DOC_PER_CALL;
+  // Number of values read at once for a multi-value entry
+  private static final int NUM_VALUES_PER_MV_ENTRY = 10;
   private static final Random RANDOM = new Random();
 
   private PinotDataBuffer _dataBuffer;
@@ -168,6 +170,28 @@ public class BenchmarkPinotDataBitSet {
     return sum;
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int bitsetBulkMultiValue() {
+    int sum = 0;
+    for (int i = 0; i < NUM_VALUES - NUM_VALUES_PER_MV_ENTRY; i += NUM_VALUES_PER_MV_ENTRY) {
+      _bitSet.readInt(i, _numBits, NUM_VALUES_PER_MV_ENTRY, _dictIdBuffer);
+      sum += _dictIdBuffer[0];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int intReaderBulkMultiValue() {
+    int sum = 0;
+    for (int i = 0; i < NUM_VALUES - NUM_VALUES_PER_MV_ENTRY; i += NUM_VALUES_PER_MV_ENTRY) {
+      _intReader.read(i, NUM_VALUES_PER_MV_ENTRY, _dictIdBuffer, 0);
+      sum += _dictIdBuffer[0];
+    }
+    return sum;
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.Throughput)
   public int readerV1Sequential() {
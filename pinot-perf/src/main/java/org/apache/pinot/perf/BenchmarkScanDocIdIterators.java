@@ -25,10 +25,15 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.LongSupplier;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.AndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedAndDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -77,6 +82,7 @@ public class BenchmarkScanDocIdIterators {
   String _distribution;
 
   private DummyPredicateEvaluator _predicateEvaluator;
+  private DummyPredicateEvaluator _secondPredicateEvaluator;
   private FixedBitSVForwardIndexReaderV2 _readerV2;
   private ImmutableRoaringBitmap _bitmap;
   private PinotDataBuffer _dataBuffer;
@@ -111,6 +117,7 @@ public class BenchmarkScanDocIdIterators {
     }
     _bitmap = writer.get();
     _predicateEvaluator = new DummyPredicateEvaluator(sorted[_thresholdQuantile * sorted.length / 10]);
+    _secondPredicateEvaluator = new DummyPredicateEvaluator(sorted[(_thresholdQuantile + 5) * sorted.length / 10]);
     _readerV2 = new FixedBitSVForwardIndexReaderV2(_dataBuffer, values.length, numBits);
   }
 
@@ -126,6 +133,30 @@ public class BenchmarkScanDocIdIterators {
     return new SVScanDocIdIterator(_predicateEvaluator, _readerV2, _numDocs).applyAnd(_bitmap);
   }
 
+  @Benchmark
+  public int benchmarkAndScanPerDoc() {
+    return consume(new AndDocIdIterator(new BlockDocIdIterator[]{
+        new SVScanDocIdIterator(_predicateEvaluator, _readerV2, _numDocs),
+        new SVScanDocIdIterator(_secondPredicateEvaluator, _readerV2, _numDocs)
+    }));
+  }
+
+  @Benchmark
+  public int benchmarkAndScanBatch() {
+    return consume(new ScanBasedAndDocIdIterator(new ScanBasedDocIdIterator[]{
+        new SVScanDocIdIterator(_predicateEvaluator, _readerV2, _numDocs),
+        new SVScanDocIdIterator(_secondPredicateEvaluator, _readerV2, _numDocs)
+    }, _numDocs));
+  }
+
+  private static int consume(BlockDocIdIterator docIdIterator) {
+    int numMatchingDocs = 0;
+    while (docIdIterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+
   public static class DummyPredicateEvaluator implements PredicateEvaluator {
 
     private final int _threshold;
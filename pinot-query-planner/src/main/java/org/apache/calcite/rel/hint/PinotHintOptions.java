@@ -61,6 +61,11 @@ public class PinotHintOptions {
   public static class AggregateOptions {
     public static final String IS_PARTITIONED_BY_GROUP_BY_KEYS = "is_partitioned_by_group_by_keys";
     public static final String SKIP_LEAF_STAGE_GROUP_BY_AGGREGATION = "is_skip_leaf_stage_group_by";
+    /**
+     * Indicates that the group by keys are skewed, where an intermediate aggregation stage is added before the final
+     * aggregation, and the hot keys are split across the intermediate aggregation workers to balance the load.
+     */
+    public static final String IS_SKEWED_BY_GROUP_BY_KEYS = "is_skewed_by_group_by_keys";
 
     public static final String NUM_GROUPS_LIMIT = "num_groups_limit";
     public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "max_initial_result_holder_capacity";
@@ -35,11 +35,15 @@ import org.apache.calcite.rel.core.Exchange;
  */
 public class PinotLogicalExchange extends Exchange {
   private final PinotRelExchangeType _exchangeType;
+  // Whether the hot keys of the hash distribution can be split across the receivers, which is only allowed when the
+  // receivers don't require all the rows of a key (e.g. partial aggregation combined again after another exchange)
+  private final boolean _splitHotKeys;
 
   private PinotLogicalExchange(RelOptCluster cluster, RelTraitSet traitSet,
-      RelNode input, RelDistribution distribution, PinotRelExchangeType exchangeType) {
+      RelNode input, RelDistribution distribution, PinotRelExchangeType exchangeType, boolean splitHotKeys) {
     super(cluster, traitSet, input, distribution);
     _exchangeType = exchangeType;
+    _splitHotKeys = splitHotKeys;
     assert traitSet.containsIfApplicable(Convention.NONE);
   }
 
@@ -58,11 +62,24 @@ public class PinotLogicalExchange extends Exchange {
    */
   public static PinotLogicalExchange create(RelNode input,
       RelDistribution distribution, PinotRelExchangeType exchangeType) {
+    return create(input, distribution, exchangeType, false);
+  }
+
+  /**
+   * Creates a LogicalExchange.
+   *
+   * @param input     Input relational expression
+   * @param distribution Distribution specification
+   * @param exchangeType RelExchangeType specification
+   * @param splitHotKeys Whether the hot keys of the hash distribution can be split across the receivers
+   */
+  public static PinotLogicalExchange create(RelNode input,
+      RelDistribution distribution, PinotRelExchangeType exchangeType, boolean splitHotKeys) {
     RelOptCluster cluster = input.getCluster();
     distribution = RelDistributionTraitDef.INSTANCE.canonize(distribution);
     RelTraitSet traitSet =
         input.getTraitSet().replace(Convention.NONE).replace(distribution);
-    return new PinotLogicalExchange(cluster, traitSet, input, distribution, exchangeType);
+    return new PinotLogicalExchange(cluster, traitSet, input, distribution, exchangeType, splitHotKeys);
   }
 
   //~ Methods ----------------------------------------------------------------
@@ -71,7 +88,7 @@ public class PinotLogicalExchange extends Exchange {
   public Exchange copy(RelTraitSet traitSet, RelNode newInput,
       RelDistribution newDistribution) {
     return new PinotLogicalExchange(getCluster(), traitSet, newInput,
-        newDistribution, _exchangeType);
+        newDistribution, _exchangeType, _splitHotKeys);
   }
 
   @Override
@@ -85,10 +102,15 @@ public class PinotLogicalExchange extends Exchange {
     if (_exchangeType != PinotRelExchangeType.getDefaultExchangeType()) {
       relWriter.item("relExchangeType", _exchangeType);
     }
+    relWriter.itemIf("splitHotKeys", true, _splitHotKeys);
     return relWriter;
   }
 
   public PinotRelExchangeType getExchangeType() {
     return _exchangeType;
   }
+
+  public boolean isSplitHotKeys() {
+    return _splitHotKeys;
+  }
 }
@@ -38,6 +38,7 @@ import org.apache.calcite.rel.hint.PinotHintStrategyTable;
 import org.apache.calcite.rel.hint.RelHint;
 import org.apache.calcite.rel.logical.LogicalAggregate;
 import org.apache.calcite.rel.logical.PinotLogicalExchange;
+import org.apache.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.sql.PinotSqlAggFunction;
@@ -138,10 +139,10 @@ public class PinotAggregateExchangeNodeInsertRule extends RelOptRule {
 
   /**
    * Aggregate node will be split into LEAF + exchange + FINAL.
-   * optionally we can insert INTERMEDIATE to reduce hotspot in the future.
+   * When the group by keys are hinted as skewed, INTERMEDIATE is inserted to reduce hotspot: LEAF + exchange (splitting
+   * the hot keys) + INTERMEDIATE + exchange + FINAL.
    */
   private RelNode createPlanWithLeafExchangeFinalAggregate(RelOptRuleCall call) {
-    // TODO: add optional intermediate stage here when hinted.
     Aggregate oldAggRel = call.rel(0);
     // 1. attach leaf agg RelHint to original agg. Perform any aggregation call conversions necessary
     Aggregate leafAgg = convertAggForLeafInput(oldAggRel);
@@ -150,6 +151,16 @@ public class PinotAggregateExchangeNodeInsertRule extends RelOptRule {
     PinotLogicalExchange exchange;
     if (groupSetIndices.size() == 0) {
       exchange = PinotLogicalExchange.create(leafAgg, RelDistributions.hash(Collections.emptyList()));
+    } else if (PinotHintStrategyTable.isHintOptionTrue(oldAggRel.getHints(), PinotHintOptions.AGGREGATE_HINT_OPTIONS,
+        PinotHintOptions.AggregateOptions.IS_SKEWED_BY_GROUP_BY_KEYS)) {
+      // 2.1. split the hot keys across the intermediate agg stage, which combines the partial results of the same key
+      //      again before the final agg stage.
+      PinotLogicalExchange splitExchange =
+          PinotLogicalExchange.create(leafAgg, RelDistributions.hash(groupSetIndices),
+              PinotRelExchangeType.getDefaultExchangeType(), true);
+      RelNode intermediateAgg =
+          convertAggFromIntermediateInput(call, oldAggRel, splitExchange, AggType.INTERMEDIATE);
+      exchange = PinotLogicalExchange.create(intermediateAgg, RelDistributions.hash(groupSetIndices));
     } else {
       exchange = PinotLogicalExchange.create(leafAgg, RelDistributions.hash(groupSetIndices));
     }
@@ -40,7 +40,8 @@ import org.apache.zookeeper.common.StringUtils;
 
 
 /**
- * Special rule for Pinot, this rule transposing an INNER JOIN into dynamic broadcast join for the leaf stage.
+ * Special rule for Pinot, this rule transposing a SEMI JOIN or an INNER JOIN into dynamic broadcast join for the leaf
+ * stage.
  *
  * <p>Consider the following INNER JOIN plan
  *
@@ -84,7 +85,10 @@ import org.apache.zookeeper.common.StringUtils;
  *
  *
  *
- * <p> The next part to extend the Dynamic broadcast into the Proj/Filter operator happens in the runtime.
+ * <p> The next part to extend the Dynamic broadcast into the Proj/Filter operator happens in the runtime. For SEMI
+ * JOIN, the join is fully replaced by an IN filter on the join key; for INNER JOIN, a runtime filter (IN filter or
+ * min/max range filter) on the join keys is pushed into the Proj/Filter operator, and the join is still performed on
+ * top of the leaf-stage scan with the broadcast right table.
  *
  * <p> This rewrite is only useful if we can ensure that:
  * <ul>
@@ -109,7 +113,8 @@ import org.apache.zookeeper.common.StringUtils;
  *   </li>
  * </ul>
  *
- * TODO #1: Only support SEMI-JOIN, once JOIN operator is supported by leaf-stage we should allow it to match
+ * TODO #1: SEMI-JOIN is converted by default, INNER-JOIN is only converted when the dynamic broadcast join strategy is
+ *   explicitly specified because it requires the entire right table to be broadcast to the leaf stage.
  *   @see <a href="https://github.com/apache/pinot/pull/10565/>
  * TODO #2: Only convert to dynamic broadcast from right-to-left, allow option to specify dynamic broadcast direction.
  * TODO #3: Only convert to dynamic broadcast if left is leaf stage, allow the option for intermediate stage.
@@ -133,8 +138,9 @@ public class PinotJoinToDynamicBroadcastRule extends RelOptRule {
         PinotHintOptions.JOIN_HINT_OPTIONS, PinotHintOptions.JoinHintOptions.JOIN_STRATEGY);
     List<String> joinStrategies = joinStrategyString != null ? StringUtils.split(joinStrategyString, ",")
         : Collections.emptyList();
-    boolean explicitOtherStrategy = joinStrategies.size() > 0
-        && !joinStrategies.contains(PinotHintOptions.JoinHintOptions.DYNAMIC_BROADCAST_JOIN_STRATEGY);
+    boolean explicitDynamicBroadcastStrategy =
+        joinStrategies.contains(PinotHintOptions.JoinHintOptions.DYNAMIC_BROADCAST_JOIN_STRATEGY);
+    boolean explicitOtherStrategy = joinStrategies.size() > 0 && !explicitDynamicBroadcastStrategy;
 
     JoinInfo joinInfo = join.analyzeCondition();
     RelNode left = join.getLeft() instanceof HepRelVertex ? ((HepRelVertex) join.getLeft()).getCurrentRel()
@@ -146,9 +152,11 @@ public class PinotJoinToDynamicBroadcastRule extends RelOptRule {
         && PinotRuleUtils.canPushDynamicBroadcastToLeaf(left.getInput(0))
         // default enable dynamic broadcast for SEMI join unless other join strategy were specified
         && !explicitOtherStrategy
-        // condition for SEMI join
-        && join.getJoinType() == JoinRelType.SEMI && joinInfo.nonEquiConditions.isEmpty()
-        && joinInfo.leftKeys.size() == 1;
+        && joinInfo.nonEquiConditions.isEmpty()
+        // condition for SEMI join, which is fully replaced by the IN filter on the single join key
+        && ((join.getJoinType() == JoinRelType.SEMI && joinInfo.leftKeys.size() == 1)
+        // condition for INNER join, which is only converted when dynamic broadcast is explicitly specified
+        || (join.getJoinType() == JoinRelType.INNER && explicitDynamicBroadcastStrategy));
   }
 
   @Override
@@ -124,7 +124,9 @@ public class PinotRelDistributionTraitRule extends RelOptRule {
     } else if (node instanceof LogicalAggregate) {
       assert inputs.size() == 1;
       RelDistribution inputRelDistribution = inputs.get(0).getTraitSet().getDistribution();
-      if (inputRelDistribution != null) {
+      // the hot keys are split across the workers by the input exchange, so the output is not partitioned by the keys
+      boolean isHotKeysSplit = input instanceof PinotLogicalExchange && ((PinotLogicalExchange) input).isSplitHotKeys();
+      if (inputRelDistribution != null && !isHotKeysSplit) {
         // create a mapping that only contains the group set
         LogicalAggregate agg = (LogicalAggregate) node;
         List<Integer> groupSetIndices = new ArrayList<>();
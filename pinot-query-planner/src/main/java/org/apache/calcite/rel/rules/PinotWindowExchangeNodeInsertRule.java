@@ -176,9 +176,14 @@ public class PinotWindowExchangeNodeInsertRule extends RelOptRule {
   private void validateWindowFrames(Window.Group windowGroup) {
     // Has ROWS only aggregation call kind (e.g. ROW_NUMBER)?
     boolean isRowsOnlyTypeAggregateCall = isRowsOnlyAggregationCallType(windowGroup.aggCalls);
-    // For Phase 1 only the default frame is supported
-    Preconditions.checkState(!windowGroup.isRows || isRowsOnlyTypeAggregateCall,
-        "Default frame must be of type RANGE and not ROWS unless this is a ROWS only aggregation function");
+    if (windowGroup.isRows && !isRowsOnlyTypeAggregateCall) {
+      // Custom ROWS frames (e.g. ROWS BETWEEN 5 PRECEDING AND CURRENT ROW) are supported for the aggregation functions
+      Preconditions.checkState(windowGroup.aggCalls.stream().noneMatch(
+              aggCall -> aggCall.getKind() == SqlKind.RANK || aggCall.getKind() == SqlKind.DENSE_RANK),
+          "ROWS type frames are not supported for RANK and DENSE_RANK");
+      return;
+    }
+    // For RANGE type frames and ROWS only aggregation functions only the default frame is supported
     Preconditions.checkState(windowGroup.lowerBound.isPreceding() && windowGroup.lowerBound.isUnbounded(),
         String.format("Lower bound must be UNBOUNDED PRECEDING but it is: %s", windowGroup.lowerBound));
     if (windowGroup.orderKeys.getKeys().isEmpty() && !isRowsOnlyTypeAggregateCall) {
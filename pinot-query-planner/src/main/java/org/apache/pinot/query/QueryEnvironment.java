@@ -22,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -68,10 +69,12 @@ import org.apache.pinot.query.planner.SubPlan;
 import org.apache.pinot.query.planner.explain.PhysicalExplainPlanVisitor;
 import org.apache.pinot.query.planner.logical.PinotLogicalQueryPlanner;
 import org.apache.pinot.query.planner.logical.RelToPlanNodeConverter;
+import org.apache.pinot.query.planner.logical.TablePartitionHintInferrer;
 import org.apache.pinot.query.planner.physical.DispatchableSubPlan;
 import org.apache.pinot.query.planner.physical.PinotDispatchPlanner;
 import org.apache.pinot.query.routing.WorkerManager;
 import org.apache.pinot.query.type.TypeFactory;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.apache.pinot.sql.parsers.CalciteSqlParser;
 import org.apache.pinot.sql.parsers.SqlNodeAndOptions;
 import org.apache.pinot.sql.parsers.parser.SqlPhysicalExplain;
@@ -315,6 +318,9 @@ public class QueryEnvironment {
       RelOptPlanner optPlanner = plannerContext.getRelOptPlanner();
       optPlanner.setRoot(relRoot.rel);
       RelNode optimized = optPlanner.findBestExp();
+      if (isInferPartitionHint(plannerContext)) {
+        optimized = TablePartitionHintInferrer.inferPartitionHints(optimized, _workerManager);
+      }
       RelOptPlanner traitPlanner = plannerContext.getRelTraitPlanner();
       traitPlanner.setRoot(optimized);
       return traitPlanner.findBestExp();
@@ -324,6 +330,15 @@ public class QueryEnvironment {
     }
   }
 
+  private boolean isInferPartitionHint(PlannerContext plannerContext) {
+    // WorkerManager is not available when the query is only compiled to extract the table names
+    if (_workerManager == null) {
+      return false;
+    }
+    Map<String, String> options = plannerContext.getOptions();
+    return options == null || Boolean.parseBoolean(options.getOrDefault(QueryOptionKey.INFER_PARTITION_HINT, "true"));
+  }
+
   private SubPlan toSubPlan(RelRoot relRoot) {
     // 5. construct a logical query plan.
     PinotLogicalQueryPlanner pinotLogicalQueryPlanner = new PinotLogicalQueryPlanner();
@@ -99,7 +99,7 @@ public class PinotLogicalQueryPlanner {
       MailboxSendNode subPlanRootSenderNode =
           new MailboxSendNode(subPlanRoot.getPlanFragmentId(), subPlanRoot.getDataSchema(), 0,
               RelDistribution.Type.BROADCAST_DISTRIBUTED, PinotRelExchangeType.getDefaultExchangeType(), null, null,
-              false, false);
+              false, false, false);
       subPlanRootSenderNode.addInput(subPlanRoot);
       PlanFragment planFragment1 = new PlanFragment(1, subPlanRootSenderNode, new ArrayList<>());
       planFragmentMap.put(1, planFragment1);
@@ -113,6 +113,7 @@ public final class RelToPlanNodeConverter {
     boolean isSortOnSender = false;
     boolean isSortOnReceiver = false;
     PinotRelExchangeType exchangeType = PinotRelExchangeType.getDefaultExchangeType();
+    boolean splitHotKeys = false;
     if (node instanceof SortExchange) {
       collation = ((SortExchange) node).getCollation();
       if (node instanceof PinotLogicalSortExchange) {
@@ -124,6 +125,7 @@ public final class RelToPlanNodeConverter {
     } else {
       if (node instanceof PinotLogicalExchange) {
         exchangeType = ((PinotLogicalExchange) node).getExchangeType();
+        splitHotKeys = ((PinotLogicalExchange) node).isSplitHotKeys();
       }
     }
     RelDistribution inputDistributionTrait = node.getInputs().get(0).getTraitSet().getDistribution();
@@ -136,7 +138,7 @@ public final class RelToPlanNodeConverter {
     Set<String> tableNames = getTableNamesFromRelRoot(node);
 
     return new ExchangeNode(currentStageId, toDataSchema(node.getRowType()), exchangeType, tableNames,
-        node.getDistribution(), fieldCollations, isSortOnSender, isSortOnReceiver, isPrePartitioned);
+        node.getDistribution(), fieldCollations, isSortOnSender, isSortOnReceiver, isPrePartitioned, splitHotKeys);
   }
 
   private static PlanNode convertLogicalSetOp(SetOp node, int currentStageId) {
@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.planner.logical;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelShuttleImpl;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.hint.PinotHintOptions;
+import org.apache.calcite.rel.hint.PinotHintStrategyTable;
+import org.apache.calcite.rel.hint.RelHint;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.logical.LogicalTableScan;
+import org.apache.calcite.rel.rules.PinotRuleUtils;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.pinot.core.routing.TablePartitionInfo;
+import org.apache.pinot.query.routing.WorkerManager;
+
+
+/**
+ * {@code TablePartitionHintInferrer} attaches the table partition hints (see
+ * {@link PinotHintOptions.TableHintOptions}) to the table scans of a join when both inputs of the join are scanned from
+ * tables partitioned on the join key with the same partition function and number of partitions.
+ *
+ * <p>With the inferred hints, the table scans are assigned to workers in partitioned fashion, where the same partition
+ * of both tables is assigned to the same server, and the exchanges of the join become direct exchanges between the
+ * colocated workers, i.e. no data is shuffled across the servers for the join. This is the same as explicitly
+ * specifying the table partition hints in the query.
+ *
+ * <p>The hints are only inferred for single key equi-join where each join key can be traced back to a table column
+ * through projects and filters, and the table scans don't have explicit table partition hints.
+ */
+public class TablePartitionHintInferrer {
+  private TablePartitionHintInferrer() {
+  }
+
+  /**
+   * Returns the relational tree with the inferred table partition hints attached to the table scans.
+   */
+  public static RelNode inferPartitionHints(RelNode root, WorkerManager workerManager) {
+    Map<TableScan, RelHint> partitionHints = new IdentityHashMap<>();
+    collectPartitionHints(root, workerManager, partitionHints);
+    if (partitionHints.isEmpty()) {
+      return root;
+    }
+    return root.accept(new RelShuttleImpl() {
+      @Override
+      public RelNode visit(TableScan scan) {
+        RelHint partitionHint = partitionHints.get(scan);
+        if (partitionHint == null) {
+          return scan;
+        }
+        List<RelHint> hints = new ArrayList<>(scan.getHints());
+        hints.add(partitionHint);
+        return ((LogicalTableScan) scan).withHints(hints);
+      }
+    });
+  }
+
+  private static void collectPartitionHints(RelNode node, WorkerManager workerManager,
+      Map<TableScan, RelHint> partitionHints) {
+    if (node instanceof LogicalJoin) {
+      inferPartitionHints((LogicalJoin) node, workerManager, partitionHints);
+    }
+    for (RelNode input : node.getInputs()) {
+      collectPartitionHints(PinotRuleUtils.unboxRel(input), workerManager, partitionHints);
+    }
+  }
+
+  private static void inferPartitionHints(LogicalJoin join, WorkerManager workerManager,
+      Map<TableScan, RelHint> partitionHints) {
+    // Keep the join strategy when explicitly specified, and skip SEMI join which uses dynamic broadcast by default
+    if (join.getJoinType() == JoinRelType.SEMI || PinotHintStrategyTable.containsHintOption(join.getHints(),
+        PinotHintOptions.JOIN_HINT_OPTIONS, PinotHintOptions.JoinHintOptions.JOIN_STRATEGY)) {
+      return;
+    }
+    JoinInfo joinInfo = join.analyzeCondition();
+    if (joinInfo.leftKeys.size() != 1) {
+      return;
+    }
+    int leftKey = joinInfo.leftKeys.get(0);
+    int rightKey = joinInfo.rightKeys.get(0);
+    if (join.getLeft().getRowType().getFieldList().get(leftKey).getType().getSqlTypeName()
+        != join.getRight().getRowType().getFieldList().get(rightKey).getType().getSqlTypeName()) {
+      return;
+    }
+    ScanColumn leftScanColumn = findScanColumn(join.getLeft(), leftKey);
+    ScanColumn rightScanColumn = findScanColumn(join.getRight(), rightKey);
+    if (leftScanColumn == null || rightScanColumn == null) {
+      return;
+    }
+    TablePartitionInfo leftPartitionInfo = getPartitionInfo(leftScanColumn, workerManager);
+    TablePartitionInfo rightPartitionInfo = getPartitionInfo(rightScanColumn, workerManager);
+    if (leftPartitionInfo == null || rightPartitionInfo == null
+        || leftPartitionInfo.getNumPartitions() != rightPartitionInfo.getNumPartitions()
+        || !leftPartitionInfo.getPartitionFunctionName()
+        .equalsIgnoreCase(rightPartitionInfo.getPartitionFunctionName())) {
+      return;
+    }
+    partitionHints.putIfAbsent(leftScanColumn._tableScan, getPartitionHint(leftPartitionInfo));
+    partitionHints.putIfAbsent(rightScanColumn._tableScan, getPartitionHint(rightPartitionInfo));
+  }
+
+  /**
+   * Traces the given field of the node back to the column of the table scan through projects and filters. Returns
+   * {@code null} if the field is not directly from a table column.
+   */
+  @Nullable
+  private static ScanColumn findScanColumn(RelNode node, int fieldIndex) {
+    node = PinotRuleUtils.unboxRel(node);
+    if (node instanceof LogicalTableScan) {
+      return new ScanColumn((LogicalTableScan) node, node.getRowType().getFieldNames().get(fieldIndex));
+    }
+    if (node instanceof LogicalProject) {
+      RexNode project = ((LogicalProject) node).getProjects().get(fieldIndex);
+      return project instanceof RexInputRef ? findScanColumn(((LogicalProject) node).getInput(),
+          ((RexInputRef) project).getIndex()) : null;
+    }
+    if (node instanceof LogicalFilter) {
+      return findScanColumn(((LogicalFilter) node).getInput(), fieldIndex);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the partition info of the scanned table if the table is partitioned on the given column and can be assigned
+   * to workers in partitioned fashion, or {@code null} otherwise.
+   */
+  @Nullable
+  private static TablePartitionInfo getPartitionInfo(ScanColumn scanColumn, WorkerManager workerManager) {
+    LogicalTableScan tableScan = scanColumn._tableScan;
+    if (PinotHintStrategyTable.containsHint(tableScan.getHints(), PinotHintOptions.TABLE_HINT_OPTIONS)) {
+      // Do not override the explicit table hints
+      return null;
+    }
+    TablePartitionInfo tablePartitionInfo =
+        workerManager.getColocatableTablePartitionInfo(tableScan.getTable().getQualifiedName().get(0));
+    return tablePartitionInfo != null && tablePartitionInfo.getPartitionColumn().equals(scanColumn._column)
+        ? tablePartitionInfo : null;
+  }
+
+  private static RelHint getPartitionHint(TablePartitionInfo tablePartitionInfo) {
+    return RelHint.builder(PinotHintOptions.TABLE_HINT_OPTIONS)
+        .hintOption(PinotHintOptions.TableHintOptions.PARTITION_KEY, tablePartitionInfo.getPartitionColumn())
+        .hintOption(PinotHintOptions.TableHintOptions.PARTITION_FUNCTION,
+            tablePartitionInfo.getPartitionFunctionName())
+        .hintOption(PinotHintOptions.TableHintOptions.PARTITION_SIZE,
+            Integer.toString(tablePartitionInfo.getNumPartitions()))
+        .build();
+  }
+
+  private static class ScanColumn {
+    final LogicalTableScan _tableScan;
+    final String _column;
+
+    ScanColumn(LogicalTableScan tableScan, String column) {
+      _tableScan = tableScan;
+      _column = column;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.calcite.util.Pair;
+import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.query.context.PlannerContext;
 import org.apache.pinot.query.planner.PlanFragment;
 import org.apache.pinot.query.planner.plannode.PlanNode;
@@ -46,6 +47,9 @@ public class DispatchablePlanContext {
   private final PlannerContext _plannerContext;
   private final Map<Integer, DispatchablePlanMetadata> _dispatchablePlanMetadataMap;
   private final Map<Integer, PlanNode> _dispatchablePlanStageRootMap;
+  // Servers picked for each partition of the partitioned leaf stages, keyed by the partition function and number of
+  // partitions, so that the same partition of the colocated tables can be assigned to the same server
+  private final Map<String, ServerInstance[]> _partitionServersMap = new HashMap<>();
 
   public DispatchablePlanContext(WorkerManager workerManager, long requestId, PlannerContext plannerContext,
       List<Pair<Integer, String>> resultFields, Set<String> tableNames) {
@@ -79,6 +83,15 @@ public class DispatchablePlanContext {
     return _plannerContext;
   }
 
+  /**
+   * Returns the servers picked for each partition with the given partitioning, where {@code null} means no server is
+   * picked for the partition yet. The returned array can be modified to record the picked servers.
+   */
+  public ServerInstance[] getPartitionServers(String partitionFunction, int numPartitions) {
+    return _partitionServersMap.computeIfAbsent(partitionFunction.toLowerCase() + "_" + numPartitions,
+        k -> new ServerInstance[numPartitions]);
+  }
+
   public Map<Integer, DispatchablePlanMetadata> getDispatchablePlanMetadataMap() {
     return _dispatchablePlanMetadataMap;
   }
@@ -51,6 +51,9 @@ public class ExchangeNode extends AbstractPlanNode {
   @ProtoProperties
   private boolean _isPrePartitioned = false;
 
+  @ProtoProperties
+  private boolean _splitHotKeys = false;
+
   @ProtoProperties
   private List<RelFieldCollation> _collations;
 
@@ -66,7 +69,7 @@ public class ExchangeNode extends AbstractPlanNode {
 
   public ExchangeNode(int currentStageId, DataSchema dataSchema, PinotRelExchangeType exchangeType,
       Set<String> tableNames, RelDistribution distribution, List<RelFieldCollation> collations, boolean isSortOnSender,
-      boolean isSortOnReceiver, boolean isPrePartitioned) {
+      boolean isSortOnReceiver, boolean isPrePartitioned, boolean splitHotKeys) {
     super(currentStageId, dataSchema);
     _exchangeType = exchangeType;
     _keys = distribution.getKeys();
@@ -74,6 +77,7 @@ public class ExchangeNode extends AbstractPlanNode {
     _isSortOnSender = isSortOnSender;
     _isSortOnReceiver = isSortOnReceiver;
     _isPrePartitioned = isPrePartitioned;
+    _splitHotKeys = splitHotKeys;
     _collations = collations;
     _tableNames = tableNames;
   }
@@ -112,6 +116,10 @@ public class ExchangeNode extends AbstractPlanNode {
     return _isPrePartitioned;
   }
 
+  public boolean isSplitHotKeys() {
+    return _splitHotKeys;
+  }
+
   public List<RelFieldCollation> getCollations() {
     return _collations;
   }
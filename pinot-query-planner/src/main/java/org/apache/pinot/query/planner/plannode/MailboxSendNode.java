@@ -49,6 +49,8 @@ public class MailboxSendNode extends AbstractPlanNode {
   private boolean _isSortOnSender;
   @ProtoProperties
   private boolean _isPrePartitioned;
+  @ProtoProperties
+  private boolean _splitHotKeys;
 
   public MailboxSendNode(int planFragmentId) {
     super(planFragmentId);
@@ -57,7 +59,7 @@ public class MailboxSendNode extends AbstractPlanNode {
   public MailboxSendNode(int planFragmentId, DataSchema dataSchema, int receiverStageId,
       RelDistribution.Type distributionType, PinotRelExchangeType exchangeType,
       @Nullable List<Integer> distributionKeys, @Nullable List<RelFieldCollation> fieldCollations,
-      boolean isSortOnSender, boolean isPrePartitioned) {
+      boolean isSortOnSender, boolean isPrePartitioned, boolean splitHotKeys) {
     super(planFragmentId, dataSchema);
     _receiverStageId = receiverStageId;
     _distributionType = distributionType;
@@ -78,6 +80,7 @@ public class MailboxSendNode extends AbstractPlanNode {
     }
     _isSortOnSender = isSortOnSender;
     _isPrePartitioned = isPrePartitioned;
+    _splitHotKeys = splitHotKeys;
   }
 
   public int getReceiverStageId() {
@@ -124,6 +127,13 @@ public class MailboxSendNode extends AbstractPlanNode {
     return _isPrePartitioned;
   }
 
+  /**
+   * Returns whether the hot keys of the hash distribution can be split across the receivers.
+   */
+  public boolean isSplitHotKeys() {
+    return _splitHotKeys;
+  }
+
   @Override
   public String explain() {
     StringBuilder sb = new StringBuilder();
@@ -136,6 +146,9 @@ public class MailboxSendNode extends AbstractPlanNode {
     if (isSortOnSender()) {
       sb.append("[SORTED]");
     }
+    if (isSplitHotKeys()) {
+      sb.append("[SPLIT_HOT_KEYS]");
+    }
     return sb.toString();
   }
 
@@ -25,7 +25,10 @@ import java.util.List;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.core.Window;
+import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBound;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.logical.RexExpressionUtils;
@@ -86,15 +89,13 @@ public class WindowNode extends AbstractPlanNode {
     }
     _aggCalls = windowGroup.aggCalls.stream().map(RexExpressionUtils::fromRexCall).collect(Collectors.toList());
 
-    // TODO: For now only the default frame is supported. Add support for custom frames including rows support.
-    //       Frame literals come in the constants from the LogicalWindow and the bound.getOffset() stores the
-    //       InputRef to the constants array offset by the input array length. These need to be extracted here and
-    //       set to the bounds.
-
-    // Lower bound can only be unbounded preceding for now, set to Integer.MIN_VALUE
-    _lowerBound = Integer.MIN_VALUE;
-    // Upper bound can only be unbounded following or current row for now
-    _upperBound = windowGroup.upperBound.isUnbounded() ? Integer.MAX_VALUE : 0;
+    // The bounds are the row offsets relative to the current row for ROWS type frames, where UNBOUNDED PRECEDING is
+    // set to Integer.MIN_VALUE, UNBOUNDED FOLLOWING is set to Integer.MAX_VALUE and CURRENT ROW is set to 0.
+    // Frame literals come in the constants from the LogicalWindow and the bound.getOffset() stores the InputRef to the
+    // constants array offset by the input array length.
+    int numInputFields = dataSchema.size() - windowGroup.aggCalls.size();
+    _lowerBound = getBound(windowGroup.lowerBound, constants, numInputFields);
+    _upperBound = getBound(windowGroup.upperBound, constants, numInputFields);
     _windowFrameType = windowGroup.isRows ? WindowFrameType.ROWS : WindowFrameType.RANGE;
 
     // TODO: Constants are used to store constants needed such as the frame literals. For now just save this, need to
@@ -105,6 +106,25 @@ public class WindowNode extends AbstractPlanNode {
     }
   }
 
+  private static int getBound(RexWindowBound bound, List<RexLiteral> constants, int numInputFields) {
+    if (bound.isUnbounded()) {
+      return bound.isPreceding() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    }
+    if (bound.isCurrentRow()) {
+      return 0;
+    }
+    RexNode offset = bound.getOffset();
+    RexLiteral literal;
+    if (offset instanceof RexInputRef) {
+      literal = constants.get(((RexInputRef) offset).getIndex() - numInputFields);
+    } else {
+      Preconditions.checkState(offset instanceof RexLiteral, "Unsupported window frame offset: %s", offset);
+      literal = (RexLiteral) offset;
+    }
+    int value = literal.getValueAs(Integer.class);
+    return bound.isPreceding() ? -value : value;
+  }
+
   @Override
   public String explain() {
     return "WINDOW";
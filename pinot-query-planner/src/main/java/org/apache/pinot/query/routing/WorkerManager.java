@@ -375,8 +375,10 @@ public class WorkerManager {
 
     // Pick one server per partition
     // NOTE: Pick server based on the request id so that the same server is picked across different table scan when the
-    //       segments for the same partition is colocated
+    //       segments for the same partition is colocated. The server already picked for the same partition of another
+    //       table scan with the same partitioning is preferred, so that the joined partitions are on the same server.
     long indexToPick = context.getRequestId();
+    ServerInstance[] partitionServers = context.getPartitionServers(partitionFunction, numPartitions);
     PartitionInfo[] partitionInfoMap = partitionTableInfo._partitionInfoMap;
     int workerId = 0;
     Map<Integer, QueryServerInstance> workedIdToServerInstanceMap = new HashMap<>();
@@ -388,10 +390,17 @@ public class WorkerManager {
       //       leaf stage won't be able to directly return empty response.
       Preconditions.checkState(partitionInfo != null, "Failed to find any segment for table: %s, partition: %s",
           tableName, i);
-      ServerInstance serverInstance =
-          pickEnabledServer(partitionInfo._fullyReplicatedServers, enabledServerInstanceMap, indexToPick++);
-      Preconditions.checkState(serverInstance != null,
-          "Failed to find enabled fully replicated server for table: %s, partition: %s", tableName, i);
+      ServerInstance serverInstance = partitionServers[i];
+      if (serverInstance == null || !partitionInfo._fullyReplicatedServers.contains(serverInstance.getInstanceId())) {
+        serverInstance =
+            pickEnabledServer(partitionInfo._fullyReplicatedServers, enabledServerInstanceMap, indexToPick);
+        Preconditions.checkState(serverInstance != null,
+            "Failed to find enabled fully replicated server for table: %s, partition: %s", tableName, i);
+        if (partitionServers[i] == null) {
+          partitionServers[i] = serverInstance;
+        }
+      }
+      indexToPick++;
       workedIdToServerInstanceMap.put(workerId, new QueryServerInstance(serverInstance));
       workerIdToSegmentsMap.put(workerId, getSegmentsMap(partitionInfo));
       workerId++;
@@ -403,6 +412,46 @@ public class WorkerManager {
     metadata.setPartitionParallelism(partitionParallelism);
   }
 
+  /**
+   * Returns the {@link TablePartitionInfo} of the given table (with or without type suffix) if the table scan can be
+   * assigned to workers in partitioned fashion without any hint, i.e. all the segments are partitioned on the same
+   * column with the same partition function (consistently for hybrid table), and each partition has segments served
+   * by an enabled fully replicated server. Returns {@code null} otherwise.
+   */
+  @Nullable
+  public TablePartitionInfo getColocatableTablePartitionInfo(String tableName) {
+    TablePartitionInfo tablePartitionInfo;
+    TableType tableType = TableNameBuilder.getTableTypeFromTableName(tableName);
+    if (tableType == null) {
+      tablePartitionInfo = _routingManager.getTablePartitionInfo(TableNameBuilder.OFFLINE.tableNameWithType(tableName));
+      if (tablePartitionInfo == null) {
+        tablePartitionInfo =
+            _routingManager.getTablePartitionInfo(TableNameBuilder.REALTIME.tableNameWithType(tableName));
+      }
+    } else {
+      tablePartitionInfo = _routingManager.getTablePartitionInfo(tableName);
+    }
+    if (tablePartitionInfo == null) {
+      return null;
+    }
+    PartitionTableInfo partitionTableInfo;
+    try {
+      partitionTableInfo = getPartitionTableInfo(tableName, tablePartitionInfo.getPartitionColumn(),
+          tablePartitionInfo.getNumPartitions(), tablePartitionInfo.getPartitionFunctionName());
+    } catch (IllegalStateException e) {
+      LOGGER.debug("Cannot assign workers in partitioned fashion for table: {}", tableName, e);
+      return null;
+    }
+    Map<String, ServerInstance> enabledServerInstanceMap = _routingManager.getEnabledServerInstanceMap();
+    for (PartitionInfo partitionInfo : partitionTableInfo._partitionInfoMap) {
+      if (partitionInfo == null
+          || pickEnabledServer(partitionInfo._fullyReplicatedServers, enabledServerInstanceMap, 0) == null) {
+        return null;
+      }
+    }
+    return tablePartitionInfo;
+  }
+
   private PartitionTableInfo getPartitionTableInfo(String tableName, String partitionKey, int numPartitions,
       String partitionFunction) {
     TableType tableType = TableNameBuilder.getTableTypeFromTableName(tableName);
@@ -36,6 +36,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * gRPC implementation of the {@link SendingMailbox}. The gRPC stream is created on the first call to {@link #send}.
+ * <p>The rows are packed into data blocks of the given data block type (ROW or COLUMNAR) before sending, and the
+ * serialized bytes are wrapped into the message without copying.
  */
 public class GrpcSendingMailbox implements SendingMailbox {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrpcSendingMailbox.class);
@@ -45,16 +47,19 @@ public class GrpcSendingMailbox implements SendingMailbox {
   private final String _hostname;
   private final int _port;
   private final long _deadlineMs;
+  private final DataBlock.Type _dataBlockType;
   private final MailboxStatusObserver _statusObserver = new MailboxStatusObserver();
 
   private StreamObserver<MailboxContent> _contentObserver;
 
-  public GrpcSendingMailbox(String id, ChannelManager channelManager, String hostname, int port, long deadlineMs) {
+  public GrpcSendingMailbox(String id, ChannelManager channelManager, String hostname, int port, long deadlineMs,
+      DataBlock.Type dataBlockType) {
     _id = id;
     _channelManager = channelManager;
     _hostname = hostname;
     _port = port;
     _deadlineMs = deadlineMs;
+    _dataBlockType = dataBlockType;
   }
 
   @Override
@@ -118,7 +123,7 @@ public class GrpcSendingMailbox implements SendingMailbox {
 
   private MailboxContent toMailboxContent(TransferableBlock block)
       throws IOException {
-    DataBlock dataBlock = block.getDataBlock();
+    DataBlock dataBlock = block.getDataBlock(_dataBlockType);
     byte[] bytes = dataBlock.toBytes();
     ByteString byteString = UnsafeByteOperations.unsafeWrap(bytes);
     return MailboxContent.newBuilder().setMailboxId(_id).setPayload(byteString).build();
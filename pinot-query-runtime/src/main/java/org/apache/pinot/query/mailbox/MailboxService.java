@@ -23,9 +23,11 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.query.mailbox.channel.ChannelManager;
 import org.apache.pinot.query.mailbox.channel.GrpcMailboxServer;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +60,7 @@ public class MailboxService {
   private final String _hostname;
   private final int _port;
   private final PinotConfiguration _config;
+  private final boolean _columnarDataBlock;
   private final ChannelManager _channelManager = new ChannelManager();
 
   private GrpcMailboxServer _grpcMailboxServer;
@@ -66,6 +69,8 @@ public class MailboxService {
     _hostname = hostname;
     _port = port;
     _config = config;
+    _columnarDataBlock = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_COLUMNAR_DATA_BLOCK,
+        CommonConstants.MultiStageQueryRunner.DEFAULT_MAILBOX_COLUMNAR_DATA_BLOCK);
     LOGGER.info("Initialized MailboxService with hostname: {}, port: {}", hostname, port);
   }
 
@@ -103,7 +108,8 @@ public class MailboxService {
     if (_hostname.equals(hostname) && _port == port) {
       return new InMemorySendingMailbox(mailboxId, this, deadlineMs);
     } else {
-      return new GrpcSendingMailbox(mailboxId, _channelManager, hostname, port, deadlineMs);
+      return new GrpcSendingMailbox(mailboxId, _channelManager, hostname, port, deadlineMs,
+          _columnarDataBlock ? DataBlock.Type.COLUMNAR : DataBlock.Type.ROW);
     }
   }
 
@@ -21,6 +21,7 @@ package org.apache.pinot.query.mailbox;
 import com.google.common.base.Preconditions;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -90,7 +91,7 @@ public class ReceivingMailbox {
       return ReceivingMailboxStatus.TIMEOUT;
     }
     try {
-      if (_blocks.offer(block, timeoutMs, TimeUnit.MILLISECONDS)) {
+      if (offerBlock(block, timeoutMs)) {
         errorBlock = _errorBlock.get();
         if (errorBlock == null) {
           if (LOGGER.isDebugEnabled()) {
@@ -117,6 +118,21 @@ public class ReceivingMailbox {
     }
   }
 
+  /**
+   * Adds the block into the queue, waiting up to the timeout when the queue is full. The wait is performed as a
+   * {@link ForkJoinPool.ManagedBlocker} so that the {@link ForkJoinPool} running the OpChains can compensate the
+   * blocked thread (e.g. for the in-memory mailbox where the sender runs on the same pool as the receiver).
+   */
+  private boolean offerBlock(TransferableBlock block, long timeoutMs)
+      throws InterruptedException {
+    if (_blocks.offer(block)) {
+      return true;
+    }
+    OfferBlocker blocker = new OfferBlocker(block, timeoutMs);
+    ForkJoinPool.managedBlock(blocker);
+    return blocker._offered;
+  }
+
   /**
    * Sets an error block into the mailbox. No more blocks are accepted after calling this method.
    */
@@ -177,4 +193,29 @@ public class ReceivingMailbox {
   public enum ReceivingMailboxStatus {
     SUCCESS, ERROR, TIMEOUT, CANCELLED, EARLY_TERMINATED
   }
+
+  private class OfferBlocker implements ForkJoinPool.ManagedBlocker {
+    final TransferableBlock _block;
+    final long _timeoutMs;
+    boolean _offered;
+    boolean _done;
+
+    OfferBlocker(TransferableBlock block, long timeoutMs) {
+      _block = block;
+      _timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public boolean block()
+        throws InterruptedException {
+      _offered = _blocks.offer(_block, _timeoutMs, TimeUnit.MILLISECONDS);
+      _done = true;
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return _done;
+    }
+  }
 }
@@ -37,6 +37,7 @@ import org.apache.pinot.query.planner.plannode.MailboxSendNode;
 import org.apache.pinot.query.routing.MailboxMetadata;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.executor.ExecutorServiceUtils;
+import org.apache.pinot.query.runtime.executor.FairOpChainScheduler;
 import org.apache.pinot.query.runtime.executor.OpChainSchedulerService;
 import org.apache.pinot.query.runtime.operator.OpChain;
 import org.apache.pinot.query.runtime.plan.DistributedStagePlan;
@@ -63,6 +64,8 @@ public class QueryRunner {
   private ServerMetrics _serverMetrics;
 
   private ExecutorService _executorService;
+  // Executor service running the OpChains cooperatively, where the leaf stage execution uses _executorService
+  private ExecutorService _opChainExecutorService;
   private OpChainSchedulerService _opChainScheduler;
   private MailboxService _mailboxService;
   private QueryExecutor _leafQueryExecutor;
@@ -109,7 +112,15 @@ public class QueryRunner {
 
     //TODO: make this configurable
     _executorService = ExecutorServiceUtils.createDefault("query-runner-on-" + port);
-    _opChainScheduler = new OpChainSchedulerService(_executorService);
+    int numSchedulerThreads =
+        config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_OPCHAIN_SCHEDULER_NUM_THREADS,
+            Runtime.getRuntime().availableProcessors());
+    long timeSliceMs = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_OPCHAIN_SCHEDULER_TIME_SLICE_MS,
+        CommonConstants.MultiStageQueryRunner.DEFAULT_OPCHAIN_SCHEDULER_TIME_SLICE_MS);
+    _opChainExecutorService =
+        ExecutorServiceUtils.createForkJoinPool("query-runner-opchain-on-" + port, numSchedulerThreads);
+    _opChainScheduler =
+        new OpChainSchedulerService(_opChainExecutorService, new FairOpChainScheduler(), timeSliceMs);
     _mailboxService = new MailboxService(hostname, port, config);
     try {
       _leafQueryExecutor = new ServerQueryExecutorV1Impl();
@@ -135,6 +146,8 @@ public class QueryRunner {
   public void shutDown() {
     _leafQueryExecutor.shutDown();
     _mailboxService.shutdown();
+    _opChainScheduler.shutDown();
+    ExecutorServiceUtils.close(_opChainExecutorService);
     ExecutorServiceUtils.close(_executorService);
   }
 
@@ -19,6 +19,7 @@
 package org.apache.pinot.query.runtime.blocks;
 
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -101,9 +102,9 @@ public class TransferableBlock implements Block {
     if (_container == null) {
       switch (_type) {
         case ROW:
+        case COLUMNAR:
           _container = DataBlockExtractUtils.extractRows(_dataBlock);
           break;
-        case COLUMNAR:
         case METADATA:
         default:
           throw new UnsupportedOperationException("Unable to extract from container with type: " + _type);
@@ -143,6 +144,37 @@ public class TransferableBlock implements Block {
     return _dataBlock;
   }
 
+  /**
+   * Retrieve the binary-packed version of the data block, where the rows in the container are packed in the given
+   * format (ROW or COLUMNAR) if the data block is not already constructed. The already constructed data block is
+   * returned as is to avoid re-packing the data.
+   * <p>Packing the rows in the COLUMNAR format allows the receiver to read the values of a column contiguously (e.g.
+   * when extracting the keys for the join or aggregation) without materializing the rows.
+   *
+   * @return data block.
+   */
+  public DataBlock getDataBlock(DataBlock.Type preferredType) {
+    if (_dataBlock != null || _type != DataBlock.Type.ROW || preferredType != DataBlock.Type.COLUMNAR) {
+      return getDataBlock();
+    }
+    int numColumns = _dataSchema.size();
+    List<Object[]> columns = new ArrayList<>(numColumns);
+    for (int colId = 0; colId < numColumns; colId++) {
+      Object[] column = new Object[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        column[rowId] = _container.get(rowId)[colId];
+      }
+      columns.add(column);
+    }
+    try {
+      DataBlock dataBlock = DataBlockBuilder.buildFromColumns(columns, _dataSchema);
+      dataBlock.getExceptions().putAll(_errCodeToExceptionMap);
+      return dataBlock;
+    } catch (Exception e) {
+      throw new RuntimeException("Unable to create DataBlock", e);
+    }
+  }
+
   public Map<Integer, String> getExceptions() {
     return _dataBlock != null ? _dataBlock.getExceptions() : _errCodeToExceptionMap;
   }
@@ -190,6 +222,14 @@ public class TransferableBlock implements Block {
     return isType(MetadataBlock.MetadataBlockType.EOS);
   }
 
+  /**
+   * @return true when the block is a no-op block, which indicates that there is no data ready yet and the caller should
+   *         yield and retry later.
+   */
+  public boolean isNoOpBlock() {
+    return isType(MetadataBlock.MetadataBlockType.NOOP);
+  }
+
   public boolean isDataBlock() {
     return _type != DataBlock.Type.METADATA;
   }
@@ -214,7 +254,8 @@ public class TransferableBlock implements Block {
 
   @Override
   public String toString() {
-    String blockType = isErrorBlock() ? "error" : isSuccessfulEndOfStreamBlock() ? "eos" : "data";
+    String blockType =
+        isErrorBlock() ? "error" : isSuccessfulEndOfStreamBlock() ? "eos" : isNoOpBlock() ? "noop" : "data";
     return "TransferableBlock{blockType=" + blockType + ", _numRows=" + _numRows + '}';
   }
 }
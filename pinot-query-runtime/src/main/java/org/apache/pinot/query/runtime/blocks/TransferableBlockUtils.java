@@ -26,10 +26,13 @@ import java.util.List;
 import java.util.Map;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.datablock.MetadataBlock;
 
 
 public final class TransferableBlockUtils {
   private static final int MEDIAN_COLUMN_SIZE_BYTES = 8;
+  private static final TransferableBlock NOOP_TRANSFERABLE_BLOCK =
+      new TransferableBlock(new MetadataBlock(MetadataBlock.MetadataBlockType.NOOP));
 
   private TransferableBlockUtils() {
     // do not instantiate.
@@ -43,6 +46,14 @@ public final class TransferableBlockUtils {
     return new TransferableBlock(DataBlockUtils.getEndOfStreamDataBlock(statsMap));
   }
 
+  /**
+   * Returns the no-op block, which is returned by the operators when there is no data ready yet so that the OpChain can
+   * yield the thread instead of blocking on it.
+   */
+  public static TransferableBlock getNoOpTransferableBlock() {
+    return NOOP_TRANSFERABLE_BLOCK;
+  }
+
   public static TransferableBlock getErrorTransferableBlock(Exception e) {
     return new TransferableBlock(DataBlockUtils.getErrorDataBlock(e));
   }
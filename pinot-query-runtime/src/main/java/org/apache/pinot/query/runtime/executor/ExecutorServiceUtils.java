@@ -21,7 +21,10 @@ package org.apache.pinot.query.runtime.executor;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.slf4j.Logger;
@@ -44,6 +47,20 @@ public class ExecutorServiceUtils {
     return Executors.newCachedThreadPool(new NamedThreadFactory(baseName));
   }
 
+  /**
+   * Creates a {@link ForkJoinPool} with the given parallelism, where the worker threads are named after the given base
+   * name. The pool compensates the threads blocked within {@link ForkJoinPool#managedBlock} with extra threads, and
+   * runs the submitted tasks in FIFO order.
+   */
+  public static ForkJoinPool createForkJoinPool(String baseName, int parallelism) {
+    AtomicInteger threadId = new AtomicInteger();
+    return new ForkJoinPool(parallelism, pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(baseName + "-" + threadId.getAndIncrement());
+      return thread;
+    }, (thread, e) -> LOGGER.error("Uncaught exception in thread: {}", thread.getName(), e), true);
+  }
+
   /**
    * Shuts down the given executor service.
    *
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.executor;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.OpChainId;
+
+
+/**
+ * The {@code FairOpChainScheduler} schedules the ready OpChains with per-query fairness. The execution time of the
+ * OpChains is accounted to the query weighted by the query priority (see
+ * {@link org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey#SCHEDULING_PRIORITY}), and the ready
+ * OpChains of the query with the least weighted execution time are run first. Within a query, the ready OpChains are
+ * run in FIFO order.
+ * <p>A query cannot accumulate credits while all its OpChains are suspended waiting for data: when it becomes ready
+ * again, its weighted execution time catches up with the virtual time of the scheduler, which is the weighted execution
+ * time of the last scheduled query.
+ */
+public class FairOpChainScheduler implements OpChainScheduler {
+  public static final int DEFAULT_PRIORITY = 1;
+  public static final int MAX_PRIORITY = 100;
+
+  private static final Comparator<QueryEntry> QUERY_COMPARATOR =
+      Comparator.comparingLong((QueryEntry query) -> query._weightedTimeNs)
+          .thenComparingLong(query -> query._requestId);
+
+  private final Map<OpChainId, OpChainEntry> _opChainMap = new HashMap<>();
+  private final Map<Long, QueryEntry> _queryMap = new HashMap<>();
+  // Queries with ready OpChains, ordered by the weighted execution time
+  private final TreeSet<QueryEntry> _readyQueries = new TreeSet<>(QUERY_COMPARATOR);
+  private long _virtualTimeNs;
+
+  @Override
+  public synchronized void register(OpChain operatorChain) {
+    long requestId = operatorChain.getId().getRequestId();
+    QueryEntry query = _queryMap.computeIfAbsent(requestId, k -> new QueryEntry(requestId, getPriority(operatorChain)));
+    query._numOpChains++;
+    OpChainEntry entry = new OpChainEntry(operatorChain, query);
+    OpChainEntry oldEntry = _opChainMap.put(operatorChain.getId(), entry);
+    if (oldEntry != null) {
+      remove(oldEntry);
+    }
+    makeReady(entry);
+  }
+
+  private static int getPriority(OpChain operatorChain) {
+    Integer priority = QueryOptionsUtils.getSchedulingPriority(operatorChain.getContext().getOpChainMetadata());
+    return priority != null ? Math.min(Math.max(priority, 1), MAX_PRIORITY) : DEFAULT_PRIORITY;
+  }
+
+  @Override
+  public synchronized void deregister(OpChain operatorChain) {
+    OpChainEntry entry = _opChainMap.get(operatorChain.getId());
+    if (entry != null && entry._opChain == operatorChain) {
+      _opChainMap.remove(operatorChain.getId());
+      remove(entry);
+    }
+  }
+
+  private void remove(OpChainEntry entry) {
+    QueryEntry query = entry._query;
+    if (entry._state == State.RUNNING) {
+      charge(entry);
+    } else if (entry._state == State.READY) {
+      _readyQueries.remove(query);
+      query._readyOpChains.remove(entry);
+      if (!query._readyOpChains.isEmpty()) {
+        _readyQueries.add(query);
+      }
+    }
+    entry._state = State.DEREGISTERED;
+    if (--query._numOpChains == 0) {
+      _queryMap.remove(query._requestId);
+    }
+  }
+
+  @Override
+  public synchronized boolean yield(OpChain opChain) {
+    OpChainEntry entry = getRunningEntry(opChain);
+    if (entry == null) {
+      return false;
+    }
+    charge(entry);
+    if (entry._dataAvailable || opChain.isCancelRequested()) {
+      makeReady(entry);
+      return true;
+    }
+    entry._state = State.SUSPENDED;
+    opChain.getStats().suspended();
+    return false;
+  }
+
+  @Override
+  public synchronized void requeue(OpChain opChain) {
+    OpChainEntry entry = getRunningEntry(opChain);
+    if (entry != null) {
+      charge(entry);
+      makeReady(entry);
+    }
+  }
+
+  @Nullable
+  private OpChainEntry getRunningEntry(OpChain opChain) {
+    OpChainEntry entry = _opChainMap.get(opChain.getId());
+    return entry != null && entry._opChain == opChain && entry._state == State.RUNNING ? entry : null;
+  }
+
+  @Override
+  public synchronized boolean onDataAvailable(OpChainId opChainId) {
+    OpChainEntry entry = _opChainMap.get(opChainId);
+    if (entry == null) {
+      return false;
+    }
+    switch (entry._state) {
+      case SUSPENDED:
+        makeReady(entry);
+        return true;
+      case RUNNING:
+        // Re-schedule the OpChain right away if it yields, because the data might arrive after it checks the mailboxes
+        entry._dataAvailable = true;
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public synchronized int cancel(long requestId) {
+    int numReadyOpChains = 0;
+    for (OpChainEntry entry : _opChainMap.values()) {
+      if (entry._query._requestId != requestId) {
+        continue;
+      }
+      entry._opChain.requestCancel();
+      if (entry._state == State.SUSPENDED) {
+        makeReady(entry);
+        numReadyOpChains++;
+      } else if (entry._state == State.RUNNING) {
+        entry._thread.interrupt();
+      }
+    }
+    return numReadyOpChains;
+  }
+
+  @Nullable
+  @Override
+  public synchronized OpChain next() {
+    QueryEntry query = _readyQueries.pollFirst();
+    if (query == null) {
+      return null;
+    }
+    OpChainEntry entry = query._readyOpChains.poll();
+    assert entry != null;
+    if (!query._readyOpChains.isEmpty()) {
+      _readyQueries.add(query);
+    }
+    _virtualTimeNs = Math.max(_virtualTimeNs, query._weightedTimeNs);
+    entry._state = State.RUNNING;
+    entry._dataAvailable = false;
+    entry._thread = Thread.currentThread();
+    entry._startTimeNs = System.nanoTime();
+    entry._opChain.getStats().executing();
+    return entry._opChain;
+  }
+
+  private void makeReady(OpChainEntry entry) {
+    entry._state = State.READY;
+    QueryEntry query = entry._query;
+    if (query._readyOpChains.isEmpty()) {
+      query._weightedTimeNs = Math.max(query._weightedTimeNs, _virtualTimeNs);
+      query._readyOpChains.add(entry);
+      _readyQueries.add(query);
+    } else {
+      query._readyOpChains.add(entry);
+    }
+    entry._opChain.getStats().queued();
+  }
+
+  /**
+   * Accounts the execution time of the running OpChain to the query.
+   */
+  private void charge(OpChainEntry entry) {
+    QueryEntry query = entry._query;
+    long weightedTimeNs = (System.nanoTime() - entry._startTimeNs) / query._priority;
+    // Re-insert the query to keep the ready queries sorted
+    if (_readyQueries.remove(query)) {
+      query._weightedTimeNs += weightedTimeNs;
+      _readyQueries.add(query);
+    } else {
+      query._weightedTimeNs += weightedTimeNs;
+    }
+    entry._thread = null;
+  }
+
+  @Override
+  public synchronized int size() {
+    return _opChainMap.size();
+  }
+
+  @Override
+  public synchronized void shutdownNow() {
+    _opChainMap.clear();
+    _queryMap.clear();
+    _readyQueries.clear();
+  }
+
+  private enum State {
+    READY, RUNNING, SUSPENDED, DEREGISTERED
+  }
+
+  private static class OpChainEntry {
+    final OpChain _opChain;
+    final QueryEntry _query;
+    State _state;
+    // Whether data is received while the OpChain is running
+    boolean _dataAvailable;
+    Thread _thread;
+    long _startTimeNs;
+
+    OpChainEntry(OpChain opChain, QueryEntry query) {
+      _opChain = opChain;
+      _query = query;
+    }
+  }
+
+  private static class QueryEntry {
+    final long _requestId;
+    final int _priority;
+    final ArrayDeque<OpChainEntry> _readyOpChains = new ArrayDeque<>();
+    int _numOpChains;
+    long _weightedTimeNs;
+
+    QueryEntry(long requestId, int priority) {
+      _requestId = requestId;
+      _priority = priority;
+    }
+  }
+}
@@ -18,7 +18,6 @@
  */
 package org.apache.pinot.query.runtime.executor;
 
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.query.runtime.operator.OpChain;
@@ -27,11 +26,14 @@ import org.apache.pinot.query.runtime.operator.OpChainId;
 
 /**
  * An interface that defines different scheduling strategies to work with the {@link OpChainSchedulerService}.
+ * <p>A registered OpChain is either ready to run, running on a thread of the {@link OpChainSchedulerService}, or
+ * suspended waiting for data. The scheduler tracks the state of the OpChains, and decides the order in which the ready
+ * OpChains are run.
  */
 @ThreadSafe
 public interface OpChainScheduler {
   /**
-   * Registers a new OpChain with the scheduler.
+   * Registers a new OpChain with the scheduler. The OpChain is ready to run once registered.
    * @param operatorChain the operator chain to register
    */
   void register(OpChain operatorChain);
@@ -46,33 +48,42 @@ public interface OpChainScheduler {
   void deregister(OpChain operatorChain);
 
   /**
-   * Used by {@link OpChainSchedulerService} to indicate that a given OpChain can be suspended until it receives some
-   * data. Note that this method is only used by the scheduler service to "indicate" that an OpChain can be suspended.
-   * The decision on whether to actually suspend or not can be taken by the scheduler.
+   * Used by {@link OpChainSchedulerService} to indicate that a running OpChain has no data to process, and can be
+   * suspended until it receives some data.
+   * @return whether the OpChain is ready to run again (e.g. it received some data while running), in which case the
+   *         scheduler service should schedule another run
    */
-  void yield(OpChain opChain);
+  boolean yield(OpChain opChain);
+
+  /**
+   * Used by {@link OpChainSchedulerService} to indicate that a running OpChain used up its time slice while still
+   * having data to process, so that it should be put back to the ready OpChains.
+   */
+  void requeue(OpChain opChain);
 
   /**
    * A callback called whenever data is received for the given opChain. This can be used by the scheduler
    * implementations to re-scheduled suspended OpChains. This method may be called for an OpChain that has not yet
    * been scheduled, or an OpChain that has already been de-registered.
    * @param opChainId the {@link OpChain} ID
+   * @return whether the OpChain becomes ready to run, in which case the scheduler service should schedule another run
+   */
+  boolean onDataAvailable(OpChainId opChainId);
+
+  /**
+   * Requests to cancel all the OpChains of the given request. The OpChains are cancelled by the threads executing them:
+   * the running OpChains are interrupted, and the suspended OpChains are made ready to run.
+   * @param requestId the request ID
+   * @return the number of OpChains that become ready to run, for which the scheduler service should schedule the runs
    */
-  void onDataAvailable(OpChainId opChainId);
+  int cancel(long requestId);
 
   /**
-   * Returns an OpChain that is ready to be run by {@link OpChainSchedulerService}, waiting for the given time if
-   * there are no such OpChains ready yet. Will return null if there's no ready OpChains even after the specified time.
-   *
-   * @param time non-negative value that determines the time the scheduler will wait for new OpChains to be ready.
-   * @param timeUnit TimeUnit for the await time.
-   * @return a non-null OpChain that's ready to be run, or null if there's no OpChain ready even after waiting for the
-   *         given time.
-   * @throws InterruptedException if the wait for a ready OpChain was interrupted.
+   * Returns the next ready OpChain to be run by {@link OpChainSchedulerService} on the current thread, or null if there
+   * is no ready OpChain.
    */
   @Nullable
-  OpChain next(long time, TimeUnit timeUnit)
-      throws InterruptedException;
+  OpChain next();
 
   /**
    * @return the number of operator chains registered with the scheduler
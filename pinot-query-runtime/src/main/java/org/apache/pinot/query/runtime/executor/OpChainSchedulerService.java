@@ -18,44 +18,98 @@
  */
 package org.apache.pinot.query.runtime.executor;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import org.apache.pinot.core.util.trace.TraceRunnable;
+import java.util.concurrent.TimeUnit;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.OpChain;
 import org.apache.pinot.query.runtime.operator.OpChainId;
+import org.apache.pinot.spi.exception.QueryCancelledException;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * The {@code OpChainSchedulerService} runs the OpChains cooperatively on the threads of the executor service.
+ * <p>Instead of blocking a thread until the OpChain finishes, each OpChain is run for a time slice at a time: the
+ * OpChain yields the thread when it has no data to process (i.e. the operators return the no-op block when the
+ * mailboxes are empty), and is resumed when the mailboxes receive new data; the OpChain is also put back to the ready
+ * OpChains when it uses up its time slice. The {@link OpChainScheduler} decides which ready OpChain to run next.
+ * <p>One task is submitted to the executor service for each transition of an OpChain to the ready state, and each task
+ * runs one time slice of the next ready OpChain picked by the scheduler.
+ */
 public class OpChainSchedulerService {
   private static final Logger LOGGER = LoggerFactory.getLogger(OpChainSchedulerService.class);
 
   private final ExecutorService _executorService;
-  private final ConcurrentHashMap<OpChainId, Future<?>> _submittedOpChainMap;
+  private final OpChainScheduler _scheduler;
+  private final long _timeSliceNs;
 
   public OpChainSchedulerService(ExecutorService executorService) {
+    this(executorService, new FairOpChainScheduler(),
+        CommonConstants.MultiStageQueryRunner.DEFAULT_OPCHAIN_SCHEDULER_TIME_SLICE_MS);
+  }
+
+  public OpChainSchedulerService(ExecutorService executorService, OpChainScheduler scheduler, long timeSliceMs) {
     _executorService = executorService;
-    _submittedOpChainMap = new ConcurrentHashMap<>();
+    _scheduler = scheduler;
+    _timeSliceNs = TimeUnit.MILLISECONDS.toNanos(timeSliceMs);
   }
 
   public void register(OpChain operatorChain) {
-    Future<?> scheduledFuture = _executorService.submit(new TraceRunnable() {
-      @Override
-      public void runJob() {
-        boolean isFinished = false;
-        TransferableBlock returnedErrorBlock = null;
-        Throwable thrown = null;
-        try {
-          LOGGER.trace("({}): Executing", operatorChain);
-          operatorChain.getStats().executing();
-          TransferableBlock result = operatorChain.getRoot().nextBlock();
-          while (!result.isEndOfStreamBlock()) {
-            result = operatorChain.getRoot().nextBlock();
-          }
+    OpChainId opChainId = operatorChain.getId();
+    operatorChain.getContext().setDataAvailableCallback(() -> onDataAvailable(opChainId));
+    // Wake up the OpChain on the deadline so that the suspended OpChain can time out
+    long delayMs = operatorChain.getContext().getDeadlineMs() - System.currentTimeMillis() + 1;
+    if (delayMs > 0) {
+      CompletableFuture.runAsync(() -> onDataAvailable(opChainId),
+          CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+    }
+    _scheduler.register(operatorChain);
+    submitNext();
+  }
+
+  private void onDataAvailable(OpChainId opChainId) {
+    if (_scheduler.onDataAvailable(opChainId)) {
+      submitNext();
+    }
+  }
+
+  public void cancel(long requestId) {
+    // The OpChains are cancelled by the threads running them, so that the operators are always accessed by one thread
+    int numReadyOpChains = _scheduler.cancel(requestId);
+    for (int i = 0; i < numReadyOpChains; i++) {
+      submitNext();
+    }
+  }
+
+  private void submitNext() {
+    _executorService.submit(this::runNext);
+  }
+
+  private void runNext() {
+    OpChain operatorChain = _scheduler.next();
+    if (operatorChain != null) {
+      runTimeSlice(operatorChain);
+    }
+  }
+
+  private void runTimeSlice(OpChain operatorChain) {
+    boolean isFinished = false;
+    TransferableBlock returnedErrorBlock = null;
+    Throwable thrown = null;
+    try {
+      LOGGER.trace("({}): Executing", operatorChain);
+      long startTimeNs = System.nanoTime();
+      while (true) {
+        if (operatorChain.isCancelRequested()) {
+          thrown = new QueryCancelledException("Cancelled OpChain: " + operatorChain.getId());
+          LOGGER.debug("({}): Cancelled {}", operatorChain, operatorChain.getStats());
+          return;
+        }
+        TransferableBlock result = operatorChain.getRoot().nextBlock();
+        if (result.isEndOfStreamBlock()) {
           isFinished = true;
           if (result.isErrorBlock()) {
             returnedErrorBlock = result;
@@ -64,35 +118,56 @@ public class OpChainSchedulerService {
           } else {
             LOGGER.debug("({}): Completed {}", operatorChain, operatorChain.getStats());
           }
-        } catch (Exception e) {
-          LOGGER.error("({}): Failed to execute operator chain! {}", operatorChain, operatorChain.getStats(), e);
-          thrown = e;
-        } finally {
-          _submittedOpChainMap.remove(operatorChain.getId());
-          if (returnedErrorBlock != null || thrown != null) {
-            if (thrown == null) {
-              thrown = new RuntimeException("Error block " + returnedErrorBlock.getExceptions());
-            }
-            operatorChain.cancel(thrown);
-          } else if (isFinished) {
-            operatorChain.close();
+          return;
+        }
+        if (result.isNoOpBlock()) {
+          LOGGER.trace("({}): Yielding", operatorChain);
+          if (_scheduler.yield(operatorChain)) {
+            submitNext();
           }
+          return;
+        }
+        if (System.nanoTime() - startTimeNs >= _timeSliceNs) {
+          LOGGER.trace("({}): Requeuing", operatorChain);
+          _scheduler.requeue(operatorChain);
+          submitNext();
+          return;
         }
       }
-    });
-    _submittedOpChainMap.put(operatorChain.getId(), scheduledFuture);
-  }
-
-  public void cancel(long requestId) {
-    // simple cancellation. for leaf stage this cannot be a dangling opchain b/c they will eventually be cleared up
-    // via query timeout.
-    Iterator<Map.Entry<OpChainId, Future<?>>> iterator = _submittedOpChainMap.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<OpChainId, Future<?>> entry = iterator.next();
-      if (entry.getKey().getRequestId() == requestId) {
-        entry.getValue().cancel(true);
-        iterator.remove();
+    } catch (Exception e) {
+      if (operatorChain.isCancelRequested()) {
+        LOGGER.debug("({}): Cancelled {}", operatorChain, operatorChain.getStats());
+      } else {
+        LOGGER.error("({}): Failed to execute operator chain! {}", operatorChain, operatorChain.getStats(), e);
+      }
+      thrown = e;
+    } finally {
+      if (isFinished || thrown != null) {
+        // De-register before closing the OpChain, so that the next OpChain with the same id (e.g. the OpChain after
+        // the pipeline breaker) is not de-registered by mistake
+        _scheduler.deregister(operatorChain);
+        // Clear the interrupt flag possibly set by the cancellation
+        Thread.interrupted();
+        if (returnedErrorBlock != null || thrown != null) {
+          if (thrown == null) {
+            thrown = new RuntimeException("Error block " + returnedErrorBlock.getExceptions());
+          }
+          operatorChain.cancel(thrown);
+        } else {
+          operatorChain.close();
+        }
+      } else {
+        // Clear the interrupt flag possibly set by the cancellation after the OpChain is no longer running
+        Thread.interrupted();
       }
     }
   }
+
+  public int numOpChains() {
+    return _scheduler.size();
+  }
+
+  public void shutDown() {
+    _scheduler.shutdownNow();
+  }
 }
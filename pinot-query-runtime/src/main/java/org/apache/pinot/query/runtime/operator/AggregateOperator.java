@@ -34,6 +34,7 @@ import org.apache.pinot.common.request.Literal;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FunctionContext;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.docvalsets.DataBlockValSet;
 import org.apache.pinot.core.operator.docvalsets.FilteredDataBlockValSet;
@@ -57,20 +58,31 @@ import org.roaringbitmap.RoaringBitmap;
  * AggregateOperator is used to aggregate values over a set of group by keys.
  * Output data will be in the format of [group by key, aggregate result1, ... aggregate resultN]
  * When the list of aggregation calls is empty, this class is used to calculate distinct result based on group by keys.
+ * <p>For the partial (LEAF or INTERMEDIATE) group by aggregation, when the number of groups is close to the number of
+ * input rows (e.g. near-unique group keys) after processing enough input rows, the aggregation is bypassed: the groups
+ * aggregated so far are returned, and the following input rows are directly converted into the output format and
+ * streamed to the FINAL aggregation without being aggregated locally.
  */
 public class AggregateOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "AGGREGATE_OPERATOR";
   private static final CountAggregationFunction COUNT_STAR_AGG_FUNCTION =
       new CountAggregationFunction(Collections.singletonList(ExpressionContext.forIdentifier("*")), false);
   private static final ExpressionContext PLACEHOLDER_IDENTIFIER = ExpressionContext.forIdentifier("__PLACEHOLDER__");
+  public static final int DEFAULT_PARTIAL_AGGREGATION_BYPASS_MIN_ROWS = 100_000;
+  public static final double DEFAULT_PARTIAL_AGGREGATION_BYPASS_GROUPS_RATIO = 0.9;
 
   private final MultiStageOperator _inputOperator;
   private final DataSchema _resultSchema;
   private final AggType _aggType;
   private final MultistageAggregationExecutor _aggregationExecutor;
   private final MultistageGroupByExecutor _groupByExecutor;
+  // Number of input rows to process before checking whether to bypass the partial aggregation, 0 if not applicable
+  private final int _bypassMinRows;
+  private final double _bypassGroupsRatio;
 
   private boolean _hasConstructedAggregateBlock;
+  private long _numInputRows;
+  private boolean _bypassAggregation;
 
   public AggregateOperator(OpChainExecutionContext context, MultiStageOperator inputOperator, DataSchema resultSchema,
       List<RexExpression> aggCalls, List<RexExpression> groupSet, AggType aggType, List<Integer> filterArgIndices,
@@ -116,6 +128,18 @@ public class AggregateOperator extends MultiStageOperator {
               _resultSchema, context.getOpChainMetadata(), nodeHint);
       _aggregationExecutor = null;
     }
+
+    if (_groupByExecutor != null && (aggType == AggType.LEAF || aggType == AggType.INTERMEDIATE)) {
+      Map<String, String> opChainMetadata = context.getOpChainMetadata();
+      Integer bypassMinRows = QueryOptionsUtils.getPartialAggregationBypassMinRows(opChainMetadata);
+      _bypassMinRows = Math.max(bypassMinRows != null ? bypassMinRows : DEFAULT_PARTIAL_AGGREGATION_BYPASS_MIN_ROWS, 0);
+      Double bypassGroupsRatio = QueryOptionsUtils.getPartialAggregationBypassGroupsRatio(opChainMetadata);
+      _bypassGroupsRatio =
+          bypassGroupsRatio != null ? bypassGroupsRatio : DEFAULT_PARTIAL_AGGREGATION_BYPASS_GROUPS_RATIO;
+    } else {
+      _bypassMinRows = 0;
+      _bypassGroupsRatio = 0;
+    }
   }
 
   @Override
@@ -131,17 +155,32 @@ public class AggregateOperator extends MultiStageOperator {
 
   @Override
   protected TransferableBlock getNextBlock() {
+    if (_bypassAggregation) {
+      return getNextPassThroughBlock();
+    }
     if (_hasConstructedAggregateBlock) {
       return TransferableBlockUtils.getEndOfStreamTransferableBlock();
     }
     TransferableBlock finalBlock = _aggregationExecutor != null ? consumeAggregation() : consumeGroupBy();
-    // returning upstream error block if finalBlock contains error.
-    if (finalBlock.isErrorBlock()) {
+    // returning upstream error block if finalBlock contains error, or no-op block if waiting for more input.
+    if (finalBlock.isErrorBlock() || finalBlock.isNoOpBlock()) {
       return finalBlock;
     }
+    if (_bypassAggregation) {
+      // Return the groups aggregated so far, and pass through the following input rows without aggregation
+      return new TransferableBlock(_groupByExecutor.getResult(), _resultSchema, DataBlock.Type.ROW);
+    }
     return produceAggregatedBlock();
   }
 
+  private TransferableBlock getNextPassThroughBlock() {
+    TransferableBlock block = _inputOperator.nextBlock();
+    if (!block.isDataBlock()) {
+      return block;
+    }
+    return new TransferableBlock(_groupByExecutor.getPassThroughResult(block), _resultSchema, DataBlock.Type.ROW);
+  }
+
   private TransferableBlock produceAggregatedBlock() {
     _hasConstructedAggregateBlock = true;
     if (_aggregationExecutor != null) {
@@ -164,20 +203,42 @@ public class AggregateOperator extends MultiStageOperator {
 
   /**
    * Consumes the input blocks as a group by
-   * @return the last block, which must always be either an error or the end of the stream
+   * @return the last block, which must always be either an error, the end of the stream or the no-op block when waiting
+   *         for more input, or the last processed data block when switching to bypass the aggregation
    */
   private TransferableBlock consumeGroupBy() {
     TransferableBlock block = _inputOperator.nextBlock();
     while (block.isDataBlock()) {
       _groupByExecutor.processBlock(block);
+      if (shouldBypassAggregation(block.getNumRows())) {
+        _bypassAggregation = true;
+        return block;
+      }
       block = _inputOperator.nextBlock();
     }
     return block;
   }
 
+  /**
+   * Returns {@code true} when the partial aggregation should be bypassed, i.e. the number of groups reaches the given
+   * ratio of the number of input rows after processing enough input rows. The check is performed only once when the
+   * number of input rows reaches the threshold.
+   */
+  private boolean shouldBypassAggregation(int numRows) {
+    if (_bypassMinRows == 0 || _numInputRows >= _bypassMinRows) {
+      return false;
+    }
+    _numInputRows += numRows;
+    if (_numInputRows < _bypassMinRows || _groupByExecutor.isNumGroupsLimitReached()) {
+      return false;
+    }
+    return _groupByExecutor.getNumGroups() >= _bypassGroupsRatio * _numInputRows;
+  }
+
   /**
    * Consumes the input blocks as an aggregation
-   * @return the last block, which must always be either an error or the end of the stream
+   * @return the last block, which must always be either an error, the end of the stream or the no-op block when waiting
+   *         for more input
    */
   private TransferableBlock consumeAggregation() {
     TransferableBlock block = _inputOperator.nextBlock();
@@ -19,6 +19,7 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -29,6 +30,7 @@ import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
 import org.apache.pinot.query.routing.MailboxMetadata;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.utils.AsyncStream;
 import org.apache.pinot.query.runtime.operator.utils.BlockingMultiStreamConsumer;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
@@ -47,6 +49,7 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
   protected final MailboxService _mailboxService;
   protected final RelDistribution.Type _exchangeType;
   protected final List<String> _mailboxIds;
+  private final List<ReadMailboxAsyncStream> _asyncStreams;
   private final BlockingMultiStreamConsumer.OfTransferableBlock _multiConsumer;
 
   public BaseMailboxReceiveOperator(OpChainExecutionContext context, RelDistribution.Type exchangeType,
@@ -69,6 +72,8 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
     List<ReadMailboxAsyncStream> asyncStreams = _mailboxIds.stream()
         .map(mailboxId -> new ReadMailboxAsyncStream(_mailboxService.getReceivingMailbox(mailboxId), this))
         .collect(Collectors.toList());
+    // Keep a copy of the streams because the consumer removes the streams that reached the end
+    _asyncStreams = new ArrayList<>(asyncStreams);
     _multiConsumer =
         new BlockingMultiStreamConsumer.OfTransferableBlock(context.getId(), context.getDeadlineMs(), asyncStreams);
   }
@@ -77,6 +82,26 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
     return _multiConsumer;
   }
 
+  /**
+   * Returns the streams of all the mailboxes in the order of the mailbox ids, for the operators reading the mailboxes
+   * individually instead of through the multi consumer (e.g. to merge the sorted mailboxes).
+   */
+  protected List<? extends AsyncStream<TransferableBlock>> getAsyncStreams() {
+    return _asyncStreams;
+  }
+
+  /**
+   * Reads the next block from the mailboxes. When the OpChain is run by the cooperative scheduler, returns the no-op
+   * block instead of blocking the thread if no mailbox is ready, and the scheduler is notified when new data arrives.
+   */
+  protected TransferableBlock readBlock() {
+    if (_context.getDataAvailableCallback() == null) {
+      return _multiConsumer.readBlockBlocking();
+    }
+    TransferableBlock block = _multiConsumer.tryReadBlock();
+    return block != null ? block : TransferableBlockUtils.getNoOpTransferableBlock();
+  }
+
   public List<String> getMailboxIds() {
     return _mailboxIds;
   }
@@ -131,7 +156,10 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
 
     @Override
     public void addOnNewDataListener(OnNewData onNewData) {
-      _mailbox.registeredReader(onNewData::newDataAvailable);
+      _mailbox.registeredReader(() -> {
+        onNewData.newDataAvailable();
+        _operator._context.notifyDataAvailable();
+      });
     }
 
     @Override
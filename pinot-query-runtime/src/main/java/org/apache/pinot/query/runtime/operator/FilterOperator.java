@@ -78,7 +78,7 @@ public class FilterOperator extends MultiStageOperator {
   @Override
   protected TransferableBlock getNextBlock() {
     TransferableBlock block = _upstreamOperator.nextBlock();
-    if (block.isEndOfStreamBlock()) {
+    if (!block.isDataBlock()) {
       return block;
     }
     List<Object[]> resultRows = new ArrayList<>();
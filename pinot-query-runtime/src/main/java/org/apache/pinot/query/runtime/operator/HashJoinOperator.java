@@ -22,13 +22,15 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.commons.io.FileUtils;
 import org.apache.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.DataTable;
@@ -36,6 +38,8 @@ import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
@@ -43,46 +47,67 @@ import org.apache.pinot.query.planner.plannode.AbstractPlanNode;
 import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.join.JoinHashTable;
+import org.apache.pinot.query.runtime.operator.join.JoinHashTableFactory;
+import org.apache.pinot.query.runtime.operator.join.SpilledJoinPartitions;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.BooleanUtils;
 import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.JoinOverFlowMode;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * This basic {@code BroadcastJoinOperator} implement a basic broadcast join algorithm.
- * This algorithm assumes that the broadcast table has to fit in memory since we are not supporting any spilling.
+ * This algorithm assumes that the broadcast table has to fit in memory unless the query memory budget is enforced
+ * with the SPILL overflow mode.
  *
  * For left join, inner join, right join and full join,
  * <p>It takes the right table as the broadcast side and materialize a hash table. Then for each of the left table row,
  * it looks up for the corresponding row(s) from the hash table and create a joint row.
+ * <p>The hash table is a {@link JoinHashTable} specialized by the join key type, which stores the right rows in
+ * columnar format, and only materializes the right rows joined with the left rows.
+ *
+ * <p>With the SPILL overflow mode, once the right table exceeds the query memory budget, it performs a hybrid hash
+ * join: the right rows already in the hash table are kept in memory, and the rest of the right rows are hash
+ * partitioned into local temp files. The left rows are joined with the in-memory right rows first, and then spilled
+ * into the same partitions (with a flag of whether they are matched) if they might match the spilled right rows. After
+ * all the left rows are received, the in-memory hash table is released, and the spilled partitions are joined one by
+ * one with a hash table built from the right rows of the partition.
  *
  * <p>For each of the data block received from the left table, it will generate a joint data block.
  * We currently support left join, inner join, right join and full join.
  * The output is in the format of [left_row, right_row]
  */
 // TODO: Move inequi out of hashjoin. (https://github.com/apache/pinot/issues/9728)
-// TODO: Support memory size based resource limit.
 public class HashJoinOperator extends MultiStageOperator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HashJoinOperator.class);
   private static final String EXPLAIN_NAME = "HASH_JOIN";
-  private static final int INITIAL_HEURISTIC_SIZE = 16;
   private static final int DEFAULT_MAX_ROWS_IN_JOIN = 1024 * 1024; // 2^20, around 1MM rows
   private static final JoinOverFlowMode DEFAULT_JOIN_OVERFLOW_MODE = JoinOverFlowMode.THROW;
 
   private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES =
       ImmutableSet.of(JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI,
           JoinRelType.ANTI);
+  // Extra column appended to the spilled left rows to flag whether the left row matches the in-memory right rows
+  private static final String MATCHED_COLUMN_NAME = "$matched";
 
-  private final Map<Object, ArrayList<Object[]>> _broadcastRightTable;
+  // Created when the first right block is received, where the data schema of the right table is available.
+  private JoinHashTable _rightTable;
+  private DataSchema _rightSchema;
 
-  // Used to track matched right rows.
+  // Used to track matched right rows (by row id in the right table).
   // Only used for right join and full join to output non-matched right rows.
-  private final Map<Object, BitSet> _matchedRightRows;
+  private final BitSet _matchedRightRows;
 
   private final MultiStageOperator _leftTableOperator;
   private final MultiStageOperator _rightTableOperator;
   private final JoinRelType _joinType;
+  private final DataSchema _leftSchema;
+  private final JoinNode.JoinKeys _joinKeys;
   private final DataSchema _resultSchema;
   private final int _leftColumnSize;
   private final int _resultColumnSize;
@@ -109,18 +134,34 @@ public class HashJoinOperator extends MultiStageOperator {
    *   BREAK: Break right table build process, continue to perform JOIN operation, results might be partial.
    */
   private final JoinOverFlowMode _joinOverflowMode;
+  /**
+   * Memory reserved from the query memory budget for the right table hash collection, null when the budget is not
+   * enforced. Once the budget is exceeded, we will throw exception (THROW mode), break the right table build process
+   * where the results might be partial (TRIM mode), or spill the rest of the right table to disk (SPILL mode).
+   */
+  private final QueryMemoryBudget _memoryBudget;
+  private final QueryMemoryBudget.RowReservation _memoryReservation;
 
   private int _currentRowsInHashTable = 0;
 
+  // Below are used to join the spilled partitions, which are only created when the right table is spilled.
+  private SpilledJoinPartitions _spilledRightPartitions;
+  private SpilledJoinPartitions _spilledLeftPartitions;
+  // Set after all the left rows are received, where the spilled partitions are being joined
+  private TransferableBlock _leftEosBlock;
+  private int _currentPartitionId = -1;
+  private SpilledJoinPartitions.PartitionReader _leftPartitionReader;
+
   public HashJoinOperator(OpChainExecutionContext context, MultiStageOperator leftTableOperator,
       MultiStageOperator rightTableOperator, DataSchema leftSchema, JoinNode node) {
     super(context);
     Preconditions.checkState(SUPPORTED_JOIN_TYPES.contains(node.getJoinRelType()),
         "Join type: " + node.getJoinRelType() + " is not supported!");
     _joinType = node.getJoinRelType();
-    JoinNode.JoinKeys joinKeys = node.getJoinKeys();
-    _leftKeySelector = KeySelectorFactory.getKeySelector(joinKeys.getLeftKeys());
-    _rightKeySelector = KeySelectorFactory.getKeySelector(joinKeys.getRightKeys());
+    _leftSchema = leftSchema;
+    _joinKeys = node.getJoinKeys();
+    _leftKeySelector = KeySelectorFactory.getKeySelector(_joinKeys.getLeftKeys());
+    _rightKeySelector = KeySelectorFactory.getKeySelector(_joinKeys.getRightKeys());
     _leftColumnSize = leftSchema.size();
     Preconditions.checkState(_leftColumnSize > 0, "leftColumnSize has to be greater than zero:" + _leftColumnSize);
     _resultSchema = node.getDataSchema();
@@ -135,15 +176,23 @@ public class HashJoinOperator extends MultiStageOperator {
       _joinClauseEvaluators.add(TransformOperandFactory.getTransformOperand(joinClause, _resultSchema));
     }
     _isHashTableBuilt = false;
-    _broadcastRightTable = new HashMap<>();
     if (needUnmatchedRightRows()) {
-      _matchedRightRows = new HashMap<>();
+      _matchedRightRows = new BitSet();
     } else {
       _matchedRightRows = null;
     }
     Map<String, String> metadata = context.getOpChainMetadata();
     _maxRowsInHashTable = getMaxRowInJoin(metadata, node.getJoinHints());
     _joinOverflowMode = getJoinOverflowMode(metadata, node.getJoinHints());
+    _memoryBudget = context.getMemoryBudget();
+    if (_memoryBudget != null) {
+      DataSchema.ColumnDataType[] rightStoredTypes = needRightColumns() ? Arrays.copyOfRange(
+          _resultSchema.getStoredColumnDataTypes(), _leftColumnSize, _resultColumnSize)
+          : new DataSchema.ColumnDataType[0];
+      _memoryReservation = _memoryBudget.newRowReservation(JoinHashTable.estimateRowSizeBytes(rightStoredTypes));
+    } else {
+      _memoryReservation = null;
+    }
   }
 
   private int getMaxRowInJoin(Map<String, String> opChainMetadata, @Nullable AbstractPlanNode.NodeHint nodeHint) {
@@ -200,6 +249,14 @@ public class HashJoinOperator extends MultiStageOperator {
     if (_upstreamErrorBlock != null) {
       return _upstreamErrorBlock;
     }
+    if (!_isHashTableBuilt) {
+      // Waiting for more right rows
+      return TransferableBlockUtils.getNoOpTransferableBlock();
+    }
+    if (_leftEosBlock != null) {
+      // All the left rows are received, JOIN the spilled partitions
+      return joinSpilledPartitions();
+    }
     TransferableBlock leftBlock = _leftTableOperator.nextBlock();
     // JOIN each left block with the constructed right hash table.
     return buildJoinedDataBlock(leftBlock);
@@ -208,10 +265,16 @@ public class HashJoinOperator extends MultiStageOperator {
   private void buildBroadcastHashTable()
       throws ProcessingException {
     TransferableBlock rightBlock = _rightTableOperator.nextBlock();
-    while (!TransferableBlockUtils.isEndOfStream(rightBlock)) {
-      List<Object[]> container = rightBlock.getContainer();
+    while (rightBlock.isDataBlock()) {
+      if (_spilledRightPartitions != null) {
+        // Spill all the remaining right rows once the hash table cannot fit into the query memory budget
+        spillRightRows(rightBlock, 0, rightBlock.getNumRows());
+        rightBlock = _rightTableOperator.nextBlock();
+        continue;
+      }
+      int numRows = rightBlock.getNumRows();
       // Row based overflow check.
-      if (container.size() + _currentRowsInHashTable > _maxRowsInHashTable) {
+      if (numRows + _currentRowsInHashTable > _maxRowsInHashTable) {
         if (_joinOverflowMode == JoinOverFlowMode.THROW) {
           ProcessingException resourceLimitExceededException =
               new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
@@ -221,168 +284,317 @@ public class HashJoinOperator extends MultiStageOperator {
           throw resourceLimitExceededException;
         } else {
           // Just fill up the buffer.
-          int remainingRows = _maxRowsInHashTable - _currentRowsInHashTable;
-          container = container.subList(0, remainingRows);
+          numRows = _maxRowsInHashTable - _currentRowsInHashTable;
           OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
           operatorStats.recordSingleStat(DataTable.MetadataKey.MAX_ROWS_IN_JOIN_REACHED.getName(), "true");
           // setting only the rightTableOperator to be early terminated and awaits EOS block next.
           _rightTableOperator.earlyTerminate();
         }
       }
-      // put all the rows into corresponding hash collections keyed by the key selector function.
-      for (Object[] row : container) {
-        ArrayList<Object[]> hashCollection = _broadcastRightTable.computeIfAbsent(_rightKeySelector.getKey(row),
-            k -> new ArrayList<>(INITIAL_HEURISTIC_SIZE));
-        int size = hashCollection.size();
-        if ((size & size - 1) == 0 && size < _maxRowsInHashTable && size < Integer.MAX_VALUE / 2) { // is power of 2
-          hashCollection.ensureCapacity(Math.min(size << 1, _maxRowsInHashTable));
+      // Memory based overflow check.
+      int numRowsToSpill = 0;
+      if (_memoryReservation != null && !_memoryReservation.reserve(numRows + _currentRowsInHashTable)) {
+        if (_memoryBudget.getOverflowMode() == MemoryOverflowMode.THROW) {
+          ProcessingException resourceLimitExceededException =
+              new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+          resourceLimitExceededException.setMessage(
+              "Cannot build in memory hash table for join operator, reach query memory budget: "
+                  + _memoryBudget.getMaxBytes() + " bytes");
+          throw resourceLimitExceededException;
+        }
+        // Just fill up the budget.
+        int numRowsToFit = (int) Math.min(
+            Math.max(_memoryReservation.getMaxNumRows() - _currentRowsInHashTable, 0), numRows);
+        _memoryReservation.reserve(numRowsToFit + _currentRowsInHashTable);
+        if (_memoryBudget.getOverflowMode() == MemoryOverflowMode.SPILL) {
+          // Spill the rest of the right rows instead of dropping them, so that the results stay accurate.
+          _spilledRightPartitions =
+              new SpilledJoinPartitions(FileUtils.getTempDirectory(), rightBlock.getDataSchema());
+          numRowsToSpill = numRows - numRowsToFit;
+        } else {
+          _memoryBudget.onExceeded(EXPLAIN_NAME);
+          OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
+          operatorStats.recordSingleStat(DataTable.MetadataKey.MEMORY_BUDGET_EXCEEDED.getName(),
+              _memoryBudget.getOverflowMode().name());
+          // setting only the rightTableOperator to be early terminated and awaits EOS block next.
+          _rightTableOperator.earlyTerminate();
         }
-        hashCollection.add(row);
+        numRows = numRowsToFit;
+      }
+      // put all the rows into the hash table, where the rows are grouped by the join keys.
+      if (_rightTable == null) {
+        _rightSchema = rightBlock.getDataSchema();
+        _rightTable = JoinHashTableFactory.getJoinHashTable(_leftSchema, _rightSchema, _joinKeys.getLeftKeys(),
+            _joinKeys.getRightKeys(), needRightColumns());
+      }
+      _rightTable.addBlock(rightBlock, numRows);
+      _currentRowsInHashTable += numRows;
+      if (numRowsToSpill > 0) {
+        spillRightRows(rightBlock, numRows, numRows + numRowsToSpill);
       }
-      _currentRowsInHashTable += container.size();
       rightBlock = _rightTableOperator.nextBlock();
     }
+    if (rightBlock.isNoOpBlock()) {
+      return;
+    }
     if (rightBlock.isErrorBlock()) {
       _upstreamErrorBlock = rightBlock;
     } else {
+      if (_rightTable == null) {
+        // No right rows, use an empty hash table
+        _rightTable = JoinHashTableFactory.getJoinHashTable(_leftSchema, _leftSchema, _joinKeys.getLeftKeys(),
+            _joinKeys.getLeftKeys(), false);
+      }
+      if (_spilledRightPartitions != null) {
+        _spilledRightPartitions.finishWriting();
+        _spilledLeftPartitions = new SpilledJoinPartitions(FileUtils.getTempDirectory(), getLeftSpillSchema());
+      }
       _isHashTableBuilt = true;
     }
   }
 
+  private void spillRightRows(TransferableBlock rightBlock, int startRowId, int endRowId) {
+    List<Object[]> container = rightBlock.getContainer();
+    for (int i = startRowId; i < endRowId; i++) {
+      Object[] rightRow = container.get(i);
+      _spilledRightPartitions.addRow(SpilledJoinPartitions.getPartitionId(_rightKeySelector.computeHash(rightRow)),
+          rightRow);
+    }
+  }
+
+  /**
+   * Returns the data schema of the spilled left rows, where a column is appended to the left columns to flag whether
+   * the left row is matched with the in-memory right rows.
+   */
+  private DataSchema getLeftSpillSchema() {
+    String[] columnNames = Arrays.copyOf(_leftSchema.getColumnNames(), _leftColumnSize + 1);
+    columnNames[_leftColumnSize] = MATCHED_COLUMN_NAME;
+    DataSchema.ColumnDataType[] columnDataTypes = Arrays.copyOf(_leftSchema.getColumnDataTypes(), _leftColumnSize + 1);
+    columnDataTypes[_leftColumnSize] = DataSchema.ColumnDataType.INT;
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
   private TransferableBlock buildJoinedDataBlock(TransferableBlock leftBlock) {
+    if (leftBlock.isNoOpBlock()) {
+      return leftBlock;
+    }
     if (leftBlock.isErrorBlock()) {
       _upstreamErrorBlock = leftBlock;
       return _upstreamErrorBlock;
     }
     if (leftBlock.isSuccessfulEndOfStreamBlock()) {
+      if (_spilledLeftPartitions != null) {
+        // Return the remaining non-matched in-memory rows, then release the in-memory hash table before joining the
+        // spilled partitions.
+        _leftEosBlock = leftBlock;
+        _spilledLeftPartitions.finishWriting();
+        List<Object[]> returnRows = needUnmatchedRightRows() ? getUnmatchedRightRows() : Collections.emptyList();
+        _rightTable = null;
+        _memoryReservation.release(0);
+        return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
+      }
       if (!needUnmatchedRightRows()) {
         return leftBlock;
       }
       // TODO: Moved to a different function.
       // Return remaining non-matched rows for non-inner join.
-      List<Object[]> returnRows = new ArrayList<>();
-      for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
-        List<Object[]> rightRows = entry.getValue();
-        BitSet matchedIndices = _matchedRightRows.get(entry.getKey());
-        if (matchedIndices == null) {
-          for (Object[] rightRow : rightRows) {
-            returnRows.add(joinRow(null, rightRow));
-          }
-        } else {
-          int numRightRows = rightRows.size();
-          int unmatchedIndex = 0;
-          while ((unmatchedIndex = matchedIndices.nextClearBit(unmatchedIndex)) < numRightRows) {
-            returnRows.add(joinRow(null, rightRows.get(unmatchedIndex++)));
-          }
-        }
-      }
+      List<Object[]> returnRows = getUnmatchedRightRows();
       _isTerminated = true;
       return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
     }
-    List<Object[]> rows;
+    // TODO: Rows can be empty here. Consider fetching another left block instead of returning empty block.
+    return new TransferableBlock(buildJoinedRows(leftBlock.getContainer()), _resultSchema, DataBlock.Type.ROW);
+  }
+
+  private List<Object[]> buildJoinedRows(List<Object[]> leftRows) {
     switch (_joinType) {
-      case SEMI: {
-        rows = buildJoinedDataBlockSemi(leftBlock);
-        break;
+      case SEMI:
+        return buildJoinedRowsSemi(leftRows);
+      case ANTI:
+        return buildJoinedRowsAnti(leftRows);
+      default: // INNER, LEFT, RIGHT, FULL
+        return buildJoinedRowsDefault(leftRows);
+    }
+  }
+
+  /**
+   * Returns the right rows not matched with any left row, and resets the matched right rows.
+   */
+  private List<Object[]> getUnmatchedRightRows() {
+    List<Object[]> rows = new ArrayList<>();
+    int numRightRows = _rightTable.getNumRows();
+    int unmatchedRowId = 0;
+    while ((unmatchedRowId = _matchedRightRows.nextClearBit(unmatchedRowId)) < numRightRows) {
+      rows.add(joinRow(null, unmatchedRowId++));
+    }
+    _matchedRightRows.clear();
+    return rows;
+  }
+
+  /**
+   * Joins the spilled partitions one by one, where each call joins one spilled left block with the hash table built
+   * from the spilled right rows of the current partition.
+   */
+  private TransferableBlock joinSpilledPartitions() {
+    while (true) {
+      if (_leftPartitionReader == null) {
+        _currentPartitionId++;
+        if (_currentPartitionId == SpilledJoinPartitions.NUM_PARTITIONS) {
+          _rightTable = null;
+          _memoryReservation.release(0);
+          cleanUpSpilledPartitions();
+          _isTerminated = true;
+          return _leftEosBlock;
+        }
+        buildSpilledPartitionHashTable(_currentPartitionId);
+        _leftPartitionReader = _spilledLeftPartitions.openPartition(_currentPartitionId);
       }
-      case ANTI: {
-        rows = buildJoinedDataBlockAnti(leftBlock);
-        break;
+      DataBlock leftDataBlock = _leftPartitionReader.nextBlock();
+      if (leftDataBlock != null) {
+        return new TransferableBlock(buildJoinedRows(DataBlockExtractUtils.extractRows(leftDataBlock)), _resultSchema,
+            DataBlock.Type.ROW);
       }
-      default: { // INNER, LEFT, RIGHT, FULL
-        rows = buildJoinedDataBlockDefault(leftBlock);
-        break;
+      _leftPartitionReader = null;
+      if (needUnmatchedRightRows()) {
+        List<Object[]> returnRows = getUnmatchedRightRows();
+        if (!returnRows.isEmpty()) {
+          return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
+        }
       }
     }
-    // TODO: Rows can be empty here. Consider fetching another left block instead of returning empty block.
-    return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
   }
 
-  private List<Object[]> buildJoinedDataBlockSemi(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
-    List<Object[]> rows = new ArrayList<>(container.size());
+  private void buildSpilledPartitionHashTable(int partitionId) {
+    _rightTable = null;
+    _memoryReservation.release(0);
+    long numRows = _spilledRightPartitions.getNumRows(partitionId);
+    // TODO: Re-partition the partition recursively when it cannot fit into the query memory budget
+    if (!_memoryReservation.reserve(numRows)) {
+      LOGGER.debug("Spilled partition: {} with {} right rows cannot fit into the query memory budget", partitionId,
+          numRows);
+    }
+    _rightTable = JoinHashTableFactory.getJoinHashTable(_leftSchema, _rightSchema, _joinKeys.getLeftKeys(),
+        _joinKeys.getRightKeys(), needRightColumns());
+    SpilledJoinPartitions.PartitionReader rightPartitionReader = _spilledRightPartitions.openPartition(partitionId);
+    DataBlock rightDataBlock;
+    while ((rightDataBlock = rightPartitionReader.nextBlock()) != null) {
+      _rightTable.addBlock(new TransferableBlock(rightDataBlock), rightDataBlock.getNumberOfRows());
+    }
+  }
+
+  /**
+   * Returns whether the left rows should be spilled after joining with the in-memory right rows, i.e. the right table
+   * is spilled and the left rows are still being received.
+   */
+  private boolean shouldSpillLeftRows() {
+    return _spilledLeftPartitions != null && _leftEosBlock == null;
+  }
+
+  private void spillLeftRow(Object[] leftRow, boolean matched) {
+    Object[] row = Arrays.copyOf(leftRow, _leftColumnSize + 1);
+    row[_leftColumnSize] = matched ? 1 : 0;
+    _spilledLeftPartitions.addRow(SpilledJoinPartitions.getPartitionId(_leftKeySelector.computeHash(leftRow)), row);
+  }
+
+  /**
+   * Returns whether the spilled left row is matched with the in-memory right rows.
+   */
+  private boolean isMatchedSpilledLeftRow(Object[] leftRow) {
+    return _leftEosBlock != null && (int) leftRow[_leftColumnSize] == 1;
+  }
+
+  private List<Object[]> buildJoinedRowsSemi(List<Object[]> leftRows) {
+    List<Object[]> rows = new ArrayList<>(leftRows.size());
+    boolean shouldSpillLeftRows = shouldSpillLeftRows();
 
-    for (Object[] leftRow : container) {
+    for (Object[] leftRow : leftRows) {
       Object key = _leftKeySelector.getKey(leftRow);
       // SEMI-JOIN only checks existence of the key
-      if (_broadcastRightTable.containsKey(key)) {
-        rows.add(joinRow(leftRow, null));
+      if (_rightTable.getGroupId(key) != JoinHashTable.INVALID_ID) {
+        rows.add(joinRow(leftRow, JoinHashTable.INVALID_ID));
+      } else if (shouldSpillLeftRows) {
+        spillLeftRow(leftRow, false);
       }
     }
 
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockDefault(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
-    ArrayList<Object[]> rows = new ArrayList<>(container.size());
+  private List<Object[]> buildJoinedRowsDefault(List<Object[]> leftRows) {
+    ArrayList<Object[]> rows = new ArrayList<>(leftRows.size());
+    boolean shouldSpillLeftRows = shouldSpillLeftRows();
 
-    for (Object[] leftRow : container) {
+    for (Object[] leftRow : leftRows) {
       Object key = _leftKeySelector.getKey(leftRow);
       // NOTE: Empty key selector will always give same hash code.
-      List<Object[]> rightRows = _broadcastRightTable.get(key);
-      if (rightRows == null) {
-        if (needUnmatchedLeftRows()) {
-          rows.add(joinRow(leftRow, null));
-        }
-        continue;
-      }
-      boolean hasMatchForLeftRow = false;
-      int numRightRows = rightRows.size();
-      rows.ensureCapacity(rows.size() + numRightRows);
-      for (int i = 0; i < numRightRows; i++) {
-        Object[] rightRow = rightRows.get(i);
-        // TODO: Optimize this to avoid unnecessary object copy.
-        Object[] resultRow = joinRow(leftRow, rightRow);
-        if (_joinClauseEvaluators.isEmpty() || _joinClauseEvaluators.stream()
-            .allMatch(evaluator -> BooleanUtils.isTrueInternalValue(evaluator.apply(resultRow)))) {
-          rows.add(resultRow);
-          hasMatchForLeftRow = true;
-          if (_matchedRightRows != null) {
-            _matchedRightRows.computeIfAbsent(key, k -> new BitSet(numRightRows)).set(i);
+      int groupId = _rightTable.getGroupId(key);
+      boolean hasMatchForLeftRow = isMatchedSpilledLeftRow(leftRow);
+      if (groupId != JoinHashTable.INVALID_ID) {
+        for (int rightRowId = _rightTable.getFirstRowId(groupId); rightRowId != JoinHashTable.INVALID_ID;
+            rightRowId = _rightTable.getNextRowId(rightRowId)) {
+          Object[] resultRow = joinRow(leftRow, rightRowId);
+          if (_joinClauseEvaluators.isEmpty() || _joinClauseEvaluators.stream()
+              .allMatch(evaluator -> BooleanUtils.isTrueInternalValue(evaluator.apply(resultRow)))) {
+            rows.add(resultRow);
+            hasMatchForLeftRow = true;
+            if (_matchedRightRows != null) {
+              _matchedRightRows.set(rightRowId);
+            }
           }
         }
       }
-      if (!hasMatchForLeftRow && needUnmatchedLeftRows()) {
-        rows.add(joinRow(leftRow, null));
+      if (shouldSpillLeftRows) {
+        // The left row might also match the spilled right rows
+        spillLeftRow(leftRow, hasMatchForLeftRow);
+      } else if (!hasMatchForLeftRow && needUnmatchedLeftRows()) {
+        rows.add(joinRow(leftRow, JoinHashTable.INVALID_ID));
       }
     }
 
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockAnti(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
-    List<Object[]> rows = new ArrayList<>(container.size());
+  private List<Object[]> buildJoinedRowsAnti(List<Object[]> leftRows) {
+    List<Object[]> rows = new ArrayList<>(leftRows.size());
+    boolean shouldSpillLeftRows = shouldSpillLeftRows();
 
-    for (Object[] leftRow : container) {
+    for (Object[] leftRow : leftRows) {
       Object key = _leftKeySelector.getKey(leftRow);
       // ANTI-JOIN only checks non-existence of the key
-      if (!_broadcastRightTable.containsKey(key)) {
-        rows.add(joinRow(leftRow, null));
+      if (_rightTable.getGroupId(key) == JoinHashTable.INVALID_ID) {
+        if (shouldSpillLeftRows) {
+          spillLeftRow(leftRow, false);
+        } else {
+          rows.add(joinRow(leftRow, JoinHashTable.INVALID_ID));
+        }
       }
     }
     return rows;
   }
 
-  private Object[] joinRow(@Nullable Object[] leftRow, @Nullable Object[] rightRow) {
+  /**
+   * Joins the left row with the right row of the given row id in the right table. The right columns are left as null
+   * when the right row id is {@link JoinHashTable#INVALID_ID}.
+   */
+  private Object[] joinRow(@Nullable Object[] leftRow, int rightRowId) {
     Object[] resultRow = new Object[_resultColumnSize];
-    int idx = 0;
     if (leftRow != null) {
-      for (Object obj : leftRow) {
-        resultRow[idx++] = obj;
-      }
+      // NOTE: The spilled left row has an extra column for the matched flag
+      System.arraycopy(leftRow, 0, resultRow, 0, _leftColumnSize);
     }
-    // This is needed since left row can be null and we need to advance the idx to the beginning of right row.
-    idx = _leftColumnSize;
-    if (rightRow != null) {
-      for (Object obj : rightRow) {
-        resultRow[idx++] = obj;
-      }
+    if (rightRowId != JoinHashTable.INVALID_ID) {
+      _rightTable.fillRow(rightRowId, resultRow, _leftColumnSize);
     }
     return resultRow;
   }
 
+  /**
+   * Returns whether the right columns need to be stored in the hash table, where SEMI and ANTI join only need the keys.
+   */
+  private boolean needRightColumns() {
+    return _joinType != JoinRelType.SEMI && _joinType != JoinRelType.ANTI;
+  }
+
   private boolean needUnmatchedRightRows() {
     return _joinType == JoinRelType.RIGHT || _joinType == JoinRelType.FULL;
   }
@@ -390,4 +602,28 @@ public class HashJoinOperator extends MultiStageOperator {
   private boolean needUnmatchedLeftRows() {
     return _joinType == JoinRelType.LEFT || _joinType == JoinRelType.FULL;
   }
+
+  private void cleanUpSpilledPartitions() {
+    if (_spilledRightPartitions != null) {
+      _spilledRightPartitions.close();
+      _spilledRightPartitions = null;
+    }
+    if (_spilledLeftPartitions != null) {
+      _spilledLeftPartitions.close();
+      _spilledLeftPartitions = null;
+    }
+    _leftPartitionReader = null;
+  }
+
+  @Override
+  public void close() {
+    cleanUpSpilledPartitions();
+    super.close();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    cleanUpSpilledPartitions();
+    super.cancel(e);
+  }
 }
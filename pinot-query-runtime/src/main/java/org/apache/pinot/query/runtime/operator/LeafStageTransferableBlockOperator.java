@@ -117,8 +117,17 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
     if (_executionFuture == null) {
       _executionFuture = startExecution();
     }
-    BaseResultsBlock resultsBlock =
-        _blockingQueue.poll(_context.getDeadlineMs() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    BaseResultsBlock resultsBlock;
+    if (_context.getDataAvailableCallback() == null) {
+      resultsBlock =
+          _blockingQueue.poll(_context.getDeadlineMs() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    } else {
+      // Yield the thread when the results block is not ready, and the scheduler is notified when it is added
+      resultsBlock = _blockingQueue.poll();
+      if (resultsBlock == null && System.currentTimeMillis() < _context.getDeadlineMs()) {
+        return TransferableBlockUtils.getNoOpTransferableBlock();
+      }
+    }
     if (resultsBlock == null) {
       throw new TimeoutException("Timed out waiting for results block");
     }
@@ -242,6 +251,7 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
         TimeUnit.MILLISECONDS)) {
       throw new TimeoutException("Timed out waiting to add results block");
     }
+    _context.notifyDataAvailable();
   }
 
   // TODO: Revisit the stats aggregation logic
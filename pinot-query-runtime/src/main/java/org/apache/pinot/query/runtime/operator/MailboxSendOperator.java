@@ -65,9 +65,10 @@ public class MailboxSendOperator extends MultiStageOperator {
   public MailboxSendOperator(OpChainExecutionContext context, MultiStageOperator sourceOperator,
       RelDistribution.Type distributionType, @Nullable List<Integer> distributionKeys,
       @Nullable List<RexExpression> collationKeys, @Nullable List<RelFieldCollation.Direction> collationDirections,
-      boolean isSortOnSender, int receiverStageId) {
-    this(context, sourceOperator, getBlockExchange(context, distributionType, distributionKeys, receiverStageId),
-        collationKeys, collationDirections, isSortOnSender);
+      boolean isSortOnSender, int receiverStageId, boolean splitHotKeys) {
+    this(context, sourceOperator,
+        getBlockExchange(context, distributionType, distributionKeys, receiverStageId, splitHotKeys), collationKeys,
+        collationDirections, isSortOnSender);
   }
 
   @VisibleForTesting
@@ -83,7 +84,7 @@ public class MailboxSendOperator extends MultiStageOperator {
   }
 
   private static BlockExchange getBlockExchange(OpChainExecutionContext context, RelDistribution.Type distributionType,
-      @Nullable List<Integer> distributionKeys, int receiverStageId) {
+      @Nullable List<Integer> distributionKeys, int receiverStageId, boolean splitHotKeys) {
     Preconditions.checkState(SUPPORTED_EXCHANGE_TYPES.contains(distributionType), "Unsupported distribution type: %s",
         distributionType);
     MailboxService mailboxService = context.getMailboxService();
@@ -100,7 +101,7 @@ public class MailboxSendOperator extends MultiStageOperator {
           mailboxMetadata.getVirtualAddress(i).port(), sendingMailboxIds.get(i), deadlineMs));
     }
     return BlockExchange.getExchange(sendingMailboxes, distributionType, distributionKeys,
-        TransferableBlockUtils::splitBlock);
+        TransferableBlockUtils::splitBlock, splitHotKeys);
   }
 
   @Override
@@ -118,9 +119,13 @@ public class MailboxSendOperator extends MultiStageOperator {
   protected TransferableBlock getNextBlock() {
     try {
       TransferableBlock block = _sourceOperator.nextBlock();
+      if (block.isNoOpBlock()) {
+        return block;
+      }
       if (block.isSuccessfulEndOfStreamBlock()) {
         // Stats need to be populated here because the block is being sent to the mailbox
         // and the receiving opChain will not be able to access the stats from the previous opChain
+        _exchange.recordStats(_opChainStats.getOperatorStats(_context, _operatorId));
         TransferableBlock eosBlockWithStats = TransferableBlockUtils.getEndOfStreamTransferableBlock(
             OperatorUtils.getMetadataFromOperatorStats(_opChainStats.getOperatorStatsMap()));
         // no need to check early terminate signal b/c the current block is already EOS
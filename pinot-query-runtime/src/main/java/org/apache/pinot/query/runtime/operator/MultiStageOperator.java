@@ -61,7 +61,9 @@ public abstract class MultiStageOperator implements Operator<TransferableBlock>,
         } catch (Exception e) {
           nextBlock = TransferableBlockUtils.getErrorTransferableBlock(e);
         }
-        operatorStats.recordRow(1, nextBlock.getNumRows());
+        if (!nextBlock.isNoOpBlock()) {
+          operatorStats.recordRow(1, nextBlock.getNumRows());
+        }
         operatorStats.endTimer(nextBlock);
       } else {
         try {
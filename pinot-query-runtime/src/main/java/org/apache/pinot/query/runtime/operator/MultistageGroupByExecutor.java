@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import com.google.common.base.Preconditions;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.ArrayList;
@@ -200,6 +201,94 @@ public class MultistageGroupByExecutor {
     }
   }
 
+  public int getNumGroups() {
+    return _groupKeyToIdMap.size();
+  }
+
+  /**
+   * Returns the rows of the block in the result format without aggregating the rows with the same group key, i.e. each
+   * row is treated as a separate group. This is used to bypass the partial (LEAF or INTERMEDIATE) aggregation when it
+   * does not reduce the number of rows, where the rows are aggregated later by the FINAL aggregation.
+   */
+  public List<Object[]> getPassThroughResult(TransferableBlock block) {
+    Preconditions.checkState(_aggType == AggType.LEAF || _aggType == AggType.INTERMEDIATE,
+        "Cannot bypass the aggregation for aggType: %s", _aggType);
+    int numRows = block.getNumRows();
+    if (numRows == 0) {
+      return Collections.emptyList();
+    }
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    Object[][] rows = new Object[numRows][numKeys + numFunctions];
+    if (block.isContainerConstructed()) {
+      List<Object[]> inputRows = block.getContainer();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object[] inputRow = inputRows.get(rowId);
+        Object[] row = rows[rowId];
+        for (int i = 0; i < numKeys; i++) {
+          row[i] = inputRow[_groupKeyIds[i]];
+        }
+      }
+    } else {
+      DataBlock dataBlock = block.getDataBlock();
+      for (int i = 0; i < numKeys; i++) {
+        Object[] keys = DataBlockExtractUtils.extractColumn(dataBlock, _groupKeyIds[i]);
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          rows[rowId][i] = keys[rowId];
+        }
+      }
+    }
+    if (_aggType == AggType.LEAF) {
+      // Aggregate each row into its own group, where the row id is used as the group id
+      int[] rowIds = null;
+      RoaringBitmap[] matchedBitmaps = new RoaringBitmap[_maxFilterArgId + 1];
+      for (int i = 0; i < numFunctions; i++) {
+        AggregationFunction aggFunction = _aggFunctions[i];
+        GroupByResultHolder groupByResultHolder = aggFunction.createGroupByResultHolder(numRows, numRows);
+        int filterArgId = _filterArgIds[i];
+        if (filterArgId < 0) {
+          if (rowIds == null) {
+            rowIds = new int[numRows];
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              rowIds[rowId] = rowId;
+            }
+          }
+          Map<ExpressionContext, BlockValSet> blockValSetMap = AggregateOperator.getBlockValSetMap(aggFunction, block);
+          aggFunction.aggregateGroupBySV(numRows, rowIds, groupByResultHolder, blockValSetMap);
+        } else {
+          RoaringBitmap matchedBitmap = matchedBitmaps[filterArgId];
+          if (matchedBitmap == null) {
+            matchedBitmap = AggregateOperator.getMatchedBitmap(block, filterArgId);
+            matchedBitmaps[filterArgId] = matchedBitmap;
+          }
+          int numMatchedRows = matchedBitmap.getCardinality();
+          Map<ExpressionContext, BlockValSet> blockValSetMap =
+              AggregateOperator.getFilteredBlockValSetMap(aggFunction, block, numMatchedRows, matchedBitmap);
+          aggFunction.aggregateGroupBySV(numMatchedRows, matchedBitmap.toArray(), groupByResultHolder, blockValSetMap);
+        }
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          rows[rowId][numKeys + i] = aggFunction.extractGroupByResult(groupByResultHolder, rowId);
+        }
+      }
+    } else {
+      // The intermediate results are already in the result format
+      for (int i = 0; i < numFunctions; i++) {
+        Object[] intermediateResults = AggregateOperator.getIntermediateResults(_aggFunctions[i], block);
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          rows[rowId][numKeys + i] = intermediateResults[rowId];
+        }
+      }
+    }
+    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
+    List<Object[]> result = new ArrayList<>(numRows);
+    for (Object[] row : rows) {
+      // Convert the results from AggregationFunction to the desired type
+      TypeUtils.convertRow(row, resultStoredTypes);
+      result.add(row);
+    }
+    return result;
+  }
+
   public boolean isNumGroupsLimitReached() {
     return _groupKeyToIdMap.size() == _numGroupsLimit;
   }
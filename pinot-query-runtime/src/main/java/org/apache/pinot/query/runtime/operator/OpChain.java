@@ -33,23 +33,32 @@ import org.slf4j.LoggerFactory;
 public class OpChain implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(OpChain.class);
 
+  private final OpChainExecutionContext _context;
   private final OpChainId _id;
   private final OpChainStats _stats;
   private final MultiStageOperator _root;
   private final Consumer<OpChainId> _finishCallback;
 
+  // Set when the query is cancelled, and checked by the thread executing the OpChain to cancel it
+  private volatile boolean _isCancelRequested;
+
   public OpChain(OpChainExecutionContext context, MultiStageOperator root) {
     this(context, root, (id) -> {
     });
   }
 
   public OpChain(OpChainExecutionContext context, MultiStageOperator root, Consumer<OpChainId> finishCallback) {
+    _context = context;
     _id = context.getId();
     _stats = context.getStats();
     _root = root;
     _finishCallback = finishCallback;
   }
 
+  public OpChainExecutionContext getContext() {
+    return _context;
+  }
+
   public OpChainId getId() {
     return _id;
   }
@@ -63,6 +72,17 @@ public class OpChain implements AutoCloseable {
     return _root;
   }
 
+  /**
+   * Requests the OpChain to be cancelled. The cancellation is performed by the thread executing the OpChain.
+   */
+  public void requestCancel() {
+    _isCancelRequested = true;
+  }
+
+  public boolean isCancelRequested() {
+    return _isCancelRequested;
+  }
+
   @Override
   public String toString() {
     return "OpChain{" + _id + "}";
@@ -49,6 +49,7 @@ public class OpChainStats {
   private final Stopwatch _executeStopwatch = Stopwatch.createUnstarted();
   private final Stopwatch _queuedStopwatch = Stopwatch.createUnstarted();
   private final AtomicLong _queuedCount = new AtomicLong();
+  private final AtomicLong _suspendedCount = new AtomicLong();
 
   private final String _id;
   private final ConcurrentHashMap<String, OperatorStats> _operatorStatsMap = new ConcurrentHashMap<>();
@@ -74,6 +75,17 @@ public class OpChainStats {
     }
   }
 
+  /**
+   * Called when the OpChain yields the thread to wait for more data, where the wait time is accounted as neither the
+   * execution time nor the queued time.
+   */
+  public void suspended() {
+    _suspendedCount.incrementAndGet();
+    if (_executeStopwatch.isRunning()) {
+      _executeStopwatch.stop();
+    }
+  }
+
   public ConcurrentHashMap<String, OperatorStats> getOperatorStatsMap() {
     return _operatorStatsMap;
   }
@@ -100,9 +112,25 @@ public class OpChainStats {
     return _executeStopwatch.elapsed(TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Returns the time (in milliseconds) the OpChain waited in the scheduler queue to be executed.
+   */
+  public long getQueuedTime() {
+    return _queuedStopwatch.elapsed(TimeUnit.MILLISECONDS);
+  }
+
+  public long getQueuedCount() {
+    return _queuedCount.get();
+  }
+
+  public long getSuspendedCount() {
+    return _suspendedCount.get();
+  }
+
   @Override
   public String toString() {
-    return String.format("(%s) Queued Count: %s, Executing Time: %sms, Queued Time: %sms", _id, _queuedCount.get(),
+    return String.format("(%s) Queued Count: %s, Suspended Count: %s, Executing Time: %sms, Queued Time: %sms", _id,
+        _queuedCount.get(), _suspendedCount.get(),
         _exTimerStarted ? _executeStopwatch.elapsed(TimeUnit.MILLISECONDS) : 0,
         _queuedStopwatch.elapsed(TimeUnit.MILLISECONDS));
   }
@@ -102,6 +102,10 @@ public abstract class SetOperator extends MultiStageOperator {
     if (_upstreamErrorBlock != null) {
       return _upstreamErrorBlock;
     }
+    if (!_isRightSetBuilt) {
+      // Waiting for more right side rows
+      return TransferableBlockUtils.getNoOpTransferableBlock();
+    }
     // UNION each left block with the constructed right block set.
     TransferableBlock leftBlock = _leftChildOperator.nextBlock();
     return constructResultBlockSet(leftBlock);
@@ -109,14 +113,15 @@ public abstract class SetOperator extends MultiStageOperator {
 
   protected void constructRightBlockSet() {
     TransferableBlock block = _rightChildOperator.nextBlock();
-    while (!block.isEndOfStreamBlock()) {
-      if (block.getType() != DataBlock.Type.METADATA) {
-        for (Object[] row : block.getContainer()) {
-          _rightRowSet.add(new Record(row));
-        }
+    while (block.isDataBlock()) {
+      for (Object[] row : block.getContainer()) {
+        _rightRowSet.add(new Record(row));
       }
       block = _rightChildOperator.nextBlock();
     }
+    if (block.isNoOpBlock()) {
+      return;
+    }
     if (block.isErrorBlock()) {
       _upstreamErrorBlock = block;
     } else {
@@ -135,6 +140,9 @@ public abstract class SetOperator extends MultiStageOperator {
     if (leftBlock.isSuccessfulEndOfStreamBlock()) {
       return TransferableBlockUtils.getEndOfStreamTransferableBlock();
     }
+    if (leftBlock.isNoOpBlock()) {
+      return leftBlock;
+    }
     for (Object[] row : leftBlock.getContainer()) {
       if (handleRowMatched(row)) {
         rows.add(row);
@@ -21,24 +21,42 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
+import org.apache.pinot.query.runtime.operator.utils.SortedRowsMerger;
+import org.apache.pinot.query.runtime.operator.utils.SpilledSortedRuns;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * The {@code SortOperator} sorts the input rows and applies the limit and offset.
+ * <p>The rows to keep are held in a bounded {@link PriorityQueue}. When the rows cannot fit into the query memory
+ * budget, depending on the overflow mode, the query is failed (THROW), only the top rows that fit are kept (TRIM), or
+ * the rows are sorted and spilled to local temp files as sorted runs (SPILL), which are k-way merged after all the
+ * input rows are received (i.e. external merge sort). The merged rows are returned one block at a time.
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
@@ -48,11 +66,22 @@ public class SortOperator extends MultiStageOperator {
   private final int _offset;
   private final DataSchema _dataSchema;
   private final PriorityQueue<Object[]> _priorityQueue;
+  private final Comparator<Object[]> _comparator;
   private final ArrayList<Object[]> _rows;
-  private final int _numRowsToKeep;
+  private final QueryMemoryBudget _memoryBudget;
+  private final QueryMemoryBudget.RowReservation _memoryReservation;
+  private int _numRowsToKeep;
 
   private boolean _hasConstructedSortedBlock;
 
+  // Below are used for the external merge sort, which are only created when the rows are spilled.
+  private SpilledSortedRuns _spilledRuns;
+  private SortedRowsMerger _merger;
+  private SpilledSortedRuns.RunReader[] _runReaders;
+  private List<Object[]> _inMemoryRun;
+  private int _numRowsToSkip;
+  private int _numRowsToReturn;
+
   public SortOperator(OpChainExecutionContext context, MultiStageOperator upstreamOperator,
       List<RexExpression> collationKeys, List<RelFieldCollation.Direction> collationDirections,
       List<RelFieldCollation.NullDirection> collationNullDirections, int fetch, int offset, DataSchema dataSchema,
@@ -82,12 +111,19 @@ public class SortOperator extends MultiStageOperator {
     if (collationKeys.isEmpty() || isInputSorted) {
       _priorityQueue = null;
       _rows = new ArrayList<>(Math.min(defaultHolderCapacity, _numRowsToKeep));
+      _comparator = null;
+      _memoryBudget = null;
+      _memoryReservation = null;
     } else {
       // Use the opposite direction as specified by the collation directions since we need the PriorityQueue to decide
       // which elements to keep and which to remove based on the limits.
-      _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep),
-          new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, true));
+      Comparator<Object[]> reversedComparator =
+          new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, true);
+      _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep), reversedComparator);
+      _comparator = reversedComparator.reversed();
       _rows = null;
+      _memoryBudget = context.getMemoryBudget();
+      _memoryReservation = _memoryBudget != null ? _memoryBudget.newRowReservation(dataSchema) : null;
     }
   }
 
@@ -96,8 +132,15 @@ public class SortOperator extends MultiStageOperator {
     return ImmutableList.of(_upstreamOperator);
   }
 
+  @Override
+  public void close() {
+    releaseResources();
+    super.close();
+  }
+
   @Override
   public void cancel(Throwable e) {
+    releaseResources();
   }
 
   @Nullable
@@ -107,15 +150,23 @@ public class SortOperator extends MultiStageOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  protected TransferableBlock getNextBlock()
+      throws ProcessingException {
+    if (_merger != null) {
+      return produceMergedBlock();
+    }
     if (_hasConstructedSortedBlock) {
       return TransferableBlockUtils.getEndOfStreamTransferableBlock();
     }
     TransferableBlock finalBlock = consumeInputBlocks();
-    // returning upstream error block if finalBlock contains error.
-    if (finalBlock.isErrorBlock()) {
+    // returning upstream error block if finalBlock contains error, or no-op block if waiting for more input.
+    if (finalBlock.isErrorBlock() || finalBlock.isNoOpBlock()) {
       return finalBlock;
     }
+    if (_spilledRuns != null) {
+      startMerge();
+      return produceMergedBlock();
+    }
     return produceSortedBlock();
   }
 
@@ -142,7 +193,8 @@ public class SortOperator extends MultiStageOperator {
     }
   }
 
-  private TransferableBlock consumeInputBlocks() {
+  private TransferableBlock consumeInputBlocks()
+      throws ProcessingException {
     TransferableBlock block = _upstreamOperator.nextBlock();
     while (block.isDataBlock()) {
       List<Object[]> container = block.getContainer();
@@ -164,9 +216,144 @@ public class SortOperator extends MultiStageOperator {
         for (Object[] row : container) {
           SelectionOperatorUtils.addToPriorityQueue(row, _priorityQueue, _numRowsToKeep);
         }
+        if (_memoryReservation != null && !_memoryReservation.reserve(_priorityQueue.size())) {
+          handleMemoryOverflow();
+        }
       }
       block = _upstreamOperator.nextBlock();
     }
     return block;
   }
+
+  private void handleMemoryOverflow()
+      throws ProcessingException {
+    MemoryOverflowMode overflowMode = _memoryBudget.getOverflowMode();
+    if (overflowMode == MemoryOverflowMode.THROW) {
+      ProcessingException resourceLimitExceededException =
+          new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+      resourceLimitExceededException.setMessage(
+          "Cannot sort the rows in memory for sort operator, reach query memory budget: "
+              + _memoryBudget.getMaxBytes() + " bytes");
+      throw resourceLimitExceededException;
+    }
+    if (overflowMode == MemoryOverflowMode.SPILL) {
+      spillSortedRun();
+      return;
+    }
+    _memoryBudget.onExceeded(EXPLAIN_NAME);
+    // Only keep the top rows that can fit into the budget
+    _numRowsToKeep = (int) Math.max(Math.min(_memoryReservation.getMaxNumRows(), _numRowsToKeep), 1);
+    while (_priorityQueue.size() > _numRowsToKeep) {
+      _priorityQueue.poll();
+    }
+    _memoryReservation.reserve(_priorityQueue.size());
+    OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
+    operatorStats.recordSingleStat(DataTable.MetadataKey.MEMORY_BUDGET_EXCEEDED.getName(),
+        overflowMode.name());
+  }
+
+  /**
+   * Sorts the rows in the priority queue and spills them as a sorted run, then releases the memory held by the rows.
+   */
+  private void spillSortedRun() {
+    if (_spilledRuns == null) {
+      _spilledRuns = new SpilledSortedRuns(FileUtils.getTempDirectory(), _dataSchema);
+    }
+    _spilledRuns.addRun(drainSortedRows());
+    _memoryReservation.release(0);
+  }
+
+  /**
+   * Returns the rows in the priority queue in the sorted order, and clears the priority queue.
+   */
+  private List<Object[]> drainSortedRows() {
+    int numRows = _priorityQueue.size();
+    Object[][] rows = new Object[numRows][];
+    // The priority queue polls the rows in the reversed order
+    for (int i = numRows - 1; i >= 0; i--) {
+      rows[i] = _priorityQueue.poll();
+    }
+    return Arrays.asList(rows);
+  }
+
+  /**
+   * Starts the k-way merge of the spilled runs and the rows left in memory.
+   */
+  private void startMerge() {
+    int numSpilledRuns = _spilledRuns.getNumRuns();
+    LOGGER.debug("Merging {} spilled sorted runs ({} rows, {} bytes) with {} in-memory rows - operatorId={}, "
+            + "opChainId={}", numSpilledRuns, _spilledRuns.getNumSpilledRows(), _spilledRuns.getNumSpilledBytes(),
+        _priorityQueue.size(), _operatorId, _context.getId());
+    _inMemoryRun = drainSortedRows();
+    _runReaders = new SpilledSortedRuns.RunReader[numSpilledRuns];
+    for (int i = 0; i < numSpilledRuns; i++) {
+      _runReaders[i] = _spilledRuns.openRun(i);
+    }
+    _merger = new SortedRowsMerger(numSpilledRuns + 1, _comparator);
+    for (int i = 0; i <= numSpilledRuns; i++) {
+      fillMergeInput(i);
+    }
+    _numRowsToSkip = _offset;
+    _numRowsToReturn = _numRowsToKeep - _offset;
+  }
+
+  /**
+   * Adds the next rows of the given run to the merger, where the last input is the run of the rows left in memory.
+   */
+  private void fillMergeInput(int inputId) {
+    if (inputId < _runReaders.length) {
+      DataBlock dataBlock = _runReaders[inputId].nextBlock();
+      if (dataBlock != null) {
+        _merger.addRows(inputId, DataBlockExtractUtils.extractRows(dataBlock));
+      } else {
+        _merger.finish(inputId);
+      }
+    } else {
+      if (_inMemoryRun != null && !_inMemoryRun.isEmpty()) {
+        _merger.addRows(inputId, _inMemoryRun);
+      } else {
+        _merger.finish(inputId);
+      }
+      _inMemoryRun = null;
+    }
+  }
+
+  private TransferableBlock produceMergedBlock() {
+    List<Object[]> rows = new ArrayList<>();
+    while (_numRowsToReturn > 0 && rows.size() < SpilledSortedRuns.MAX_ROWS_PER_SPILLED_BLOCK) {
+      // Only the input of the last polled row can be waiting for more rows
+      if (_merger.getNumWaitingInputs() > 0) {
+        fillMergeInput(_merger.getLastPolledInputId());
+      }
+      Object[] row = _merger.poll();
+      if (row == null) {
+        break;
+      }
+      if (_numRowsToSkip > 0) {
+        _numRowsToSkip--;
+      } else {
+        rows.add(row);
+        _numRowsToReturn--;
+      }
+    }
+    if (rows.isEmpty()) {
+      releaseResources();
+      _merger = null;
+      _hasConstructedSortedBlock = true;
+      return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+    }
+    return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+  }
+
+  private void releaseResources() {
+    if (_memoryReservation != null) {
+      _memoryReservation.release(0);
+    }
+    if (_spilledRuns != null) {
+      _spilledRuns.close();
+      _spilledRuns = null;
+    }
+    _runReaders = null;
+    _inMemoryRun = null;
+  }
 }
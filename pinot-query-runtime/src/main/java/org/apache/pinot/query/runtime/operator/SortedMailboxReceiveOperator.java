@@ -27,23 +27,28 @@ import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.utils.AsyncStream;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
+import org.apache.pinot.query.runtime.operator.utils.SortedRowsMerger;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 
 
 /**
  * This {@code SortedMailboxReceiveOperator} receives data from a {@link ReceivingMailbox} and serve it out from the
  * {@link MultiStageOperator#getNextBlock()}()} API in a sorted manner.
- *
- *  TODO: Once sorting on the {@code MailboxSendOperator} is available, modify this to use a k-way merge instead of
- *        resorting via the PriorityQueue.
+ * <p>When the data is sorted on the sender side, the sorted streams from the mailboxes are k-way merged and the merged
+ * rows are streamed out as they become available, without buffering or re-sorting all the rows. Otherwise, all the
+ * rows are buffered and sorted after receiving the end of stream from all the mailboxes.
  */
 public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   private static final String EXPLAIN_NAME = "SORTED_MAILBOX_RECEIVE";
+  private static final int MAX_ROWS_PER_MERGED_BLOCK = 10_000;
 
   private final DataSchema _dataSchema;
   private final List<RexExpression> _collationKeys;
@@ -53,6 +58,7 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   private final List<Object[]> _rows = new ArrayList<>();
 
   private boolean _isSortedBlockConstructed;
+  private SortedRowsMerger _merger;
 
   public SortedMailboxReceiveOperator(OpChainExecutionContext context, RelDistribution.Type exchangeType,
       DataSchema dataSchema, List<RexExpression> collationKeys, List<Direction> collationDirections,
@@ -74,11 +80,14 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
 
   @Override
   protected TransferableBlock getNextBlock() {
+    if (_isSortOnSender) {
+      return getNextMergedBlock();
+    }
     while (true) { // loop in order to keep asking if we receive data blocks
-      TransferableBlock block = getMultiConsumer().readBlockBlocking();
+      TransferableBlock block = readBlock();
       if (block.isDataBlock()) {
         _rows.addAll(block.getContainer());
-      } else if (block.isErrorBlock()) {
+      } else if (block.isNoOpBlock() || block.isErrorBlock()) {
         return block;
       } else {
         assert block.isSuccessfulEndOfStreamBlock();
@@ -96,6 +105,63 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
     }
   }
 
+  /**
+   * Merges the sorted streams from the mailboxes. A row is emitted only when every mailbox not yet reaching the end of
+   * stream has rows buffered, so the rows are emitted in the sorted order.
+   */
+  private TransferableBlock getNextMergedBlock() {
+    List<? extends AsyncStream<TransferableBlock>> asyncStreams = getAsyncStreams();
+    if (_merger == null) {
+      _merger = new SortedRowsMerger(asyncStreams.size(),
+          new SortUtils.SortComparator(_collationKeys, _collationDirections, _collationNullDirections, _dataSchema,
+              false));
+    }
+    while (true) {
+      // Poll the mailboxes with all the buffered rows merged
+      int numInputs = _merger.getNumInputs();
+      for (int i = 0; i < numInputs && _merger.getNumWaitingInputs() > 0; i++) {
+        while (_merger.isWaiting(i)) {
+          TransferableBlock block = asyncStreams.get(i).poll();
+          if (block == null) {
+            break;
+          }
+          if (block.isErrorBlock()) {
+            return block;
+          }
+          if (block.isSuccessfulEndOfStreamBlock()) {
+            _merger.finish(i);
+          } else if (block.isDataBlock()) {
+            _merger.addRows(i, block.getContainer());
+          }
+        }
+      }
+      List<Object[]> rows = new ArrayList<>();
+      Object[] row;
+      while (rows.size() < MAX_ROWS_PER_MERGED_BLOCK && (row = _merger.poll()) != null) {
+        rows.add(row);
+      }
+      if (!rows.isEmpty()) {
+        return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+      }
+      if (_merger.isFinished()) {
+        return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+      }
+      if (System.currentTimeMillis() > _context.getDeadlineMs()) {
+        return TransferableBlockUtils.getErrorTransferableBlock(QueryException.EXECUTION_TIMEOUT_ERROR);
+      }
+      if (_context.getDataAvailableCallback() != null) {
+        return TransferableBlockUtils.getNoOpTransferableBlock();
+      }
+      try {
+        if (!getMultiConsumer().awaitNewData()) {
+          return TransferableBlockUtils.getErrorTransferableBlock(QueryException.EXECUTION_TIMEOUT_ERROR);
+        }
+      } catch (InterruptedException e) {
+        return TransferableBlockUtils.getErrorTransferableBlock(e);
+      }
+    }
+  }
+
   @Override
   public void close() {
     super.close();
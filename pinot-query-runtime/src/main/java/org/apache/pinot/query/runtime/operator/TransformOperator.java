@@ -80,7 +80,7 @@ public class TransformOperator extends MultiStageOperator {
   @Override
   protected TransferableBlock getNextBlock() {
     TransferableBlock block = _upstreamOperator.nextBlock();
-    if (block.isEndOfStreamBlock()) {
+    if (!block.isDataBlock()) {
       return block;
     }
     List<Object[]> container = block.getContainer();
@@ -26,25 +26,37 @@ import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.WindowNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.join.SpilledJoinPartitions;
 import org.apache.pinot.query.runtime.operator.utils.AggregationUtils;
+import org.apache.pinot.query.runtime.operator.utils.SlidingWindowAggregator;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,13 +68,20 @@ import org.slf4j.LoggerFactory;
  * [input columns, aggregate result1, ... aggregate resultN]
  *
  * The window functions supported today are:
- * Aggregation: SUM/COUNT/MIN/MAX/AVG/BOOL_OR/BOOL_AND aggregations [RANGE window type only]
+ * Aggregation: SUM/COUNT/MIN/MAX/AVG/BOOL_OR/BOOL_AND aggregations [RANGE and ROWS window types]
  * Ranking: ROW_NUMBER [ROWS window type only], RANK, DENSE_RANK [RANGE window type only] ranking functions
  * Value: [none]
  *
  * Unlike the AggregateOperator which will output one row per group, the WindowAggregateOperator
  * will output as many rows as input rows.
  *
+ * For RANGE type frames, the aggregation results are accumulated per PARTITION BY key and ORDER BY key while consuming
+ * the input. For ROWS type frames (e.g. ROWS BETWEEN 5 PRECEDING AND CURRENT ROW), the aggregation results are computed
+ * per partition with a {@link SlidingWindowAggregator}, which takes amortized O(1) time per row regardless of the frame
+ * size. The output is produced one partition at a time in blocks of bounded size. When the buffered rows cannot fit
+ * into the query memory budget with the SPILL overflow mode, the rows are hash partitioned by the PARTITION BY keys
+ * into local temp files, and the window partitions are processed one spilled partition at a time.
+ *
  * For queries using an 'ORDER BY' clause within the 'OVER()', this WindowAggregateOperator expects that the incoming
  * keys are already ordered based on the 'ORDER BY' keys. No ordering is performed in this operator. The planner
  * should handle adding a 'SortExchange' to do the ordering prior to pipelining the data to the upstream operators
@@ -74,13 +93,14 @@ import org.slf4j.LoggerFactory;
  * TODO:
  *     1. Add support for additional rank window functions
  *     2. Add support for value window functions
- *     3. Add support for custom frames (including ROWS support)
+ *     3. Add support for custom RANGE frames
  *     4. Add support for null direction handling (even for PARTITION BY only queries with custom null direction)
  *     5. Add support for multiple window groups (each WindowAggregateOperator should still work on a single group)
  */
 public class WindowAggregateOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "WINDOW";
   private static final Logger LOGGER = LoggerFactory.getLogger(WindowAggregateOperator.class);
+  private static final int MAX_ROWS_PER_BLOCK = 10_000;
 
   // List of window functions which can only be applied as ROWS window frame type
   private static final Set<String> ROWS_ONLY_FUNCTION_NAMES = ImmutableSet.of("ROW_NUMBER");
@@ -94,11 +114,19 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private final List<RexExpression.FunctionCall> _aggCalls;
   private final List<RexExpression> _constants;
   private final DataSchema _resultSchema;
+  private final DataSchema _inputSchema;
   private final WindowAggregateAccumulator[] _windowAccumulators;
   private final Map<Key, List<Object[]>> _partitionRows;
   private final boolean _isPartitionByOnly;
+  private final QueryMemoryBudget _memoryBudget;
+  private final QueryMemoryBudget.RowReservation _memoryReservation;
 
+  // Number of rows buffered in memory
   private int _numRows;
+  private boolean _isInputTrimmed;
+  private SpilledJoinPartitions _spilledPartitions;
+  private Iterator<Map.Entry<Key, List<Object[]>>> _partitionIterator;
+  private int _nextSpilledPartitionId;
   private boolean _hasReturnedWindowAggregateBlock;
 
   public WindowAggregateOperator(OpChainExecutionContext context, MultiStageOperator inputOperator,
@@ -125,15 +153,21 @@ public class WindowAggregateOperator extends MultiStageOperator {
     _orderSetInfo = new OrderSetInfo(orderSet, orderSetDirection, orderSetNullDirection, _isPartitionByOnly);
     _windowFrame = new WindowFrame(lowerBound, upperBound, windowFrameType);
 
-    Preconditions.checkState(_windowFrame.isUnboundedPreceding(),
-        "Only default frame is supported, lowerBound must be UNBOUNDED PRECEDING");
-    Preconditions.checkState(_windowFrame.isUnboundedFollowing() || _windowFrame.isUpperBoundCurrentRow(),
-        "Only default frame is supported, upperBound must be UNBOUNDED FOLLOWING or CURRENT ROW");
+    if (windowFrameType == WindowNode.WindowFrameType.RANGE) {
+      Preconditions.checkState(_windowFrame.isUnboundedPreceding(),
+          "Only default frame is supported, lowerBound must be UNBOUNDED PRECEDING");
+      Preconditions.checkState(_windowFrame.isUnboundedFollowing() || _windowFrame.isUpperBoundCurrentRow(),
+          "Only default frame is supported, upperBound must be UNBOUNDED FOLLOWING or CURRENT ROW");
+    } else {
+      Preconditions.checkState(lowerBound != Integer.MAX_VALUE && upperBound != Integer.MIN_VALUE,
+          "Invalid ROWS frame, lowerBound cannot be UNBOUNDED FOLLOWING and upperBound cannot be UNBOUNDED PRECEDING");
+    }
 
     // we expect all agg calls to be aggregate function calls
     _aggCalls = aggCalls.stream().map(RexExpression.FunctionCall.class::cast).collect(Collectors.toList());
     _constants = constants;
     _resultSchema = resultSchema;
+    _inputSchema = inputSchema;
 
     _windowAccumulators = new WindowAggregateAccumulator[_aggCalls.size()];
     int aggCallsSize = _aggCalls.size();
@@ -145,6 +179,8 @@ public class WindowAggregateOperator extends MultiStageOperator {
     }
 
     _partitionRows = new HashMap<>();
+    _memoryBudget = context.getMemoryBudget();
+    _memoryReservation = _memoryBudget != null ? _memoryBudget.newRowReservation(inputSchema) : null;
 
     _numRows = 0;
     _hasReturnedWindowAggregateBlock = false;
@@ -162,17 +198,46 @@ public class WindowAggregateOperator extends MultiStageOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  protected TransferableBlock getNextBlock()
+      throws ProcessingException {
     if (_hasReturnedWindowAggregateBlock) {
       return TransferableBlockUtils.getEndOfStreamTransferableBlock();
     }
-    TransferableBlock finalBlock = consumeInputBlocks();
-    if (finalBlock.isErrorBlock()) {
-      return finalBlock;
+    if (_partitionIterator == null) {
+      TransferableBlock finalBlock = consumeInputBlocks();
+      if (finalBlock.isErrorBlock() || finalBlock.isNoOpBlock()) {
+        return finalBlock;
+      }
+      if (_spilledPartitions != null) {
+        _spilledPartitions.finishWriting();
+      }
+      _partitionIterator = _partitionRows.entrySet().iterator();
     }
     return produceWindowAggregatedBlock();
   }
 
+  @Override
+  public void close() {
+    releaseResources();
+    super.close();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    releaseResources();
+    super.cancel(e);
+  }
+
+  private void releaseResources() {
+    if (_spilledPartitions != null) {
+      _spilledPartitions.close();
+      _spilledPartitions = null;
+    }
+    if (_memoryReservation != null) {
+      _memoryReservation.release(0);
+    }
+  }
+
   private void validateAggregationCalls(String functionName,
       Map<String, Function<ColumnDataType, AggregationUtils.Merger>> mergers) {
     if (!mergers.containsKey(functionName)) {
@@ -183,7 +248,7 @@ public class WindowAggregateOperator extends MultiStageOperator {
       Preconditions.checkState(
           _windowFrame.getWindowFrameType() == WindowNode.WindowFrameType.ROWS && _windowFrame.isUpperBoundCurrentRow(),
           String.format("%s must be of ROW frame type and have CURRENT ROW as the upper bound", functionName));
-    } else {
+    } else if (RANKING_FUNCTION_NAMES.contains(functionName)) {
       Preconditions.checkState(_windowFrame.getWindowFrameType() == WindowNode.WindowFrameType.RANGE,
           String.format("Only RANGE type frames are supported at present for function: %s", functionName));
     }
@@ -209,81 +274,115 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return partitionByInputRefIndexes.equals(orderByInputRefIndexes);
   }
 
+  /**
+   * Produces the output rows one partition at a time, until the block is full. The spilled partitions are loaded after
+   * all the in-memory partitions are processed.
+   */
   private TransferableBlock produceWindowAggregatedBlock() {
-    Key emptyOrderKey = AggregationUtils.extractEmptyKey();
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < MAX_ROWS_PER_BLOCK) {
+      if (!_partitionIterator.hasNext()) {
+        if (!loadNextSpilledPartition()) {
+          break;
+        }
+        continue;
+      }
+      Map.Entry<Key, List<Object[]>> entry = _partitionIterator.next();
+      // Release the partition rows once processed
+      _partitionIterator.remove();
+      addPartitionResults(entry.getKey(), entry.getValue(), rows);
+    }
+    if (rows.isEmpty()) {
+      _hasReturnedWindowAggregateBlock = true;
+      releaseResources();
+      return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+    } else {
+      return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+    }
+  }
+
+  private void addPartitionResults(Key partitionKey, List<Object[]> partitionRows, List<Object[]> rows) {
     ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
-    List<Object[]> rows = new ArrayList<>(_numRows);
+    int numAggCalls = _aggCalls.size();
     if (_windowFrame.getWindowFrameType() == WindowNode.WindowFrameType.RANGE) {
-      // All aggregation window functions only support RANGE type today (SUM/AVG/MIN/MAX/COUNT/BOOL_AND/BOOL_OR)
+      // All aggregation window functions support RANGE type (SUM/AVG/MIN/MAX/COUNT/BOOL_AND/BOOL_OR)
       // RANK and DENSE_RANK ranking window functions also only support RANGE type today
-      for (Map.Entry<Key, List<Object[]>> e : _partitionRows.entrySet()) {
-        Key partitionKey = e.getKey();
-        List<Object[]> rowList = e.getValue();
-        for (Object[] existingRow : rowList) {
-          Object[] row = new Object[existingRow.length + _aggCalls.size()];
-          Key orderKey = (_isPartitionByOnly && CollectionUtils.isEmpty(_orderSetInfo.getOrderSet())) ? emptyOrderKey
-              : AggregationUtils.extractRowKey(existingRow, _orderSetInfo.getOrderSet());
-          System.arraycopy(existingRow, 0, row, 0, existingRow.length);
-          for (int i = 0; i < _windowAccumulators.length; i++) {
-            row[i + existingRow.length] = _windowAccumulators[i].getRangeResultForKeys(partitionKey, orderKey);
-          }
-          // Convert the results from Accumulator to the desired type
-          TypeUtils.convertRow(row, resultStoredTypes);
-          rows.add(row);
+      Key emptyOrderKey = AggregationUtils.extractEmptyKey();
+      for (Object[] existingRow : partitionRows) {
+        Object[] row = new Object[existingRow.length + numAggCalls];
+        Key orderKey = (_isPartitionByOnly && CollectionUtils.isEmpty(_orderSetInfo.getOrderSet())) ? emptyOrderKey
+            : AggregationUtils.extractRowKey(existingRow, _orderSetInfo.getOrderSet());
+        System.arraycopy(existingRow, 0, row, 0, existingRow.length);
+        for (int i = 0; i < numAggCalls; i++) {
+          row[i + existingRow.length] = _windowAccumulators[i].getRangeResultForKeys(partitionKey, orderKey);
         }
+        // Convert the results from Accumulator to the desired type
+        TypeUtils.convertRow(row, resultStoredTypes);
+        rows.add(row);
       }
     } else {
-      // Only ROW_NUMBER() window function is supported as ROWS type today
-      Key previousPartitionKey = null;
-      Object[] previousRowValues = new Object[_windowAccumulators.length];
-      for (int i = 0; i < _windowAccumulators.length; i++) {
-        previousRowValues[i] = null;
+      // ROWS type frame results depend on the position of the rows within the partition
+      Object[][] results = new Object[numAggCalls][];
+      for (int i = 0; i < numAggCalls; i++) {
+        results[i] = _windowAccumulators[i].computeRowsFrameResults(partitionKey, partitionRows,
+            _windowFrame.getLowerBound(), _windowFrame.getUpperBound());
       }
-      for (Map.Entry<Key, List<Object[]>> e : _partitionRows.entrySet()) {
-        Key partitionKey = e.getKey();
-        List<Object[]> rowList = e.getValue();
-        for (Object[] existingRow : rowList) {
-          Object[] row = new Object[existingRow.length + _aggCalls.size()];
-          System.arraycopy(existingRow, 0, row, 0, existingRow.length);
-          for (int i = 0; i < _windowAccumulators.length; i++) {
-            row[i + existingRow.length] =
-                _windowAccumulators[i].computeRowResultForCurrentRow(partitionKey, previousPartitionKey, row,
-                    previousRowValues[i]);
-            previousRowValues[i] = row[i + existingRow.length];
-          }
-          // Convert the results from Accumulator to the desired type
-          TypeUtils.convertRow(row, resultStoredTypes);
-          rows.add(row);
-          previousPartitionKey = partitionKey;
+      int numRows = partitionRows.size();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object[] existingRow = partitionRows.get(rowId);
+        Object[] row = new Object[existingRow.length + numAggCalls];
+        System.arraycopy(existingRow, 0, row, 0, existingRow.length);
+        for (int i = 0; i < numAggCalls; i++) {
+          row[i + existingRow.length] = results[i][rowId];
         }
+        // Convert the results from Accumulator to the desired type
+        TypeUtils.convertRow(row, resultStoredTypes);
+        rows.add(row);
       }
     }
-    _hasReturnedWindowAggregateBlock = true;
-    if (rows.size() == 0) {
-      return TransferableBlockUtils.getEndOfStreamTransferableBlock();
-    } else {
-      return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+  }
+
+  /**
+   * Loads the rows of the next spilled partition grouped by the PARTITION BY keys, and returns {@code false} when there
+   * are no more spilled partitions.
+   */
+  private boolean loadNextSpilledPartition() {
+    if (_spilledPartitions == null || _nextSpilledPartitionId == SpilledJoinPartitions.NUM_PARTITIONS) {
+      return false;
     }
+    Map<Key, List<Object[]>> partitionRows = new LinkedHashMap<>();
+    SpilledJoinPartitions.PartitionReader reader = _spilledPartitions.openPartition(_nextSpilledPartitionId++);
+    DataBlock dataBlock;
+    while ((dataBlock = reader.nextBlock()) != null) {
+      for (Object[] row : DataBlockExtractUtils.extractRows(dataBlock)) {
+        partitionRows.computeIfAbsent(AggregationUtils.extractRowKey(row, _groupSet), k -> new ArrayList<>()).add(row);
+      }
+    }
+    _partitionIterator = partitionRows.entrySet().iterator();
+    return true;
   }
 
   /**
    * @return the final block, which must be either an end of stream or an error.
    */
-  private TransferableBlock consumeInputBlocks() {
+  private TransferableBlock consumeInputBlocks()
+      throws ProcessingException {
     Key emptyOrderKey = AggregationUtils.extractEmptyKey();
     TransferableBlock block = _inputOperator.nextBlock();
-    while (!TransferableBlockUtils.isEndOfStream(block)) {
+    while (block.isDataBlock()) {
+      if (_isInputTrimmed) {
+        // Drop the remaining rows after hitting the memory budget with the TRIM overflow mode
+        block = _inputOperator.nextBlock();
+        continue;
+      }
       List<Object[]> container = block.getContainer();
-      if (_windowFrame.getWindowFrameType() == WindowNode.WindowFrameType.RANGE) {
-        // Only need to accumulate the aggregate function values for RANGE type. ROW type can be calculated as
-        // we output the rows since the aggregation value depends on the neighboring rows.
-        for (Object[] row : container) {
-          _numRows++;
-          // TODO: Revisit null direction handling for all query types
-          Key key = AggregationUtils.extractRowKey(row, _groupSet);
-          _partitionRows.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
-          // Only need to accumulate the aggregate function values for RANGE type. ROW type can be calculated as
-          // we output the rows since the aggregation value depends on the neighboring rows.
+      for (Object[] row : container) {
+        // TODO: Revisit null direction handling for all query types
+        Key key = AggregationUtils.extractRowKey(row, _groupSet);
+        addRow(key, row);
+        if (_windowFrame.getWindowFrameType() == WindowNode.WindowFrameType.RANGE) {
+          // Only need to accumulate the aggregate function values for RANGE type. ROWS type is calculated as we output
+          // the rows since the aggregation value depends on the neighboring rows.
           Key orderKey = (_isPartitionByOnly && CollectionUtils.isEmpty(_orderSetInfo.getOrderSet())) ? emptyOrderKey
               : AggregationUtils.extractRowKey(row, _orderSetInfo.getOrderSet());
           int aggCallsSize = _aggCalls.size();
@@ -291,19 +390,59 @@ public class WindowAggregateOperator extends MultiStageOperator {
             _windowAccumulators[i].accumulateRangeResults(key, orderKey, row);
           }
         }
-      } else {
-        for (Object[] row : container) {
-          _numRows++;
-          // TODO: Revisit null direction handling for all query types
-          Key key = AggregationUtils.extractRowKey(row, _groupSet);
-          _partitionRows.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
-        }
+      }
+      if (_memoryReservation != null && !_memoryReservation.reserve(_numRows)) {
+        handleMemoryOverflow();
       }
       block = _inputOperator.nextBlock();
     }
     return block;
   }
 
+  private void addRow(Key key, Object[] row) {
+    if (_spilledPartitions != null) {
+      _spilledPartitions.addRow(SpilledJoinPartitions.getPartitionId(key.hashCode()), row);
+    } else {
+      _partitionRows.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+      _numRows++;
+    }
+  }
+
+  private void handleMemoryOverflow()
+      throws ProcessingException {
+    MemoryOverflowMode overflowMode = _memoryBudget.getOverflowMode();
+    if (overflowMode == MemoryOverflowMode.THROW) {
+      ProcessingException resourceLimitExceededException =
+          new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+      resourceLimitExceededException.setMessage(
+          "Cannot buffer the window partitions in memory for window operator, reach query memory budget: "
+              + _memoryBudget.getMaxBytes() + " bytes");
+      throw resourceLimitExceededException;
+    }
+    if (overflowMode == MemoryOverflowMode.SPILL) {
+      // Spill the buffered rows in the order of arrival within each partition, and spill all the following rows
+      _spilledPartitions = new SpilledJoinPartitions(FileUtils.getTempDirectory(), _inputSchema);
+      for (Map.Entry<Key, List<Object[]>> entry : _partitionRows.entrySet()) {
+        int partitionId = SpilledJoinPartitions.getPartitionId(entry.getKey().hashCode());
+        for (Object[] row : entry.getValue()) {
+          _spilledPartitions.addRow(partitionId, row);
+        }
+      }
+      _partitionRows.clear();
+      _numRows = 0;
+      _memoryReservation.release(0);
+      LOGGER.debug("Spilling the window partitions to disk - operatorId={}, opChainId={}", _operatorId,
+          _context.getId());
+      return;
+    }
+    // Keep the buffered rows and drop the following rows
+    _memoryBudget.onExceeded(EXPLAIN_NAME);
+    _isInputTrimmed = true;
+    _inputOperator.earlyTerminate();
+    OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
+    operatorStats.recordSingleStat(DataTable.MetadataKey.MEMORY_BUDGET_EXCEEDED.getName(), overflowMode.name());
+  }
+
   /**
    * Contains all the ORDER BY key related information such as the keys, direction, and null direction
    */
@@ -435,6 +574,10 @@ public class WindowAggregateOperator extends MultiStageOperator {
 
     private final boolean _isPartitionByOnly;
     private final boolean _isRankingWindowFunction;
+    private final boolean _isRowNumber;
+    private final boolean _isCount;
+    // Result for the empty ROWS type frames (e.g. 1 PRECEDING for the first row of the partition)
+    private final Object _emptyFrameResult;
 
     // Fields needed only for RANGE frame type queries (ORDER BY)
     private final Map<Key, OrderKeyResult> _orderByResults = new HashMap<>();
@@ -445,6 +588,36 @@ public class WindowAggregateOperator extends MultiStageOperator {
       super(aggCall, merger, functionName, inputSchema);
       _isPartitionByOnly = CollectionUtils.isEmpty(orderSetInfo.getOrderSet()) || orderSetInfo.isPartitionByOnly();
       _isRankingWindowFunction = RANKING_FUNCTION_NAMES.contains(functionName);
+      _isRowNumber = ROWS_ONLY_FUNCTION_NAMES.contains(functionName);
+      _isCount = functionName.equals("COUNT");
+      _emptyFrameResult = _isCount ? (Object) 0L : functionName.equals("$SUM0") ? (Object) 0.0 : null;
+    }
+
+    /**
+     * For ROWS type queries, computes the function values over the frame [lowerBound, upperBound] (relative to the
+     * current row) for all the rows of the given partition.
+     * <p>The values of the single rows are combined with the merger, where the merger should accept the partial
+     * aggregate as the value, except for COUNT whose partial aggregates are summed up.
+     */
+    public Object[] computeRowsFrameResults(Key partitionKey, List<Object[]> rows, int lowerBound, int upperBound) {
+      int numRows = rows.size();
+      if (_isRowNumber) {
+        // ROW_NUMBER does not depend on the frame
+        Object[] results = new Object[numRows];
+        Object previousValue = null;
+        for (int i = 0; i < numRows; i++) {
+          previousValue =
+              computeRowResultForCurrentRow(partitionKey, i == 0 ? null : partitionKey, rows.get(i), previousValue);
+          results[i] = previousValue;
+        }
+        return results;
+      }
+      Object[] values = new Object[numRows];
+      for (int i = 0; i < numRows; i++) {
+        values[i] = _merger.init(_inputRef == -1 ? _literal : rows.get(i)[_inputRef], _dataType);
+      }
+      BinaryOperator<Object> combiner = _isCount ? (left, right) -> (long) left + (long) right : _merger::merge;
+      return new SlidingWindowAggregator(combiner, _emptyFrameResult).aggregate(values, lowerBound, upperBound);
     }
 
     /**
@@ -28,6 +28,7 @@ import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.OperatorStats;
 
 
 /**
@@ -43,13 +44,23 @@ public abstract class BlockExchange {
 
   public static BlockExchange getExchange(List<SendingMailbox> sendingMailboxes, RelDistribution.Type distributionType,
       @Nullable List<Integer> distributionKeys, BlockSplitter splitter) {
+    return getExchange(sendingMailboxes, distributionType, distributionKeys, splitter, false);
+  }
+
+  /**
+   * Returns the exchange for the given distribution type. {@code splitHotKeys} only applies to the hash distribution,
+   * where the rows of the hot keys are distributed across all the receivers.
+   */
+  public static BlockExchange getExchange(List<SendingMailbox> sendingMailboxes, RelDistribution.Type distributionType,
+      @Nullable List<Integer> distributionKeys, BlockSplitter splitter, boolean splitHotKeys) {
     switch (distributionType) {
       case SINGLETON:
         return new SingletonExchange(sendingMailboxes, splitter);
       case HASH_DISTRIBUTED:
         Preconditions.checkArgument(distributionKeys != null,
             "Distribution keys must be provided for hash distribution");
-        return new HashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(distributionKeys), splitter);
+        return new HashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(distributionKeys), splitter,
+            splitHotKeys);
       case RANDOM_DISTRIBUTED:
         return new RandomExchange(sendingMailboxes, splitter);
       case BROADCAST_DISTRIBUTED:
@@ -113,6 +124,13 @@ public abstract class BlockExchange {
   protected abstract void route(List<SendingMailbox> destinations, TransferableBlock block)
       throws Exception;
 
+  /**
+   * Records the exchange specific stats (e.g. the skew of the hash exchange) into the stats of the sending operator
+   * before the end-of-stream block is sent.
+   */
+  public void recordStats(OperatorStats operatorStats) {
+  }
+
   // Called when the OpChain gracefully returns.
   // TODO: This is a no-op right now.
   public void close() {
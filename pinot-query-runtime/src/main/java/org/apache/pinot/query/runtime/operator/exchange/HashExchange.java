@@ -20,24 +20,40 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.OperatorStats;
 
 
 /**
  * Distributes blocks based on the hash of a key, selected by the specified
  * {@code keySelector}. This will redistribute rows from input blocks (breaking
  * them up if necessary).
+ * <p>The key frequencies are sampled by the {@link HotKeyDetector} to report the skew of the exchange. When
+ * {@code splitHotKeys} is enabled, the rows of the detected hot keys are distributed in a round-robin fashion across
+ * all the receivers instead of overloading a single receiver, which is only correct when the receivers can combine the
+ * rows of the same key afterwards (e.g. intermediate aggregation followed by another hash exchange).
  */
 class HashExchange extends BlockExchange {
   private final KeySelector<?> _keySelector;
+  private final boolean _splitHotKeys;
+  private final HotKeyDetector _hotKeyDetector;
+  private int _nextHotKeyMailboxId;
 
   HashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector, BlockSplitter splitter) {
+    this(sendingMailboxes, keySelector, splitter, false);
+  }
+
+  HashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector, BlockSplitter splitter,
+      boolean splitHotKeys) {
     super(sendingMailboxes, splitter);
     _keySelector = keySelector;
+    _splitHotKeys = splitHotKeys;
+    _hotKeyDetector = new HotKeyDetector(sendingMailboxes.size());
   }
 
   @Override
@@ -56,14 +72,31 @@ class HashExchange extends BlockExchange {
     }
     List<Object[]> rows = block.getContainer();
     for (Object[] row : rows) {
-      int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+      int hash = _keySelector.computeHash(row);
+      int mailboxId;
+      if (_hotKeyDetector.recordRow(hash) && _splitHotKeys) {
+        mailboxId = _nextHotKeyMailboxId;
+        _nextHotKeyMailboxId = (_nextHotKeyMailboxId + 1) % numMailboxes;
+      } else {
+        mailboxId = hash % numMailboxes;
+      }
       mailboxIdToRowsMap[mailboxId].add(row);
     }
+    _hotKeyDetector.refreshHotKeys();
     for (int i = 0; i < numMailboxes; i++) {
       if (!mailboxIdToRowsMap[i].isEmpty()) {
+        _hotKeyDetector.recordRouted(i, mailboxIdToRowsMap[i].size());
         sendBlock(destinations.get(i),
             new TransferableBlock(mailboxIdToRowsMap[i], block.getDataSchema(), block.getType()));
       }
     }
   }
+
+  @Override
+  public void recordStats(OperatorStats operatorStats) {
+    operatorStats.recordSingleStat(DataTable.MetadataKey.NUM_HOT_KEYS.getName(),
+        Integer.toString(_hotKeyDetector.getNumHotKeys()));
+    operatorStats.recordSingleStat(DataTable.MetadataKey.EXCHANGE_SKEW_RATIO.getName(),
+        Double.toString(Math.round(_hotKeyDetector.getSkewRatio() * 100) / 100.0));
+  }
 }
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.exchange;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+
+/**
+ * The {@code HotKeyDetector} estimates the frequencies of the keys routed by the {@link HashExchange} to detect the hot
+ * keys (heavy hitters), and tracks the number of rows routed to each receiver to measure the skew of the exchange.
+ * <p>The keys are identified by their hash, and the frequencies are estimated with the Space-Saving algorithm over a
+ * sample of the rows. A key is hot when its guaranteed frequency reaches half of the fair share of a receiver (i.e.
+ * {@code 1 / (2 * numReceivers)} of the sampled rows), after a minimum number of rows are sampled.
+ * <p>This class is not thread safe.
+ */
+class HotKeyDetector {
+  // Sample 1 of every SAMPLING_INTERVAL rows
+  static final int SAMPLING_INTERVAL = 16;
+  static final int NUM_COUNTERS = 64;
+  static final int MIN_SAMPLED_ROWS = 256;
+
+  private final int _numReceivers;
+  private final long[] _numRowsPerReceiver;
+  // Space-Saving counters: key hash, count and over-estimation error of the count
+  private final int[] _keyHashes = new int[NUM_COUNTERS];
+  private final long[] _counts = new long[NUM_COUNTERS];
+  private final long[] _errors = new long[NUM_COUNTERS];
+  private int _numCounters;
+  private long _numSampledRows;
+  private long _numRowsSinceLastSample;
+
+  private IntSet _hotKeyHashes = new IntOpenHashSet();
+  private final IntSet _detectedHotKeyHashes = new IntOpenHashSet();
+
+  HotKeyDetector(int numReceivers) {
+    _numReceivers = numReceivers;
+    _numRowsPerReceiver = new long[numReceivers];
+  }
+
+  /**
+   * Records a row with the given key hash, and returns whether the key is currently hot.
+   */
+  boolean recordRow(int keyHash) {
+    if (++_numRowsSinceLastSample == SAMPLING_INTERVAL) {
+      _numRowsSinceLastSample = 0;
+      sample(keyHash);
+    }
+    return !_hotKeyHashes.isEmpty() && _hotKeyHashes.contains(keyHash);
+  }
+
+  /**
+   * Records the rows routed to the given receiver.
+   */
+  void recordRouted(int receiverId, int numRows) {
+    _numRowsPerReceiver[receiverId] += numRows;
+  }
+
+  private void sample(int keyHash) {
+    _numSampledRows++;
+    int minIndex = 0;
+    for (int i = 0; i < _numCounters; i++) {
+      if (_keyHashes[i] == keyHash) {
+        _counts[i]++;
+        return;
+      }
+      if (_counts[i] < _counts[minIndex]) {
+        minIndex = i;
+      }
+    }
+    if (_numCounters < NUM_COUNTERS) {
+      _keyHashes[_numCounters] = keyHash;
+      _counts[_numCounters] = 1;
+      _errors[_numCounters] = 0;
+      _numCounters++;
+    } else {
+      // Replace the key with the minimum count, which over-estimates the count of the new key by at most the minimum
+      _keyHashes[minIndex] = keyHash;
+      _errors[minIndex] = _counts[minIndex];
+      _counts[minIndex]++;
+    }
+  }
+
+  /**
+   * Refreshes the hot keys based on the sampled rows so far. Should be called periodically (e.g. once per block) to
+   * keep {@link #recordRow(int)} cheap.
+   */
+  void refreshHotKeys() {
+    if (_numSampledRows < MIN_SAMPLED_ROWS) {
+      return;
+    }
+    IntSet hotKeyHashes = new IntOpenHashSet();
+    long threshold = Math.max(_numSampledRows / (2L * _numReceivers), 1);
+    for (int i = 0; i < _numCounters; i++) {
+      if (_counts[i] - _errors[i] >= threshold) {
+        hotKeyHashes.add(_keyHashes[i]);
+      }
+    }
+    _hotKeyHashes = hotKeyHashes;
+    _detectedHotKeyHashes.addAll(hotKeyHashes);
+  }
+
+  /**
+   * Returns the number of distinct hot keys detected so far.
+   */
+  int getNumHotKeys() {
+    return _detectedHotKeyHashes.size();
+  }
+
+  /**
+   * Returns the ratio of the maximum number of rows routed to a receiver over the average, where 1 means the rows are
+   * evenly distributed.
+   */
+  double getSkewRatio() {
+    long numRows = 0;
+    long maxNumRows = 0;
+    for (long numRowsPerReceiver : _numRowsPerReceiver) {
+      numRows += numRowsPerReceiver;
+      maxNumRows = Math.max(maxNumRows, numRowsPerReceiver);
+    }
+    return numRows > 0 ? (double) maxNumRows * _numReceivers / numRows : 1;
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code IntKeyJoinHashTable} is the {@link JoinHashTable} for single INT join key, where the keys are stored as
+ * primitive int without boxing.
+ */
+public class IntKeyJoinHashTable extends JoinHashTable {
+  private final int _keyId;
+  private final Int2IntOpenHashMap _keyToGroupIdMap = new Int2IntOpenHashMap();
+  private int _nullKeyGroupId = INVALID_ID;
+  private int _numGroups;
+
+  public IntKeyJoinHashTable(int keyId, ColumnDataType[] storedTypes) {
+    super(new int[]{keyId}, storedTypes);
+    _keyId = keyId;
+    _keyToGroupIdMap.defaultReturnValue(INVALID_ID);
+  }
+
+  @Override
+  protected int[] getOrCreateGroupIds(List<Object[]> rows, int numRows) {
+    int[] groupIds = new int[numRows];
+    for (int i = 0; i < numRows; i++) {
+      Object key = rows.get(i)[_keyId];
+      groupIds[i] = key != null ? getOrCreateGroupId(((Number) key).intValue()) : getOrCreateNullKeyGroupId();
+    }
+    return groupIds;
+  }
+
+  @Override
+  protected int[] getOrCreateGroupIds(DataBlock dataBlock, int numRows) {
+    RoaringBitmap nullBitmap = dataBlock.getNullRowIds(_keyId);
+    int[] keys = DataBlockExtractUtils.extractIntColumn(DataType.INT, dataBlock, _keyId, nullBitmap);
+    int[] groupIds = new int[numRows];
+    for (int i = 0; i < numRows; i++) {
+      groupIds[i] = nullBitmap == null || !nullBitmap.contains(i) ? getOrCreateGroupId(keys[i])
+          : getOrCreateNullKeyGroupId();
+    }
+    return groupIds;
+  }
+
+  private int getOrCreateGroupId(int key) {
+    int groupId = _keyToGroupIdMap.get(key);
+    if (groupId == INVALID_ID) {
+      groupId = _numGroups++;
+      _keyToGroupIdMap.put(key, groupId);
+    }
+    return groupId;
+  }
+
+  private int getOrCreateNullKeyGroupId() {
+    if (_nullKeyGroupId == INVALID_ID) {
+      _nullKeyGroupId = _numGroups++;
+    }
+    return _nullKeyGroupId;
+  }
+
+  @Override
+  public int getGroupId(@Nullable Object key) {
+    return key != null ? _keyToGroupIdMap.get(((Number) key).intValue()) : _nullKeyGroupId;
+  }
+}
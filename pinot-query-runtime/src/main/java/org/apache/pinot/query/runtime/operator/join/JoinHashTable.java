@@ -0,0 +1,362 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code JoinHashTable} is the hash table built on the right table of the hash join.
+ * <p>The right rows are stored in columnar primitive arrays (for INT, LONG, FLOAT and DOUBLE stored types) or object
+ * arrays (for other stored types), and are assigned with consecutive row ids. Rows with the same join key are put into
+ * the same group, where the rows of a group are linked in the insertion order via the next row ids. The mapping from
+ * the join key to the group id is specialized by the key type in the sub-classes to avoid boxing the keys.
+ * <p>The rows can be added directly from the {@link DataBlock} without converting it into rows. Only the rows joined
+ * with the left rows are materialized via {@link #fillRow(int, Object[], int)}.
+ * <p>NOTE: {@code null} key is handled as a regular key, which is consistent with the {@link java.util.HashMap} based
+ * implementation.
+ * <p>This class is not thread safe.
+ */
+public abstract class JoinHashTable {
+  public static final int INVALID_ID = -1;
+
+  // Estimated overhead of the next row id and the key mapping entry for each row
+  private static final long ROW_OVERHEAD_BYTES = 16;
+  private static final long REFERENCE_BYTES = 8;
+
+  protected final int[] _keyIds;
+  private final ColumnDataType[] _storedTypes;
+  private final List<?>[] _columns;
+  private final RoaringBitmap[] _nullBitmaps;
+
+  // Object columns extracted from the data block being added, which can be shared by the keys and the stored columns
+  private final Map<Integer, Object[]> _extractedColumns = new HashMap<>();
+
+  private final IntArrayList _nextRowIds = new IntArrayList();
+  private final IntArrayList _groupHeadRowIds = new IntArrayList();
+  private final IntArrayList _groupTailRowIds = new IntArrayList();
+  private int _numRows;
+
+  /**
+   * @param keyIds Ids of the key columns in the right table
+   * @param storedTypes Stored types of the right columns to be kept, empty if only the keys are needed (e.g. for SEMI
+   *                    and ANTI join)
+   */
+  protected JoinHashTable(int[] keyIds, ColumnDataType[] storedTypes) {
+    _keyIds = keyIds;
+    _storedTypes = storedTypes;
+    int numColumns = storedTypes.length;
+    _columns = new List[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      switch (storedTypes[i]) {
+        case INT:
+          _columns[i] = new IntArrayList();
+          break;
+        case LONG:
+          _columns[i] = new LongArrayList();
+          break;
+        case FLOAT:
+          _columns[i] = new FloatArrayList();
+          break;
+        case DOUBLE:
+          _columns[i] = new DoubleArrayList();
+          break;
+        default:
+          _columns[i] = new ObjectArrayList<>();
+          break;
+      }
+    }
+    _nullBitmaps = new RoaringBitmap[numColumns];
+  }
+
+  /**
+   * Returns the number of rows in the hash table.
+   */
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  /**
+   * Returns the number of distinct keys in the hash table.
+   */
+  public int getNumGroups() {
+    return _groupHeadRowIds.size();
+  }
+
+  /**
+   * Adds the first {@code numRows} rows of the given block into the hash table.
+   */
+  public void addBlock(TransferableBlock block, int numRows) {
+    if (numRows == 0) {
+      return;
+    }
+    int[] groupIds;
+    if (block.isContainerConstructed()) {
+      List<Object[]> rows = block.getContainer();
+      groupIds = getOrCreateGroupIds(rows, numRows);
+      addColumns(rows, numRows);
+    } else {
+      DataBlock dataBlock = block.getDataBlock();
+      groupIds = getOrCreateGroupIds(dataBlock, numRows);
+      addColumns(dataBlock, numRows);
+      _extractedColumns.clear();
+    }
+    for (int i = 0; i < numRows; i++) {
+      int rowId = _numRows++;
+      _nextRowIds.add(INVALID_ID);
+      int groupId = groupIds[i];
+      if (groupId == _groupHeadRowIds.size()) {
+        _groupHeadRowIds.add(rowId);
+        _groupTailRowIds.add(rowId);
+      } else {
+        _nextRowIds.set(_groupTailRowIds.getInt(groupId), rowId);
+        _groupTailRowIds.set(groupId, rowId);
+      }
+    }
+  }
+
+  /**
+   * Returns the group ids of the keys of the given rows. The group id of a new key should be the next group id.
+   */
+  protected abstract int[] getOrCreateGroupIds(List<Object[]> rows, int numRows);
+
+  /**
+   * Returns the group ids of the keys of the given data block. The group id of a new key should be the next group id.
+   */
+  protected abstract int[] getOrCreateGroupIds(DataBlock dataBlock, int numRows);
+
+  /**
+   * Extracts the values of the given column from the data block being added. The extracted values are cached so that
+   * the column is extracted only once when it is used as both the key and the stored column.
+   */
+  protected Object[] extractColumn(DataBlock dataBlock, int colId) {
+    return _extractedColumns.computeIfAbsent(colId, k -> DataBlockExtractUtils.extractColumn(dataBlock, colId));
+  }
+
+  /**
+   * Returns the group id of the given key (extracted from the left row), or {@link #INVALID_ID} if the key does not
+   * exist.
+   */
+  public abstract int getGroupId(@Nullable Object key);
+
+  /**
+   * Returns the id of the first row of the given group.
+   */
+  public int getFirstRowId(int groupId) {
+    return _groupHeadRowIds.getInt(groupId);
+  }
+
+  /**
+   * Returns the id of the next row of the same group, or {@link #INVALID_ID} if the given row is the last row.
+   */
+  public int getNextRowId(int rowId) {
+    return _nextRowIds.getInt(rowId);
+  }
+
+  /**
+   * Fills the values of the given row into the given row array starting from the given offset.
+   */
+  public void fillRow(int rowId, Object[] row, int offset) {
+    int numColumns = _columns.length;
+    for (int i = 0; i < numColumns; i++) {
+      RoaringBitmap nullBitmap = _nullBitmaps[i];
+      if (nullBitmap != null && nullBitmap.contains(rowId)) {
+        continue;
+      }
+      switch (_storedTypes[i]) {
+        case INT:
+          row[offset + i] = ((IntArrayList) _columns[i]).getInt(rowId);
+          break;
+        case LONG:
+          row[offset + i] = ((LongArrayList) _columns[i]).getLong(rowId);
+          break;
+        case FLOAT:
+          row[offset + i] = ((FloatArrayList) _columns[i]).getFloat(rowId);
+          break;
+        case DOUBLE:
+          row[offset + i] = ((DoubleArrayList) _columns[i]).getDouble(rowId);
+          break;
+        default:
+          row[offset + i] = _columns[i].get(rowId);
+          break;
+      }
+    }
+  }
+
+  private void addColumns(List<Object[]> rows, int numRows) {
+    int numColumns = _columns.length;
+    for (int i = 0; i < numColumns; i++) {
+      switch (_storedTypes[i]) {
+        case INT: {
+          IntArrayList column = (IntArrayList) _columns[i];
+          for (int j = 0; j < numRows; j++) {
+            Object value = rows.get(j)[i];
+            if (value != null) {
+              column.add(((Number) value).intValue());
+            } else {
+              column.add(0);
+              addNull(i, _numRows + j);
+            }
+          }
+          break;
+        }
+        case LONG: {
+          LongArrayList column = (LongArrayList) _columns[i];
+          for (int j = 0; j < numRows; j++) {
+            Object value = rows.get(j)[i];
+            if (value != null) {
+              column.add(((Number) value).longValue());
+            } else {
+              column.add(0L);
+              addNull(i, _numRows + j);
+            }
+          }
+          break;
+        }
+        case FLOAT: {
+          FloatArrayList column = (FloatArrayList) _columns[i];
+          for (int j = 0; j < numRows; j++) {
+            Object value = rows.get(j)[i];
+            if (value != null) {
+              column.add(((Number) value).floatValue());
+            } else {
+              column.add(0f);
+              addNull(i, _numRows + j);
+            }
+          }
+          break;
+        }
+        case DOUBLE: {
+          DoubleArrayList column = (DoubleArrayList) _columns[i];
+          for (int j = 0; j < numRows; j++) {
+            Object value = rows.get(j)[i];
+            if (value != null) {
+              column.add(((Number) value).doubleValue());
+            } else {
+              column.add(0d);
+              addNull(i, _numRows + j);
+            }
+          }
+          break;
+        }
+        default: {
+          @SuppressWarnings("unchecked")
+          ObjectArrayList<Object> column = (ObjectArrayList<Object>) _columns[i];
+          for (int j = 0; j < numRows; j++) {
+            column.add(rows.get(j)[i]);
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  private void addColumns(DataBlock dataBlock, int numRows) {
+    int numColumns = _columns.length;
+    for (int i = 0; i < numColumns; i++) {
+      RoaringBitmap nullBitmap = dataBlock.getNullRowIds(i);
+      switch (_storedTypes[i]) {
+        case INT:
+          ((IntArrayList) _columns[i]).addElements(_numRows,
+              DataBlockExtractUtils.extractIntColumn(_storedTypes[i].toDataType(), dataBlock, i, nullBitmap), 0,
+              numRows);
+          break;
+        case LONG:
+          ((LongArrayList) _columns[i]).addElements(_numRows,
+              DataBlockExtractUtils.extractLongColumn(_storedTypes[i].toDataType(), dataBlock, i, nullBitmap), 0,
+              numRows);
+          break;
+        case FLOAT:
+          ((FloatArrayList) _columns[i]).addElements(_numRows,
+              DataBlockExtractUtils.extractFloatColumn(_storedTypes[i].toDataType(), dataBlock, i, nullBitmap), 0,
+              numRows);
+          break;
+        case DOUBLE:
+          ((DoubleArrayList) _columns[i]).addElements(_numRows,
+              DataBlockExtractUtils.extractDoubleColumn(_storedTypes[i].toDataType(), dataBlock, i, nullBitmap), 0,
+              numRows);
+          break;
+        default:
+          // Null values are already extracted as null
+          @SuppressWarnings("unchecked")
+          ObjectArrayList<Object> column = (ObjectArrayList<Object>) _columns[i];
+          column.addElements(_numRows, extractColumn(dataBlock, i), 0, numRows);
+          nullBitmap = null;
+          break;
+      }
+      if (nullBitmap != null) {
+        PeekableIntIterator iterator = nullBitmap.getIntIterator();
+        while (iterator.hasNext()) {
+          int rowId = iterator.next();
+          if (rowId >= numRows) {
+            break;
+          }
+          addNull(i, _numRows + rowId);
+        }
+      }
+    }
+  }
+
+  private void addNull(int columnId, int rowId) {
+    RoaringBitmap nullBitmap = _nullBitmaps[columnId];
+    if (nullBitmap == null) {
+      nullBitmap = new RoaringBitmap();
+      _nullBitmaps[columnId] = nullBitmap;
+    }
+    nullBitmap.add(rowId);
+  }
+
+  /**
+   * Returns the estimated heap size of a row stored in the hash table with the given stored types.
+   */
+  public static long estimateRowSizeBytes(ColumnDataType[] storedTypes) {
+    long rowSizeBytes = ROW_OVERHEAD_BYTES;
+    for (ColumnDataType storedType : storedTypes) {
+      switch (storedType) {
+        case INT:
+        case FLOAT:
+          rowSizeBytes += Integer.BYTES;
+          break;
+        case LONG:
+        case DOUBLE:
+          rowSizeBytes += Long.BYTES;
+          break;
+        default:
+          rowSizeBytes += REFERENCE_BYTES + QueryMemoryBudget.estimateValueSizeBytes(storedType);
+          break;
+      }
+    }
+    return rowSizeBytes;
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import java.util.List;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+
+
+public class JoinHashTableFactory {
+  private JoinHashTableFactory() {
+  }
+
+  /**
+   * Returns a {@link JoinHashTable} specialized by the type of the join keys.
+   *
+   * @param leftSchema Data schema of the left table
+   * @param rightSchema Data schema of the right table
+   * @param leftKeys Ids of the key columns in the left table
+   * @param rightKeys Ids of the key columns in the right table
+   * @param storeRightColumns Whether to store the right columns, or only the keys (e.g. for SEMI and ANTI join)
+   */
+  public static JoinHashTable getJoinHashTable(DataSchema leftSchema, DataSchema rightSchema, List<Integer> leftKeys,
+      List<Integer> rightKeys, boolean storeRightColumns) {
+    ColumnDataType[] storedTypes =
+        storeRightColumns ? rightSchema.getStoredColumnDataTypes() : new ColumnDataType[0];
+    if (rightKeys.size() == 1) {
+      // The primitive key can only be used when the left key has the same stored type, so that the left key can be
+      // looked up without conversion
+      int rightKeyId = rightKeys.get(0);
+      ColumnDataType keyType = rightSchema.getColumnDataType(rightKeyId).getStoredType();
+      if (leftSchema.getColumnDataType(leftKeys.get(0)).getStoredType() == keyType) {
+        if (keyType == ColumnDataType.INT) {
+          return new IntKeyJoinHashTable(rightKeyId, storedTypes);
+        }
+        if (keyType == ColumnDataType.LONG) {
+          return new LongKeyJoinHashTable(rightKeyId, storedTypes);
+        }
+      }
+    }
+    int numKeys = rightKeys.size();
+    int[] keyIds = new int[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      keyIds[i] = rightKeys.get(i);
+    }
+    return new ObjectKeyJoinHashTable(keyIds, storedTypes);
+  }
+}
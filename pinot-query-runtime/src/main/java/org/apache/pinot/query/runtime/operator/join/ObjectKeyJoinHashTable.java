@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.data.table.Key;
+
+
+/**
+ * The {@code ObjectKeyJoinHashTable} is the {@link JoinHashTable} for the join keys other than single INT or LONG
+ * key. For single key (e.g. STRING key), the key value is used as the key directly, where the group id works as the
+ * dictionary id of the key; for multiple keys, the {@link Key} of the key values is used as the key, which is
+ * consistent with the keys extracted by the
+ * {@link org.apache.pinot.query.planner.partitioning.MultiColumnKeySelector}.
+ */
+public class ObjectKeyJoinHashTable extends JoinHashTable {
+  private static final int INITIAL_CAPACITY = 1 << 10;
+
+  // The keys indexed by the group id, which work as the dictionary of the keys
+  private final ObjectArrayList<Object> _groupKeys = new ObjectArrayList<>();
+  // Open addressing hash table (with linear probing) storing the hash code of the key in the high 32 bits and the
+  // group id + 1 in the low 32 bits, where 0 means empty slot. The hash codes are compared before the keys to avoid the
+  // expensive equality check on hash collision (e.g. for STRING keys).
+  private long[] _hashTable = new long[INITIAL_CAPACITY];
+  private int _hashMask = INITIAL_CAPACITY - 1;
+
+  public ObjectKeyJoinHashTable(int[] keyIds, ColumnDataType[] storedTypes) {
+    super(keyIds, storedTypes);
+  }
+
+  @Override
+  protected int[] getOrCreateGroupIds(List<Object[]> rows, int numRows) {
+    int[] groupIds = new int[numRows];
+    int numKeys = _keyIds.length;
+    for (int i = 0; i < numRows; i++) {
+      Object[] row = rows.get(i);
+      Object key;
+      if (numKeys == 0) {
+        key = null;
+      } else if (numKeys == 1) {
+        key = row[_keyIds[0]];
+      } else {
+        Object[] values = new Object[numKeys];
+        for (int j = 0; j < numKeys; j++) {
+          values[j] = row[_keyIds[j]];
+        }
+        key = new Key(values);
+      }
+      groupIds[i] = getOrCreateGroupId(key);
+    }
+    return groupIds;
+  }
+
+  @Override
+  protected int[] getOrCreateGroupIds(DataBlock dataBlock, int numRows) {
+    int[] groupIds = new int[numRows];
+    int numKeys = _keyIds.length;
+    if (numKeys == 0) {
+      for (int i = 0; i < numRows; i++) {
+        groupIds[i] = getOrCreateGroupId(null);
+      }
+    } else if (numKeys == 1) {
+      Object[] keys = extractColumn(dataBlock, _keyIds[0]);
+      for (int i = 0; i < numRows; i++) {
+        groupIds[i] = getOrCreateGroupId(keys[i]);
+      }
+    } else {
+      Object[][] keyColumns = new Object[numKeys][];
+      for (int i = 0; i < numKeys; i++) {
+        keyColumns[i] = extractColumn(dataBlock, _keyIds[i]);
+      }
+      for (int i = 0; i < numRows; i++) {
+        Object[] values = new Object[numKeys];
+        for (int j = 0; j < numKeys; j++) {
+          values[j] = keyColumns[j][i];
+        }
+        groupIds[i] = getOrCreateGroupId(new Key(values));
+      }
+    }
+    return groupIds;
+  }
+
+  private int getOrCreateGroupId(@Nullable Object key) {
+    int hash = Objects.hashCode(key);
+    int index = HashCommon.mix(hash) & _hashMask;
+    long value;
+    while ((value = _hashTable[index]) != 0) {
+      int groupId = (int) value - 1;
+      if ((int) (value >>> 32) == hash && Objects.equals(_groupKeys.get(groupId), key)) {
+        return groupId;
+      }
+      index = (index + 1) & _hashMask;
+    }
+    int groupId = _groupKeys.size();
+    _groupKeys.add(key);
+    _hashTable[index] = ((long) hash << 32) | (groupId + 1);
+    // Keep the load factor under 0.5
+    if (2 * _groupKeys.size() > _hashTable.length) {
+      rehash();
+    }
+    return groupId;
+  }
+
+  private void rehash() {
+    int capacity = _hashTable.length << 1;
+    long[] hashTable = new long[capacity];
+    int hashMask = capacity - 1;
+    for (long value : _hashTable) {
+      if (value != 0) {
+        int index = HashCommon.mix((int) (value >>> 32)) & hashMask;
+        while (hashTable[index] != 0) {
+          index = (index + 1) & hashMask;
+        }
+        hashTable[index] = value;
+      }
+    }
+    _hashTable = hashTable;
+    _hashMask = hashMask;
+  }
+
+  @Override
+  public int getGroupId(@Nullable Object key) {
+    int hash = Objects.hashCode(key);
+    int index = HashCommon.mix(hash) & _hashMask;
+    long value;
+    while ((value = _hashTable[index]) != 0) {
+      int groupId = (int) value - 1;
+      if ((int) (value >>> 32) == hash && Objects.equals(_groupKeys.get(groupId), key)) {
+        return groupId;
+      }
+      index = (index + 1) & _hashMask;
+    }
+    return INVALID_ID;
+  }
+}
@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SpilledJoinPartitions} hash partitions the rows of one side of the join into local temp files, so that
+ * the join can be performed partition by partition when the rows cannot fit into memory.
+ * <p>The rows are buffered per partition, and written as length prefixed serialized {@link DataBlock}s. Once all the
+ * rows are added, {@link #finishWriting()} should be called before reading the partitions back. {@link #close()} must
+ * be called to delete the temp files.
+ * <p>This class is not thread safe.
+ */
+public class SpilledJoinPartitions implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpilledJoinPartitions.class);
+
+  public static final int NUM_PARTITIONS_BITS = 4;
+  public static final int NUM_PARTITIONS = 1 << NUM_PARTITIONS_BITS;
+  private static final int MAX_ROWS_PER_SPILLED_BLOCK = 10_000;
+
+  private final File _spillDir;
+  private final DataSchema _dataSchema;
+  private final List<Object[]>[] _bufferedRows;
+  private final DataOutputStream[] _outputStreams;
+  private final long[] _numRows;
+  private final List<PartitionReader> _readers = new ArrayList<>();
+
+  private long _numSpilledBytes;
+  private boolean _finishedWriting;
+
+  @SuppressWarnings("unchecked")
+  public SpilledJoinPartitions(File spillDir, DataSchema dataSchema) {
+    _spillDir = new File(spillDir, "join_spill_" + UUID.randomUUID());
+    _dataSchema = dataSchema;
+    _bufferedRows = new List[NUM_PARTITIONS];
+    _outputStreams = new DataOutputStream[NUM_PARTITIONS];
+    _numRows = new long[NUM_PARTITIONS];
+  }
+
+  /**
+   * Returns the partition id for the given hash of the join keys (e.g. computed by the
+   * {@link org.apache.pinot.query.planner.partitioning.KeySelector}).
+   * <p>The rows received by the join are already partitioned by the same hash across the servers, and the join hash
+   * table indexes the keys with the low bits of the mixed hash, so the high bits of the mixed hash are used to
+   * distribute the rows evenly across the partitions without clustering the keys within the partition.
+   */
+  public static int getPartitionId(int hash) {
+    return HashCommon.mix(hash) >>> (Integer.SIZE - NUM_PARTITIONS_BITS);
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  public long getNumRows(int partitionId) {
+    return _numRows[partitionId];
+  }
+
+  public long getNumSpilledRows() {
+    long numSpilledRows = 0;
+    for (long numRows : _numRows) {
+      numSpilledRows += numRows;
+    }
+    return numSpilledRows;
+  }
+
+  public long getNumSpilledBytes() {
+    return _numSpilledBytes;
+  }
+
+  /**
+   * Adds a row (in the format of the data schema) into the given partition.
+   */
+  public void addRow(int partitionId, Object[] row) {
+    Preconditions.checkState(!_finishedWriting, "Cannot add rows after finishing writing");
+    List<Object[]> bufferedRows = _bufferedRows[partitionId];
+    if (bufferedRows == null) {
+      bufferedRows = new ArrayList<>();
+      _bufferedRows[partitionId] = bufferedRows;
+    }
+    bufferedRows.add(row);
+    _numRows[partitionId]++;
+    if (bufferedRows.size() == MAX_ROWS_PER_SPILLED_BLOCK) {
+      flush(partitionId);
+    }
+  }
+
+  /**
+   * Flushes the buffered rows and closes the files for writing.
+   */
+  public void finishWriting() {
+    if (_finishedWriting) {
+      return;
+    }
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      flush(i);
+      DataOutputStream outputStream = _outputStreams[i];
+      if (outputStream != null) {
+        try {
+          outputStream.close();
+        } catch (IOException e) {
+          throw new UncheckedIOException("Caught exception while closing the join spill file: " + getFile(i), e);
+        }
+        _outputStreams[i] = null;
+      }
+    }
+    _finishedWriting = true;
+    LOGGER.debug("Spilled {} rows ({} bytes) of the join into: {}", getNumSpilledRows(), _numSpilledBytes, _spillDir);
+  }
+
+  private void flush(int partitionId) {
+    List<Object[]> bufferedRows = _bufferedRows[partitionId];
+    if (bufferedRows == null || bufferedRows.isEmpty()) {
+      return;
+    }
+    File file = getFile(partitionId);
+    try {
+      DataOutputStream outputStream = _outputStreams[partitionId];
+      if (outputStream == null) {
+        FileUtils.forceMkdir(_spillDir);
+        outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        _outputStreams[partitionId] = outputStream;
+      }
+      byte[] bytes = DataBlockBuilder.buildFromRows(bufferedRows, _dataSchema).toBytes();
+      outputStream.writeInt(bytes.length);
+      outputStream.write(bytes);
+      _numSpilledBytes += bytes.length;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Caught exception while spilling the join rows to: " + file, e);
+    }
+    bufferedRows.clear();
+  }
+
+  /**
+   * Opens a reader for the rows of the given partition. The reader is closed when reaching the end of the partition or
+   * when this object is closed.
+   */
+  public PartitionReader openPartition(int partitionId) {
+    Preconditions.checkState(_finishedWriting, "Cannot read the partitions before finishing writing");
+    PartitionReader reader = new PartitionReader(partitionId);
+    _readers.add(reader);
+    return reader;
+  }
+
+  private File getFile(int partitionId) {
+    return new File(_spillDir, "partition_" + partitionId);
+  }
+
+  /**
+   * Closes the files and deletes the spill directory.
+   */
+  @Override
+  public void close() {
+    for (DataOutputStream outputStream : _outputStreams) {
+      if (outputStream != null) {
+        try {
+          outputStream.close();
+        } catch (IOException e) {
+          LOGGER.warn("Caught exception while closing the join spill file", e);
+        }
+      }
+    }
+    for (PartitionReader reader : _readers) {
+      reader.close();
+    }
+    _readers.clear();
+    FileUtils.deleteQuietly(_spillDir);
+  }
+
+  /**
+   * The {@code PartitionReader} reads the spilled rows of a partition back one data block at a time.
+   */
+  public class PartitionReader implements Closeable {
+    private final File _file;
+    private DataInputStream _inputStream;
+    private boolean _closed;
+
+    private PartitionReader(int partitionId) {
+      _file = getFile(partitionId);
+      _closed = _numRows[partitionId] == 0;
+    }
+
+    /**
+     * Returns the next spilled data block, or {@code null} when reaching the end of the partition.
+     */
+    @Nullable
+    public DataBlock nextBlock() {
+      if (_closed) {
+        return null;
+      }
+      try {
+        if (_inputStream == null) {
+          _inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)));
+        }
+        int length;
+        try {
+          length = _inputStream.readInt();
+        } catch (EOFException e) {
+          close();
+          return null;
+        }
+        byte[] bytes = new byte[length];
+        _inputStream.readFully(bytes);
+        return DataBlockUtils.getDataBlock(ByteBuffer.wrap(bytes));
+      } catch (IOException e) {
+        close();
+        throw new UncheckedIOException("Caught exception while reading the join spill file: " + _file, e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (_inputStream != null) {
+        try {
+          _inputStream.close();
+        } catch (IOException e) {
+          LOGGER.warn("Caught exception while closing the join spill file: {}", _file, e);
+        }
+        _inputStream = null;
+      }
+      _closed = true;
+    }
+  }
+}
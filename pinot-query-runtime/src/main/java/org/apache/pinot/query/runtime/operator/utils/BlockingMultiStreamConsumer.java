@@ -147,6 +147,30 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
     }
   }
 
+  /**
+   * Reads the next block for any ready mailbox without blocking, following the same semantic as
+   * {@link #readBlockBlocking()}.
+   *
+   * @return the next block, or null if no mailbox is ready. The caller should wait for {@link #onData()} (or the
+   * listeners registered on the mailboxes) to be notified before trying again.
+   */
+  @Nullable
+  public E tryReadBlock() {
+    return readDroppingSuccessEos();
+  }
+
+  /**
+   * Blocks until {@link #onData()} is called or the deadline is reached. This is used by the callers polling the
+   * mailboxes directly instead of reading through this consumer (e.g. to merge the sorted mailboxes).
+   *
+   * @return false if the deadline is reached before new data is available
+   */
+  public boolean awaitNewData()
+      throws InterruptedException {
+    long timeoutMs = _deadlineMs - System.currentTimeMillis();
+    return _newDataReady.poll(timeoutMs, TimeUnit.MILLISECONDS) != null;
+  }
+
   /**
    * This is a utility method that reads tries to read from the different mailboxes in a circular manner.
    *
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.util.function.BinaryOperator;
+import javax.annotation.Nullable;
+
+
+/**
+ * The {@code SlidingWindowAggregator} computes the aggregation over a ROWS type window frame for every row of a window
+ * partition in a single pass.
+ * <p>As the frame slides forward, both the start and the end of the frame are non-decreasing, so the values in the
+ * frame are maintained as a FIFO queue implemented with 2 stacks, where each stack entry also stores the partial
+ * aggregate of the entries below it. Each value is pushed and popped at most once, and the aggregate of the frame is
+ * combined from the top of the 2 stacks, so the aggregation takes amortized O(1) time per row for any associative
+ * combine function, including the ones without an inverse (e.g. MIN/MAX), instead of O(frame size).
+ * <p>This class is not thread safe.
+ */
+public class SlidingWindowAggregator {
+  private final BinaryOperator<Object> _combiner;
+  private final Object _emptyResult;
+
+  // The front stack stores the older values to be popped with the oldest value on the top, where _frontAggs[i] is the
+  // aggregate of the values from entry i down to the bottom of the stack
+  private Object[] _frontAggs = new Object[0];
+  private int _frontSize;
+  // The back stack stores the newer values pushed after the last transfer, where only the values and the aggregate of
+  // the whole stack are needed
+  private Object[] _backValues = new Object[16];
+  private int _backSize;
+  private Object _backAgg;
+
+  /**
+   * @param combiner the associative function to combine 2 partial aggregates in the order of the rows
+   * @param emptyResult the result for an empty frame (e.g. 0 for COUNT)
+   */
+  public SlidingWindowAggregator(BinaryOperator<Object> combiner, @Nullable Object emptyResult) {
+    _combiner = combiner;
+    _emptyResult = emptyResult;
+  }
+
+  /**
+   * Computes the aggregate over the frame of every row, where {@code values} are the partial aggregates of the single
+   * rows (e.g. 1 or 0 for COUNT), and the frame of row i is [i + lowerBound, i + upperBound] within the partition.
+   * Integer.MIN_VALUE as the lower bound means UNBOUNDED PRECEDING, and Integer.MAX_VALUE as the upper bound means
+   * UNBOUNDED FOLLOWING.
+   */
+  public Object[] aggregate(Object[] values, int lowerBound, int upperBound) {
+    int numRows = values.length;
+    Object[] results = new Object[numRows];
+    clear();
+    // The values in the queue are values[queueStart, queueEnd)
+    int queueStart = 0;
+    int queueEnd = 0;
+    for (int i = 0; i < numRows; i++) {
+      int frameStart = lowerBound == Integer.MIN_VALUE ? 0 : (int) Math.max((long) i + lowerBound, 0);
+      int frameEnd = upperBound == Integer.MAX_VALUE ? numRows - 1 : (int) Math.min((long) i + upperBound, numRows - 1);
+      while (queueEnd <= frameEnd) {
+        push(values[queueEnd++]);
+      }
+      while (queueStart < frameStart && queueStart < queueEnd) {
+        pop();
+        queueStart++;
+      }
+      if (queueStart < frameStart) {
+        // Empty frame beyond the queued values
+        queueStart = frameStart;
+        queueEnd = frameStart;
+      }
+      results[i] = queueStart < queueEnd ? query() : _emptyResult;
+    }
+    return results;
+  }
+
+  private void clear() {
+    _frontSize = 0;
+    _backSize = 0;
+    _backAgg = null;
+  }
+
+  private void push(@Nullable Object value) {
+    if (_backSize == _backValues.length) {
+      Object[] backValues = new Object[_backSize * 2];
+      System.arraycopy(_backValues, 0, backValues, 0, _backSize);
+      _backValues = backValues;
+    }
+    _backValues[_backSize] = value;
+    _backAgg = _backSize == 0 ? value : _combiner.apply(_backAgg, value);
+    _backSize++;
+  }
+
+  private void pop() {
+    if (_frontSize == 0) {
+      // Transfer the back stack to the front stack, where the oldest value ends up on the top
+      if (_frontAggs.length < _backSize) {
+        _frontAggs = new Object[_backValues.length];
+      }
+      Object agg = null;
+      for (int i = _backSize - 1; i >= 0; i--) {
+        Object value = _backValues[i];
+        agg = i == _backSize - 1 ? value : _combiner.apply(value, agg);
+        _frontAggs[_backSize - 1 - i] = agg;
+      }
+      _frontSize = _backSize;
+      _backSize = 0;
+      _backAgg = null;
+    }
+    _frontSize--;
+  }
+
+  @Nullable
+  private Object query() {
+    if (_frontSize == 0) {
+      return _backAgg;
+    }
+    Object frontAgg = _frontAggs[_frontSize - 1];
+    return _backSize == 0 ? frontAgg : _combiner.apply(frontAgg, _backAgg);
+  }
+}
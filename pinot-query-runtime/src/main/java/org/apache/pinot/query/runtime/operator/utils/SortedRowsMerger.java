@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import javax.annotation.Nullable;
+
+
+/**
+ * The {@code SortedRowsMerger} performs the k-way merge of multiple sorted inputs (e.g. the sorted runs of the external
+ * merge sort, or the sorted streams from the mailboxes), where the rows of each input are added one batch at a time.
+ * <p>A row can only be polled when every unfinished input has rows buffered, so an input becomes waiting once all its
+ * buffered rows are polled, and the caller should either add more rows or finish the input before polling again.
+ * Initially, all the inputs are waiting.
+ * <p>This class is not thread safe.
+ */
+public class SortedRowsMerger {
+  private final Input[] _inputs;
+  private final PriorityQueue<Input> _queue;
+  private int _numWaitingInputs;
+  private int _lastPolledInputId = -1;
+
+  public SortedRowsMerger(int numInputs, Comparator<Object[]> comparator) {
+    _inputs = new Input[numInputs];
+    for (int i = 0; i < numInputs; i++) {
+      _inputs[i] = new Input(i);
+    }
+    _queue = new PriorityQueue<>(Math.max(numInputs, 1), (i1, i2) -> comparator.compare(i1.peek(), i2.peek()));
+    _numWaitingInputs = numInputs;
+  }
+
+  public int getNumInputs() {
+    return _inputs.length;
+  }
+
+  /**
+   * Returns the number of unfinished inputs without buffered rows.
+   */
+  public int getNumWaitingInputs() {
+    return _numWaitingInputs;
+  }
+
+  /**
+   * Returns {@code true} if the given input is unfinished and has no buffered rows.
+   */
+  public boolean isWaiting(int inputId) {
+    return _inputs[inputId]._waiting;
+  }
+
+  /**
+   * Returns the id of the input of the last polled row, which is the only input that can become waiting after the
+   * poll.
+   */
+  public int getLastPolledInputId() {
+    return _lastPolledInputId;
+  }
+
+  /**
+   * Adds the next batch of sorted rows for the given waiting input. Empty batch is ignored.
+   */
+  public void addRows(int inputId, List<Object[]> rows) {
+    Input input = _inputs[inputId];
+    Preconditions.checkState(input._waiting, "Input: %s is not waiting for rows", inputId);
+    if (rows.isEmpty()) {
+      return;
+    }
+    input._rows = rows;
+    input._index = 0;
+    input._waiting = false;
+    _numWaitingInputs--;
+    _queue.add(input);
+  }
+
+  /**
+   * Marks the given waiting input as finished, i.e. there are no more rows for the input.
+   */
+  public void finish(int inputId) {
+    Input input = _inputs[inputId];
+    Preconditions.checkState(input._waiting, "Input: %s is not waiting for rows", inputId);
+    input._rows = null;
+    input._waiting = false;
+    _numWaitingInputs--;
+  }
+
+  /**
+   * Returns {@code true} if all the inputs are finished and all the rows are polled.
+   */
+  public boolean isFinished() {
+    return _numWaitingInputs == 0 && _queue.isEmpty();
+  }
+
+  /**
+   * Returns the next row in the merged order, or {@code null} if some inputs are waiting for rows or the merge is
+   * finished.
+   */
+  @Nullable
+  public Object[] poll() {
+    if (_numWaitingInputs > 0) {
+      return null;
+    }
+    Input input = _queue.poll();
+    if (input == null) {
+      return null;
+    }
+    _lastPolledInputId = input._id;
+    Object[] row = input._rows.get(input._index++);
+    if (input._index < input._rows.size()) {
+      _queue.add(input);
+    } else {
+      input._rows = null;
+      input._waiting = true;
+      _numWaitingInputs++;
+    }
+    return row;
+  }
+
+  private static class Input {
+    final int _id;
+    List<Object[]> _rows;
+    int _index;
+    boolean _waiting = true;
+
+    Input(int id) {
+      _id = id;
+    }
+
+    Object[] peek() {
+      return _rows.get(_index);
+    }
+  }
+}
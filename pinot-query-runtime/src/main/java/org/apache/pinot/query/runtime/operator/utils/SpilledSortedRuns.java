@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SpilledSortedRuns} writes sorted runs of rows into local temp files for the external merge sort, where
+ * each run is written into a separate file as length prefixed serialized {@link DataBlock}s. The runs can be read back
+ * one data block at a time to be merged (e.g. with {@link SortedRowsMerger}). {@link #close()} must be called to delete
+ * the temp files.
+ * <p>This class is not thread safe.
+ */
+public class SpilledSortedRuns implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpilledSortedRuns.class);
+
+  public static final int MAX_ROWS_PER_SPILLED_BLOCK = 10_000;
+
+  private final File _spillDir;
+  private final DataSchema _dataSchema;
+  private final List<Long> _numRowsPerRun = new ArrayList<>();
+  private final List<RunReader> _readers = new ArrayList<>();
+
+  private long _numSpilledRows;
+  private long _numSpilledBytes;
+
+  public SpilledSortedRuns(File spillDir, DataSchema dataSchema) {
+    _spillDir = new File(spillDir, "sort_spill_" + UUID.randomUUID());
+    _dataSchema = dataSchema;
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  public int getNumRuns() {
+    return _numRowsPerRun.size();
+  }
+
+  public long getNumRows(int runId) {
+    return _numRowsPerRun.get(runId);
+  }
+
+  public long getNumSpilledRows() {
+    return _numSpilledRows;
+  }
+
+  public long getNumSpilledBytes() {
+    return _numSpilledBytes;
+  }
+
+  /**
+   * Writes the given rows (sorted, in the format of the data schema) as a new run, and returns the id of the run.
+   */
+  public int addRun(List<Object[]> sortedRows) {
+    int runId = _numRowsPerRun.size();
+    File file = getFile(runId);
+    int numRows = sortedRows.size();
+    try {
+      FileUtils.forceMkdir(_spillDir);
+      try (DataOutputStream outputStream = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(file)))) {
+        for (int startRowId = 0; startRowId < numRows; startRowId += MAX_ROWS_PER_SPILLED_BLOCK) {
+          int endRowId = Math.min(startRowId + MAX_ROWS_PER_SPILLED_BLOCK, numRows);
+          List<Object[]> rows = sortedRows.subList(startRowId, endRowId);
+          byte[] bytes = DataBlockBuilder.buildFromRows(rows, _dataSchema).toBytes();
+          outputStream.writeInt(bytes.length);
+          outputStream.write(bytes);
+          _numSpilledBytes += bytes.length;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Caught exception while spilling the sorted rows to: " + file, e);
+    }
+    _numRowsPerRun.add((long) numRows);
+    _numSpilledRows += numRows;
+    LOGGER.debug("Spilled sorted run: {} with {} rows into: {}", runId, numRows, file);
+    return runId;
+  }
+
+  /**
+   * Opens a reader for the rows of the given run. The reader is closed when reaching the end of the run or when this
+   * object is closed.
+   */
+  public RunReader openRun(int runId) {
+    Preconditions.checkArgument(runId < _numRowsPerRun.size(), "Invalid run id: %s", runId);
+    RunReader reader = new RunReader(runId);
+    _readers.add(reader);
+    return reader;
+  }
+
+  private File getFile(int runId) {
+    return new File(_spillDir, "run_" + runId);
+  }
+
+  /**
+   * Closes the files and deletes the spill directory.
+   */
+  @Override
+  public void close() {
+    for (RunReader reader : _readers) {
+      reader.close();
+    }
+    _readers.clear();
+    FileUtils.deleteQuietly(_spillDir);
+  }
+
+  /**
+   * The {@code RunReader} reads the rows of a sorted run back one data block at a time.
+   */
+  public class RunReader implements Closeable {
+    private final File _file;
+    private DataInputStream _inputStream;
+    private boolean _closed;
+
+    private RunReader(int runId) {
+      _file = getFile(runId);
+      _closed = _numRowsPerRun.get(runId) == 0;
+    }
+
+    /**
+     * Returns the next data block of the run, or {@code null} when reaching the end of the run.
+     */
+    @Nullable
+    public DataBlock nextBlock() {
+      if (_closed) {
+        return null;
+      }
+      try {
+        if (_inputStream == null) {
+          _inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)));
+        }
+        int length;
+        try {
+          length = _inputStream.readInt();
+        } catch (EOFException e) {
+          close();
+          return null;
+        }
+        byte[] bytes = new byte[length];
+        _inputStream.readFully(bytes);
+        return DataBlockUtils.getDataBlock(ByteBuffer.wrap(bytes));
+      } catch (IOException e) {
+        close();
+        throw new UncheckedIOException("Caught exception while reading the sort spill file: " + _file, e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (_inputStream != null) {
+        try {
+          _inputStream.close();
+        } catch (IOException e) {
+          LOGGER.warn("Caught exception while closing the sort spill file: {}", _file, e);
+        }
+        _inputStream = null;
+      }
+      _closed = true;
+    }
+  }
+}
@@ -20,6 +20,10 @@ package org.apache.pinot.query.runtime.plan;
 
 import java.util.Collections;
 import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.operator.OpChainId;
@@ -27,6 +31,7 @@ import org.apache.pinot.query.runtime.operator.OpChainStats;
 import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerResult;
 import org.apache.pinot.query.runtime.plan.server.ServerPlanRequestContext;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 
 
 /**
@@ -46,8 +51,14 @@ public class OpChainExecutionContext {
   private final OpChainStats _stats;
   private final PipelineBreakerResult _pipelineBreakerResult;
   private final boolean _traceEnabled;
+  // Budget of the memory held by the memory intensive operators of the OpChain, null when the budget is not enforced
+  private final QueryMemoryBudget _memoryBudget;
 
   private ServerPlanRequestContext _leafStageContext;
+  // Callback to wake up the OpChain when new data is available, which is set when the OpChain is run by the cooperative
+  // OpChainSchedulerService. When set, the operators should yield by returning a no-op block instead of blocking when
+  // there is no data ready yet.
+  private volatile Runnable _dataAvailableCallback;
 
   public OpChainExecutionContext(MailboxService mailboxService, long requestId, int stageId,
       VirtualServerAddress server, long deadlineMs, Map<String, String> opChainMetadata, StageMetadata stageMetadata,
@@ -66,6 +77,14 @@ public class OpChainExecutionContext {
       _stats.getOperatorStatsMap().putAll(pipelineBreakerResult.getOpChainStats().getOperatorStatsMap());
     }
     _traceEnabled = Boolean.parseBoolean(opChainMetadata.get(CommonConstants.Broker.Request.TRACE));
+    Long maxQueryMemoryBytes = QueryOptionsUtils.getMaxQueryMemoryBytes(opChainMetadata);
+    if (maxQueryMemoryBytes != null && maxQueryMemoryBytes > 0) {
+      MemoryOverflowMode memoryOverflowMode = QueryOptionsUtils.getQueryMemoryOverflowMode(opChainMetadata);
+      _memoryBudget = new QueryMemoryBudget(maxQueryMemoryBytes, memoryOverflowMode != null ? memoryOverflowMode
+          : InstancePlanMakerImplV2.DEFAULT_QUERY_MEMORY_OVERFLOW_MODE);
+    } else {
+      _memoryBudget = null;
+    }
   }
 
   public MailboxService getMailboxService() {
@@ -112,6 +131,11 @@ public class OpChainExecutionContext {
     return _traceEnabled;
   }
 
+  @Nullable
+  public QueryMemoryBudget getMemoryBudget() {
+    return _memoryBudget;
+  }
+
   public ServerPlanRequestContext getLeafStageContext() {
     return _leafStageContext;
   }
@@ -119,4 +143,24 @@ public class OpChainExecutionContext {
   public void setLeafStageContext(ServerPlanRequestContext leafStageContext) {
     _leafStageContext = leafStageContext;
   }
+
+  @Nullable
+  public Runnable getDataAvailableCallback() {
+    return _dataAvailableCallback;
+  }
+
+  public void setDataAvailableCallback(Runnable dataAvailableCallback) {
+    _dataAvailableCallback = dataAvailableCallback;
+  }
+
+  /**
+   * Notifies the scheduler running the OpChain that new data is available for the operators, if the OpChain is run by
+   * the cooperative scheduler.
+   */
+  public void notifyDataAvailable() {
+    Runnable dataAvailableCallback = _dataAvailableCallback;
+    if (dataAvailableCallback != null) {
+      dataAvailableCallback.run();
+    }
+  }
 }
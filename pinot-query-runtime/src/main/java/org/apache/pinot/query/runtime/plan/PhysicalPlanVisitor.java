@@ -19,7 +19,9 @@
 package org.apache.pinot.query.runtime.plan;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import org.apache.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
 import org.apache.pinot.query.planner.plannode.ExchangeNode;
 import org.apache.pinot.query.planner.plannode.FilterNode;
@@ -45,11 +47,13 @@ import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 import org.apache.pinot.query.runtime.operator.MinusOperator;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.PipelineBreakerResultOperator;
 import org.apache.pinot.query.runtime.operator.SortOperator;
 import org.apache.pinot.query.runtime.operator.SortedMailboxReceiveOperator;
 import org.apache.pinot.query.runtime.operator.TransformOperator;
 import org.apache.pinot.query.runtime.operator.UnionOperator;
 import org.apache.pinot.query.runtime.operator.WindowAggregateOperator;
+import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerResult;
 import org.apache.pinot.query.runtime.plan.server.ServerPlanRequestContext;
 
 
@@ -82,6 +86,15 @@ public class PhysicalPlanVisitor implements PlanNodeVisitor<MultiStageOperator,
 
   @Override
   public MultiStageOperator visitMailboxReceive(MailboxReceiveNode node, OpChainExecutionContext context) {
+    PipelineBreakerResult pipelineBreakerResult = context.getPipelineBreakerResult();
+    if (node.getExchangeType() == PinotRelExchangeType.PIPELINE_BREAKER && pipelineBreakerResult != null) {
+      // The mailbox is already consumed by the pipeline breaker, return the received data blocks
+      Integer resultMapId = pipelineBreakerResult.getNodeIdMap().get(node);
+      if (resultMapId != null) {
+        return new PipelineBreakerResultOperator(context,
+            pipelineBreakerResult.getResultMap().getOrDefault(resultMapId, Collections.emptyList()));
+      }
+    }
     if (node.isSortOnReceiver()) {
       return new SortedMailboxReceiveOperator(context, node.getDistributionType(), node.getDataSchema(),
           node.getCollationKeys(), node.getCollationDirections(), node.getCollationNullDirections(),
@@ -95,7 +108,8 @@ public class PhysicalPlanVisitor implements PlanNodeVisitor<MultiStageOperator,
   public MultiStageOperator visitMailboxSend(MailboxSendNode node, OpChainExecutionContext context) {
     MultiStageOperator nextOperator = visit(node.getInputs().get(0), context);
     return new MailboxSendOperator(context, nextOperator, node.getDistributionType(), node.getDistributionKeys(),
-        node.getCollationKeys(), node.getCollationDirections(), node.isSortOnSender(), node.getReceiverStageId());
+        node.getCollationKeys(), node.getCollationDirections(), node.isSortOnSender(), node.getReceiverStageId(),
+        node.isSplitHotKeys());
   }
 
   @Override
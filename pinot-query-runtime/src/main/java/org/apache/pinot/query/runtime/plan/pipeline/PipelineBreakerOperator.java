@@ -20,7 +20,6 @@ package org.apache.pinot.query.runtime.plan.pipeline;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,18 +35,19 @@ import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 class PipelineBreakerOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "PIPELINE_BREAKER";
 
-  private final Map<Integer, Operator<TransferableBlock>> _workerMap;
-
-  private Map<Integer, List<TransferableBlock>> _resultMap;
+  private final Map<Integer, List<TransferableBlock>> _resultMap;
+  // Workers not finished yet, polled in round-robin fashion
+  private final Queue<Map.Entry<Integer, Operator<TransferableBlock>>> _pendingWorkers;
   private TransferableBlock _errorBlock;
 
   public PipelineBreakerOperator(OpChainExecutionContext context, Map<Integer, Operator<TransferableBlock>> workerMap) {
     super(context);
-    _workerMap = workerMap;
+    // NOTE: Put an empty list for each worker in case there is no data block returned from that worker
     _resultMap = new HashMap<>();
     for (int workerKey : workerMap.keySet()) {
       _resultMap.put(workerKey, new ArrayList<>());
     }
+    _pendingWorkers = new ArrayDeque<>(workerMap.entrySet());
   }
 
   public Map<Integer, List<TransferableBlock>> getResultMap() {
@@ -69,39 +69,20 @@ class PipelineBreakerOperator extends MultiStageOperator {
     if (_errorBlock != null) {
       return _errorBlock;
     }
-    // NOTE: Put an empty list for each worker in case there is no data block returned from that worker
-    if (_workerMap.size() == 1) {
-      Map.Entry<Integer, Operator<TransferableBlock>> entry = _workerMap.entrySet().iterator().next();
-      List<TransferableBlock> dataBlocks = new ArrayList<>();
-      _resultMap = Collections.singletonMap(entry.getKey(), dataBlocks);
-      Operator<TransferableBlock> operator = entry.getValue();
-      TransferableBlock block = operator.nextBlock();
-      while (!block.isSuccessfulEndOfStreamBlock()) {
-        if (block.isErrorBlock()) {
-          _errorBlock = block;
-          return block;
-        }
-        dataBlocks.add(block);
-        block = operator.nextBlock();
-      }
-    } else {
-      _resultMap = new HashMap<>();
-      for (int workerKey : _workerMap.keySet()) {
-        _resultMap.put(workerKey, new ArrayList<>());
+    while (!_pendingWorkers.isEmpty()) {
+      Map.Entry<Integer, Operator<TransferableBlock>> entry = _pendingWorkers.poll();
+      TransferableBlock block = entry.getValue().nextBlock();
+      if (block.isErrorBlock()) {
+        _errorBlock = block;
+        return block;
       }
-      // Keep polling from every operator in round-robin fashion
-      Queue<Map.Entry<Integer, Operator<TransferableBlock>>> entries = new ArrayDeque<>(_workerMap.entrySet());
-      while (!entries.isEmpty()) {
-        Map.Entry<Integer, Operator<TransferableBlock>> entry = entries.poll();
-        TransferableBlock block = entry.getValue().nextBlock();
-        if (block.isErrorBlock()) {
-          _errorBlock = block;
-          return block;
-        }
-        if (block.isDataBlock()) {
-          _resultMap.get(entry.getKey()).add(block);
-          entries.offer(entry);
-        }
+      if (block.isDataBlock()) {
+        _resultMap.get(entry.getKey()).add(block);
+        _pendingWorkers.offer(entry);
+      } else if (block.isNoOpBlock()) {
+        // Waiting for more data from the worker, yield the thread
+        _pendingWorkers.offer(entry);
+        return block;
       }
     }
     return TransferableBlockUtils.getEndOfStreamTransferableBlock();
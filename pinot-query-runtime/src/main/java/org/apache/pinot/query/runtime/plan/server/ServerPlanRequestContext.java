@@ -44,6 +44,7 @@ public class ServerPlanRequestContext {
   private final PinotQuery _pinotQuery;
   private PlanNode _leafStageBoundaryNode;
   private List<ServerQueryRequest> _serverQueryRequests;
+  private int _runtimeFilterMaxInListSize = ServerPlanRequestUtils.DEFAULT_RUNTIME_FILTER_MAX_IN_LIST_SIZE;
 
   public ServerPlanRequestContext(DistributedStagePlan stagePlan, QueryExecutor leafQueryExecutor,
       ExecutorService executorService, PipelineBreakerResult pipelineBreakerResult) {
@@ -89,4 +90,12 @@ public class ServerPlanRequestContext {
   public void setServerQueryRequests(List<ServerQueryRequest> serverQueryRequests) {
     _serverQueryRequests = serverQueryRequests;
   }
+
+  public int getRuntimeFilterMaxInListSize() {
+    return _runtimeFilterMaxInListSize;
+  }
+
+  public void setRuntimeFilterMaxInListSize(int runtimeFilterMaxInListSize) {
+    _runtimeFilterMaxInListSize = runtimeFilterMaxInListSize;
+  }
 }
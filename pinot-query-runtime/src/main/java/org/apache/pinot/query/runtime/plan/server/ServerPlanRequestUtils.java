@@ -22,11 +22,15 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.helix.HelixManager;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
@@ -73,6 +77,7 @@ public class ServerPlanRequestUtils {
   }
 
   private static final int DEFAULT_LEAF_NODE_LIMIT = Integer.MAX_VALUE;
+  public static final int DEFAULT_RUNTIME_FILTER_MAX_IN_LIST_SIZE = 10_000;
   private static final Logger LOGGER = LoggerFactory.getLogger(ServerPlanRequestUtils.class);
   private static final List<String> QUERY_REWRITERS_CLASS_NAMES =
       ImmutableList.of(PredicateComparisonRewriter.class.getName(),
@@ -127,6 +132,10 @@ public class ServerPlanRequestUtils {
     } else {
       pinotQuery.setLimit(DEFAULT_LEAF_NODE_LIMIT);
     }
+    Integer runtimeFilterMaxInListSize = QueryOptionsUtils.getRuntimeFilterMaxInListSize(requestMetadata);
+    if (runtimeFilterMaxInListSize != null) {
+      serverContext.setRuntimeFilterMaxInListSize(runtimeFilterMaxInListSize);
+    }
     // visit the plan and create PinotQuery and determine the leaf stage boundary PlanNode.
     ServerPlanRequestVisitor.walkStageNode(stagePlan.getStageRoot(), serverContext);
   }
@@ -256,6 +265,9 @@ public class ServerPlanRequestUtils {
 
   /**
    * attach the dynamic filter to the given PinotQuery.
+   *
+   * <p>The dynamic filter replaces the SEMI join, so it must be exact: the IN filter of all the distinct right join
+   * keys is attached for each join key. Null keys are never matched.
    */
   static void attachDynamicFilter(PinotQuery pinotQuery, JoinNode.JoinKeys joinKeys, List<Object[]> dataContainer,
       DataSchema dataSchema) {
@@ -264,81 +276,250 @@ public class ServerPlanRequestUtils {
     List<Expression> expressions = new ArrayList<>();
     for (int i = 0; i < leftJoinKeys.size(); i++) {
       Expression leftExpr = pinotQuery.getSelectList().get(leftJoinKeys.get(i));
-      if (dataContainer.size() == 0) {
+      int rightIdx = rightJoinKeys.get(i);
+      Set<Object> distinctValues = getDistinctValues(dataContainer, rightIdx, Integer.MAX_VALUE);
+      distinctValues.remove(null);
+      if (distinctValues.isEmpty()) {
         // put a constant false expression
         Expression constantFalseExpr = RequestUtils.getLiteralExpression(false);
         expressions.add(constantFalseExpr);
       } else {
-        int rightIdx = rightJoinKeys.get(i);
-        Expression inFilterExpr = RequestUtils.getFunctionExpression(FilterKind.IN.name());
-        List<Expression> operands = new ArrayList<>(dataContainer.size() + 1);
-        operands.add(leftExpr);
-        operands.addAll(computeInOperands(dataContainer, dataSchema, rightIdx));
-        inFilterExpr.getFunctionCall().setOperands(operands);
-        expressions.add(inFilterExpr);
+        expressions.add(getInFilterExpression(leftExpr, distinctValues, dataSchema.getColumnDataType(rightIdx)));
       }
     }
     attachFilterExpression(pinotQuery, FilterKind.AND, expressions);
   }
 
-  private static List<Expression> computeInOperands(List<Object[]> dataContainer, DataSchema dataSchema, int colIdx) {
-    final DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(colIdx);
-    final FieldSpec.DataType storedType = columnDataType.getStoredType().toDataType();
-    final int numRows = dataContainer.size();
+  /**
+   * attach the runtime filter of the right join keys to the given PinotQuery, where the join is still performed on top
+   * of the leaf stage, so the filter only needs to be a superset of the join keys.
+   *
+   * <p>For each join key, the IN filter is attached when there are no more than {@code maxInListSize} distinct right
+   * join keys, otherwise the min/max range filter is attached. The join key is skipped when it cannot be filtered, e.g.
+   * when there are null keys (which are matched by the hash join) or the type does not support range filter.
+   */
+  static void attachRuntimeFilter(PinotQuery pinotQuery, JoinNode.JoinKeys joinKeys, List<Object[]> dataContainer,
+      DataSchema dataSchema, int maxInListSize) {
+    if (dataContainer.isEmpty()) {
+      // INNER join with empty right table does not match any left row
+      attachFilterExpression(pinotQuery, FilterKind.AND,
+          Collections.singletonList(RequestUtils.getLiteralExpression(false)));
+      return;
+    }
+    List<Integer> leftJoinKeys = joinKeys.getLeftKeys();
+    List<Integer> rightJoinKeys = joinKeys.getRightKeys();
     List<Expression> expressions = new ArrayList<>();
+    for (int i = 0; i < leftJoinKeys.size(); i++) {
+      Expression leftExpr = pinotQuery.getSelectList().get(leftJoinKeys.get(i));
+      int rightIdx = rightJoinKeys.get(i);
+      DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(rightIdx);
+      Set<Object> distinctValues = getDistinctValues(dataContainer, rightIdx, maxInListSize);
+      if (distinctValues.contains(null)) {
+        continue;
+      }
+      if (distinctValues.size() <= maxInListSize) {
+        if (isInFilterSupported(columnDataType)) {
+          expressions.add(getInFilterExpression(leftExpr, distinctValues, columnDataType));
+        }
+      } else {
+        Expression rangeFilterExpr = getRangeFilterExpression(leftExpr, dataContainer, rightIdx, columnDataType);
+        if (rangeFilterExpr != null) {
+          expressions.add(rangeFilterExpr);
+        }
+      }
+    }
+    if (!expressions.isEmpty()) {
+      attachFilterExpression(pinotQuery, FilterKind.AND, expressions);
+    }
+  }
+
+  /**
+   * Returns the distinct values of the given column, where at most {@code maxNumValues + 1} distinct non-null values
+   * are collected so that the caller can tell whether there are more than {@code maxNumValues} distinct values. The
+   * returned set contains {@code null} if there is any null value.
+   */
+  private static Set<Object> getDistinctValues(List<Object[]> dataContainer, int colIdx, int maxNumValues) {
+    Set<Object> distinctValues = new HashSet<>();
+    boolean hasNull = false;
+    for (Object[] row : dataContainer) {
+      Object value = row[colIdx];
+      if (value == null) {
+        hasNull = true;
+      } else if (distinctValues.size() <= maxNumValues) {
+        distinctValues.add(value);
+      }
+    }
+    if (hasNull) {
+      distinctValues.add(null);
+    }
+    return distinctValues;
+  }
+
+  private static boolean isInFilterSupported(DataSchema.ColumnDataType columnDataType) {
+    switch (columnDataType.getStoredType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static Expression getInFilterExpression(Expression leftExpr, Set<Object> distinctValues,
+      DataSchema.ColumnDataType columnDataType) {
+    Expression inFilterExpr = RequestUtils.getFunctionExpression(FilterKind.IN.name());
+    List<Expression> operands = new ArrayList<>(distinctValues.size() + 1);
+    operands.add(leftExpr);
+    operands.addAll(computeInOperands(distinctValues, columnDataType));
+    inFilterExpr.getFunctionCall().setOperands(operands);
+    return inFilterExpr;
+  }
+
+  /**
+   * Returns the BETWEEN filter of the min and max value of the given column, or {@code null} if the type does not
+   * support range filter.
+   */
+  @Nullable
+  private static Expression getRangeFilterExpression(Expression leftExpr, List<Object[]> dataContainer, int colIdx,
+      DataSchema.ColumnDataType columnDataType) {
+    Expression minExpr;
+    Expression maxExpr;
+    switch (columnDataType.getStoredType()) {
+      case INT: {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Object[] row : dataContainer) {
+          int value = (int) row[colIdx];
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+        minExpr = RequestUtils.getLiteralExpression(min);
+        maxExpr = RequestUtils.getLiteralExpression(max);
+        break;
+      }
+      case LONG: {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Object[] row : dataContainer) {
+          long value = (long) row[colIdx];
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+        minExpr = RequestUtils.getLiteralExpression(min);
+        maxExpr = RequestUtils.getLiteralExpression(max);
+        break;
+      }
+      case FLOAT: {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (Object[] row : dataContainer) {
+          float value = (float) row[colIdx];
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+        // NOTE: Create the double value based on the string format of the float value to preserve the exact value.
+        minExpr = RequestUtils.getLiteralExpression(Double.parseDouble(Float.toString(min)));
+        maxExpr = RequestUtils.getLiteralExpression(Double.parseDouble(Float.toString(max)));
+        break;
+      }
+      case DOUBLE: {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Object[] row : dataContainer) {
+          double value = (double) row[colIdx];
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+        minExpr = RequestUtils.getLiteralExpression(min);
+        maxExpr = RequestUtils.getLiteralExpression(max);
+        break;
+      }
+      case STRING: {
+        String min = null;
+        String max = null;
+        for (Object[] row : dataContainer) {
+          String value = (String) row[colIdx];
+          if (min == null || value.compareTo(min) < 0) {
+            min = value;
+          }
+          if (max == null || value.compareTo(max) > 0) {
+            max = value;
+          }
+        }
+        minExpr = RequestUtils.getLiteralExpression(min);
+        maxExpr = RequestUtils.getLiteralExpression(max);
+        break;
+      }
+      default:
+        return null;
+    }
+    Expression rangeFilterExpr = RequestUtils.getFunctionExpression(FilterKind.BETWEEN.name());
+    rangeFilterExpr.getFunctionCall().setOperands(Arrays.asList(leftExpr, minExpr, maxExpr));
+    return rangeFilterExpr;
+  }
+
+  private static List<Expression> computeInOperands(Set<Object> distinctValues,
+      DataSchema.ColumnDataType columnDataType) {
+    final FieldSpec.DataType storedType = columnDataType.getStoredType().toDataType();
+    final int numValues = distinctValues.size();
+    List<Expression> expressions = new ArrayList<>(numValues);
+    int valueIdx = 0;
     switch (storedType) {
       case INT:
-        int[] arrInt = new int[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrInt[rowIdx] = (int) dataContainer.get(rowIdx)[colIdx];
+        int[] arrInt = new int[numValues];
+        for (Object value : distinctValues) {
+          arrInt[valueIdx++] = (int) value;
         }
         Arrays.sort(arrInt);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrInt[rowIdx]));
+        for (int value : arrInt) {
+          expressions.add(RequestUtils.getLiteralExpression(value));
         }
         break;
       case LONG:
-        long[] arrLong = new long[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrLong[rowIdx] = (long) dataContainer.get(rowIdx)[colIdx];
+        long[] arrLong = new long[numValues];
+        for (Object value : distinctValues) {
+          arrLong[valueIdx++] = (long) value;
         }
         Arrays.sort(arrLong);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrLong[rowIdx]));
+        for (long value : arrLong) {
+          expressions.add(RequestUtils.getLiteralExpression(value));
         }
         break;
       case FLOAT:
-        float[] arrFloat = new float[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrFloat[rowIdx] = (float) dataContainer.get(rowIdx)[colIdx];
+        float[] arrFloat = new float[numValues];
+        for (Object value : distinctValues) {
+          arrFloat[valueIdx++] = (float) value;
         }
         Arrays.sort(arrFloat);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
+        for (float value : arrFloat) {
           // TODO: Create float literal when it is supported
           // NOTE: We cannot directly cast float to double here because we want to preserve the exact value. E.g. 0.05f
           //       will be casted to 0.05000000074505806. Predicate evaluation uses string format to match the values,
           //       so here we need to create the double value based on the string format of the float value.
-          expressions.add(RequestUtils.getLiteralExpression(Double.parseDouble(Float.toString(arrFloat[rowIdx]))));
+          expressions.add(RequestUtils.getLiteralExpression(Double.parseDouble(Float.toString(value))));
         }
         break;
       case DOUBLE:
-        double[] arrDouble = new double[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrDouble[rowIdx] = (double) dataContainer.get(rowIdx)[colIdx];
+        double[] arrDouble = new double[numValues];
+        for (Object value : distinctValues) {
+          arrDouble[valueIdx++] = (double) value;
         }
         Arrays.sort(arrDouble);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrDouble[rowIdx]));
+        for (double value : arrDouble) {
+          expressions.add(RequestUtils.getLiteralExpression(value));
         }
         break;
       case STRING:
-        String[] arrString = new String[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrString[rowIdx] = (String) dataContainer.get(rowIdx)[colIdx];
+        String[] arrString = new String[numValues];
+        for (Object value : distinctValues) {
+          arrString[valueIdx++] = (String) value;
         }
         Arrays.sort(arrString);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrString[rowIdx]));
+        for (String value : arrString) {
+          expressions.add(RequestUtils.getLiteralExpression(value));
         }
         break;
       default:
@@ -22,7 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
-import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.pinot.common.request.DataSource;
 import org.apache.pinot.common.request.PinotQuery;
 import org.apache.pinot.common.utils.DataSchema;
@@ -140,12 +140,21 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
       List<Object[]> resultDataContainer = new ArrayList<>();
       DataSchema dataSchema = dynamicSide.getDataSchema();
       for (TransferableBlock block : transferableBlocks) {
-        if (block.getType() == DataBlock.Type.ROW) {
+        if (block.isDataBlock()) {
           resultDataContainer.addAll(block.getContainer());
         }
       }
-      ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getJoinKeys(), resultDataContainer,
-          dataSchema);
+      if (node.getJoinRelType() == JoinRelType.SEMI) {
+        // SEMI join is fully replaced by the dynamic filter
+        ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getJoinKeys(), resultDataContainer,
+            dataSchema);
+      } else {
+        // Push down the runtime filter of the join keys, and perform the join on top of the leaf stage with the
+        // pipeline breaker result
+        ServerPlanRequestUtils.attachRuntimeFilter(context.getPinotQuery(), node.getJoinKeys(), resultDataContainer,
+            dataSchema, context.getRuntimeFilterMaxInListSize());
+        context.setLeafStageBoundaryNode(staticSide);
+      }
     }
     return null;
   }
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
@@ -611,4 +612,46 @@ public class MailboxServiceTest {
     // sending side should early terminate
     TestUtils.waitForCondition(aVoid -> sendingMailbox.isEarlyTerminated(), 1000L, "Failed to early-terminate sender");
   }
+
+  @Test
+  public void testRemoteColumnarDataBlock()
+      throws Exception {
+    PinotConfiguration config = new PinotConfiguration(
+        Collections.singletonMap(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_COLUMNAR_DATA_BLOCK, true));
+    MailboxService mailboxService = new MailboxService("localhost", QueryTestUtils.getAvailablePort(), config);
+    mailboxService.start();
+    try {
+      String mailboxId = MailboxIdUtils.toMailboxId(_requestId++, SENDER_STAGE_ID, 0, RECEIVER_STAGE_ID, 0);
+      SendingMailbox sendingMailbox =
+          mailboxService.getSendingMailbox("localhost", _mailboxService1.getPort(), mailboxId, Long.MAX_VALUE);
+      DataSchema dataSchema = new DataSchema(new String[]{"intCol", "stringCol"},
+          new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+      sendingMailbox.send(OperatorTestUtil.block(dataSchema, new Object[]{1, "a"}, new Object[]{null, "b"},
+          new Object[]{3, null}));
+      sendingMailbox.send(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+      sendingMailbox.complete();
+
+      ReceivingMailbox receivingMailbox = _mailboxService1.getReceivingMailbox(mailboxId);
+      receivingMailbox.registeredReader(() -> {
+      });
+      TestUtils.waitForCondition(aVoid -> receivingMailbox.getNumPendingBlocks() == 2, 1000L,
+          "Failed to deliver mails");
+
+      // The rows should be sent in the columnar data block, and extracted on demand
+      TransferableBlock block = receivingMailbox.poll();
+      assertNotNull(block);
+      assertEquals(block.getType(), DataBlock.Type.COLUMNAR);
+      assertFalse(block.isContainerConstructed());
+      List<Object[]> rows = block.getContainer();
+      assertEquals(rows.size(), 3);
+      assertEquals(rows.get(0), new Object[]{1, "a"});
+      assertEquals(rows.get(1), new Object[]{null, "b"});
+      assertEquals(rows.get(2), new Object[]{3, null});
+      block = receivingMailbox.poll();
+      assertNotNull(block);
+      assertTrue(block.isSuccessfulEndOfStreamBlock());
+    } finally {
+      mailboxService.shutdown();
+    }
+  }
 }
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.executor;
+
+import java.util.Collections;
+import java.util.Map;
+import org.apache.pinot.query.routing.VirtualServerAddress;
+import org.apache.pinot.query.runtime.operator.MultiStageOperator;
+import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class FairOpChainSchedulerTest {
+
+  private static OpChain getChain(long requestId, int stageId, Map<String, String> opChainMetadata) {
+    VirtualServerAddress address = new VirtualServerAddress("localhost", 1234, 1);
+    OpChainExecutionContext context =
+        new OpChainExecutionContext(null, requestId, stageId, address, Long.MAX_VALUE, opChainMetadata, null, null);
+    return new OpChain(context, Mockito.mock(MultiStageOperator.class));
+  }
+
+  private static OpChain getChain(long requestId, int stageId) {
+    return getChain(requestId, stageId, Collections.emptyMap());
+  }
+
+  @Test
+  public void shouldRunOpChainsOfSameQueryInFifoOrder() {
+    FairOpChainScheduler scheduler = new FairOpChainScheduler();
+    OpChain opChain1 = getChain(1, 1);
+    OpChain opChain2 = getChain(1, 2);
+    scheduler.register(opChain1);
+    scheduler.register(opChain2);
+    assertEquals(scheduler.size(), 2);
+
+    assertSame(scheduler.next(), opChain1);
+    scheduler.requeue(opChain1);
+    assertSame(scheduler.next(), opChain2);
+    assertSame(scheduler.next(), opChain1);
+    assertNull(scheduler.next());
+    assertEquals(opChain1.getStats().getQueuedCount(), 2);
+
+    scheduler.deregister(opChain1);
+    scheduler.deregister(opChain2);
+    assertEquals(scheduler.size(), 0);
+  }
+
+  @Test
+  public void shouldRunQueryWithLeastExecutionTimeFirst()
+      throws InterruptedException {
+    FairOpChainScheduler scheduler = new FairOpChainScheduler();
+    // Query 1 has more OpChains, but should not get more execution time than query 2
+    OpChain opChain11 = getChain(1, 1);
+    OpChain opChain12 = getChain(1, 2);
+    OpChain opChain2 = getChain(2, 1);
+    scheduler.register(opChain11);
+    scheduler.register(opChain12);
+    scheduler.register(opChain2);
+
+    assertSame(scheduler.next(), opChain11);
+    Thread.sleep(10);
+    scheduler.requeue(opChain11);
+    assertSame(scheduler.next(), opChain2);
+    Thread.sleep(20);
+    scheduler.requeue(opChain2);
+    assertSame(scheduler.next(), opChain12);
+  }
+
+  @Test
+  public void shouldRunQueryWithHigherPriorityMoreOften()
+      throws InterruptedException {
+    FairOpChainScheduler scheduler = new FairOpChainScheduler();
+    OpChain opChain1 = getChain(1, 1);
+    OpChain opChain2 = getChain(2, 1, Collections.singletonMap(QueryOptionKey.SCHEDULING_PRIORITY, "100"));
+    scheduler.register(opChain1);
+    scheduler.register(opChain2);
+
+    assertSame(scheduler.next(), opChain1);
+    Thread.sleep(10);
+    scheduler.requeue(opChain1);
+    // The execution time of query 2 is weighted by its priority
+    for (int i = 0; i < 3; i++) {
+      assertSame(scheduler.next(), opChain2);
+      Thread.sleep(10);
+      scheduler.requeue(opChain2);
+    }
+    assertSame(scheduler.next(), opChain2);
+  }
+
+  @Test
+  public void shouldSuspendAndResumeOpChains() {
+    FairOpChainScheduler scheduler = new FairOpChainScheduler();
+    OpChain opChain = getChain(1, 1);
+    scheduler.register(opChain);
+
+    // Suspended when yielding without new data
+    assertSame(scheduler.next(), opChain);
+    assertFalse(scheduler.yield(opChain));
+    assertNull(scheduler.next());
+    assertEquals(opChain.getStats().getSuspendedCount(), 1);
+    assertTrue(scheduler.onDataAvailable(opChain.getId()));
+    assertFalse(scheduler.onDataAvailable(opChain.getId()));
+
+    // Ready right away when yielding after receiving new data while running
+    assertSame(scheduler.next(), opChain);
+    assertFalse(scheduler.onDataAvailable(opChain.getId()));
+    assertTrue(scheduler.yield(opChain));
+    assertSame(scheduler.next(), opChain);
+
+    // Ignore the callbacks after the OpChain is de-registered
+    scheduler.deregister(opChain);
+    assertFalse(scheduler.onDataAvailable(opChain.getId()));
+    assertNull(scheduler.next());
+  }
+
+  @Test
+  public void shouldMakeSuspendedOpChainsReadyWhenCancelled() {
+    FairOpChainScheduler scheduler = new FairOpChainScheduler();
+    OpChain opChain1 = getChain(1, 1);
+    OpChain opChain2 = getChain(2, 1);
+    scheduler.register(opChain1);
+    scheduler.register(opChain2);
+    assertSame(scheduler.next(), opChain1);
+    assertFalse(scheduler.yield(opChain1));
+
+    assertEquals(scheduler.cancel(1), 1);
+    assertTrue(opChain1.isCancelRequested());
+    assertFalse(opChain2.isCancelRequested());
+    assertSame(scheduler.next(), opChain2);
+    assertSame(scheduler.next(), opChain1);
+  }
+}
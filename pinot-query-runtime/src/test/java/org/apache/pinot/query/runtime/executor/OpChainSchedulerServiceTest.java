@@ -23,8 +23,12 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.query.routing.VirtualServerAddress;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
@@ -193,4 +197,87 @@ public class OpChainSchedulerServiceTest {
     Assert.assertTrue(cancelLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be cancelled");
     Mockito.verify(_operatorA, Mockito.times(1)).cancel(Mockito.any());
   }
+
+  @Test
+  public void shouldResumeYieldedOpChainWhenDataIsAvailable()
+      throws InterruptedException {
+    OpChain opChain = getChain(_operatorA);
+    OpChainSchedulerService schedulerService = new OpChainSchedulerService(_executor);
+
+    CountDownLatch yieldLatch = new CountDownLatch(1);
+    Mockito.when(_operatorA.nextBlock()).thenAnswer(inv -> {
+      yieldLatch.countDown();
+      return TransferableBlockUtils.getNoOpTransferableBlock();
+    }).thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    CountDownLatch closeLatch = new CountDownLatch(1);
+    Mockito.doAnswer(inv -> {
+      closeLatch.countDown();
+      return null;
+    }).when(_operatorA).close();
+
+    schedulerService.register(opChain);
+
+    Assert.assertTrue(yieldLatch.await(10, TimeUnit.SECONDS), "op chain doesn't seem to be started");
+    // The OpChain should not be resumed without new data
+    Assert.assertFalse(closeLatch.await(100, TimeUnit.MILLISECONDS), "expected OpChain to be suspended");
+    Mockito.verify(_operatorA, Mockito.times(1)).nextBlock();
+
+    opChain.getContext().notifyDataAvailable();
+
+    Assert.assertTrue(closeLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be resumed and closed");
+    Assert.assertEquals(opChain.getStats().getSuspendedCount(), 1);
+    Assert.assertEquals(schedulerService.numOpChains(), 0);
+  }
+
+  @Test
+  public void shouldCallCancelOnSuspendedOpChainsWhenItIsCancelledByDispatch()
+      throws InterruptedException {
+    OpChain opChain = getChain(_operatorA);
+    OpChainSchedulerService schedulerService = new OpChainSchedulerService(_executor);
+
+    CountDownLatch yieldLatch = new CountDownLatch(1);
+    Mockito.when(_operatorA.nextBlock()).thenAnswer(inv -> {
+      yieldLatch.countDown();
+      return TransferableBlockUtils.getNoOpTransferableBlock();
+    });
+    CountDownLatch cancelLatch = new CountDownLatch(1);
+    Mockito.doAnswer(inv -> {
+      cancelLatch.countDown();
+      return null;
+    }).when(_operatorA).cancel(Mockito.any());
+
+    schedulerService.register(opChain);
+
+    Assert.assertTrue(yieldLatch.await(10, TimeUnit.SECONDS), "op chain doesn't seem to be started");
+
+    schedulerService.cancel(123);
+
+    Assert.assertTrue(cancelLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be cancelled");
+    Mockito.verify(_operatorA, Mockito.times(1)).cancel(Mockito.any());
+    Mockito.verify(_operatorA, Mockito.never()).close();
+  }
+
+  @Test
+  public void shouldRequeueOpChainsAfterTimeSlice()
+      throws InterruptedException {
+    OpChain opChain = getChain(_operatorA);
+    OpChainSchedulerService schedulerService = new OpChainSchedulerService(_executor, new FairOpChainScheduler(), 0);
+
+    DataSchema dataSchema = new DataSchema(new String[]{"col"}, new ColumnDataType[]{ColumnDataType.INT});
+    TransferableBlock dataBlock =
+        new TransferableBlock(Collections.singletonList(new Object[]{1}), dataSchema, DataBlock.Type.ROW);
+    Mockito.when(_operatorA.nextBlock())
+        .thenReturn(dataBlock, dataBlock, TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    CountDownLatch closeLatch = new CountDownLatch(1);
+    Mockito.doAnswer(inv -> {
+      closeLatch.countDown();
+      return null;
+    }).when(_operatorA).close();
+
+    schedulerService.register(opChain);
+
+    Assert.assertTrue(closeLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be closed");
+    // Queued once when registered, and once after each time slice
+    Assert.assertEquals(opChain.getStats().getQueuedCount(), 3);
+  }
 }
@@ -22,6 +22,7 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.hint.PinotHintOptions;
@@ -37,6 +38,7 @@ import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -306,6 +308,108 @@ public class AggregateOperatorTest {
         "true");
   }
 
+  @Test
+  public void shouldBypassPartialAggregationOnHighCardinalityGroupBy() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{2, 2.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{3, 3.0}, new Object[]{3, 4.0}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = getContext(
+        ImmutableMap.of(CommonConstants.Broker.Request.QueryOptionKey.PARTIAL_AGGREGATION_BYPASS_MIN_ROWS, "2"));
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, calls, group, AggType.LEAF, Collections.singletonList(-1),
+            null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+    TransferableBlock block3 = operator.nextBlock();
+
+    // Then:
+    List<Object[]> rows1 = block1.getContainer();
+    rows1.sort(Comparator.comparingInt(row -> (int) row[0]));
+    Assert.assertEquals(rows1.size(), 2, "First block contains the groups aggregated before bypassing");
+    Assert.assertEquals(rows1.get(0), new Object[]{1, 1.0});
+    Assert.assertEquals(rows1.get(1), new Object[]{2, 2.0});
+    List<Object[]> rows2 = block2.getContainer();
+    Assert.assertEquals(rows2.size(), 2, "Second block contains the input rows passed through without aggregation");
+    Assert.assertEquals(rows2.get(0), new Object[]{3, 3.0});
+    Assert.assertEquals(rows2.get(1), new Object[]{3, 4.0});
+    Assert.assertTrue(block3.isEndOfStreamBlock(), "Third block is EOS (done processing)");
+  }
+
+  @Test
+  public void shouldNotBypassPartialAggregationOnLowCardinalityGroupBy() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{1, 2.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 3.0}, new Object[]{2, 4.0}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = getContext(
+        ImmutableMap.of(CommonConstants.Broker.Request.QueryOptionKey.PARTIAL_AGGREGATION_BYPASS_MIN_ROWS, "2"));
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, calls, group, AggType.LEAF, Collections.singletonList(-1),
+            null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+
+    // Then:
+    List<Object[]> rows = block1.getContainer();
+    rows.sort(Comparator.comparingInt(row -> (int) row[0]));
+    Assert.assertEquals(rows.size(), 2, "Groups should be fully aggregated");
+    Assert.assertEquals(rows.get(0), new Object[]{1, 6.0});
+    Assert.assertEquals(rows.get(1), new Object[]{2, 4.0});
+    Assert.assertTrue(block2.isEndOfStreamBlock(), "Second block is EOS (done processing)");
+  }
+
+  @Test
+  public void shouldNotBypassFinalAggregation() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{2, 2.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{3, 3.0}, new Object[]{3, 4.0}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = getContext(
+        ImmutableMap.of(CommonConstants.Broker.Request.QueryOptionKey.PARTIAL_AGGREGATION_BYPASS_MIN_ROWS, "2"));
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, calls, group, AggType.FINAL, Collections.singletonList(-1),
+            null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+
+    // Then:
+    Assert.assertEquals(block1.getNumRows(), 3, "FINAL aggregation should always aggregate all the rows");
+    Assert.assertTrue(block2.isEndOfStreamBlock(), "Second block is EOS (done processing)");
+  }
+
+  private static OpChainExecutionContext getContext(Map<String, String> opChainMetadata) {
+    return new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE,
+        opChainMetadata, null, null);
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(SqlKind.SUM, ColumnDataType.INT, "SUM", ImmutableList.of(arg));
   }
@@ -21,15 +21,21 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.hint.PinotHintOptions;
 import org.apache.calcite.rel.hint.RelHint;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
@@ -39,13 +45,18 @@ import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.join.JoinHashTable;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 
@@ -660,5 +671,216 @@ public class HashJoinOperatorTest {
     Assert.assertEquals(
         operatorStats.getExecutionStats().get(DataTable.MetadataKey.MAX_ROWS_IN_JOIN_REACHED.getName()), "true");
   }
+
+  @Test
+  public void shouldThrowOnMemoryBudgetExceededWithThrowMode() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Mockito.when(_leftOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(leftSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    Mockito.when(_rightOperator.nextBlock()).thenReturn(
+            OperatorTestUtil.block(rightSchema, new Object[]{2, "Aa"}, new Object[]{2, "BB"}, new Object[]{3, "BB"}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    List<RexExpression> joinClauses = new ArrayList<>();
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    JoinNode node = new JoinNode(1, resultSchema, leftSchema, rightSchema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), joinClauses, Collections.emptyList());
+    HashJoinOperator join = new HashJoinOperator(getMemoryBudgetContext(rightSchema, MemoryOverflowMode.THROW),
+        _leftOperator, _rightOperator, leftSchema, node);
+
+    TransferableBlock result = join.nextBlock();
+    Assert.assertTrue(result.isErrorBlock());
+    Assert.assertTrue(result.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("reach query memory budget"));
+  }
+
+  @Test
+  public void shouldHandleJoinWithPartialResultsWhenHitMemoryBudget() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Mockito.when(_leftOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(leftSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    Mockito.when(_rightOperator.nextBlock()).thenReturn(
+            OperatorTestUtil.block(rightSchema, new Object[]{2, "Aa"}, new Object[]{2, "BB"}, new Object[]{3, "BB"}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    List<RexExpression> joinClauses = new ArrayList<>();
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    JoinNode node = new JoinNode(1, resultSchema, leftSchema, rightSchema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), joinClauses, Collections.emptyList());
+
+    OpChainExecutionContext context = getMemoryBudgetContext(rightSchema, MemoryOverflowMode.TRIM);
+    HashJoinOperator join = new HashJoinOperator(context, _leftOperator, _rightOperator, leftSchema, node);
+
+    TransferableBlock result = join.nextBlock();
+    Mockito.verify(_rightOperator).earlyTerminate();
+    Assert.assertFalse(result.isErrorBlock());
+    Assert.assertEquals(result.getNumRows(), 1);
+    Assert.assertTrue(context.getMemoryBudget().isExceeded());
+
+    String operatorId =
+        Joiner.on("_").join(HashJoinOperator.class.getSimpleName(), context.getStageId(), context.getServer());
+    OperatorStats operatorStats = context.getStats().getOperatorStats(context, operatorId);
+    Assert.assertEquals(
+        operatorStats.getExecutionStats().get(DataTable.MetadataKey.MEMORY_BUDGET_EXCEEDED.getName()), "TRIM");
+  }
+
+  @DataProvider
+  public Object[][] joinTypes() {
+    return new Object[][]{
+        new Object[]{JoinRelType.INNER}, new Object[]{JoinRelType.LEFT}, new Object[]{JoinRelType.RIGHT},
+        new Object[]{JoinRelType.FULL}, new Object[]{JoinRelType.SEMI}, new Object[]{JoinRelType.ANTI}
+    };
+  }
+
+  @Test(dataProvider = "joinTypes")
+  public void shouldHandleJoinWithSpillingWhenHitMemoryBudget(JoinRelType joinType) {
+    DataSchema schema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Random random = new Random();
+    List<TransferableBlock> leftBlocks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      leftBlocks.add(getRandomBlock(schema, random, 50));
+    }
+    List<TransferableBlock> rightBlocks = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      rightBlocks.add(getRandomBlock(schema, random, 50));
+    }
+    DataSchema resultSchema;
+    if (joinType == JoinRelType.SEMI || joinType == JoinRelType.ANTI) {
+      resultSchema = schema;
+    } else {
+      resultSchema = new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"},
+          new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING});
+    }
+    JoinNode node = new JoinNode(1, resultSchema, schema, schema, joinType,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), new ArrayList<>(), Collections.emptyList());
+    List<String> expectedRows = getSortedJoinedRows(
+        new HashJoinOperator(OperatorTestUtil.getDefaultContext(), getBlockOperator(leftBlocks),
+            getBlockOperator(rightBlocks), schema, node), null);
+
+    // Budget fits 100 right rows, where the rest 900 right rows are spilled
+    OpChainExecutionContext context = getMemoryBudgetContext(schema, MemoryOverflowMode.SPILL, 100);
+    MultiStageOperator rightOperator = getBlockOperator(rightBlocks);
+    Set<File> existingSpillDirs = getSpillDirs();
+    List<String> rows = getSortedJoinedRows(
+        new HashJoinOperator(context, getBlockOperator(leftBlocks), rightOperator, schema, node), existingSpillDirs);
+    Assert.assertEquals(rows, expectedRows);
+    Mockito.verify(rightOperator, Mockito.never()).earlyTerminate();
+    // Results are accurate with spilling
+    Assert.assertFalse(context.getMemoryBudget().isExceeded());
+    Assert.assertEquals(context.getMemoryBudget().getReservedBytes(), 0);
+    Assert.assertEquals(getSpillDirs(), existingSpillDirs);
+  }
+
+  @Test
+  public void shouldCleanUpSpilledPartitionsOnClose() {
+    DataSchema schema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Random random = new Random();
+    List<TransferableBlock> leftBlocks = Arrays.asList(getRandomBlock(schema, random, 50));
+    List<TransferableBlock> rightBlocks = Arrays.asList(getRandomBlock(schema, random, 50));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    JoinNode node = new JoinNode(1, resultSchema, schema, schema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), new ArrayList<>(), Collections.emptyList());
+    Set<File> existingSpillDirs = getSpillDirs();
+    HashJoinOperator join =
+        new HashJoinOperator(getMemoryBudgetContext(schema, MemoryOverflowMode.SPILL, 10), getBlockOperator(leftBlocks),
+            getBlockOperator(rightBlocks), schema, node);
+    Assert.assertFalse(join.nextBlock().isErrorBlock());
+    Assert.assertNotEquals(getSpillDirs(), existingSpillDirs);
+    join.close();
+    Assert.assertEquals(getSpillDirs(), existingSpillDirs);
+  }
+
+  private static TransferableBlock getRandomBlock(DataSchema schema, Random random, int numRows) {
+    Object[][] rows = new Object[numRows][];
+    for (int i = 0; i < numRows; i++) {
+      // Include some null keys, which are joined as regular keys
+      int key = random.nextInt(110);
+      rows[i] = new Object[]{key < 100 ? key : null, "value_" + random.nextInt(10)};
+    }
+    return OperatorTestUtil.block(schema, rows);
+  }
+
+  private static MultiStageOperator getBlockOperator(List<TransferableBlock> blocks) {
+    MultiStageOperator operator = Mockito.mock(MultiStageOperator.class);
+    TransferableBlock[] nextBlocks = new TransferableBlock[blocks.size()];
+    for (int i = 1; i < blocks.size(); i++) {
+      nextBlocks[i - 1] = blocks.get(i);
+    }
+    nextBlocks[blocks.size() - 1] = TransferableBlockUtils.getEndOfStreamTransferableBlock();
+    Mockito.when(operator.nextBlock()).thenReturn(blocks.get(0), nextBlocks);
+    return operator;
+  }
+
+  /**
+   * Returns all the joined rows as sorted strings. When the spill dirs are given, verifies that the join spills.
+   */
+  private static List<String> getSortedJoinedRows(HashJoinOperator join, @Nullable Set<File> existingSpillDirs) {
+    List<String> rows = new ArrayList<>();
+    TransferableBlock block = join.nextBlock();
+    if (existingSpillDirs != null) {
+      Assert.assertNotEquals(getSpillDirs(), existingSpillDirs);
+    }
+    while (!block.isEndOfStreamBlock()) {
+      Assert.assertFalse(block.isErrorBlock());
+      for (Object[] row : block.getContainer()) {
+        rows.add(Arrays.toString(row));
+      }
+      block = join.nextBlock();
+    }
+    join.close();
+    Collections.sort(rows);
+    return rows;
+  }
+
+  private static Set<File> getSpillDirs() {
+    File[] spillDirs = FileUtils.getTempDirectory().listFiles((dir, name) -> name.startsWith("join_spill_"));
+    return spillDirs != null ? new HashSet<>(Arrays.asList(spillDirs)) : Collections.emptySet();
+  }
+
+  /**
+   * Returns a context with the query memory budget fitting only one row of the right table.
+   */
+  private static OpChainExecutionContext getMemoryBudgetContext(DataSchema rightSchema,
+      MemoryOverflowMode memoryOverflowMode) {
+    return getMemoryBudgetContext(rightSchema, memoryOverflowMode, 1);
+  }
+
+  /**
+   * Returns a context with the query memory budget fitting the given number of rows of the right table.
+   */
+  private static OpChainExecutionContext getMemoryBudgetContext(DataSchema rightSchema,
+      MemoryOverflowMode memoryOverflowMode, int numRows) {
+    long rowSizeBytes = JoinHashTable.estimateRowSizeBytes(rightSchema.getStoredColumnDataTypes());
+    Map<String, String> opChainMetadata = ImmutableMap.of(CommonConstants.Broker.Request.TRACE, "true",
+        QueryOptionKey.MAX_QUERY_MEMORY_BYTES, Long.toString(rowSizeBytes * numRows),
+        QueryOptionKey.QUERY_MEMORY_OVERFLOW_MODE, memoryOverflowMode.name());
+    return new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE,
+        opChainMetadata, null, null);
+  }
 }
 // TODO: Add more inequi join tests.
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class PipelineBreakerResultOperatorTest {
+  private static final DataSchema SCHEMA =
+      new DataSchema(new String[]{"num", "val"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+
+  @Test
+  public void shouldReplayPipelineBreakerBlocks() {
+    // Given:
+    TransferableBlock block1 =
+        new TransferableBlock(ImmutableList.of(new Object[]{1, "a"}, new Object[]{2, "b"}), SCHEMA, DataBlock.Type.ROW);
+    TransferableBlock block2 =
+        new TransferableBlock(ImmutableList.of(new Object[]{3, "c"}), SCHEMA, DataBlock.Type.ROW);
+    PipelineBreakerResultOperator operator =
+        new PipelineBreakerResultOperator(OperatorTestUtil.getDefaultContext(), ImmutableList.of(block1, block2));
+
+    // When:
+    TransferableBlock result1 = operator.nextBlock();
+    TransferableBlock result2 = operator.nextBlock();
+
+    // Then:
+    Assert.assertEquals(result1.getContainer().size(), 2);
+    Assert.assertEquals(result1.getContainer().get(1), new Object[]{2, "b"});
+    Assert.assertEquals(result2.getContainer().get(0), new Object[]{3, "c"});
+    Assert.assertTrue(operator.nextBlock().isEndOfStreamBlock(), "Expected EOS after replaying all the blocks");
+  }
+
+  @Test
+  public void shouldReturnEosForEmptyPipelineBreakerResult() {
+    PipelineBreakerResultOperator operator =
+        new PipelineBreakerResultOperator(OperatorTestUtil.getDefaultContext(), Collections.emptyList());
+    Assert.assertTrue(operator.nextBlock().isEndOfStreamBlock());
+  }
+}
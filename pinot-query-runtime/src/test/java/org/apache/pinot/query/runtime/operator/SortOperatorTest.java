@@ -19,18 +19,27 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -645,6 +654,125 @@ public class SortOperatorTest {
     Assert.assertTrue(block2.isEndOfStreamBlock(), "expected EOS block to propagate");
   }
 
+  @Test
+  public void shouldSpillAndMergeSortedRunsWhenHitMemoryBudget() {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.DESCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort", "str"}, new DataSchema.ColumnDataType[]{INT, STRING});
+    OpChainExecutionContext context = getMemoryBudgetContext(schema, MemoryOverflowMode.SPILL, 3);
+    SortOperator op = new SortOperator(context, _input, collation, directions, nullDirections, 0, 0, schema, false);
+
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, new Object[]{3, "c"}, new Object[]{7, "g"}, new Object[]{1, "a"}))
+        .thenReturn(block(schema, new Object[]{8, "h"}, new Object[]{2, "b"}, new Object[]{9, "i"},
+            new Object[]{4, "d"}))
+        .thenReturn(block(schema, new Object[]{null, "z"}, new Object[]{5, "e"}))
+        .thenReturn(block(schema, new Object[]{6, "f"}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    List<Object[]> rows = new ArrayList<>();
+    TransferableBlock block = op.nextBlock();
+    while (block.isDataBlock()) {
+      rows.addAll(block.getContainer());
+      block = op.nextBlock();
+    }
+
+    // Then:
+    Assert.assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected EOS block after the merged rows");
+    Assert.assertEquals(rows.size(), 10);
+    for (int i = 0; i < 9; i++) {
+      Assert.assertEquals(rows.get(i), new Object[]{9 - i, String.valueOf((char) ('i' - i))});
+    }
+    Assert.assertEquals(rows.get(9), new Object[]{null, "z"});
+    Assert.assertFalse(context.getMemoryBudget().isExceeded(), "spilling should not flag the results as partial");
+  }
+
+  @Test
+  public void shouldApplyOffsetAndLimitWhenMergingSpilledRuns() {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.ASCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    OpChainExecutionContext context = getMemoryBudgetContext(schema, MemoryOverflowMode.SPILL, 2);
+    SortOperator op = new SortOperator(context, _input, collation, directions, nullDirections, 3, 2, schema, false);
+
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, new Object[]{6}, new Object[]{2}, new Object[]{9}))
+        .thenReturn(block(schema, new Object[]{1}, new Object[]{8}, new Object[]{4}))
+        .thenReturn(block(schema, new Object[]{3}, new Object[]{7}, new Object[]{5}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    TransferableBlock block = op.nextBlock();
+    TransferableBlock block2 = op.nextBlock();
+
+    // Then:
+    Assert.assertEquals(block.getContainer().toArray(), new Object[][]{{3}, {4}, {5}});
+    Assert.assertTrue(block2.isSuccessfulEndOfStreamBlock(), "expected EOS block after the merged rows");
+  }
+
+  @Test
+  public void shouldTrimRowsWhenHitMemoryBudget() {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.ASCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    OpChainExecutionContext context = getMemoryBudgetContext(schema, MemoryOverflowMode.TRIM, 2);
+    SortOperator op = new SortOperator(context, _input, collation, directions, nullDirections, 0, 0, schema, false);
+
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, new Object[]{6}, new Object[]{2}, new Object[]{9}))
+        .thenReturn(block(schema, new Object[]{1}, new Object[]{8}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    TransferableBlock block = op.nextBlock();
+
+    // Then:
+    Assert.assertEquals(block.getContainer().toArray(), new Object[][]{{1}, {2}});
+    Assert.assertTrue(context.getMemoryBudget().isExceeded(), "trimming should flag the results as partial");
+  }
+
+  @Test
+  public void shouldFailWhenHitMemoryBudgetWithThrowMode() {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.ASCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    OpChainExecutionContext context = getMemoryBudgetContext(schema, MemoryOverflowMode.THROW, 2);
+    SortOperator op = new SortOperator(context, _input, collation, directions, nullDirections, 0, 0, schema, false);
+
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, new Object[]{6}, new Object[]{2}, new Object[]{9}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    TransferableBlock block = op.nextBlock();
+
+    // Then:
+    Assert.assertTrue(block.isErrorBlock(), "expected error block when exceeding the memory budget");
+    Assert.assertTrue(block.getExceptions().containsKey(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE));
+  }
+
+  /**
+   * Returns a context with the query memory budget fitting the given number of rows.
+   */
+  private static OpChainExecutionContext getMemoryBudgetContext(DataSchema schema,
+      MemoryOverflowMode memoryOverflowMode, int numRows) {
+    long rowSizeBytes = QueryMemoryBudget.estimateRowSizeBytes(schema.getColumnDataTypes());
+    Map<String, String> opChainMetadata = ImmutableMap.of(CommonConstants.Broker.Request.TRACE, "true",
+        QueryOptionKey.MAX_QUERY_MEMORY_BYTES, Long.toString(rowSizeBytes * numRows),
+        QueryOptionKey.QUERY_MEMORY_OVERFLOW_MODE, memoryOverflowMode.name());
+    return new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE,
+        opChainMetadata, null, null);
+  }
+
   private static List<RexExpression> collation(int... indexes) {
     return Arrays.stream(indexes).mapToObj(RexExpression.InputRef::new).collect(Collectors.toList());
   }
@@ -294,4 +294,52 @@ public class SortedMailboxReceiveOperatorTest {
       assertTrue(receiveOp.nextBlock().isEndOfStreamBlock());
     }
   }
+
+  @Test
+  public void shouldMergeMailboxesSortedOnSender() {
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
+    when(_mailbox1.poll()).thenReturn(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{1, 1}, new Object[]{4, 4}),
+        OperatorTestUtil.block(DATA_SCHEMA, new Object[]{6, 6}),
+        TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_2))).thenReturn(_mailbox2);
+    when(_mailbox2.poll()).thenReturn(
+        OperatorTestUtil.block(DATA_SCHEMA, new Object[]{2, 2}, new Object[]{3, 3}, new Object[]{5, 5}),
+        TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    OpChainExecutionContext context =
+        OperatorTestUtil.getOpChainContext(_mailboxService, RECEIVER_ADDRESS, Long.MAX_VALUE, _stageMetadataBoth);
+    try (SortedMailboxReceiveOperator receiveOp = new SortedMailboxReceiveOperator(context,
+        RelDistribution.Type.HASH_DISTRIBUTED, DATA_SCHEMA, COLLATION_KEYS, COLLATION_DIRECTIONS,
+        COLLATION_NULL_DIRECTIONS, true, 1)) {
+      // Rows should be streamed out before receiving the end of stream from all the mailboxes
+      assertEquals(receiveOp.nextBlock().getContainer().toArray(), new Object[][]{{1, 1}, {2, 2}, {3, 3}, {4, 4}});
+      assertEquals(receiveOp.nextBlock().getContainer().toArray(), new Object[][]{{5, 5}});
+      assertEquals(receiveOp.nextBlock().getContainer().toArray(), new Object[][]{{6, 6}});
+      assertTrue(receiveOp.nextBlock().isEndOfStreamBlock());
+    }
+  }
+
+  @Test
+  public void shouldYieldWhenMergingMailboxesWithoutData() {
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
+    when(_mailbox1.poll()).thenReturn(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{1, 1}),
+        TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_2))).thenReturn(_mailbox2);
+    when(_mailbox2.poll()).thenReturn(null, OperatorTestUtil.block(DATA_SCHEMA, new Object[]{2, 2}),
+        TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    OpChainExecutionContext context =
+        OperatorTestUtil.getOpChainContext(_mailboxService, RECEIVER_ADDRESS, Long.MAX_VALUE, _stageMetadataBoth);
+    context.setDataAvailableCallback(() -> {
+    });
+    try (SortedMailboxReceiveOperator receiveOp = new SortedMailboxReceiveOperator(context,
+        RelDistribution.Type.HASH_DISTRIBUTED, DATA_SCHEMA, COLLATION_KEYS, COLLATION_DIRECTIONS,
+        COLLATION_NULL_DIRECTIONS, true, 1)) {
+      // No row can be merged before the second mailbox has data
+      assertTrue(receiveOp.nextBlock().isNoOpBlock());
+      assertEquals(receiveOp.nextBlock().getContainer().toArray(), new Object[][]{{1, 1}});
+      assertEquals(receiveOp.nextBlock().getContainer().toArray(), new Object[][]{{2, 2}});
+      assertTrue(receiveOp.nextBlock().isEndOfStreamBlock());
+    }
+  }
 }
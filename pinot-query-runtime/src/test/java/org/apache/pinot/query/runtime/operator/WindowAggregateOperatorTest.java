@@ -23,19 +23,26 @@ import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.utils.QueryMemoryBudget;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.WindowNode;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.utils.AggregationUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.Query.MemoryOverflowMode;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -268,7 +275,8 @@ public class WindowAggregateOperatorTest {
   }
 
   @Test
-  public void testPartitionByWindowAggregateWithHashCollision() {
+  public void testPartitionByWindowAggregateWithHashCollision()
+      throws ProcessingException {
     MultiStageOperator upstreamOperator = OperatorTestUtil.getOperator(OperatorTestUtil.OP_1);
     // Create an aggregation call with sum for first column and group by second column.
     List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(0)));
@@ -327,7 +335,8 @@ public class WindowAggregateOperatorTest {
   }
 
   @Test
-  public void testRankDenseRankRankingFunctions() {
+  public void testRankDenseRankRankingFunctions()
+      throws ProcessingException {
     // Given:
     List<RexExpression> calls =
         ImmutableList.of(new RexExpression.FunctionCall(SqlKind.RANK, ColumnDataType.INT, "RANK", ImmutableList.of()),
@@ -386,7 +395,8 @@ public class WindowAggregateOperatorTest {
   }
 
   @Test
-  public void testRowNumberRankingFunction() {
+  public void testRowNumberRankingFunction()
+      throws ProcessingException {
     // Given:
     List<RexExpression> calls = ImmutableList.of(
         new RexExpression.FunctionCall(SqlKind.ROW_NUMBER, ColumnDataType.INT, "ROW_NUMBER", ImmutableList.of()));
@@ -442,7 +452,8 @@ public class WindowAggregateOperatorTest {
   }
 
   @Test
-  public void testNonEmptyOrderByKeysNotMatchingPartitionByKeys() {
+  public void testNonEmptyOrderByKeysNotMatchingPartitionByKeys()
+      throws ProcessingException {
     // Given:
     List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(0)));
     List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
@@ -518,22 +529,124 @@ public class WindowAggregateOperatorTest {
 
   @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "Only RANGE type frames "
       + "are supported at present.*")
-  public void testShouldThrowOnCustomFramesRows() {
-    // TODO: Remove this test once custom frame support is added
+  public void testShouldThrowOnRowsFramesForRank() {
     // Given:
-    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> calls =
+        ImmutableList.of(new RexExpression.FunctionCall(SqlKind.RANK, ColumnDataType.INT, "RANK", ImmutableList.of()));
     List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+    List<RexExpression> order = ImmutableList.of(new RexExpression.InputRef(1));
 
     DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, STRING});
     Mockito.when(_input.nextBlock()).thenReturn(OperatorTestUtil.block(inSchema, new Object[]{2, "foo"}))
         .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
 
     DataSchema outSchema =
-        new DataSchema(new String[]{"group", "arg", "sum"}, new ColumnDataType[]{INT, STRING, DOUBLE});
+        new DataSchema(new String[]{"group", "arg", "rank"}, new ColumnDataType[]{INT, STRING, LONG});
     WindowAggregateOperator operator =
-        new WindowAggregateOperator(OperatorTestUtil.getDefaultContext(), _input, group, Collections.emptyList(),
-            Collections.emptyList(), Collections.emptyList(), calls, Integer.MIN_VALUE, Integer.MAX_VALUE,
-            WindowNode.WindowFrameType.ROWS, Collections.emptyList(), outSchema, inSchema);
+        new WindowAggregateOperator(OperatorTestUtil.getDefaultContext(), _input, group, order, Collections.emptyList(),
+            Collections.emptyList(), calls, Integer.MIN_VALUE, 0, WindowNode.WindowFrameType.ROWS,
+            Collections.emptyList(), outSchema, inSchema);
+  }
+
+  @Test
+  public void testShouldWindowAggregateOverRowsFrames() {
+    // Given:
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    // Input should be in sorted order on the order by key as SortExchange will handle pre-sorting the data
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1}, new Object[]{2, 2}, new Object[]{1, 3}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 4}, new Object[]{2, 5}, new Object[]{1, 6}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING
+    WindowAggregateOperator operator =
+        getRowsFrameOperator(OperatorTestUtil.getDefaultContext(), inSchema, -1, 1);
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    Assert.assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected EOS block after the window results");
+    Assert.assertEquals(resultRows.toArray(), new Object[][]{
+        {1, 1, 4.0, 1.0, 2L}, {1, 3, 8.0, 1.0, 3L}, {1, 4, 13.0, 3.0, 3L}, {1, 6, 10.0, 4.0, 2L},
+        {2, 2, 7.0, 2.0, 2L}, {2, 5, 7.0, 2.0, 2L}
+    });
+  }
+
+  @Test
+  public void testShouldWindowAggregateOverEmptyRowsFrames() {
+    // Given:
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1}, new Object[]{1, 2}, new Object[]{1, 3}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // ROWS BETWEEN 2 PRECEDING AND 1 PRECEDING, where the frame of the first row is empty
+    WindowAggregateOperator operator =
+        getRowsFrameOperator(OperatorTestUtil.getDefaultContext(), inSchema, -2, -1);
+
+    // When:
+    TransferableBlock block = operator.nextBlock();
+
+    // Then:
+    Assert.assertEquals(block.getContainer().toArray(), new Object[][]{
+        {1, 1, null, null, 0L}, {1, 2, 1.0, 1.0, 1L}, {1, 3, 3.0, 1.0, 2L}
+    });
+  }
+
+  @Test
+  public void testShouldSpillPartitionsWhenHitMemoryBudget() {
+    // Given:
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1}, new Object[]{2, 2}, new Object[]{1, 3}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 4}, new Object[]{2, 5}, new Object[]{1, 6}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW
+    WindowAggregateOperator operator =
+        getRowsFrameOperator(getMemoryBudgetContext(inSchema, MemoryOverflowMode.SPILL, 2), inSchema,
+            Integer.MIN_VALUE, 0);
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    Assert.assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected EOS block after the window results");
+    // The spilled partitions are returned in the order of the spilled hash partitions
+    resultRows.sort(Comparator.comparingInt((Object[] row) -> (int) row[0]).thenComparingInt(row -> (int) row[1]));
+    Assert.assertEquals(resultRows.toArray(), new Object[][]{
+        {1, 1, 1.0, 1.0, 1L}, {1, 3, 4.0, 1.0, 2L}, {1, 4, 8.0, 1.0, 3L}, {1, 6, 14.0, 1.0, 4L},
+        {2, 2, 2.0, 2.0, 1L}, {2, 5, 7.0, 2.0, 2L}
+    });
+  }
+
+  @Test
+  public void testShouldFailWhenHitMemoryBudgetWithThrowMode() {
+    // Given:
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1}, new Object[]{2, 2}, new Object[]{1, 3}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    WindowAggregateOperator operator =
+        getRowsFrameOperator(getMemoryBudgetContext(inSchema, MemoryOverflowMode.THROW, 2), inSchema, -1, 0);
+
+    // When:
+    TransferableBlock block = operator.nextBlock();
+
+    // Then:
+    Assert.assertTrue(block.isErrorBlock(), "expected error block when exceeding the memory budget");
+    Assert.assertTrue(block.getExceptions().containsKey(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE));
   }
 
   @Test
@@ -635,6 +748,33 @@ public class WindowAggregateOperatorTest {
         "expected it to fail with class cast exception");
   }
 
+  private WindowAggregateOperator getRowsFrameOperator(OpChainExecutionContext context, DataSchema inSchema,
+      int lowerBound, int upperBound) {
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)),
+        new RexExpression.FunctionCall(SqlKind.MIN, ColumnDataType.INT, "MIN",
+            ImmutableList.of(new RexExpression.InputRef(1))),
+        new RexExpression.FunctionCall(SqlKind.COUNT, ColumnDataType.LONG, "COUNT",
+            ImmutableList.of(new RexExpression.InputRef(1))));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+    List<RexExpression> order = ImmutableList.of(new RexExpression.InputRef(1));
+    DataSchema outSchema = new DataSchema(new String[]{"group", "arg", "sum", "min", "count"},
+        new ColumnDataType[]{INT, INT, DOUBLE, DOUBLE, LONG});
+    return new WindowAggregateOperator(context, _input, group, order, Collections.emptyList(), Collections.emptyList(),
+        calls, lowerBound, upperBound, WindowNode.WindowFrameType.ROWS, Collections.emptyList(), outSchema, inSchema);
+  }
+
+  /**
+   * Returns a context with the query memory budget fitting the given number of rows.
+   */
+  private static OpChainExecutionContext getMemoryBudgetContext(DataSchema schema,
+      MemoryOverflowMode memoryOverflowMode, int numRows) {
+    long rowSizeBytes = QueryMemoryBudget.estimateRowSizeBytes(schema.getColumnDataTypes());
+    Map<String, String> opChainMetadata = ImmutableMap.of(QueryOptionKey.MAX_QUERY_MEMORY_BYTES,
+        Long.toString(rowSizeBytes * numRows), QueryOptionKey.QUERY_MEMORY_OVERFLOW_MODE, memoryOverflowMode.name());
+    return new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE,
+        opChainMetadata, null, null);
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(SqlKind.SUM, ColumnDataType.INT, "SUM", ImmutableList.of(arg));
   }
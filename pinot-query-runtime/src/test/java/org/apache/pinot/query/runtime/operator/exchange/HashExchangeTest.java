@@ -20,13 +20,19 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
+import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.OperatorStats;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -38,6 +44,8 @@ import org.testng.annotations.Test;
 
 
 public class HashExchangeTest {
+  private static final int NUM_ROWS_PER_SKEWED_BLOCK = 8192;
+
   private AutoCloseable _mocks;
 
   @Mock
@@ -83,6 +91,68 @@ public class HashExchangeTest {
     Assert.assertEquals(captor.getValue().getContainer().get(0), new Object[]{2});
   }
 
+  @Test
+  public void shouldSplitHotKeysAcrossMailboxes()
+      throws Exception {
+    KeySelector<?> selector = KeySelectorFactory.getKeySelector(Collections.singletonList(0));
+    int hotKeyMailboxId = selector.computeHash(new Object[]{0}) % 2;
+
+    // Without splitting, all the rows of the hot key are sent to the same mailbox
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+    HashExchange exchange = new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock);
+    exchange.route(destinations, getSkewedBlock());
+    exchange.route(destinations, getSkewedBlock());
+    Assert.assertEquals(countHotKeyRows(destinations.get(1 - hotKeyMailboxId)), 0);
+    OperatorStats operatorStats = new OperatorStats(1, 1, null);
+    exchange.recordStats(operatorStats);
+    Assert.assertEquals(operatorStats.getExecutionStats().get(DataTable.MetadataKey.NUM_HOT_KEYS.getName()), "1");
+    double skewRatio = Double.parseDouble(
+        operatorStats.getExecutionStats().get(DataTable.MetadataKey.EXCHANGE_SKEW_RATIO.getName()));
+    Assert.assertTrue(skewRatio >= 1.5, "Skew ratio: " + skewRatio);
+
+    // With splitting, the rows of the hot key are sent to both mailboxes once the hot key is detected
+    SendingMailbox mailbox1 = Mockito.mock(SendingMailbox.class);
+    SendingMailbox mailbox2 = Mockito.mock(SendingMailbox.class);
+    destinations = ImmutableList.of(mailbox1, mailbox2);
+    exchange = new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock, true);
+    exchange.route(destinations, getSkewedBlock());
+    exchange.route(destinations, getSkewedBlock());
+    Assert.assertEquals(countHotKeyRows(destinations.get(1 - hotKeyMailboxId)), 3 * NUM_ROWS_PER_SKEWED_BLOCK / 8);
+    operatorStats = new OperatorStats(1, 1, null);
+    exchange.recordStats(operatorStats);
+    Assert.assertEquals(operatorStats.getExecutionStats().get(DataTable.MetadataKey.NUM_HOT_KEYS.getName()), "1");
+    double splitSkewRatio = Double.parseDouble(
+        operatorStats.getExecutionStats().get(DataTable.MetadataKey.EXCHANGE_SKEW_RATIO.getName()));
+    Assert.assertTrue(splitSkewRatio < skewRatio,
+        "Skew ratio: " + splitSkewRatio + ", without splitting: " + skewRatio);
+  }
+
+  // 3/4 of the rows have the hot key 0, and the other rows have distinct keys
+  private static TransferableBlock getSkewedBlock() {
+    List<Object[]> rows = new ArrayList<>(NUM_ROWS_PER_SKEWED_BLOCK);
+    for (int i = 0; i < NUM_ROWS_PER_SKEWED_BLOCK; i++) {
+      rows.add(new Object[]{i % 4 == 0 ? i + 1 : 0});
+    }
+    return new TransferableBlock(rows,
+        new DataSchema(new String[]{"col1"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT}),
+        DataBlock.Type.ROW);
+  }
+
+  private static int countHotKeyRows(SendingMailbox mailbox)
+      throws Exception {
+    ArgumentCaptor<TransferableBlock> captor = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(mailbox, Mockito.atLeast(0)).send(captor.capture());
+    int numHotKeyRows = 0;
+    for (TransferableBlock block : captor.getAllValues()) {
+      for (Object[] row : block.getContainer()) {
+        if ((int) row[0] == 0) {
+          numHotKeyRows++;
+        }
+      }
+    }
+    return numHotKeyRows;
+  }
+
   private static class TestSelector implements KeySelector<Object> {
     private final Iterator<Integer> _hashes;
 
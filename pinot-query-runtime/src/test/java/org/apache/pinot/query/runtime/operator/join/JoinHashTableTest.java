@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class JoinHashTableTest {
+  private static final DataSchema SCHEMA = new DataSchema(new String[]{"intCol", "longCol", "stringCol", "doubleCol"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG, ColumnDataType.STRING, ColumnDataType.DOUBLE});
+  private static final List<Object[]> ROWS = Arrays.asList(
+      new Object[]{1, 10L, "a", 1.0},
+      new Object[]{2, 20L, "b", null},
+      new Object[]{1, 10L, "a", 3.0},
+      new Object[]{null, null, null, 4.0},
+      new Object[]{1, 30L, "c", 5.0}
+  );
+
+  @DataProvider
+  public Object[][] keys() {
+    return new Object[][]{
+        new Object[]{Arrays.asList(0), IntKeyJoinHashTable.class},
+        new Object[]{Arrays.asList(1), LongKeyJoinHashTable.class},
+        new Object[]{Arrays.asList(2), ObjectKeyJoinHashTable.class},
+        new Object[]{Arrays.asList(0, 1), ObjectKeyJoinHashTable.class}
+    };
+  }
+
+  @Test(dataProvider = "keys")
+  public void testAddBlock(List<Integer> keyIds, Class<? extends JoinHashTable> expectedClass) {
+    for (boolean fromDataBlock : new boolean[]{false, true}) {
+      JoinHashTable hashTable = JoinHashTableFactory.getJoinHashTable(SCHEMA, SCHEMA, keyIds, keyIds, true);
+      assertEquals(hashTable.getClass(), expectedClass);
+      // Add the rows in 2 blocks, where the last row of the second block is excluded
+      hashTable.addBlock(getBlock(ROWS.subList(0, 2), fromDataBlock), 2);
+      hashTable.addBlock(getBlock(ROWS.subList(2, 5), fromDataBlock), 2);
+      assertEquals(hashTable.getNumRows(), 4);
+      assertEquals(hashTable.getNumGroups(), 3);
+
+      // Rows with the same key should be returned in the insertion order
+      for (int i = 0; i < 4; i++) {
+        Object[] row = ROWS.get(i);
+        int groupId = hashTable.getGroupId(getKey(row, keyIds));
+        assertNotEquals(groupId, JoinHashTable.INVALID_ID);
+        List<Object[]> rows = getRows(hashTable, groupId);
+        List<Object[]> expectedRows = new ArrayList<>();
+        for (int j = 0; j < 4; j++) {
+          if (Objects.equals(getKey(ROWS.get(j), keyIds), getKey(row, keyIds))) {
+            expectedRows.add(ROWS.get(j));
+          }
+        }
+        assertEquals(rows.size(), expectedRows.size());
+        for (int j = 0; j < rows.size(); j++) {
+          assertEquals(rows.get(j), expectedRows.get(j));
+        }
+      }
+      assertEquals(hashTable.getGroupId(getKey(ROWS.get(4), keyIds)),
+          keyIds.size() == 1 && keyIds.get(0) == 0 ? hashTable.getGroupId(1) : JoinHashTable.INVALID_ID);
+    }
+  }
+
+  @Test
+  public void testKeysOnly() {
+    List<Integer> keyIds = Arrays.asList(2);
+    JoinHashTable hashTable = JoinHashTableFactory.getJoinHashTable(SCHEMA, SCHEMA, keyIds, keyIds, false);
+    hashTable.addBlock(getBlock(ROWS, false), ROWS.size());
+    assertEquals(hashTable.getNumRows(), 5);
+    assertEquals(hashTable.getNumGroups(), 4);
+    assertNotEquals(hashTable.getGroupId("c"), JoinHashTable.INVALID_ID);
+    assertEquals(hashTable.getGroupId("d"), JoinHashTable.INVALID_ID);
+    Object[] row = new Object[2];
+    hashTable.fillRow(0, row, 1);
+    assertEquals(row, new Object[2]);
+  }
+
+  @Test
+  public void testKeyTypeMismatch() {
+    // INT key on the left should not be looked up in the LONG key hash table
+    DataSchema leftSchema = new DataSchema(new String[]{"intCol"}, new ColumnDataType[]{ColumnDataType.INT});
+    JoinHashTable hashTable =
+        JoinHashTableFactory.getJoinHashTable(leftSchema, SCHEMA, Arrays.asList(0), Arrays.asList(1), true);
+    assertTrue(hashTable instanceof ObjectKeyJoinHashTable);
+  }
+
+  private static TransferableBlock getBlock(List<Object[]> rows, boolean fromDataBlock) {
+    if (!fromDataBlock) {
+      return new TransferableBlock(rows, SCHEMA, DataBlock.Type.ROW);
+    }
+    try {
+      return new TransferableBlock(DataBlockBuilder.buildFromRows(rows, SCHEMA));
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Object getKey(Object[] row, List<Integer> keyIds) {
+    if (keyIds.size() == 1) {
+      return row[keyIds.get(0)];
+    }
+    Object[] values = new Object[keyIds.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = row[keyIds.get(i)];
+    }
+    return new Key(values);
+  }
+
+  private static List<Object[]> getRows(JoinHashTable hashTable, int groupId) {
+    List<Object[]> rows = new ArrayList<>();
+    for (int rowId = hashTable.getFirstRowId(groupId); rowId != JoinHashTable.INVALID_ID;
+        rowId = hashTable.getNextRowId(rowId)) {
+      Object[] row = new Object[SCHEMA.size()];
+      hashTable.fillRow(rowId, row, 0);
+      rows.add(row);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SpilledJoinPartitionsTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SpilledJoinPartitionsTest");
+  private static final DataSchema SCHEMA = new DataSchema(new String[]{"intCol", "stringCol"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testSpillAndRead() {
+    int numRows = 25_000;
+    List<List<Object[]>> expectedRows = new ArrayList<>();
+    for (int i = 0; i < SpilledJoinPartitions.NUM_PARTITIONS; i++) {
+      expectedRows.add(new ArrayList<>());
+    }
+    try (SpilledJoinPartitions partitions = new SpilledJoinPartitions(TEMP_DIR, SCHEMA)) {
+      for (int i = 0; i < numRows; i++) {
+        Object[] row = new Object[]{i, "value_" + i};
+        int partitionId = SpilledJoinPartitions.getPartitionId(Integer.hashCode(i));
+        partitions.addRow(partitionId, row);
+        expectedRows.get(partitionId).add(row);
+      }
+      partitions.finishWriting();
+      assertEquals(partitions.getNumSpilledRows(), numRows);
+      assertTrue(partitions.getNumSpilledBytes() > 0);
+
+      for (int i = 0; i < SpilledJoinPartitions.NUM_PARTITIONS; i++) {
+        List<Object[]> partitionRows = expectedRows.get(i);
+        // Rows should be evenly distributed across the partitions
+        assertTrue(partitionRows.size() > numRows / SpilledJoinPartitions.NUM_PARTITIONS / 2);
+        assertEquals(partitions.getNumRows(i), partitionRows.size());
+        List<Object[]> rows = new ArrayList<>();
+        SpilledJoinPartitions.PartitionReader reader = partitions.openPartition(i);
+        DataBlock dataBlock;
+        while ((dataBlock = reader.nextBlock()) != null) {
+          rows.addAll(DataBlockExtractUtils.extractRows(dataBlock));
+        }
+        assertNull(reader.nextBlock());
+        assertEquals(rows.size(), partitionRows.size());
+        for (int j = 0; j < rows.size(); j++) {
+          assertEquals(rows.get(j), partitionRows.get(j));
+        }
+      }
+      assertTrue(TEMP_DIR.list().length > 0);
+    }
+    // Spill directory should be deleted after closing
+    assertEquals(TEMP_DIR.list().length, 0);
+  }
+
+  @Test
+  public void testEmptyPartitions() {
+    try (SpilledJoinPartitions partitions = new SpilledJoinPartitions(TEMP_DIR, SCHEMA)) {
+      partitions.finishWriting();
+      assertEquals(partitions.getNumSpilledRows(), 0);
+      assertNull(partitions.openPartition(0).nextBlock());
+    }
+    assertFalse(TEMP_DIR.exists() && TEMP_DIR.list().length > 0);
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class SlidingWindowAggregatorTest {
+  private static final BinaryOperator<Object> SUM = (left, right) -> (long) left + (long) right;
+  private static final BinaryOperator<Object> MIN = (left, right) -> Math.min((long) left, (long) right);
+
+  @Test
+  public void testBoundedFrames() {
+    Object[] values = new Object[]{3L, 1L, 4L, 1L, 5L, 9L, 2L};
+    SlidingWindowAggregator sum = new SlidingWindowAggregator(SUM, 0L);
+    // ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING
+    assertEquals(sum.aggregate(values, -1, 1), new Object[]{4L, 8L, 6L, 10L, 15L, 16L, 11L});
+    // ROWS BETWEEN 2 PRECEDING AND CURRENT ROW
+    assertEquals(sum.aggregate(values, -2, 0), new Object[]{3L, 4L, 8L, 6L, 10L, 15L, 16L});
+    // ROWS BETWEEN 1 FOLLOWING AND 2 FOLLOWING, where the frame of the last row is empty
+    assertEquals(sum.aggregate(values, 1, 2), new Object[]{5L, 5L, 6L, 14L, 11L, 2L, 0L});
+    // ROWS BETWEEN 3 PRECEDING AND 2 PRECEDING, where the frames of the first 2 rows are empty
+    SlidingWindowAggregator min = new SlidingWindowAggregator(MIN, null);
+    assertEquals(min.aggregate(values, -3, -2), new Object[]{null, null, 3L, 1L, 1L, 1L, 1L});
+  }
+
+  @Test
+  public void testUnboundedFrames() {
+    Object[] values = new Object[]{3L, 1L, 4L, 1L, 5L};
+    SlidingWindowAggregator sum = new SlidingWindowAggregator(SUM, 0L);
+    assertEquals(sum.aggregate(values, Integer.MIN_VALUE, 0), new Object[]{3L, 4L, 8L, 9L, 14L});
+    assertEquals(sum.aggregate(values, 0, Integer.MAX_VALUE), new Object[]{14L, 11L, 10L, 6L, 5L});
+    assertEquals(sum.aggregate(values, Integer.MIN_VALUE, Integer.MAX_VALUE), new Object[]{14L, 14L, 14L, 14L, 14L});
+    assertEquals(sum.aggregate(values, Integer.MIN_VALUE, -4), new Object[]{0L, 0L, 0L, 0L, 3L});
+    assertEquals(sum.aggregate(new Object[0], -1, 1), new Object[0]);
+  }
+
+  @Test
+  public void testRandomFrames() {
+    Random random = new Random();
+    SlidingWindowAggregator min = new SlidingWindowAggregator(MIN, null);
+    for (int iteration = 0; iteration < 100; iteration++) {
+      int numRows = random.nextInt(100);
+      Object[] values = new Object[numRows];
+      for (int i = 0; i < numRows; i++) {
+        values[i] = (long) random.nextInt(1000);
+      }
+      int lowerBound = random.nextInt(20) - 10;
+      int upperBound = lowerBound + random.nextInt(20);
+      Object[] results = min.aggregate(values, lowerBound, upperBound);
+      for (int i = 0; i < numRows; i++) {
+        Long expected = null;
+        for (int j = Math.max(i + lowerBound, 0); j <= Math.min(i + upperBound, numRows - 1); j++) {
+          expected = expected == null ? (Long) values[j] : Math.min(expected, (long) values[j]);
+        }
+        assertEquals(results[i], expected);
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SortedRowsMergerTest {
+
+  @Test
+  public void testMergeWaitsForAllInputs() {
+    SortedRowsMerger merger = new SortedRowsMerger(2, (r1, r2) -> Integer.compare((int) r1[0], (int) r2[0]));
+    assertEquals(merger.getNumWaitingInputs(), 2);
+    merger.addRows(0, Arrays.asList(new Object[]{1}, new Object[]{4}));
+    // Cannot poll before all the inputs have rows
+    assertNull(merger.poll());
+    assertFalse(merger.isFinished());
+
+    // Empty batch should be ignored
+    merger.addRows(1, Collections.emptyList());
+    assertTrue(merger.isWaiting(1));
+    merger.addRows(1, Arrays.asList(new Object[]{2}, new Object[]{3}));
+    assertEquals(merger.poll(), new Object[]{1});
+    assertEquals(merger.poll(), new Object[]{2});
+    assertEquals(merger.poll(), new Object[]{3});
+    // Input 1 is drained, so it should wait for more rows
+    assertEquals(merger.getLastPolledInputId(), 1);
+    assertTrue(merger.isWaiting(1));
+    assertNull(merger.poll());
+
+    merger.finish(1);
+    assertEquals(merger.poll(), new Object[]{4});
+    assertTrue(merger.isWaiting(0));
+    merger.finish(0);
+    assertNull(merger.poll());
+    assertTrue(merger.isFinished());
+  }
+
+  @Test
+  public void testNoInputs() {
+    SortedRowsMerger merger = new SortedRowsMerger(0, (r1, r2) -> 0);
+    assertTrue(merger.isFinished());
+    assertNull(merger.poll());
+  }
+}
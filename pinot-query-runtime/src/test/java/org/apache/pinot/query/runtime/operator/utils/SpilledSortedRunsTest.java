@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SpilledSortedRunsTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SpilledSortedRunsTest");
+  private static final DataSchema SCHEMA = new DataSchema(new String[]{"intCol", "stringCol"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testSpillAndMerge() {
+    int numRuns = 3;
+    int numRowsPerRun = 25_000;
+    try (SpilledSortedRuns runs = new SpilledSortedRuns(TEMP_DIR, SCHEMA)) {
+      // Run i contains the values congruent to i modulo the number of runs
+      for (int i = 0; i < numRuns; i++) {
+        List<Object[]> rows = new ArrayList<>(numRowsPerRun);
+        for (int j = 0; j < numRowsPerRun; j++) {
+          int value = j * numRuns + i;
+          rows.add(new Object[]{value, "value_" + value});
+        }
+        assertEquals(runs.addRun(rows), i);
+      }
+      assertEquals(runs.getNumRuns(), numRuns);
+      assertEquals(runs.getNumRows(1), numRowsPerRun);
+      assertEquals(runs.getNumSpilledRows(), (long) numRuns * numRowsPerRun);
+      assertTrue(runs.getNumSpilledBytes() > 0);
+
+      // Merge the runs one block at a time
+      SortedRowsMerger merger = new SortedRowsMerger(numRuns, (r1, r2) -> Integer.compare((int) r1[0], (int) r2[0]));
+      SpilledSortedRuns.RunReader[] readers = new SpilledSortedRuns.RunReader[numRuns];
+      for (int i = 0; i < numRuns; i++) {
+        readers[i] = runs.openRun(i);
+        fill(merger, readers[i], i);
+      }
+      int expectedValue = 0;
+      while (true) {
+        if (merger.getNumWaitingInputs() > 0) {
+          int inputId = merger.getLastPolledInputId();
+          fill(merger, readers[inputId], inputId);
+        }
+        Object[] row = merger.poll();
+        if (row == null) {
+          break;
+        }
+        assertEquals(row, new Object[]{expectedValue, "value_" + expectedValue});
+        expectedValue++;
+      }
+      assertTrue(merger.isFinished());
+      assertEquals(expectedValue, numRuns * numRowsPerRun);
+      assertTrue(TEMP_DIR.list().length > 0);
+    }
+    // Spill directory should be deleted after closing
+    assertEquals(TEMP_DIR.list().length, 0);
+  }
+
+  @Test
+  public void testEmptyRun() {
+    try (SpilledSortedRuns runs = new SpilledSortedRuns(TEMP_DIR, SCHEMA)) {
+      runs.addRun(new ArrayList<>());
+      assertEquals(runs.getNumSpilledRows(), 0);
+      assertNull(runs.openRun(0).nextBlock());
+    }
+    assertFalse(TEMP_DIR.exists() && TEMP_DIR.list().length > 0);
+  }
+
+  private static void fill(SortedRowsMerger merger, SpilledSortedRuns.RunReader reader, int inputId) {
+    DataBlock dataBlock = reader.nextBlock();
+    if (dataBlock != null) {
+      merger.addRows(inputId, DataBlockExtractUtils.extractRows(dataBlock));
+    } else {
+      merger.finish(inputId);
+    }
+  }
+}
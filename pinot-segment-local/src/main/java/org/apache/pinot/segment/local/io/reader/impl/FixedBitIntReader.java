@@ -49,6 +49,36 @@ public abstract class FixedBitIntReader {
    */
   public abstract void read32(int index, int[] out, int outPos);
 
+  /**
+   * Reads {@code length} consecutive values starting from the given index into the output array. All the values must be
+   * included in the data buffer, i.e. {@code startIndex + length <= numValues}.
+   * <p>The values within the 32-aligned blocks are unpacked with {@link #read32(int, int[], int)}, and only the values
+   * before the first block and after the last block are read one by one.
+   */
+  public void read(int startIndex, int length, int[] out, int outPos) {
+    int endIndex = startIndex + length;
+    int index = startIndex;
+    if (length >= 64) {
+      int bulkStartIndex = (startIndex + 31) & 0xffffffe0;
+      int bulkEndIndex = endIndex & 0xffffffe0;
+      for (; index < bulkStartIndex; index++) {
+        out[outPos++] = readUnchecked(index);
+      }
+      for (; index < bulkEndIndex; index += 32) {
+        read32(index, out, outPos);
+        outPos += 32;
+      }
+    }
+    // The last two values might be the last two values in the data buffer, so read them with boundary check
+    int uncheckedEndIndex = endIndex - 2;
+    for (; index < uncheckedEndIndex; index++) {
+      out[outPos++] = readUnchecked(index);
+    }
+    for (; index < endIndex; index++) {
+      out[outPos++] = read(index);
+    }
+  }
+
   public static FixedBitIntReader getReader(PinotDataBuffer dataBuffer, int numBitsPerValue) {
     switch (numBitsPerValue) {
       case 1:
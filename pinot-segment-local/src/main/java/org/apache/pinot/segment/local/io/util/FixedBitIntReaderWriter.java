@@ -20,18 +20,27 @@ package org.apache.pinot.segment.local.io.util;
 
 import com.google.common.base.Preconditions;
 import java.io.Closeable;
+import java.nio.ByteOrder;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.io.reader.impl.FixedBitIntReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 
 
 public final class FixedBitIntReaderWriter implements Closeable {
   private final PinotDataBitSet _dataBitSet;
   private final int _numBitsPerValue;
+  // Reader specialized for the number of bits per value for the bulk reads, null if the number of bits or the byte
+  // order of the buffer is not supported
+  @Nullable
+  private final FixedBitIntReader _bulkReader;
 
   public FixedBitIntReaderWriter(PinotDataBuffer dataBuffer, int numValues, int numBitsPerValue) {
     Preconditions
         .checkState(dataBuffer.size() == (int) (((long) numValues * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE));
     _dataBitSet = new PinotDataBitSet(dataBuffer);
     _numBitsPerValue = numBitsPerValue;
+    _bulkReader = numBitsPerValue > 0 && numBitsPerValue < Integer.SIZE && dataBuffer.order() == ByteOrder.BIG_ENDIAN
+        ? FixedBitIntReader.getReader(dataBuffer, numBitsPerValue) : null;
   }
 
   public int readInt(int index) {
@@ -39,7 +48,11 @@ public final class FixedBitIntReaderWriter implements Closeable {
   }
 
   public void readInt(int startIndex, int length, int[] buffer) {
-    _dataBitSet.readInt(startIndex, _numBitsPerValue, length, buffer);
+    if (_bulkReader != null) {
+      _bulkReader.read(startIndex, length, buffer, 0);
+    } else {
+      _dataBitSet.readInt(startIndex, _numBitsPerValue, length, buffer);
+    }
   }
 
   public void writeInt(int index, int value) {
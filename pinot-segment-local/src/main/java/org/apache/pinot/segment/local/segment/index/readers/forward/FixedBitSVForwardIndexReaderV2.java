@@ -65,33 +65,24 @@ public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<
   public void readDictIds(int[] docIds, int length, int[] dictIdBuffer, ForwardIndexReaderContext context) {
     int firstDocId = docIds[0];
     int lastDocId = docIds[length - 1];
-    int index = 0;
 
     // Use bulk read if the doc ids are sequential
-    if (lastDocId - firstDocId + 1 == length && length >= 64) {
-      int bulkStartIndex = (firstDocId + 31) & 0xffffffe0;
-      int bulkEndIndex = lastDocId & 0xffffffe0;
-
-      for (int i = firstDocId; i < bulkStartIndex; i++) {
-        dictIdBuffer[index++] = _reader.readUnchecked(i);
-      }
-      for (int i = bulkStartIndex; i < bulkEndIndex; i += 32) {
-        _reader.read32(i, dictIdBuffer, index);
-        index += 32;
-      }
+    if (lastDocId - firstDocId + 1 == length) {
+      _reader.read(firstDocId, length, dictIdBuffer, 0);
+      return;
     }
 
-    // Process the remaining docs
+    // Read the dict ids one by one for the non-sequential doc ids
     if (lastDocId < _numDocs - 2) {
-      for (int i = index; i < length; i++) {
+      for (int i = 0; i < length; i++) {
         dictIdBuffer[i] = _reader.readUnchecked(docIds[i]);
       }
     } else {
       dictIdBuffer[length - 1] = _reader.read(lastDocId);
       int uncheckedEndIndex = length - 2;
-      if (uncheckedEndIndex >= index) {
+      if (uncheckedEndIndex >= 0) {
         dictIdBuffer[uncheckedEndIndex] = _reader.read(docIds[uncheckedEndIndex]);
-        for (int i = index; i < uncheckedEndIndex; i++) {
+        for (int i = 0; i < uncheckedEndIndex; i++) {
           dictIdBuffer[i] = _reader.readUnchecked(docIds[i]);
         }
       }
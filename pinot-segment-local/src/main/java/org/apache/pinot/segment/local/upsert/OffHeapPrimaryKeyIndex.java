@@ -0,0 +1,309 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Longs;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Off-heap hash index from the hashed primary key (16 bytes, e.g. MD5 or MURMUR3 hash) to the record location, which
+ * contains the segment id, the doc id and the comparison value encoded as a long.
+ * <p>The index is an open addressing hash table with linear probing stored in a direct {@link PinotDataBuffer}, where
+ * each entry takes {@link #ENTRY_SIZE} bytes. Because the keys are already uniformly distributed hashes, the first 8
+ * bytes of the key are used as the hash code directly. Entries are removed with backward shift deletion, so that no
+ * tombstone is needed.
+ * <p>The index can be written to and read from a stream as is (with the same byte order), so that it can be
+ * checkpointed to local disk without rehashing the keys.
+ */
+@NotThreadSafe
+public class OffHeapPrimaryKeyIndex implements Closeable {
+  public static final int KEY_SIZE = 16;
+  // Entry layout: key (16 bytes), segment id + 1 (4 bytes, 0 for empty slot), doc id (4 bytes), comparison value
+  // (8 bytes)
+  public static final int ENTRY_SIZE = 32;
+  public static final long DEFAULT_INITIAL_CAPACITY = 1 << 16;
+
+  private static final int SEGMENT_ID_OFFSET = 16;
+  private static final int DOC_ID_OFFSET = 20;
+  private static final int COMPARISON_VALUE_OFFSET = 24;
+  private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+  private final String _description;
+  private PinotDataBuffer _buffer;
+  private long _capacity;
+  private long _mask;
+  private long _size;
+
+  public OffHeapPrimaryKeyIndex(String description) {
+    this(DEFAULT_INITIAL_CAPACITY, description);
+  }
+
+  public OffHeapPrimaryKeyIndex(long capacity, String description) {
+    this(capacity, description, true);
+  }
+
+  private OffHeapPrimaryKeyIndex(long capacity, String description, boolean clear) {
+    Preconditions.checkArgument(capacity > 0 && Long.bitCount(capacity) == 1, "Capacity must be a power of 2, got: %s",
+        capacity);
+    _description = description;
+    _buffer = allocate(capacity);
+    if (clear) {
+      clear(_buffer, capacity);
+    }
+    _capacity = capacity;
+    _mask = capacity - 1;
+  }
+
+  private PinotDataBuffer allocate(long capacity) {
+    return PinotDataBuffer.allocateDirect(capacity * ENTRY_SIZE, PinotDataBuffer.NATIVE_ORDER, _description);
+  }
+
+  // The contents of the direct buffer are not defined, so the slots need to be marked as empty
+  private static void clear(PinotDataBuffer buffer, long capacity) {
+    for (long slot = 0; slot < capacity; slot++) {
+      buffer.putInt(slot * ENTRY_SIZE + SEGMENT_ID_OFFSET, 0);
+    }
+  }
+
+  public long size() {
+    return _size;
+  }
+
+  public long getCapacity() {
+    return _capacity;
+  }
+
+  /**
+   * Returns the slot of the given key, or -1 if the key does not exist.
+   */
+  public long find(byte[] key) {
+    Preconditions.checkArgument(key.length == KEY_SIZE, "Invalid key length: %s", key.length);
+    long high = Longs.fromBytes(key[0], key[1], key[2], key[3], key[4], key[5], key[6], key[7]);
+    long low = Longs.fromBytes(key[8], key[9], key[10], key[11], key[12], key[13], key[14], key[15]);
+    return find(high, low);
+  }
+
+  private long find(long high, long low) {
+    long slot = high & _mask;
+    while (true) {
+      long offset = slot * ENTRY_SIZE;
+      if (_buffer.getInt(offset + SEGMENT_ID_OFFSET) == 0) {
+        return -1;
+      }
+      if (_buffer.getLong(offset) == high && _buffer.getLong(offset + 8) == low) {
+        return slot;
+      }
+      slot = (slot + 1) & _mask;
+    }
+  }
+
+  public int getSegmentId(long slot) {
+    return _buffer.getInt(slot * ENTRY_SIZE + SEGMENT_ID_OFFSET) - 1;
+  }
+
+  public int getDocId(long slot) {
+    return _buffer.getInt(slot * ENTRY_SIZE + DOC_ID_OFFSET);
+  }
+
+  public long getComparisonValue(long slot) {
+    return _buffer.getLong(slot * ENTRY_SIZE + COMPARISON_VALUE_OFFSET);
+  }
+
+  /**
+   * Returns whether the given slot is occupied, which can be used to iterate over the entries from slot 0 to
+   * {@link #getCapacity()}.
+   */
+  public boolean isOccupied(long slot) {
+    return _buffer.getInt(slot * ENTRY_SIZE + SEGMENT_ID_OFFSET) != 0;
+  }
+
+  /**
+   * Returns the key stored in the given slot.
+   */
+  public byte[] getKey(long slot) {
+    long offset = slot * ENTRY_SIZE;
+    byte[] key = new byte[KEY_SIZE];
+    System.arraycopy(Longs.toByteArray(_buffer.getLong(offset)), 0, key, 0, 8);
+    System.arraycopy(Longs.toByteArray(_buffer.getLong(offset + 8)), 0, key, 8, 8);
+    return key;
+  }
+
+  /**
+   * Updates the value of an existing entry.
+   */
+  public void setValue(long slot, int segmentId, int docId, long comparisonValue) {
+    long offset = slot * ENTRY_SIZE;
+    _buffer.putInt(offset + SEGMENT_ID_OFFSET, segmentId + 1);
+    _buffer.putInt(offset + DOC_ID_OFFSET, docId);
+    _buffer.putLong(offset + COMPARISON_VALUE_OFFSET, comparisonValue);
+  }
+
+  /**
+   * Puts the value of the given key, replacing the existing value if the key already exists.
+   */
+  public void put(byte[] key, int segmentId, int docId, long comparisonValue) {
+    Preconditions.checkArgument(key.length == KEY_SIZE, "Invalid key length: %s", key.length);
+    long high = Longs.fromBytes(key[0], key[1], key[2], key[3], key[4], key[5], key[6], key[7]);
+    long low = Longs.fromBytes(key[8], key[9], key[10], key[11], key[12], key[13], key[14], key[15]);
+    long slot = high & _mask;
+    while (true) {
+      long offset = slot * ENTRY_SIZE;
+      if (_buffer.getInt(offset + SEGMENT_ID_OFFSET) == 0) {
+        _buffer.putLong(offset, high);
+        _buffer.putLong(offset + 8, low);
+        setValue(slot, segmentId, docId, comparisonValue);
+        _size++;
+        // Keep the load factor under 0.75
+        if (4 * _size > 3 * _capacity) {
+          resize();
+        }
+        return;
+      }
+      if (_buffer.getLong(offset) == high && _buffer.getLong(offset + 8) == low) {
+        setValue(slot, segmentId, docId, comparisonValue);
+        return;
+      }
+      slot = (slot + 1) & _mask;
+    }
+  }
+
+  /**
+   * Removes the entry in the given slot. Entries after the slot might be shifted backward, so the slots obtained before
+   * the removal should not be used afterwards.
+   */
+  public void removeAt(long slot) {
+    long hole = slot;
+    long next = (slot + 1) & _mask;
+    while (isOccupied(next)) {
+      long idealSlot = _buffer.getLong(next * ENTRY_SIZE) & _mask;
+      // Move the entry into the hole when its ideal slot is not cyclically within (hole, next]
+      if (((next - idealSlot) & _mask) >= ((next - hole) & _mask)) {
+        copyEntry(_buffer, next * ENTRY_SIZE, _buffer, hole * ENTRY_SIZE);
+        hole = next;
+      }
+      next = (next + 1) & _mask;
+    }
+    _buffer.putInt(hole * ENTRY_SIZE + SEGMENT_ID_OFFSET, 0);
+    _size--;
+  }
+
+  /**
+   * Removes the entry of the given key, and returns whether the key exists.
+   */
+  public boolean remove(byte[] key) {
+    long slot = find(key);
+    if (slot < 0) {
+      return false;
+    }
+    removeAt(slot);
+    return true;
+  }
+
+  private void resize() {
+    long capacity = _capacity << 1;
+    long mask = capacity - 1;
+    PinotDataBuffer buffer = allocate(capacity);
+    clear(buffer, capacity);
+    for (long slot = 0; slot < _capacity; slot++) {
+      long offset = slot * ENTRY_SIZE;
+      if (_buffer.getInt(offset + SEGMENT_ID_OFFSET) != 0) {
+        long newSlot = _buffer.getLong(offset) & mask;
+        while (buffer.getInt(newSlot * ENTRY_SIZE + SEGMENT_ID_OFFSET) != 0) {
+          newSlot = (newSlot + 1) & mask;
+        }
+        copyEntry(_buffer, offset, buffer, newSlot * ENTRY_SIZE);
+      }
+    }
+    closeBuffer();
+    _buffer = buffer;
+    _capacity = capacity;
+    _mask = mask;
+  }
+
+  private static void copyEntry(PinotDataBuffer src, long srcOffset, PinotDataBuffer dest, long destOffset) {
+    for (int i = 0; i < ENTRY_SIZE; i += Long.BYTES) {
+      dest.putLong(destOffset + i, src.getLong(srcOffset + i));
+    }
+  }
+
+  /**
+   * Writes the index into the output stream. The entries are written in the native byte order.
+   */
+  public void writeTo(DataOutputStream outputStream)
+      throws IOException {
+    outputStream.writeLong(_capacity);
+    outputStream.writeLong(_size);
+    long numBytes = _capacity * ENTRY_SIZE;
+    byte[] bytes = new byte[(int) Math.min(numBytes, COPY_BUFFER_SIZE)];
+    for (long offset = 0; offset < numBytes; offset += bytes.length) {
+      int length = (int) Math.min(numBytes - offset, bytes.length);
+      _buffer.copyTo(offset, bytes, 0, length);
+      outputStream.write(bytes, 0, length);
+    }
+  }
+
+  /**
+   * Reads the index written by {@link #writeTo(DataOutputStream)} (with the same native byte order) from the input
+   * stream.
+   */
+  public static OffHeapPrimaryKeyIndex readFrom(DataInputStream inputStream, String description)
+      throws IOException {
+    long capacity = inputStream.readLong();
+    long size = inputStream.readLong();
+    Preconditions.checkState(capacity > 0 && Long.bitCount(capacity) == 1 && size >= 0 && size <= capacity,
+        "Invalid primary key index with capacity: %s, size: %s", capacity, size);
+    // All the slots are read from the stream, so no need to clear the buffer
+    OffHeapPrimaryKeyIndex index = new OffHeapPrimaryKeyIndex(capacity, description, false);
+    try {
+      long numBytes = capacity * ENTRY_SIZE;
+      byte[] bytes = new byte[(int) Math.min(numBytes, COPY_BUFFER_SIZE)];
+      for (long offset = 0; offset < numBytes; offset += bytes.length) {
+        int length = (int) Math.min(numBytes - offset, bytes.length);
+        inputStream.readFully(bytes, 0, length);
+        index._buffer.readFrom(offset, bytes, 0, length);
+      }
+    } catch (IOException e) {
+      index.close();
+      throw e;
+    }
+    index._size = size;
+    return index;
+  }
+
+  private void closeBuffer() {
+    try {
+      _buffer.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while closing the primary key index buffer: " + _description, e);
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _buffer.close();
+  }
+}
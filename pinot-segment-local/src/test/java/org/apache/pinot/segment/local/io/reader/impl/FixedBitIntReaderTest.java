@@ -77,6 +77,21 @@ public class FixedBitIntReaderTest {
         for (int i = 0; i < 64; i++) {
           assertEquals(out[i], values[i]);
         }
+        // Bulk read with both aligned and unaligned start and end
+        out = new int[NUM_VALUES + 1];
+        for (int startIndex : new int[]{0, 1, 31, 32}) {
+          int[] endIndexes = {startIndex + 1, startIndex + 2, startIndex + 3, 64, NUM_VALUES - 1, NUM_VALUES};
+          for (int endIndex : endIndexes) {
+            if (endIndex > NUM_VALUES) {
+              continue;
+            }
+            int length = endIndex - startIndex;
+            intReader.read(startIndex, length, out, 1);
+            for (int i = 0; i < length; i++) {
+              assertEquals(out[i + 1], values[startIndex + i]);
+            }
+          }
+        }
       }
     }
   }
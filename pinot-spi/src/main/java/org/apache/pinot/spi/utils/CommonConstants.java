@@ -233,6 +233,13 @@ public class CommonConstants {
     public static final double DEFAULT_BROKER_QUERY_LOG_MAX_RATE_PER_SECOND = 10_000d;
     public static final String CONFIG_OF_BROKER_TIMEOUT_MS = "pinot.broker.timeoutMs";
     public static final long DEFAULT_BROKER_TIMEOUT_MS = 10_000L;
+    // Config for the broker-level result cache for the queries on the OFFLINE tables (and the OFFLINE part of the
+    // hybrid tables). The cache is disabled when the max size is not positive.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES =
+        "pinot.broker.result.cache.max.size.bytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES = 0L;
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_EXPIRE_MS = "pinot.broker.result.cache.expire.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_EXPIRE_MS = 3_600_000L;
     public static final String CONFIG_OF_BROKER_ID = "pinot.broker.instance.id";
     public static final String CONFIG_OF_BROKER_INSTANCE_TAGS = "pinot.broker.instance.tags";
     public static final String CONFIG_OF_BROKER_HOSTNAME = "pinot.broker.hostname";
@@ -342,6 +349,7 @@ public class CommonConstants {
         public static final String TIMEOUT_MS = "timeoutMs";
         public static final String SKIP_UPSERT = "skipUpsert";
         public static final String USE_STAR_TREE = "useStarTree";
+        public static final String USE_RESULT_CACHE = "useResultCache";
         public static final String SCAN_STAR_TREE_NODES = "scanStarTreeNodes";
         public static final String ROUTING_OPTIONS = "routingOptions";
         public static final String USE_SCAN_REORDER_OPTIMIZATION = "useScanReorderOpt";
@@ -363,7 +371,21 @@ public class CommonConstants {
         public static final String NUM_GROUPS_LIMIT = "numGroupsLimit";
         public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "maxInitialResultHolderCapacity";
         public static final String GROUP_TRIM_THRESHOLD = "groupTrimThreshold";
+        public static final String GROUP_BY_SPILL_THRESHOLD = "groupBySpillThreshold";
+        // Bypass the partial (leaf or intermediate) aggregation of the multi-stage engine when the number of groups
+        // reaches the given ratio of the number of input rows after processing the given number of input rows, where
+        // non-positive number of rows disables the bypass
+        public static final String PARTIAL_AGGREGATION_BYPASS_MIN_ROWS = "partialAggregationBypassMinRows";
+        public static final String PARTIAL_AGGREGATION_BYPASS_GROUPS_RATIO = "partialAggregationBypassGroupsRatio";
         public static final String STAGE_PARALLELISM = "stageParallelism";
+        // Priority (positive integer, 1 by default) of the multi-stage query in the cooperative OpChain scheduler on
+        // the servers. When the worker threads are contended, the OpChains of each query get a share of the execution
+        // time proportional to the priority.
+        public static final String SCHEDULING_PRIORITY = "schedulingPriority";
+        // Whether to infer the table partition hints for the multi-stage join (true by default) when both inputs are
+        // scanned from tables partitioned on the join key with the same partition function and number of partitions,
+        // so that the join is colocated without shuffling the data across the servers
+        public static final String INFER_PARTITION_HINT = "inferPartitionHint";
 
         public static final String IN_PREDICATE_PRE_SORTED = "inPredicatePreSorted";
         public static final String IN_PREDICATE_LOOKUP_ALGORITHM = "inPredicateLookupAlgorithm";
@@ -376,6 +398,13 @@ public class CommonConstants {
         // Handle JOIN Overflow
         public static final String MAX_ROWS_IN_JOIN = "maxRowsInJoin";
         public static final String JOIN_OVERFLOW_MODE = "joinOverflowMode";
+        // Maximum number of distinct join keys to push down as IN filter for the dynamic broadcast join, where min/max
+        // range filter is pushed down instead when there are more distinct keys
+        public static final String RUNTIME_FILTER_MAX_IN_LIST_SIZE = "runtimeFilterMaxInListSize";
+
+        // Handle per-query memory budget overflow
+        public static final String MAX_QUERY_MEMORY_BYTES = "maxQueryMemoryBytes";
+        public static final String QUERY_MEMORY_OVERFLOW_MODE = "queryMemoryOverflowMode";
 
         // Indicates the maximum length of the serialized response per server for a query.
         public static final String MAX_SERVER_RESPONSE_SIZE_BYTES = "maxServerResponseSizeBytes";
@@ -1046,6 +1075,19 @@ public class CommonConstants {
       public static final int DEFAULT_AVG_MV_ENTRIES_DENOMINATOR = 2;
     }
 
+    /**
+     * Action taken by the memory intensive operators (group-by, distinct, order-by, join) when the estimated memory
+     * usage of the query exceeds the query memory budget:
+     * <ul>
+     *   <li>THROW: Fail the query with a resource limit exceeded error</li>
+     *   <li>TRIM: Trim the intermediate results and mark the response as partial</li>
+     *   <li>SPILL: Spill the intermediate results to disk when supported by the operator, trim otherwise</li>
+     * </ul>
+     */
+    public enum MemoryOverflowMode {
+      THROW, TRIM, SPILL
+    }
+
     public static class Range {
       public static final char DELIMITER = '\0';
       public static final char LOWER_EXCLUSIVE = '(';
@@ -1079,6 +1121,14 @@ public class CommonConstants {
     public static final String KEY_OF_MAX_INBOUND_QUERY_DATA_BLOCK_SIZE_BYTES = "pinot.query.runner.max.msg.size.bytes";
     public static final int DEFAULT_MAX_INBOUND_QUERY_DATA_BLOCK_SIZE_BYTES = 16 * 1024 * 1024;
 
+    /**
+     * Configuration for sending the data blocks to the remote mailboxes in columnar format, which allows the receiver
+     * to read the values of a column contiguously. All the servers and brokers should be able to read the columnar
+     * data blocks before enabling it.
+     */
+    public static final String KEY_OF_MAILBOX_COLUMNAR_DATA_BLOCK = "pinot.query.runner.mailbox.columnar.data.block";
+    public static final boolean DEFAULT_MAILBOX_COLUMNAR_DATA_BLOCK = false;
+
     /**
      * Configuration for server port, port that opens and accepts
      * {@link org.apache.pinot.query.runtime.plan.DistributedStagePlan} and start executing query stages.
@@ -1094,6 +1144,18 @@ public class CommonConstants {
     public static final String KEY_OF_QUERY_RUNNER_PORT = "pinot.query.runner.port";
     public static final int DEFAULT_QUERY_RUNNER_PORT = 0;
 
+    /**
+     * Configuration for the cooperative OpChain scheduler. The OpChains are executed on a fixed number of threads (more
+     * threads are only added to compensate the threads blocked on the in-memory mailboxes), where an OpChain yields the
+     * thread when waiting for data, and is re-queued after running for the time slice so that the other ready OpChains
+     * can be executed.
+     */
+    public static final String KEY_OF_OPCHAIN_SCHEDULER_NUM_THREADS =
+        "pinot.query.runner.opchain.scheduler.num.threads";
+    public static final String KEY_OF_OPCHAIN_SCHEDULER_TIME_SLICE_MS =
+        "pinot.query.runner.opchain.scheduler.time.slice.ms";
+    public static final long DEFAULT_OPCHAIN_SCHEDULER_TIME_SLICE_MS = 100;
+
     /**
      * Configuration for join overflow.
      */